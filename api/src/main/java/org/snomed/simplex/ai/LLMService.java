@@ -1,5 +1,6 @@
 package org.snomed.simplex.ai;
 
+import com.google.common.util.concurrent.RateLimiter;
 import dev.langchain4j.data.message.UserMessage;
 import dev.langchain4j.model.ModelProvider;
 import dev.langchain4j.model.chat.ChatModel;
@@ -28,11 +29,13 @@ public class LLMService {
 			@Value("${openai.api-key}") String apiKey,
 			@Value("${openai.fast.model-name}") String fastModelName,
 			@Value("${openai.good.model-name}") String goodModelName,
+			@Value("${openai.fast.requests-per-minute:0}") int fastRequestsPerMinute,
+			@Value("${openai.good.requests-per-minute:0}") int goodRequestsPerMinute,
 			LlmUsageService llmUsageService) {
 
 		this.llmUsageService = llmUsageService;
-		fastModel = configureModel(getOpenAiChatModel(apiKey, fastModelName), fastModelName);
-		goodModel = configureModel(getOpenAiChatModel(apiKey, goodModelName), goodModelName);
+		fastModel = configureModel(getOpenAiChatModel(apiKey, fastModelName), fastModelName, fastRequestsPerMinute);
+		goodModel = configureModel(getOpenAiChatModel(apiKey, goodModelName), goodModelName, goodRequestsPerMinute);
 	}
 
 	private static OpenAiChatModel getOpenAiChatModel(String apiKey, String modelName) {
@@ -49,13 +52,21 @@ public class LLMService {
 		return modelBuilder.build();
 	}
 
-	private static ConfiguredChatModel configureModel(ChatModel model, String configuredModelName) {
+	private static ConfiguredChatModel configureModel(ChatModel model, String configuredModelName, int requestsPerMinute) {
 		String provider = providerSlug(model.provider());
-		return new ConfiguredChatModel(model, configuredModelName, provider);
+		// Token bucket, so short bursts are allowed while the average rate stays within the provider limit
+		RateLimiter rateLimiter = requestsPerMinute > 0 ? RateLimiter.create(requestsPerMinute / 60.0) : null;
+		return new ConfiguredChatModel(model, configuredModelName, provider, rateLimiter);
 	}
 
 	public String chat(String message, boolean fast, LlmCallContext context) {
 		ConfiguredChatModel configuredModel = getChatModel(fast);
+		if (configuredModel.rateLimiter() != null) {
+			double waitSeconds = configuredModel.rateLimiter().acquire();
+			if (waitSeconds > 0) {
+				logger.debug("Waited {}s for the {} rate limit", waitSeconds, configuredModel.modelName());
+			}
+		}
 		long start = new Date().getTime();
 		ChatResponse response = configuredModel.model().chat(ChatRequest.builder()
 				.messages(UserMessage.from(message))
@@ -73,6 +84,24 @@ public class LLMService {
 		return text;
 	}
 
+	/**
+	 * @return the configured name of the model used for fast or good requests
+	 */
+	public String getModelName(boolean fast) {
+		return getChatModel(fast).modelName();
+	}
+
+	/**
+	 * Records concepts whose suggestions were served from the suggestion cache, against the model that would otherwise have been called.
+	 */
+	public void recordCacheHits(boolean fast, LlmCallContext context) {
+		if (context == null || context.codesystem() == null || context.codesystem().isBlank() || context.conceptsTranslated() <= 0) {
+			return;
+		}
+		ConfiguredChatModel configuredModel = getChatModel(fast);
+		llmUsageService.recordCacheHits(context.codesystem(), configuredModel.modelName(), configuredModel.provider(), context.conceptsTranslated());
+	}
+
 	private void recordUsage(ConfiguredChatModel configuredModel, ChatResponse response, LlmCallContext context) {
 		if (context == null || context.codesystem() == null || context.codesystem().isBlank()) {
 			return;
@@ -108,6 +137,6 @@ public class LLMService {
 		return fast ? fastModel : goodModel;
 	}
 
-	private record ConfiguredChatModel(ChatModel model, String modelName, String provider) {
+	private record ConfiguredChatModel(ChatModel model, String modelName, String provider, RateLimiter rateLimiter) {
 	}
 }
@@ -35,6 +35,10 @@ public class LlmUsageDaily {
 	@Field(type = FieldType.Long)
 	private long conceptsTranslated;
 
+	// Concepts served from the suggestion cache, without a request to the model
+	@Field(type = FieldType.Long)
+	private long cacheHits;
+
 	public LlmUsageDaily() {
 	}
 
@@ -92,6 +96,14 @@ public class LlmUsageDaily {
 		return conceptsTranslated;
 	}
 
+	public long getCacheHits() {
+		return cacheHits;
+	}
+
+	public void setCacheHits(long cacheHits) {
+		this.cacheHits = cacheHits;
+	}
+
 	public long getTotalTokens() {
 		return inputTokens + outputTokens;
 	}
@@ -0,0 +1,117 @@
+package org.snomed.simplex.client;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.snomed.simplex.exceptions.ServiceException;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static java.lang.String.format;
+
+/**
+ * Polls Snowstorm async jobs from a small shared scheduler rather than a sleeping caller thread.
+ * The poll interval starts short, so quick jobs complete promptly, and doubles up to a maximum for long-running jobs.
+ * <p>
+ * The scheduler only times the polls. Status requests run on a separate executor, so a slow status response does not delay
+ * the polls of other jobs.
+ */
+public class AsyncJobPoller {
+
+	public static final Duration INITIAL_INTERVAL = Duration.ofMillis(250);
+	public static final Duration MAX_INTERVAL = Duration.ofSeconds(10);
+
+	private final ScheduledExecutorService scheduler;
+	private final Executor statusExecutor;
+	private final Duration initialInterval;
+	private final Duration maxInterval;
+
+	private final Logger logger = LoggerFactory.getLogger(getClass());
+
+	/**
+	 * @param statusThreads number of status requests that can run at once
+	 */
+	public AsyncJobPoller(int statusThreads) {
+		this(Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "snowstorm-job-poller");
+			thread.setDaemon(true);
+			return thread;
+		}), Executors.newFixedThreadPool(statusThreads, runnable -> {
+			Thread thread = new Thread(runnable, "snowstorm-job-status");
+			thread.setDaemon(true);
+			return thread;
+		}), INITIAL_INTERVAL, MAX_INTERVAL);
+	}
+
+	AsyncJobPoller(ScheduledExecutorService scheduler, Executor statusExecutor, Duration initialInterval, Duration maxInterval) {
+		this.scheduler = scheduler;
+		this.statusExecutor = statusExecutor;
+		this.initialInterval = initialInterval;
+		this.maxInterval = maxInterval;
+	}
+
+	/**
+	 * @param jobName used in log and error messages
+	 * @param statusCheck called on each poll until it returns true or throws
+	 * @param timeout how long to wait for the job to finish
+	 * @return future that completes when the status check returns true, or completes exceptionally
+	 * if the status check throws or the timeout is reached
+	 */
+	public CompletableFuture<Void> poll(String jobName, StatusCheck statusCheck, Duration timeout) {
+		CompletableFuture<Void> future = new CompletableFuture<>();
+		long deadline = System.nanoTime() + timeout.toNanos();
+		schedule(jobName, statusCheck, deadline, initialInterval, future);
+		return future;
+	}
+
+	private void schedule(String jobName, StatusCheck statusCheck, long deadline, Duration delay, CompletableFuture<Void> future) {
+		scheduler.schedule(() -> {
+			if (future.isDone()) {
+				// Cancelled by the caller
+				return;
+			}
+			try {
+				statusExecutor.execute(() -> check(jobName, statusCheck, deadline, delay, future));
+			} catch (RejectedExecutionException e) {
+				future.completeExceptionally(e);
+			}
+		}, delay.toMillis(), TimeUnit.MILLISECONDS);
+	}
+
+	private void check(String jobName, StatusCheck statusCheck, long deadline, Duration delay, CompletableFuture<Void> future) {
+		if (future.isDone()) {
+			return;
+		}
+		try {
+			if (statusCheck.isComplete()) {
+				future.complete(null);
+			} else if (System.nanoTime() - deadline > 0) {
+				future.completeExceptionally(new ServiceException(format("Timed out while waiting for %s.", jobName)));
+			} else {
+				Duration nextDelay = delay.multipliedBy(2);
+				if (nextDelay.compareTo(maxInterval) > 0) {
+					nextDelay = maxInterval;
+				}
+				logger.debug("{} still running, next check in {}ms.", jobName, nextDelay.toMillis());
+				schedule(jobName, statusCheck, deadline, nextDelay, future);
+			}
+		} catch (Exception e) {
+			future.completeExceptionally(e);
+		}
+	}
+
+	@FunctionalInterface
+	public interface StatusCheck {
+
+		/**
+		 * @return true if the job has completed, false if it is still running
+		 * @throws Exception if the job failed or the status could not be fetched
+		 */
+		boolean isComplete() throws Exception;
+	}
+}
@@ -0,0 +1,128 @@
+package org.snomed.simplex.client;
+
+import org.snomed.simplex.client.domain.Branch;
+import org.snomed.simplex.exceptions.ServiceExceptionWithStatusCode;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Process-wide cache of code system branch metadata, shared by the per-user Snowstorm clients.
+ * <p>
+ * Nothing user specific is held here, code system roles still come from each user's own requests.
+ * Branches are reused for up to the TTL. When a branch is loaded again the cached instance is kept if its head timestamp
+ * and metadata have not changed, so per-user entries built from it stay valid. The default module PT is reused until the branch head moves.
+ */
+public class CodeSystemMetadataCache {
+
+	public static final Duration DEFAULT_TTL = Duration.ofMinutes(10);
+
+	private final long ttlMillis;
+	private final Map<String, CachedBranch> branches = new ConcurrentHashMap<>();
+	private final Map<String, CachedModuleDisplay> moduleDisplays = new ConcurrentHashMap<>();
+	private final Map<String, String> branchPathsByCodeSystem = new ConcurrentHashMap<>();
+
+	private final AtomicLong branchHits = new AtomicLong();
+	private final AtomicLong branchMisses = new AtomicLong();
+	private final AtomicLong moduleDisplayHits = new AtomicLong();
+	private final AtomicLong moduleDisplayMisses = new AtomicLong();
+
+	public CodeSystemMetadataCache() {
+		this(DEFAULT_TTL);
+	}
+
+	public CodeSystemMetadataCache(Duration ttl) {
+		this.ttlMillis = ttl.toMillis();
+	}
+
+	@FunctionalInterface
+	public interface BranchLoader {
+		Branch load() throws ServiceExceptionWithStatusCode;
+	}
+
+	/**
+	 * @return the cached branch if it was loaded within the TTL, otherwise the branch from the loader
+	 */
+	public Branch getBranch(String codeSystemShortName, String branchPath, BranchLoader loader) throws ServiceExceptionWithStatusCode {
+		CachedBranch cached = branches.get(branchPath);
+		if (cached != null && !isExpired(cached)) {
+			branchHits.incrementAndGet();
+			return cached.branch();
+		}
+		branchMisses.incrementAndGet();
+		return putBranch(codeSystemShortName, branchPath, loader.load());
+	}
+
+	/**
+	 * Stores a branch that has just been loaded.
+	 * @return the cached instance, which is the previous one if the head timestamp and metadata are unchanged
+	 */
+	public Branch putBranch(String codeSystemShortName, String branchPath, Branch branch) {
+		branchPathsByCodeSystem.put(codeSystemShortName, branchPath);
+		long now = System.currentTimeMillis();
+		return branches.compute(branchPath, (path, cached) -> {
+			if (cached != null && Objects.equals(cached.branch().getHeadTimestamp(), branch.getHeadTimestamp())
+					&& Objects.equals(cached.branch().getMetadata(), branch.getMetadata())) {
+				return new CachedBranch(cached.branch(), now);
+			}
+			return new CachedBranch(branch, now);
+		}).branch();
+	}
+
+	/**
+	 * @return true if the branch is the instance currently cached for its path, so anything derived from it is up to date
+	 */
+	public boolean isCurrent(String branchPath, Branch branch) {
+		CachedBranch cached = branches.get(branchPath);
+		return cached != null && cached.branch() == branch && !isExpired(cached);
+	}
+
+	public String getModuleDisplay(String branchPath, String moduleId, Long headTimestamp, Supplier<String> loader) {
+		CachedModuleDisplay cached = moduleDisplays.get(branchPath);
+		if (cached != null && cached.moduleId().equals(moduleId) && Objects.equals(cached.headTimestamp(), headTimestamp)) {
+			moduleDisplayHits.incrementAndGet();
+			return cached.display();
+		}
+		moduleDisplayMisses.incrementAndGet();
+		String display = loader.get();
+		if (display != null) {
+			moduleDisplays.put(branchPath, new CachedModuleDisplay(moduleId, headTimestamp, display));
+		}
+		return display;
+	}
+
+	/**
+	 * Evicts the branch of a code system for all users.
+	 */
+	public void invalidateCodeSystem(String codeSystemShortName) {
+		String branchPath = branchPathsByCodeSystem.get(codeSystemShortName);
+		if (branchPath != null) {
+			invalidateBranch(branchPath);
+		}
+	}
+
+	public void invalidateBranch(String branchPath) {
+		branches.remove(branchPath);
+	}
+
+	public Stats getStats() {
+		return new Stats(branchHits.get(), branchMisses.get(), moduleDisplayHits.get(), moduleDisplayMisses.get(), branches.size());
+	}
+
+	private boolean isExpired(CachedBranch cached) {
+		return System.currentTimeMillis() - cached.loadedAt() >= ttlMillis;
+	}
+
+	public record Stats(long branchHits, long branchMisses, long moduleDisplayHits, long moduleDisplayMisses, int cachedBranches) {
+	}
+
+	private record CachedBranch(Branch branch, long loadedAt) {
+	}
+
+	private record CachedModuleDisplay(String moduleId, Long headTimestamp, String display) {
+	}
+}
@@ -3,30 +3,50 @@ package org.snomed.simplex.client;
 import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.snomed.simplex.client.domain.Concept;
 import org.snomed.simplex.client.domain.ConceptMini;
+import org.snomed.simplex.client.domain.Concepts;
+import org.snomed.simplex.client.domain.Relationship;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
 
 import static java.lang.Boolean.TRUE;
 
+/**
+ * Streams the concepts matching the focus ECL and their descendants, depth-first with children in case-insensitive term order.
+ * <p>
+ * In batched mode the whole sub-hierarchy is fetched up front with one descendant search, its inferred parents are loaded in
+ * chunks, and the tree is walked locally. Otherwise the children of each non-leaf concept are fetched as the walk reaches it.
+ */
 public class ConceptSortedHierarchyStream implements Supplier<ConceptMini> {
 
+	private static final int PARENT_LOAD_BATCH_SIZE = 1_000;
+	private static final Comparator<ConceptMini> TERM_ORDER = Comparator.comparing(c -> c.getPtOrFsnOrConceptId().toLowerCase());
+
 	private final String branch;
 	private final String focusConcept;
 	private final SnowstormClient snowstormClient;
+	private final boolean batched;
 
 	private Deque<List<ConceptMini>> stack = null;
+	private Map<String, List<ConceptMini>> childrenByParent;
 	private final Set<Long> coveredConcepts = new LongOpenHashSet();
-	private int apiHits;
+	// Counted as each page is requested
+	private final AtomicInteger apiHits = new AtomicInteger();
 
 	private final Logger logger = LoggerFactory.getLogger(getClass());
 
 	public ConceptSortedHierarchyStream(String branch, String focusConcept, SnowstormClient snowstormClient) {
+		this(branch, focusConcept, snowstormClient, false);
+	}
+
+	public ConceptSortedHierarchyStream(String branch, String focusConcept, SnowstormClient snowstormClient, boolean batched) {
 		this.branch = branch;
 		this.focusConcept = focusConcept;
 		this.snowstormClient = snowstormClient;
-		apiHits = 0;
+		this.batched = batched;
 	}
 
 	@Override
@@ -34,34 +54,25 @@ public class ConceptSortedHierarchyStream implements Supplier<ConceptMini> {
 		if (stack == null) {
 			// Create stack with just focus concept
 			stack = new ArrayDeque<>();
-			List<ConceptMini> conceptList = snowstormClient.getConceptList(branch, focusConcept);
-			apiHits++;
-			stack.push(conceptList);
+			stack.push(drain(snowstormClient.getConceptStream(branch, focusConcept, apiHits::incrementAndGet)));
+			if (batched) {
+				loadHierarchy();
+			}
 		}
 
 		ConceptMini nextConcept;
 		do {
 			nextConcept = getNextConceptFromStack(stack);
 			if (nextConcept == null) {
-				logger.info("Completed concept stream using focus concept {}, {} API calls were made.", focusConcept, apiHits);
+				logger.info("Completed concept stream using focus concept {}, {} API calls were made.", focusConcept, apiHits.get());
 				return null;
 			}
 		} while(coveredConcepts.contains(Long.parseLong(nextConcept.getConceptId())));
 
 		// Load children of this concept and add to list
-		Object isLeafInferred = nextConcept.getExtraFields().get("isLeafInferred");
-		if (isLeafInferred != TRUE) {
-			Supplier<ConceptMini> children = snowstormClient.getConceptStream(branch, "<!" + nextConcept.getConceptId());
-			apiHits++;
-			List<ConceptMini> childrenList = new ArrayList<>();
-			ConceptMini child;
-			while ((child = children.get()) != null) {
-				childrenList.add(child);
-			}
-			if (!childrenList.isEmpty()) {
-				childrenList.sort(Comparator.comparing(c -> c.getPtOrFsnOrConceptId().toLowerCase()));
-				stack.push(childrenList);
-			}
+		List<ConceptMini> childrenList = batched ? childrenByParent.remove(nextConcept.getConceptId()) : fetchChildren(nextConcept);
+		if (childrenList != null && !childrenList.isEmpty()) {
+			stack.push(childrenList);
 		}
 
 		coveredConcepts.add(Long.parseLong(nextConcept.getConceptId()));
@@ -74,6 +85,56 @@ public class ConceptSortedHierarchyStream implements Supplier<ConceptMini> {
 		return nextConcept;
 	}
 
+	private List<ConceptMini> fetchChildren(ConceptMini concept) {
+		if (concept.getExtraFields() != null && concept.getExtraFields().get("isLeafInferred") == TRUE) {
+			return null;
+		}
+		List<ConceptMini> childrenList = drain(snowstormClient.getConceptStream(branch, "<!" + concept.getConceptId(), apiHits::incrementAndGet));
+		childrenList.sort(TERM_ORDER);
+		return childrenList;
+	}
+
+	private void loadHierarchy() {
+		Map<String, ConceptMini> subHierarchy = new HashMap<>();
+		for (ConceptMini concept : drain(snowstormClient.getConceptStream(branch, "<< (" + focusConcept + ")", apiHits::incrementAndGet))) {
+			subHierarchy.put(concept.getConceptId(), concept);
+		}
+
+		// Concept minis carry no parents, so load them from the browser format. Parents outside the sub-hierarchy are ignored.
+		childrenByParent = new HashMap<>();
+		List<Long> conceptIds = subHierarchy.keySet().stream().map(Long::parseLong).toList();
+		for (int from = 0; from < conceptIds.size(); from += PARENT_LOAD_BATCH_SIZE) {
+			List<Long> batch = conceptIds.subList(from, Math.min(from + PARENT_LOAD_BATCH_SIZE, conceptIds.size()));
+			apiHits.incrementAndGet();
+			for (Concept loaded : snowstormClient.loadBrowserFormatConcepts(batch, branch)) {
+				ConceptMini child = subHierarchy.get(loaded.getConceptId());
+				if (child != null && loaded.getRelationships() != null) {
+					for (Relationship relationship : loaded.getRelationships()) {
+						if (isActiveInferredIsA(relationship) && subHierarchy.containsKey(relationship.getDestinationId())) {
+							childrenByParent.computeIfAbsent(relationship.getDestinationId(), k -> new ArrayList<>()).add(child);
+						}
+					}
+				}
+			}
+		}
+		childrenByParent.values().forEach(children -> children.sort(TERM_ORDER));
+		logger.info("Loaded sub-hierarchy of {} concepts using focus concept {}.", subHierarchy.size(), focusConcept);
+	}
+
+	private static boolean isActiveInferredIsA(Relationship relationship) {
+		return relationship.isActive() && Concepts.IS_A.equals(relationship.getTypeId())
+				&& "INFERRED_RELATIONSHIP".equals(relationship.getCharacteristicType());
+	}
+
+	private static List<ConceptMini> drain(Supplier<ConceptMini> concepts) {
+		List<ConceptMini> list = new ArrayList<>();
+		ConceptMini concept;
+		while ((concept = concepts.get()) != null) {
+			list.add(concept);
+		}
+		return list;
+	}
+
 	private ConceptMini getNextConceptFromStack(Deque<List<ConceptMini>> stack) {
 		List<ConceptMini> deepestList = null;
 		while (!stack.isEmpty() && (deepestList = stack.peek()) != null && deepestList.isEmpty()) {
@@ -0,0 +1,316 @@
+package org.snomed.simplex.client;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.snomed.simplex.exceptions.ServiceException;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Process-wide cache of Snowstorm RF2 export archives on local disk, shared by the per-user Snowstorm clients.
+ * <p>
+ * Archives are keyed by branch path and head timestamp together with the export options, so a cached archive is only
+ * reused while the branch has not changed. When the total size goes over the limit the least recently used archives
+ * are deleted. Concurrent requests for the same key wait for a single export rather than each starting their own.
+ * <p>
+ * Each cache writes to its own subdirectory, so several processes can be given the same directory. Archives are deleted
+ * by {@link #close()}. A cache holds a lock on a file in its subdirectory while it is open, and the subdirectories left
+ * behind by processes that stopped without closing their cache are deleted when the next cache is created.
+ */
+public class Rf2ExportCache {
+
+	private static final String DIRECTORY_PREFIX = "rf2-export-cache-";
+	private static final String FILE_PREFIX = "rf2-export-";
+	private static final String FILE_SUFFIX = ".zip";
+	private static final String LOCK_FILE = ".lock";
+	// Subdirectories without a lock file may belong to a cache that is still being created
+	private static final Duration UNLOCKED_DIRECTORY_MAX_AGE = Duration.ofHours(1);
+
+	private final File directory;
+	private final FileChannel lockChannel;
+	private final long maxBytes;
+	// Access ordered, so iteration starts with the least recently used archive
+	private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+	private final Map<Key, InFlightExport> inFlight = new HashMap<>();
+	private long totalBytes;
+	private final Logger logger = LoggerFactory.getLogger(getClass());
+
+	/**
+	 * @param directory parent of the new subdirectory where this cache stores its archives
+	 * @param maxBytes total size of the archives to keep
+	 */
+	public Rf2ExportCache(File directory, long maxBytes) throws IOException {
+		Files.createDirectories(directory.toPath());
+		this.directory = Files.createTempDirectory(directory.toPath(), DIRECTORY_PREFIX).toFile();
+		this.lockChannel = FileChannel.open(this.directory.toPath().resolve(LOCK_FILE), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+		// Held until the cache is closed, or released by the operating system when the process stops
+		lockChannel.lock();
+		this.maxBytes = maxBytes;
+		deleteStaleDirectories(directory.toPath());
+	}
+
+	/**
+	 * Everything that changes the content of an export.
+	 */
+	public record Key(String branchPath, long headTimestamp, SnowstormClient.ExportType exportType, List<String> moduleIds,
+			boolean languageOnly, String transientEffectiveTime) {
+
+		public static Key of(long headTimestamp, SnowstormExportConfiguration exportConfiguration) {
+			List<String> moduleIds = exportConfiguration.getModuleIds() != null
+					? exportConfiguration.getModuleIds().stream().sorted().distinct().toList()
+					: List.of();
+			return new Key(exportConfiguration.getCodeSystem().getWorkingBranchPath(), headTimestamp, exportConfiguration.getExportType(),
+					moduleIds, exportConfiguration.isLanguageOnly(), exportConfiguration.getTransientEffectiveTime());
+		}
+	}
+
+	@FunctionalInterface
+	public interface Exporter {
+		void export(OutputStream outputStream) throws ServiceException;
+	}
+
+	/**
+	 * Writes the archive for the key to the output stream. The exporter is only called when there is no cached archive
+	 * and no export for the same key in progress.
+	 */
+	public void copyTo(Key key, OutputStream outputStream, Exporter exporter) throws ServiceException {
+		Entry entry = acquire(key, exporter);
+		try {
+			Files.copy(entry.file().toPath(), outputStream);
+		} catch (IOException e) {
+			throw new ServiceException("Failed to copy cached RF2 export.", e);
+		} finally {
+			release(entry);
+		}
+	}
+
+	/**
+	 * Deletes the cached archives and the subdirectory of this cache.
+	 */
+	public synchronized void close() {
+		for (Entry entry : entries.values()) {
+			deleteFile(entry.file());
+		}
+		entries.clear();
+		totalBytes = 0;
+		try {
+			lockChannel.close();
+		} catch (IOException e) {
+			logger.warn("Failed to release RF2 export cache lock {}", directory.getAbsolutePath(), e);
+		}
+		deleteFile(new File(directory, LOCK_FILE));
+		deleteFile(directory);
+	}
+
+	private void deleteStaleDirectories(Path parent) {
+		try (DirectoryStream<Path> siblings = Files.newDirectoryStream(parent, DIRECTORY_PREFIX + "*")) {
+			for (Path sibling : siblings) {
+				if (Files.isDirectory(sibling) && !sibling.equals(directory.toPath())) {
+					deleteIfStale(sibling);
+				}
+			}
+		} catch (IOException e) {
+			logger.warn("Failed to look for stale RF2 export caches in {}", parent, e);
+		}
+	}
+
+	private void deleteIfStale(Path cacheDirectory) {
+		try {
+			if (isStale(cacheDirectory)) {
+				deleteDirectory(cacheDirectory);
+				logger.info("Deleted RF2 export cache {} left by a process that has stopped.", cacheDirectory);
+			}
+		} catch (IOException e) {
+			logger.warn("Failed to delete stale RF2 export cache {}", cacheDirectory, e);
+		}
+	}
+
+	private static boolean isStale(Path cacheDirectory) throws IOException {
+		Path lockFile = cacheDirectory.resolve(LOCK_FILE);
+		if (!Files.exists(lockFile)) {
+			return Files.getLastModifiedTime(cacheDirectory).toInstant().isBefore(Instant.now().minus(UNLOCKED_DIRECTORY_MAX_AGE));
+		}
+		try (FileChannel channel = FileChannel.open(lockFile, StandardOpenOption.WRITE)) {
+			FileLock lock = channel.tryLock();
+			return lock != null;
+		} catch (OverlappingFileLockException e) {
+			// Locked by another cache in this process
+			return false;
+		}
+	}
+
+	private void deleteDirectory(Path cacheDirectory) throws IOException {
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(cacheDirectory)) {
+			for (Path file : files) {
+				deleteFile(file.toFile());
+			}
+		}
+		deleteFile(cacheDirectory.toFile());
+	}
+
+	private Entry acquire(Key key, Exporter exporter) throws ServiceException {
+		InFlightExport export;
+		boolean exportHere = false;
+		synchronized (this) {
+			Entry entry = entries.get(key);
+			if (entry != null) {
+				entry.readers++;
+				return entry;
+			}
+			export = inFlight.get(key);
+			if (export == null) {
+				export = new InFlightExport();
+				inFlight.put(key, export);
+				exportHere = true;
+			} else {
+				export.waiting++;
+			}
+		}
+		if (exportHere) {
+			return export(key, exporter, export);
+		}
+		return awaitExport(key, export);
+	}
+
+	private Entry export(Key key, Exporter exporter, InFlightExport export) throws ServiceException {
+		File file = null;
+		try {
+			file = File.createTempFile(FILE_PREFIX, FILE_SUFFIX, directory);
+			try (OutputStream fileOutputStream = new FileOutputStream(file)) {
+				exporter.export(fileOutputStream);
+			}
+			Entry entry = add(key, file, export);
+			export.result.complete(entry);
+			return entry;
+		} catch (IOException e) {
+			ServiceException serviceException = new ServiceException("Failed to write RF2 export to the export cache.", e);
+			failExport(key, export, file, serviceException);
+			throw serviceException;
+		} catch (ServiceException | RuntimeException e) {
+			failExport(key, export, file, e);
+			throw e;
+		}
+	}
+
+	private Entry awaitExport(Key key, InFlightExport export) throws ServiceException {
+		Entry entry = null;
+		try {
+			entry = export.result.get();
+			return entry;
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof ServiceException serviceException) {
+				throw serviceException;
+			}
+			throw new ServiceException("RF2 export of %s failed.".formatted(key.branchPath()), e.getCause());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new ServiceException("Interrupted while waiting for RF2 export of %s.".formatted(key.branchPath()), e);
+		} finally {
+			if (entry == null) {
+				abandon(export);
+			}
+		}
+	}
+
+	/**
+	 * Gives back the read reserved for a request that stopped waiting, whether or not the export has been added yet.
+	 */
+	private synchronized void abandon(InFlightExport export) {
+		if (export.entry != null) {
+			release(export.entry);
+		} else {
+			export.waiting--;
+		}
+	}
+
+	private synchronized Entry add(Key key, File file, InFlightExport export) {
+		inFlight.remove(key);
+		// Held by this request and every request that joined it, so it can not be evicted before they have read it
+		Entry entry = new Entry(file, file.length(), 1 + export.waiting);
+		export.entry = entry;
+		entries.put(key, entry);
+		totalBytes += entry.size();
+		evict();
+		return entry;
+	}
+
+	private void failExport(Key key, InFlightExport export, File file, Exception e) {
+		synchronized (this) {
+			inFlight.remove(key);
+		}
+		export.result.completeExceptionally(e);
+		if (file != null) {
+			deleteFile(file);
+		}
+	}
+
+	private synchronized void release(Entry entry) {
+		entry.readers--;
+		evict();
+	}
+
+	private void evict() {
+		Iterator<Map.Entry<Key, Entry>> iterator = entries.entrySet().iterator();
+		while (totalBytes > maxBytes && iterator.hasNext()) {
+			Map.Entry<Key, Entry> cached = iterator.next();
+			Entry entry = cached.getValue();
+			if (entry.readers == 0) {
+				iterator.remove();
+				totalBytes -= entry.size();
+				deleteFile(entry.file());
+				logger.info("Evicted RF2 export of {} at {} from the export cache.", cached.getKey().branchPath(), cached.getKey().headTimestamp());
+			}
+		}
+	}
+
+	private void deleteFile(File file) {
+		try {
+			Files.deleteIfExists(file.toPath());
+		} catch (IOException e) {
+			logger.warn("Failed to delete cached RF2 export {}", file.getAbsolutePath(), e);
+		}
+	}
+
+	private static final class Entry {
+
+		private final File file;
+		private final long size;
+		private int readers;
+
+		private Entry(File file, long size, int readers) {
+			this.file = file;
+			this.size = size;
+			this.readers = readers;
+		}
+
+		private File file() {
+			return file;
+		}
+
+		private long size() {
+			return size;
+		}
+	}
+
+	private static final class InFlightExport {
+
+		private final CompletableFuture<Entry> result = new CompletableFuture<>();
+		private int waiting;
+		private Entry entry;
+	}
+}
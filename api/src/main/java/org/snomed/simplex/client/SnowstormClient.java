@@ -1,5 +1,6 @@
 package org.snomed.simplex.client;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.collect.Iterables;
@@ -13,6 +14,7 @@ import org.snomed.simplex.exceptions.RuntimeServiceException;
 import org.snomed.simplex.exceptions.ServiceException;
 import org.snomed.simplex.exceptions.ServiceExceptionWithStatusCode;
 import org.snomed.simplex.rest.pojos.CodeSystemUpgradeRequest;
+import org.snomed.simplex.service.ProgressMonitor;
 import org.snomed.simplex.service.StreamUtils;
 import org.snomed.simplex.util.CollectionUtils;
 import org.springframework.boot.http.client.ClientHttpRequestFactoryBuilder;
@@ -31,7 +33,7 @@ import java.io.OutputStream;
 import java.net.URI;
 import java.time.Duration;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.*;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
@@ -60,7 +62,28 @@ public class SnowstormClient {
 	/**
 	 * Cache TTL for CodeSystem objects: 10 minutes
 	 */
-	private static final long CACHE_TTL_MS = Duration.ofMinutes(10).toMillis();
+	private static final long CACHE_TTL_MS = CodeSystemMetadataCache.DEFAULT_TTL.toMillis();
+
+	// Runs requests in the background, such as fetching the next page of a paged load while the caller processes the current one
+	private static final ExecutorService REQUEST_EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+		Thread thread = new Thread(runnable, "snowstorm-request");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	// Bounded so that listing many code systems does not send Snowstorm a burst of concurrent branch requests
+	private static final int CODE_SYSTEM_DETAIL_THREADS = 8;
+	private static final ExecutorService CODE_SYSTEM_DETAIL_EXECUTOR = Executors.newFixedThreadPool(CODE_SYSTEM_DETAIL_THREADS, runnable -> {
+		Thread thread = new Thread(runnable, "snowstorm-code-system-detail");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	private static final AsyncJobPoller JOB_POLLER = new AsyncJobPoller(2);
+	private static final Duration ASYNC_JOB_TIMEOUT = Duration.ofHours(1);
+	private static final int DELETE_BATCH_SIZE = 1_000;
+	public static final int DEFAULT_BULK_CHUNK_SIZE = 5_000;
+	public static final int DEFAULT_MAX_BULK_JOBS_IN_FLIGHT = 1;
 
 	private final ParameterizedTypeReference<Page<RefsetMember>> responseTypeRefsetPage = new ParameterizedTypeReference<>(){};
 	private final ParameterizedTypeReference<Page<CodeSystem>> responseTypeCodeSystemPage = new ParameterizedTypeReference<>(){};
@@ -72,15 +95,45 @@ public class SnowstormClient {
 	private final ObjectMapper objectMapper;
 	private final Map<String, String> workingBranches;
 	private final Map<String, CachedCodeSystem> codeSystemCache;
+	private final CodeSystemMetadataCache codeSystemMetadataCache;
+	private final Rf2ExportCache rf2ExportCache;
 	private final int maxFetches;
+	private final int bulkChunkSize;
+	private final int maxBulkJobsInFlight;
 
 	private static final Logger logger = LoggerFactory.getLogger(SnowstormClient.class);
 
 	public SnowstormClient(String snowstormUrl, String authenticationToken, String userAgent, ObjectMapper objectMapper, int maxFetches) {
+		this(snowstormUrl, authenticationToken, userAgent, objectMapper, maxFetches, DEFAULT_BULK_CHUNK_SIZE, DEFAULT_MAX_BULK_JOBS_IN_FLIGHT);
+	}
+
+	public SnowstormClient(String snowstormUrl, String authenticationToken, String userAgent, ObjectMapper objectMapper, int maxFetches,
+			int bulkChunkSize, int maxBulkJobsInFlight) {
+		this(snowstormUrl, authenticationToken, userAgent, objectMapper, maxFetches, bulkChunkSize, maxBulkJobsInFlight, new CodeSystemMetadataCache());
+	}
+
+	/**
+	 * @param codeSystemMetadataCache branch metadata cache, shared with the clients of other users of the same Snowstorm
+	 */
+	public SnowstormClient(String snowstormUrl, String authenticationToken, String userAgent, ObjectMapper objectMapper, int maxFetches,
+			int bulkChunkSize, int maxBulkJobsInFlight, CodeSystemMetadataCache codeSystemMetadataCache) {
+		this(snowstormUrl, authenticationToken, userAgent, objectMapper, maxFetches, bulkChunkSize, maxBulkJobsInFlight, codeSystemMetadataCache, null);
+	}
+
+	/**
+	 * @param rf2ExportCache RF2 export archive cache, shared with the clients of other users of the same Snowstorm, or null to export every time
+	 */
+	public SnowstormClient(String snowstormUrl, String authenticationToken, String userAgent, ObjectMapper objectMapper, int maxFetches,
+			int bulkChunkSize, int maxBulkJobsInFlight, CodeSystemMetadataCache codeSystemMetadataCache, Rf2ExportCache rf2ExportCache) {
+
 		this.maxFetches = maxFetches;
+		this.bulkChunkSize = Math.max(1, bulkChunkSize);
+		this.maxBulkJobsInFlight = Math.max(1, maxBulkJobsInFlight);
 		this.objectMapper = objectMapper;
-		this.workingBranches = new HashMap<>();
+		this.workingBranches = new ConcurrentHashMap<>();
 		this.codeSystemCache = new ConcurrentHashMap<>();
+		this.codeSystemMetadataCache = codeSystemMetadataCache;
+		this.rf2ExportCache = rf2ExportCache;
 
 		if (Strings.isBlank(snowstormUrl)) {
 			throw new IllegalStateException("Snowstorm URL is not yet configured");
@@ -110,9 +163,6 @@ public class SnowstormClient {
 			throwIfNull(body, "CodeSystem list");
 			for (CodeSystem codeSystem : body.getItems()) {
 				if (!codeSystem.isPostcoordinated()) {
-					if (includeDetails) {
-						addCodeSystemBranchInfo(codeSystem);
-					}
 					if (codeSystem.getName() == null) {
 						logger.info("The name of CodeSystem {} must be set before it can be used.", codeSystem.getShortName());
 						continue;
@@ -120,6 +170,9 @@ public class SnowstormClient {
 					items.add(codeSystem);
 				}
 			}
+			if (includeDetails) {
+				addCodeSystemBranchInfo(items);
+			}
 			items.sort(Comparator.comparing(CodeSystem::getName));
 			return items;
 		} catch (HttpStatusCodeException e) {
@@ -166,7 +219,7 @@ public class SnowstormClient {
 			if (codeSystem == null) {
 				throw notFoundException;
 			}
-			addCodeSystemBranchInfo(codeSystem);
+			addCodeSystemBranchInfo(codeSystem, true);
 			// Store in cache
 			codeSystemCache.put(codesystemShortName, new CachedCodeSystem(codeSystem, System.currentTimeMillis()));
 			return codeSystem;
@@ -177,16 +230,42 @@ public class SnowstormClient {
 		}
 	}
 
-	private void addCodeSystemBranchInfo(CodeSystem codeSystem) throws ServiceExceptionWithStatusCode {
+	/**
+	 * Adds branch info to each code system, loading branches on a bounded executor rather than one after another.
+	 */
+	private void addCodeSystemBranchInfo(List<CodeSystem> codeSystems) throws ServiceException {
+		List<Future<Void>> futures = new ArrayList<>();
+		for (CodeSystem codeSystem : codeSystems) {
+			futures.add(CODE_SYSTEM_DETAIL_EXECUTOR.submit(() -> {
+				addCodeSystemBranchInfo(codeSystem, false);
+				return null;
+			}));
+		}
+		try {
+			for (int i = 0; i < futures.size(); i++) {
+				await(futures.get(i), "branch info of code system " + codeSystems.get(i).getShortName());
+			}
+		} finally {
+			futures.forEach(future -> future.cancel(true));
+		}
+	}
+
+	/**
+	 * @param reuseCachedBranch use the branch from the shared metadata cache if it is fresh, otherwise load the branch
+	 * and refresh the cache with it
+	 */
+	private void addCodeSystemBranchInfo(CodeSystem codeSystem, boolean reuseCachedBranch) throws ServiceExceptionWithStatusCode {
 		String branchPath = codeSystem.getBranchPath();
-		Branch branch = getBranchOrThrow(branchPath);
+		String shortName = codeSystem.getShortName();
+		Branch branch = reuseCachedBranch ?
+				codeSystemMetadataCache.getBranch(shortName, branchPath, () -> getBranchOrThrow(branchPath)) :
+				codeSystemMetadataCache.putBranch(shortName, branchPath, getBranchOrThrow(branchPath));
 		codeSystem.setBranchObject(branch);
 		String defaultModule = branch.getDefaultModule();
 		codeSystem.setContentHeadTimestamp(branch.getHeadTimestamp());
 		codeSystem.setDefaultModule(defaultModule);
 		if (defaultModule != null) {
-			String pt = getPT(codeSystem, defaultModule).orElse(null);
-			codeSystem.setDefaultModuleDisplay(pt);
+			codeSystem.setDefaultModuleDisplay(getDefaultModuleDisplay(codeSystem, defaultModule, branch.getHeadTimestamp()));
 		}
 		codeSystem.setSimplexWorkingBranch(workingBranches.get(codeSystem.getShortName()));
 		codeSystem.setNamespace(branch.getMetadataValue(Branch.DEFAULT_NAMESPACE_METADATA_KEY));
@@ -209,16 +288,22 @@ public class SnowstormClient {
 		codeSystemCache.put(codeSystem.getShortName(), new CachedCodeSystem(codeSystem, System.currentTimeMillis()));
 	}
 
+	/**
+	 * The module PT can only change with a new commit, so it is reused until the branch head moves.
+	 */
+	private String getDefaultModuleDisplay(CodeSystem codeSystem, String defaultModule, Long headTimestamp) {
+		return codeSystemMetadataCache.getModuleDisplay(codeSystem.getWorkingBranchPath(), defaultModule, headTimestamp,
+				() -> getPT(codeSystem, defaultModule).orElse(null));
+	}
+
 	private void clearOldMetadata(Branch branch) {
+		// The branch may be the instance held in the shared metadata cache, so it is left as it is and a copy is saved
 		Map<String, Object> metadata = branch.getMetadata();
-		boolean change = false;
-		if (metadata.get(Branch.OLD_KEY_PREVIOUS_DEPENDENCY_PACKAGE_METADATA_KEY) != null) {
-			metadata.remove(Branch.OLD_KEY_PREVIOUS_DEPENDENCY_PACKAGE_METADATA_KEY);
-			change = true;
-		}
-		if (change) {
+		if (metadata != null && metadata.get(Branch.OLD_KEY_PREVIOUS_DEPENDENCY_PACKAGE_METADATA_KEY) != null) {
+			Map<String, Object> updatedMetadata = new HashMap<>(metadata);
+			updatedMetadata.remove(Branch.OLD_KEY_PREVIOUS_DEPENDENCY_PACKAGE_METADATA_KEY);
 			logger.info("Clearing old code system metadata for {}", branch.getPath());
-			saveAllBranchMetadata(branch.getPath(), metadata);
+			saveAllBranchMetadata(branch.getPath(), updatedMetadata);
 		}
 	}
 
@@ -280,7 +365,12 @@ public class SnowstormClient {
 				workingBranch = null;
 			}
 		}
-		workingBranches.put(codeSystem.getShortName(), workingBranch);
+		// Read by the code system detail threads, and a concurrent map can not hold null
+		if (workingBranch != null) {
+			workingBranches.put(codeSystem.getShortName(), workingBranch);
+		} else {
+			workingBranches.remove(codeSystem.getShortName());
+		}
 	}
 
 	private boolean isBranchExists(String branchPath) {
@@ -316,7 +406,7 @@ public class SnowstormClient {
 	public void updateCodeSystem(CodeSystem codeSystem) {
 		restTemplate.exchange(format(CODESYSTEM_ENDPOINT, codeSystem.getShortName()), HttpMethod.PUT, new HttpEntity<>(codeSystem), CodeSystem.class);
 		// Invalidate cache after update
-		codeSystemCache.remove(codeSystem.getShortName());
+		invalidateCodeSystemCache(codeSystem.getShortName());
 	}
 
 	public void versionCodeSystem(CodeSystem codeSystem, String effectiveTime) {
@@ -335,11 +425,15 @@ public class SnowstormClient {
 	public void deleteCodeSystem(String shortName) {
 		restTemplate.delete(format(CODESYSTEM_ENDPOINT, shortName));
 		// Invalidate cache after deletion
-		codeSystemCache.remove(shortName);
+		invalidateCodeSystemCache(shortName);
 	}
 
+	/**
+	 * Evicts the code system for all users, through the shared branch metadata cache.
+	 */
 	public void invalidateCodeSystemCache(String codeSystemShortName) {
 		codeSystemCache.remove(codeSystemShortName);
+		codeSystemMetadataCache.invalidateCodeSystem(codeSystemShortName);
 	}
 
 	public void setAuthorPermissions(CodeSystem newCodeSystem, String groupName) {
@@ -353,11 +447,13 @@ public class SnowstormClient {
 
 	public void upsertBranchMetadata(String branchPath, Map<String, String> newBranchMetadata) {
 		restTemplate.exchange(format("/branches/%s/metadata-upsert", branchPath), HttpMethod.PUT, new HttpEntity<>(newBranchMetadata), Void.class);
+		codeSystemMetadataCache.invalidateBranch(branchPath);
 	}
 
 	public void saveAllBranchMetadata(String branchPath, Map<String, Object> allBranchMetadata) {
 		Map<String, Map<String, Object>> metdataUpdateRequest = Map.of("metadata", allBranchMetadata);
 		restTemplate.exchange(format(BRANCH_X_ENDPOINT, branchPath), HttpMethod.PUT, new HttpEntity<>(metdataUpdateRequest), Void.class);
+		codeSystemMetadataCache.invalidateBranch(branchPath);
 	}
 
 	public void deleteBranchAndChildren(String branchPath) {
@@ -445,20 +541,64 @@ public class SnowstormClient {
 
 	public List<RefsetMember> loadAllRefsetMembers(String refsetId, CodeSystem codeSystem, boolean activeOnly) throws ServiceException {
 		List<RefsetMember> refsetMembers = new ArrayList<>();
-		String searchAfter = null;
-		Page<RefsetMember> page;
+		streamRefsetMembers(refsetId, codeSystem, activeOnly, refsetMembers::addAll);
+		return refsetMembers;
+	}
+
+	/**
+	 * Loads all members of a refset one page at a time, handing each page to the consumer as it arrives.
+	 * The next page is fetched in the background while the consumer processes the current one, so at most two pages are held at once.
+	 */
+	public void streamRefsetMembers(String refsetId, CodeSystem codeSystem, boolean activeOnly, RefsetMemberPageConsumer consumer) throws ServiceException {
 		SearchAfterPaginationGuard guard = new SearchAfterPaginationGuard(maxFetches);
-		do {
-			guard.beforeFetch(searchAfter);
-			page = getRefsetMembers(refsetId, codeSystem, activeOnly, MAX_PAGE_SIZE, searchAfter);
-			refsetMembers.addAll(page.getItems());
-			if (page.getItems().size() == MAX_PAGE_SIZE) {
-				guard.afterFullPage(searchAfter, page.getSearchAfter());
-				searchAfter = page.getSearchAfter();
+		String searchAfter = null;
+		guard.beforeFetch(searchAfter);
+		Future<Page<RefsetMember>> nextPage = prefetchRefsetMembers(refsetId, codeSystem, activeOnly, searchAfter);
+		try {
+			boolean fullPage;
+			do {
+				Page<RefsetMember> page = await(nextPage, "refset members page");
+				List<RefsetMember> items = page.getItems();
+				fullPage = items.size() == MAX_PAGE_SIZE;
+				if (fullPage) {
+					guard.afterFullPage(searchAfter, page.getSearchAfter());
+					searchAfter = page.getSearchAfter();
+					guard.beforeFetch(searchAfter);
+					nextPage = prefetchRefsetMembers(refsetId, codeSystem, activeOnly, searchAfter);
+				}
+				consumer.accept(items);
+			} while (fullPage);
+		} finally {
+			// No-op unless the consumer failed while a page was still loading
+			nextPage.cancel(true);
+		}
+	}
+
+	private Future<Page<RefsetMember>> prefetchRefsetMembers(String refsetId, CodeSystem codeSystem, boolean activeOnly, String searchAfter) {
+		return REQUEST_EXECUTOR.submit(() -> getRefsetMembers(refsetId, codeSystem, activeOnly, MAX_PAGE_SIZE, searchAfter));
+	}
+
+	private static <T> T await(Future<T> future, String task) throws ServiceException {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			future.cancel(true);
+			throw new ServiceException(format("Interrupted while waiting for %s.", task), e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof ServiceException serviceException) {
+				throw serviceException;
 			}
-		} while (page.getItems().size() == MAX_PAGE_SIZE);
+			if (e.getCause() instanceof RuntimeException runtimeException) {
+				throw runtimeException;
+			}
+			throw new ServiceException(format("Failed waiting for %s.", task), e.getCause());
+		}
+	}
 
-		return refsetMembers;
+	@FunctionalInterface
+	public interface RefsetMemberPageConsumer {
+		void accept(List<RefsetMember> page) throws ServiceException;
 	}
 
 	public int countAllActiveRefsetMembers(String refsetId, CodeSystem codeSystem) throws ServiceExceptionWithStatusCode {
@@ -492,56 +632,224 @@ public class SnowstormClient {
 	}
 
 	public void createUpdateRefsetMembers(List<RefsetMember> membersToCreateUpdate, CodeSystem codeSystem) throws ServiceException {
+		createUpdateRefsetMembers(membersToCreateUpdate, codeSystem, null);
+	}
+
+	/**
+	 * Creates or updates members using bulk jobs of at most {@code bulkChunkSize} members, waiting for the jobs to complete.
+	 * @param progressMonitor optional, given the member total and the number of members written after each chunk
+	 * @see #createUpdateRefsetMembersAsync(List, CodeSystem, ProgressMonitor)
+	 */
+	public void createUpdateRefsetMembers(List<RefsetMember> membersToCreateUpdate, CodeSystem codeSystem, ProgressMonitor progressMonitor) throws ServiceException {
+		await(createUpdateRefsetMembersAsync(membersToCreateUpdate, codeSystem, progressMonitor), "bulk create/update refset member job");
+	}
+
+	/**
+	 * Creates or updates members using bulk jobs of at most {@code bulkChunkSize} members, with up to {@code maxBulkJobsInFlight}
+	 * jobs running at once. The first jobs are started before returning; each following chunk is serialised and started in the
+	 * background when a job completes, so no thread is held while Snowstorm processes the jobs. No further chunks are started
+	 * after a job fails.
+	 * @param progressMonitor optional, given the member total and the number of members written after each chunk
+	 * @return future that completes when every job has completed, or completes exceptionally if a job failed
+	 */
+	public CompletableFuture<Void> createUpdateRefsetMembersAsync(List<RefsetMember> membersToCreateUpdate, CodeSystem codeSystem,
+			ProgressMonitor progressMonitor) throws ServiceException {
+
+		checkNoDuplicateMemberIds(membersToCreateUpdate);
+		String url = format("/%s/members/bulk", codeSystem.getWorkingBranchPath());
+		List<List<RefsetMember>> chunks = Lists.partition(membersToCreateUpdate, bulkChunkSize);
+		BulkJobProgress progress = new BulkJobProgress(membersToCreateUpdate.size(), progressMonitor);
+		CompletableFuture<?>[] lanes = new CompletableFuture<?>[Math.min(maxBulkJobsInFlight, chunks.size())];
+		for (int lane = 0; lane < lanes.length; lane++) {
+			List<List<RefsetMember>> laneChunks = new ArrayList<>();
+			for (int i = lane; i < chunks.size(); i += lanes.length) {
+				laneChunks.add(chunks.get(i));
+			}
+			lanes[lane] = runBulkJobs(url, laneChunks.iterator(), progress);
+		}
+		return CompletableFuture.allOf(lanes);
+	}
+
+	/**
+	 * Runs the chunks one after another, starting each chunk from the request executor when the previous job completes.
+	 */
+	private CompletableFuture<Void> runBulkJobs(String url, Iterator<List<RefsetMember>> chunks, BulkJobProgress progress) throws ServiceException {
+		if (progress.failed || !chunks.hasNext()) {
+			return CompletableFuture.completedFuture(null);
+		}
+		List<RefsetMember> chunk = chunks.next();
+		CompletableFuture<Void> job;
+		try {
+			job = startBulkJob(url, toJson(chunk));
+		} catch (ServiceException | RuntimeException e) {
+			progress.failed = true;
+			throw e;
+		}
+		return job.whenComplete((result, throwable) -> {
+			if (throwable != null) {
+				progress.failed = true;
+			}
+		}).thenComposeAsync(result -> {
+			progress.written(chunk.size());
+			try {
+				return runBulkJobs(url, chunks, progress);
+			} catch (ServiceException e) {
+				throw new CompletionException(e);
+			}
+		}, REQUEST_EXECUTOR);
+	}
+
+	private static final class BulkJobProgress {
+
+		private final ProgressMonitor progressMonitor;
+		private int written;
+		private volatile boolean failed;
 
-		List<String> memberIds = membersToCreateUpdate.stream().map(RefsetMember::getMemberId).toList();
+		private BulkJobProgress(int total, ProgressMonitor progressMonitor) {
+			this.progressMonitor = progressMonitor;
+			if (progressMonitor != null) {
+				progressMonitor.setRecordsTotal(total);
+				progressMonitor.setRecordsProcessed(0);
+			}
+		}
+
+		private synchronized void written(int members) {
+			written += members;
+			if (progressMonitor != null) {
+				progressMonitor.setRecordsProcessed(written);
+			}
+		}
+	}
+
+	private static void checkNoDuplicateMemberIds(List<RefsetMember> membersToCreateUpdate) {
 		Set<String> memberIdSet = new HashSet<>();
-		for (String memberId : memberIds) {
-			if (!memberIdSet.add(memberId)) {
-				throw new IllegalArgumentException("create/update request contains a duplicate member id " + memberId);
+		for (RefsetMember member : membersToCreateUpdate) {
+			if (!memberIdSet.add(member.getMemberId())) {
+				throw new IllegalArgumentException("create/update request contains a duplicate member id " + member.getMemberId());
 			}
 		}
+	}
+
+	private byte[] toJson(Object requestBody) throws ServiceException {
+		try {
+			return objectMapper.writeValueAsBytes(requestBody);
+		} catch (JsonProcessingException e) {
+			throw new ServiceException("Failed to serialise Snowstorm request.", e);
+		}
+	}
 
+	private CompletableFuture<Void> startBulkJob(String url, byte[] requestBody) throws ServiceException {
 		URI bulkJobUri;
 		try {
-			bulkJobUri = restTemplate.postForLocation(format("/%s/members/bulk", codeSystem.getWorkingBranchPath()), membersToCreateUpdate);
+			bulkJobUri = restTemplate.execute(url, HttpMethod.POST,
+					httpRequest -> {
+						httpRequest.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+						httpRequest.getBody().write(requestBody);
+					},
+					httpResponse -> httpResponse.getHeaders().getLocation());
 			if (bulkJobUri == null) {
 				throw new ServiceException("Failed to start bulk create/update refset member job - response location is null.");
 			}
 		} catch (HttpStatusCodeException e) {
 			throw getServiceException(e, "start bulk create/update refset member job");
 		}
-		try {
-			while (true) {
+		return JOB_POLLER.poll("bulk create/update refset member job", () -> {
+			try {
 				ResponseEntity<StatusHolder> response = restTemplate.getForEntity(bulkJobUri, StatusHolder.class);
 				StatusHolder statusHolder = response.getBody();
 				throwIfNull(statusHolder, "Refset bulk update job");
 				String status = statusHolder.getStatus();
 				if ("RUNNING".equals(status)) {
-					System.out.print(".");
+					return false;
 				} else if ("COMPLETED".equals(status)) {
-					return;
+					return true;
 				} else {
 					throw new ServiceException(format("Bulk create/update refset member job failed - %s", statusHolder.getMessage()));
 				}
-				Thread.sleep(1_000);// One second
+			} catch (HttpStatusCodeException e) {
+				throw getServiceException(e, "fetch status of bulk create/update refset member job");
 			}
-		} catch (HttpStatusCodeException e) {
-			throw getServiceException(e, "fetch status of bulk create/update refset member job");
-		} catch (InterruptedException e) {
-			throw new RuntimeServiceException("Thread interrupted while waiting for bulk create/update refset member job to complete.", e);
-		}
+		}, ASYNC_JOB_TIMEOUT);
+	}
+
+	public void deleteRefsetMembers(List<RefsetMember> membersToDelete, CodeSystem codeSystem) throws ServiceException {
+		deleteRefsetMembers(membersToDelete, codeSystem, null);
 	}
 
-	public void deleteRefsetMembers(List<RefsetMember> membersToDelete, CodeSystem codeSystem) throws ServiceExceptionWithStatusCode {
+	/**
+	 * Deletes members in batches of {@value #DELETE_BATCH_SIZE}, with up to {@code maxBulkJobsInFlight} batches being deleted at once.
+	 * @param progressMonitor optional, given the member total and the number of members deleted after each batch
+	 */
+	public void deleteRefsetMembers(List<RefsetMember> membersToDelete, CodeSystem codeSystem, ProgressMonitor progressMonitor) throws ServiceException {
 		List<String> memberIds = membersToDelete.stream().map(RefsetMember::getMemberId).toList();
-		for (List<String> batch : Iterables.partition(memberIds, 1_000)) {
-			Map<String, List<String>> bulkDeleteRequest = new HashMap<>();
-			bulkDeleteRequest.put("memberIds", batch);
-			try {
-				restTemplate.exchange(format("/%s/members", codeSystem.getWorkingBranchPath()), HttpMethod.DELETE, new HttpEntity<>(bulkDeleteRequest), Void.class);
-			} catch (HttpStatusCodeException e) {
-				throw getServiceException(e, "bulk delete refset members");
+		String url = format("/%s/members", codeSystem.getWorkingBranchPath());
+		BulkPipeline pipeline = new BulkPipeline("bulk delete refset members", memberIds.size(), progressMonitor);
+		try {
+			for (List<String> batch : Lists.partition(memberIds, DELETE_BATCH_SIZE)) {
+				pipeline.awaitCapacity();
+				Map<String, List<String>> bulkDeleteRequest = Map.of("memberIds", batch);
+				pipeline.add(CompletableFuture.runAsync(() -> {
+					try {
+						restTemplate.exchange(url, HttpMethod.DELETE, new HttpEntity<>(bulkDeleteRequest), Void.class);
+					} catch (HttpStatusCodeException e) {
+						throw new CompletionException(getServiceException(e, "bulk delete refset members"));
+					}
+				}, REQUEST_EXECUTOR), batch.size());
 			}
+			pipeline.awaitAll();
+		} finally {
+			pipeline.cancelRemaining();
+		}
+	}
+
+	/**
+	 * Bounds the number of bulk operations running at once and reports progress as each one completes, in submission order.
+	 */
+	private final class BulkPipeline {
+
+		private final String task;
+		private final ProgressMonitor progressMonitor;
+		private final Deque<CompletableFuture<Void>> inFlight = new ArrayDeque<>();
+		private final Deque<Integer> inFlightSizes = new ArrayDeque<>();
+		private int completed;
+
+		private BulkPipeline(String task, int total, ProgressMonitor progressMonitor) {
+			this.task = task;
+			this.progressMonitor = progressMonitor;
+			if (progressMonitor != null) {
+				progressMonitor.setRecordsTotal(total);
+				progressMonitor.setRecordsProcessed(0);
+			}
+		}
+
+		private void add(CompletableFuture<Void> operation, int size) {
+			inFlight.add(operation);
+			inFlightSizes.add(size);
+		}
+
+		private void awaitCapacity() throws ServiceException {
+			while (inFlight.size() >= maxBulkJobsInFlight) {
+				awaitOldest();
+			}
+		}
+
+		private void awaitAll() throws ServiceException {
+			while (!inFlight.isEmpty()) {
+				awaitOldest();
+			}
+		}
+
+		private void awaitOldest() throws ServiceException {
+			await(inFlight.peek(), task);
+			inFlight.poll();
+			completed += inFlightSizes.poll();
+			if (progressMonitor != null) {
+				progressMonitor.setRecordsProcessed(completed);
+			}
+		}
+
+		private void cancelRemaining() {
+			inFlight.forEach(operation -> operation.cancel(true));
 		}
 	}
 
@@ -619,7 +927,26 @@ public class SnowstormClient {
 		DELTA, SNAPSHOT
 	}
 
+	/**
+	 * Writes an RF2 export archive to the output stream. Exports of a branch that has not changed since the same export
+	 * was last run are copied from the export cache, if there is one, rather than exported again.
+	 */
 	public void exportRF2(OutputStream outputStream, SnowstormExportConfiguration exportConfiguration) throws ServiceException {
+		if (rf2ExportCache == null) {
+			runRF2Export(outputStream, exportConfiguration);
+			return;
+		}
+		// Loaded with this user's credentials, so only users that can read the branch are given the cached archive
+		Long headTimestamp = getBranchOrThrow(exportConfiguration.getCodeSystem().getWorkingBranchPath()).getHeadTimestamp();
+		if (headTimestamp == null) {
+			runRF2Export(outputStream, exportConfiguration);
+			return;
+		}
+		rf2ExportCache.copyTo(Rf2ExportCache.Key.of(headTimestamp, exportConfiguration), outputStream,
+				exportOutputStream -> runRF2Export(exportOutputStream, exportConfiguration));
+	}
+
+	private void runRF2Export(OutputStream outputStream, SnowstormExportConfiguration exportConfiguration) throws ServiceException {
 		Map<String, Object> requestBody = new HashMap<>();
 		requestBody.put("branchPath", exportConfiguration.getCodeSystem().getWorkingBranchPath());
 		requestBody.put("type", exportConfiguration.getExportType().name());
@@ -679,7 +1006,15 @@ public class SnowstormClient {
 	}
 
 	public Supplier<ConceptMini> getConceptSortedHierarchyStream(String branch, String focusConcept) {
-		return new ConceptSortedHierarchyStream(branch, focusConcept, this);
+		return getConceptSortedHierarchyStream(branch, focusConcept, false);
+	}
+
+	/**
+	 * @param batched fetch the whole sub-hierarchy with one descendant search and load its inferred parents in chunks,
+	 *                rather than fetching the children of each concept as the walk reaches it
+	 */
+	public Supplier<ConceptMini> getConceptSortedHierarchyStream(String branch, String focusConcept, boolean batched) {
+		return new ConceptSortedHierarchyStream(branch, focusConcept, this, batched);
 	}
 
 	public List<Long> getConceptChangeReport(String branchPath, int changedSince) throws ServiceExceptionWithStatusCode {
@@ -693,17 +1028,14 @@ public class SnowstormClient {
 		return body.getItems().stream().map(Long::parseLong).toList();
 	}
 
-	protected List<ConceptMini> getConceptList(String branch, String ecl) {
-		List<ConceptMini> list = new ArrayList<>();
-		Supplier<ConceptMini> conceptStream = getConceptStream(branch, ecl);
-		ConceptMini mini;
-		while ((mini = conceptStream.get()) != null) {
-			list.add(mini);
-		}
-		return list;
+	public Supplier<ConceptMini> getConceptStream(String branch, String ecl) {
+		return getConceptStream(branch, ecl, () -> {});
 	}
 
-	public Supplier<ConceptMini> getConceptStream(String branch, String ecl) {
+	/**
+	 * @param onRequest called before each page request is sent
+	 */
+	public Supplier<ConceptMini> getConceptStream(String branch, String ecl, Runnable onRequest) {
 		return new Supplier<>() {
 
 			private List<ConceptMini> items;
@@ -732,6 +1064,7 @@ public class SnowstormClient {
 					searchRequest.put("searchAfter", searchAfter);
 					searchRequest.put("includeLeafFlag", true);
 
+					onRequest.run();
 					String url = format("/%s/concepts/search", branch);
 					ResponseEntity<Page<ConceptMini>> pageResponse = restTemplate.exchange(url,
 						HttpMethod.POST, new HttpEntity<>(searchRequest), listOfConceptMinisType);
@@ -829,8 +1162,12 @@ public class SnowstormClient {
 	}
 
 	public List<Concept> loadBrowserFormatConcepts(List<Long> conceptIds, CodeSystem codeSystem) {
+		return loadBrowserFormatConcepts(conceptIds, codeSystem.getWorkingBranchPath());
+	}
+
+	public List<Concept> loadBrowserFormatConcepts(Collection<Long> conceptIds, String branch) {
 		ParameterizedTypeReference<List<Concept>> listOfConcepts = new ParameterizedTypeReference<>(){};
-		ResponseEntity<List<Concept>> response = restTemplate.exchange(format("/browser/%s/concepts/bulk-load", codeSystem.getWorkingBranchPath()), HttpMethod.POST,
+		ResponseEntity<List<Concept>> response = restTemplate.exchange(format("/browser/%s/concepts/bulk-load", branch), HttpMethod.POST,
 				new HttpEntity<>(ConceptBulkLoadRequest.of(conceptIds)), listOfConcepts);
 		return response.getBody();
 	}
@@ -847,9 +1184,18 @@ public class SnowstormClient {
 	}
 
 	public void createUpdateBrowserFormatConcepts(List<Concept> conceptsToUpdate, CodeSystem codeSystem) throws ServiceException {
+		await(createUpdateBrowserFormatConceptsAsync(conceptsToUpdate, codeSystem),
+				format("bulk concept create/update on %s", codeSystem.getWorkingBranchPath()));
+	}
+
+	/**
+	 * Deletes unreleased inactive concepts and starts a bulk create/update job for the rest.
+	 * @return future that completes when the Snowstorm job has completed, without holding the calling thread while it runs
+	 */
+	public CompletableFuture<Void> createUpdateBrowserFormatConceptsAsync(List<Concept> conceptsToUpdate, CodeSystem codeSystem) throws ServiceException {
 		String branchPath = codeSystem.getWorkingBranchPath();
 		if (conceptsToUpdate == null || conceptsToUpdate.isEmpty()) {
-			return;
+			return CompletableFuture.completedFuture(null);
 		}
 
 		List<Concept> conceptsToDelete = new ArrayList<>();
@@ -874,9 +1220,10 @@ public class SnowstormClient {
 			if (location == null) {
 				throw new ServiceException("Bulk update did not return location header.");
 			}
-			waitForAsyncJob(location, "COMPLETED", "FAILED");
-			logger.info("Completed bulk create/update on {}", branchPath);
+			return pollAsyncJob(location, "COMPLETED", "FAILED")
+					.thenRun(() -> logger.info("Completed bulk create/update on {}", branchPath));
 		}
+		return CompletableFuture.completedFuture(null);
 	}
 
 	public Branch setAuthorFlag(String branchPath, String name, String value) {
@@ -1007,27 +1354,18 @@ public class SnowstormClient {
 		return body.getReferenceSets();
 	}
 
-	private void waitForAsyncJob(URI location, String completed, String failed) throws ServiceException {
-		int anHour = 1_000 * 60 * 60;
-		Date start = new Date();
-		Date timeoutDate = new Date(start.getTime() + anHour);
-		while (new Date().before(timeoutDate)) {
-			try {
-				ResponseEntity<StatusHolder> statusResponse = restTemplate.getForEntity(location, StatusHolder.class);
-				StatusHolder statusHolder = statusResponse.getBody();
-				throwIfNull(statusHolder, "job status");
-				if (completed.equals(statusHolder.getStatus())) {
-					return;
-				} else if (failed.equals(statusHolder.getStatus())) {
-					throw new ServiceException(format("Async job failed: %s. URL: %s", statusHolder.getMessage(), location));
-				}
-				//noinspection BusyWait
-				Thread.sleep(3_000);
-			} catch (InterruptedException e) {
-				throw new ServiceException(format("Thread interrupted while waiting for async job to complete. URL: %s", location));
+	private CompletableFuture<Void> pollAsyncJob(URI location, String completed, String failed) {
+		return JOB_POLLER.poll(format("async job %s", location), () -> {
+			ResponseEntity<StatusHolder> statusResponse = restTemplate.getForEntity(location, StatusHolder.class);
+			StatusHolder statusHolder = statusResponse.getBody();
+			throwIfNull(statusHolder, "job status");
+			if (completed.equals(statusHolder.getStatus())) {
+				return true;
+			} else if (failed.equals(statusHolder.getStatus())) {
+				throw new ServiceException(format("Async job failed: %s. URL: %s", statusHolder.getMessage(), location));
 			}
-		}
-		throw new ServiceException(format("Timed out while waiting for async job. URL: %s", location));
+			return false;
+		}, ASYNC_JOB_TIMEOUT);
 	}
 
 	public void setVersionReleasePackage(CodeSystem codeSystem, String effectiveTime, String releasePackageFilename) {
@@ -1144,13 +1482,19 @@ public class SnowstormClient {
 
 	}
 
+	/**
+	 * Entries are also dropped once the shared branch metadata they were built from has changed or been evicted, by this or any other user.
+	 */
 	private boolean isCacheValid(CachedCodeSystem cached) {
-		return (System.currentTimeMillis() - cached.timestamp) < CACHE_TTL_MS;
+		CodeSystem codeSystem = cached.codeSystem;
+		return (System.currentTimeMillis() - cached.timestamp) < CACHE_TTL_MS
+				&& codeSystemMetadataCache.isCurrent(codeSystem.getBranchPath(), codeSystem.getBranchObject());
 	}
 
 	private record CachedCodeSystem(CodeSystem codeSystem, long timestamp) {
 	}
 
+
 	private static final class StatusHolder {
 
 		private String status;
@@ -5,6 +5,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.base.Strings;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.snomed.simplex.exceptions.ServiceExceptionWithStatusCode;
@@ -15,6 +16,8 @@ import org.springframework.boot.info.BuildProperties;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 
@@ -27,8 +30,12 @@ public class SnowstormClientFactory {
 	private final String userAgent;
 	private final SnowstormClient derivativesClient;
 	private final int maxFetches;
+	private final int bulkChunkSize;
+	private final int maxBulkJobsInFlight;
 
 	private final Cache<String, SnowstormClient> clientCache;
+	private final CodeSystemMetadataCache codeSystemMetadataCache;
+	private final Rf2ExportCache rf2ExportCache;
 	private final ObjectMapper objectMapper;
 	private final Logger logger = LoggerFactory.getLogger(getClass());
 
@@ -37,8 +44,15 @@ public class SnowstormClientFactory {
 			@Value("${snowstorm.derivatives.url}") String snowstormAltDerivativesUrl,
 			@Value("${snowstorm.user-agent:Simplex v{version}}") String userAgentTemplate,
 			@Value("${snowstorm.pagination.max-results:600000}") int maxPaginationResults,
-			@Autowired(required = false) BuildProperties buildProperties) {
+			@Value("${snowstorm.bulk.chunk-size:5000}") int bulkChunkSize,
+			@Value("${snowstorm.bulk.max-jobs-in-flight:1}") int maxBulkJobsInFlight,
+			@Value("${snowstorm.export-cache.enabled:true}") boolean exportCacheEnabled,
+			@Value("${snowstorm.export-cache.directory:}") String exportCacheDirectory,
+			@Value("${snowstorm.export-cache.max-size-mb:2048}") long exportCacheMaxSizeMb,
+			@Autowired(required = false) BuildProperties buildProperties) throws IOException {
 		this.clientCache = CacheBuilder.newBuilder().expireAfterAccess(5L, TimeUnit.MINUTES).build();
+		this.codeSystemMetadataCache = new CodeSystemMetadataCache();
+		this.rf2ExportCache = exportCacheEnabled ? createRf2ExportCache(exportCacheDirectory, exportCacheMaxSizeMb) : null;
 		this.objectMapper = (new ObjectMapper()).setSerializationInclusion(JsonInclude.Include.NON_NULL);
 		this.snowstormUrl = snowstormUrl;
 		this.userAgent = SnowstormUserAgentSupport.resolve(userAgentTemplate, buildProperties);
@@ -48,9 +62,11 @@ public class SnowstormClientFactory {
 			logger.info("Snowstorm User-Agent set as '{}'", userAgent);
 		}
 		logger.info("Snowstorm searchAfter pagination max fetches set as {}", maxFetches);
+		this.bulkChunkSize = bulkChunkSize;
+		this.maxBulkJobsInFlight = maxBulkJobsInFlight;
 		if (!Strings.isNullOrEmpty(snowstormAltDerivativesUrl)) {
 			logger.info("Snowstorm Derivatives URL set as '{}'", snowstormAltDerivativesUrl);
-			derivativesClient = new SnowstormClient(snowstormAltDerivativesUrl, null, userAgent, objectMapper, maxFetches);
+			derivativesClient = new SnowstormClient(snowstormAltDerivativesUrl, null, userAgent, objectMapper, maxFetches, bulkChunkSize, maxBulkJobsInFlight);
 		} else {
 			derivativesClient = null;
 		}
@@ -59,7 +75,8 @@ public class SnowstormClientFactory {
 	public SnowstormClient getClient() throws ServiceExceptionWithStatusCode {
 		try {
 			String authenticationToken = getAuthToken();
-			return clientCache.get(authenticationToken, () -> new SnowstormClient(snowstormUrl, authenticationToken, userAgent, objectMapper, maxFetches));
+			return clientCache.get(authenticationToken, () -> new SnowstormClient(snowstormUrl, authenticationToken, userAgent, objectMapper, maxFetches,
+					bulkChunkSize, maxBulkJobsInFlight, codeSystemMetadataCache, rf2ExportCache));
 		} catch (ExecutionException e) {
 			throw new ServiceExceptionWithStatusCode("Failed to create Snowstorm client", HttpStatus.INTERNAL_SERVER_ERROR, e);
 		}
@@ -73,6 +90,28 @@ public class SnowstormClientFactory {
 		}
 	}
 
+	/**
+	 * Branch metadata cache shared by the clients of all users.
+	 */
+	public CodeSystemMetadataCache getCodeSystemMetadataCache() {
+		return codeSystemMetadataCache;
+	}
+
+	@PreDestroy
+	public void closeRf2ExportCache() {
+		if (rf2ExportCache != null) {
+			rf2ExportCache.close();
+		}
+	}
+
+	private Rf2ExportCache createRf2ExportCache(String directory, long maxSizeMb) throws IOException {
+		File cacheDirectory = Strings.isNullOrEmpty(directory)
+				? new File(System.getProperty("java.io.tmpdir"), "simplex-rf2-export-cache")
+				: new File(directory);
+		logger.info("Snowstorm RF2 export cache set as '{}' with a maximum size of {} MB", cacheDirectory.getAbsolutePath(), maxSizeMb);
+		return new Rf2ExportCache(cacheDirectory, maxSizeMb * 1024 * 1024);
+	}
+
 	private static String getAuthToken() throws ServiceExceptionWithStatusCode {
 		String authenticationToken = SecurityUtil.getAuthenticationToken();
 		if (authenticationToken == null || authenticationToken.isEmpty()) {
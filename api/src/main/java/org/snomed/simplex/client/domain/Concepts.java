@@ -40,6 +40,9 @@ public class Concepts {
 	// 116680003 |Is a (attribute)|
 	public static final String IS_A = "116680003";
 
+	// 900000000000011006 |Inferred relationship (core metadata concept)|
+	public static final String INFERRED_RELATIONSHIP = "900000000000011006";
+
 	// 900000000000534007 |Module dependency reference set (foundation metadata concept)|
 	public static final String MODULE_DEPENDENCY_REFERENCE_SET = "900000000000534007";
 
@@ -1,7 +1,6 @@
 package org.snomed.simplex.client.rvf;
 
 import org.apache.commons.io.FileUtils;
-import org.apache.poi.ss.usermodel.Workbook;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.snomed.simplex.client.SnowstormClient;
@@ -208,8 +207,8 @@ public class ValidationServiceClient {
 	}
 
 	public void downloadLatestValidationAsSpreadsheet(ValidationReport validationReport, OutputStream outputStream) throws ServiceException {
-		try (Workbook validationReportSpreadsheet = spreadsheetService.createValidationReportSpreadsheet(validationReport)) {
-			validationReportSpreadsheet.write(outputStream);
+		try {
+			spreadsheetService.writeValidationReportSpreadsheet(validationReport, outputStream);
 		} catch (IOException e) {
 			throw new ServiceException("Failed to write validation spreadsheet to API response stream.", e);
 		}
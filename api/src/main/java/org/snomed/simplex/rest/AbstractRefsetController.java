@@ -86,8 +86,8 @@ public abstract class AbstractRefsetController<T extends RefsetMemberIntent> {
 			Activity activity = new Activity(SecurityUtil.getUsername(), codeSystem, getComponentType(), ActivityType.UPDATE);
 			ContentJob contentJob = new ContentJob(theCodeSystem, getSpreadsheetUploadJobName(), refsetId)
 				.addUpload(inputStream, file.getOriginalFilename());
-			return jobService.queueContentJob(contentJob, refsetId, activity,
-					asyncJob -> getRefsetService().updateRefsetViaSpreadsheet(asyncJob));
+			return jobService.queueNonBlockingContentJob(contentJob, refsetId, activity,
+					(asyncJob, jobExecutor) -> getRefsetService().updateRefsetViaSpreadsheet(asyncJob, jobExecutor));
 		} catch (IOException e) {
 			throw new IllegalArgumentException("Failed to open uploaded file.");
 		}
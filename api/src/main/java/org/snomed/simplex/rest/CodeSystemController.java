@@ -7,6 +7,7 @@ import jakarta.servlet.http.HttpServletResponse;
 import org.apache.commons.lang3.tuple.Pair;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.snomed.simplex.client.CodeSystemMetadataCache;
 import org.snomed.simplex.client.SnowstormClient;
 import org.snomed.simplex.client.SnowstormClientFactory;
 import org.snomed.simplex.client.domain.CodeSystem;
@@ -100,6 +101,13 @@ public class CodeSystemController {
 		codeSystemService.refreshCache(codeSystem);
 	}
 
+	@GetMapping("metadata-cache/stats")
+	@PreAuthorize("hasPermission('ADMIN', '')")
+	@Operation(summary = "Hit and miss counts of the code system metadata cache shared by all users")
+	public CodeSystemMetadataCache.Stats getMetadataCacheStats() {
+		return codeSystemService.getMetadataCacheStats();
+	}
+
 	@Operation(description = """
 			`name` will have words 'Edition' and 'Extension' removed then 'Edition' added at the end.
 
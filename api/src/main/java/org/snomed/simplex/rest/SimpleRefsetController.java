@@ -71,8 +71,9 @@ public class SimpleRefsetController extends AbstractRefsetController<RefsetMembe
 		ContentJob contentJob = new ContentJob(theCodeSystem, "Subset upload (ECL)", refsetId);
 		String ecl = request.getEcl();
 		String selectionCodesystem = request.getSelectionCodesystem();
-		return jobService.queueContentJob(contentJob, refsetId, activity,
-				asyncJob -> simpleRefsetService.updateRefsetViaEcl(refsetId, ecl, selectionCodesystem, asyncJob.getCodeSystemObject(), asyncJob));
+		return jobService.queueNonBlockingContentJob(contentJob, refsetId, activity,
+				(asyncJob, jobExecutor) -> simpleRefsetService.updateRefsetViaEcl(refsetId, ecl, selectionCodesystem, asyncJob.getCodeSystemObject(),
+						asyncJob, jobExecutor));
 	}
 
 	@PutMapping(path = "{refsetId}/refset-tool", consumes = "multipart/form-data")
@@ -86,8 +87,9 @@ public class SimpleRefsetController extends AbstractRefsetController<RefsetMembe
 		Activity activity = new Activity(codeSystem, ComponentType.SUBSET, ActivityType.UPDATE);
 		ContentJob contentJob = new ContentJob(theCodeSystem, "Subset upload (Refset Tool)", refsetId)
 			.addUpload(file.getInputStream(), file.getOriginalFilename());
-		return jobService.queueContentJob(contentJob, refsetId, activity,
-			asyncJob -> getRefsetService().updateRefsetViaCustomFile(asyncJob, new RefsetToolSubsetReader(asyncJob.getInputStream())));
+		return jobService.queueNonBlockingContentJob(contentJob, refsetId, activity,
+			(asyncJob, jobExecutor) -> getRefsetService().updateRefsetViaCustomFile(asyncJob, new RefsetToolSubsetReader(asyncJob.getInputStream()),
+					jobExecutor));
 	}
 
 	@Override
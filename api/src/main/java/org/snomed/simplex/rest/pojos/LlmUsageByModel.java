@@ -9,6 +9,7 @@ public class LlmUsageByModel {
 	private long totalTokens;
 	private long requestCount;
 	private long conceptsTranslated;
+	private long cacheHits;
 	private Double costUsd;
 
 	public LlmUsageByModel() {
@@ -62,6 +63,14 @@ public class LlmUsageByModel {
 		return conceptsTranslated;
 	}
 
+	public long getCacheHits() {
+		return cacheHits;
+	}
+
+	public void setCacheHits(long cacheHits) {
+		this.cacheHits = cacheHits;
+	}
+
 	public Double getCostUsd() {
 		return costUsd;
 	}
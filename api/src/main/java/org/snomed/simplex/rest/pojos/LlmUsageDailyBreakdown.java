@@ -11,6 +11,7 @@ public class LlmUsageDailyBreakdown {
 	private long totalTokens;
 	private long requestCount;
 	private long conceptsTranslated;
+	private long cacheHits;
 
 	public LlmUsageDailyBreakdown() {
 	}
@@ -68,4 +69,12 @@ public class LlmUsageDailyBreakdown {
 	public long getConceptsTranslated() {
 		return conceptsTranslated;
 	}
+
+	public long getCacheHits() {
+		return cacheHits;
+	}
+
+	public void setCacheHits(long cacheHits) {
+		this.cacheHits = cacheHits;
+	}
 }
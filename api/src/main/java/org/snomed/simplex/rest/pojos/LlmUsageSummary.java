@@ -15,6 +15,7 @@ public class LlmUsageSummary {
 	private long totalTokens;
 	private long requestCount;
 	private long conceptsTranslated;
+	private long cacheHits;
 	private List<LlmUsageByModel> byModel = new ArrayList<>();
 	private List<LlmUsageDailyBreakdown> dailyBreakdown = new ArrayList<>();
 
@@ -98,6 +99,14 @@ public class LlmUsageSummary {
 		this.conceptsTranslated = conceptsTranslated;
 	}
 
+	public long getCacheHits() {
+		return cacheHits;
+	}
+
+	public void setCacheHits(long cacheHits) {
+		this.cacheHits = cacheHits;
+	}
+
 	public List<LlmUsageByModel> getByModel() {
 		return byModel;
 	}
@@ -5,6 +5,7 @@ import org.apache.tomcat.util.http.fileupload.util.Streams;
 import org.ihtsdo.otf.resourcemanager.ResourceManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.snomed.simplex.client.CodeSystemMetadataCache;
 import org.snomed.simplex.client.SnowstormClient;
 import org.snomed.simplex.client.SnowstormClientFactory;
 import org.snomed.simplex.client.domain.*;
@@ -84,6 +85,10 @@ public class CodeSystemService {
 		translationService.clearLanguageRefsetCache(codeSystemShortName);
 	}
 
+	public CodeSystemMetadataCache.Stats getMetadataCacheStats() {
+		return snowstormClientFactory.getCodeSystemMetadataCache().getStats();
+	}
+
 	public List<CodeSystem> getCodeSystems(boolean includeDetails) throws ServiceException {
 		List<CodeSystem> codeSystems = snowstormClientFactory.getClient().getCodeSystems(includeDetails);
 		securityService.updateUserRolePermissionCache(codeSystems);
@@ -17,6 +17,10 @@ import org.springframework.stereotype.Service;
 
 import java.io.File;
 import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
@@ -24,6 +28,9 @@ import java.util.concurrent.Executors;
 public class ContentProcessingJobService {
 
 	private final Map<String, Map<String, AsyncJob>> codeSystemJobs;
+	// Last job queued for each code system. Jobs on one code system run in order, one at a time, because Snowstorm locks the
+	// branch for each commit and each job works from the content left by the one before.
+	private final Map<String, CompletableFuture<Void>> codeSystemLastJob = new HashMap<>();
 	private final ExecutorService jobExecutorService;
 	private final SupportRegister supportRegister;
 	private final ActivityService activityService;
@@ -38,6 +45,15 @@ public class ContentProcessingJobService {
 	}
 
 	public AsyncJob queueContentJob(ContentJob contentJob, String refsetId, Activity activity, AsyncFunction<ContentJob> function) {
+		return queueNonBlockingContentJob(contentJob, refsetId, activity,
+				(asyncJob, jobExecutor) -> CompletableFuture.completedFuture(function.run(asyncJob)));
+	}
+
+	/**
+	 * Queues a job that releases its job thread while it waits, for example for a Snowstorm bulk job. The job stays in progress
+	 * until the returned future completes, and the next job on the same code system does not start until then.
+	 */
+	public AsyncJob queueNonBlockingContentJob(ContentJob contentJob, String refsetId, Activity activity, AsyncCompletionFunction<ContentJob> function) {
 		activity.setComponentId(refsetId);
 		final File tempFileFinal = contentJob.getInputFileCopy();
 		return doQueueJob(contentJob, activity, function, () -> {
@@ -47,12 +63,16 @@ public class ContentProcessingJobService {
 		});
 	}
 
-	private ContentJob doQueueJob(ContentJob asyncJob, Activity activity, AsyncFunction<ContentJob> function,
+	private ContentJob doQueueJob(ContentJob asyncJob, Activity activity, AsyncCompletionFunction<ContentJob> function,
 		Runnable onCompleteRunnable) {
 
 		CodeSystem codeSystem = asyncJob.getCodeSystemObject();
 		// Add job to thread limited executor service to be run when there is capacity
 		final SecurityContext userSecurityContext = SecurityContextHolder.getContext();
+		Executor jobExecutor = task -> jobExecutorService.execute(() -> {
+			SecurityContextHolder.setContext(userSecurityContext);
+			task.run();
+		});
 
 		asyncJob.setStatus(JobStatus.QUEUED);
 
@@ -62,31 +82,67 @@ public class ContentProcessingJobService {
 			supportRegister.handleSystemError(asyncJob, "Failed to record activity.", e);
 		}
 
-		jobExecutorService.submit(() -> {
-			SecurityContextHolder.setContext(userSecurityContext);
+		String codeSystemKey = codeSystem.getShortName();
+		CompletableFuture<Void> jobDone = new CompletableFuture<>();
+		CompletableFuture<Void> previousJob;
+		synchronized (codeSystemLastJob) {
+			previousJob = codeSystemLastJob.getOrDefault(codeSystemKey, CompletableFuture.completedFuture(null));
+			codeSystemLastJob.put(codeSystemKey, jobDone);
+		}
+		Runnable onJobDone = () -> {
 			try {
-				asyncJob.setStatus(JobStatus.IN_PROGRESS);
-				ChangeSummary changeSummary = function.run(asyncJob);
-				asyncJob.setChangeSummary(changeSummary);
-				asyncJob.setStatus(JobStatus.COMPLETE);
-			} catch (ServiceException e) {
-				handleServiceException(asyncJob, activity, e);
-			} catch (Exception e) {
-				ServiceException serviceException = ElasticsearchExceptionSupport.wrapWithCause(e);
-				activity.exception(serviceException);
-				supportRegister.handleSystemError(asyncJob, "Unexpected error.", serviceException);
-			} finally {
-				activityService.endAsynchronousActivity(activity);
 				if (onCompleteRunnable != null) {
 					onCompleteRunnable.run();
 				}
+			} finally {
+				synchronized (codeSystemLastJob) {
+					codeSystemLastJob.remove(codeSystemKey, jobDone);
+				}
+				jobDone.complete(null);
 			}
-		});
+		};
+
+		previousJob.whenComplete((done, throwable) -> jobExecutor.execute(() -> {
+			CompletableFuture<ChangeSummary> result;
+			try {
+				asyncJob.setStatus(JobStatus.IN_PROGRESS);
+				result = function.run(asyncJob, jobExecutor);
+			} catch (Exception e) {
+				result = CompletableFuture.failedFuture(e);
+			}
+			if (result.isDone()) {
+				completeJob(asyncJob, activity, result, onJobDone);
+			} else {
+				// Finish on a job thread, with the user's security context, once the job's work has completed
+				CompletableFuture<ChangeSummary> pending = result;
+				result.whenCompleteAsync((changeSummary, failure) -> completeJob(asyncJob, activity, pending, onJobDone), jobExecutor);
+			}
+		}));
 
 		codeSystemJobs.computeIfAbsent(codeSystem.getShortName(), i -> new LinkedHashMap<>()).put(asyncJob.getId(), asyncJob);
 		return asyncJob;
 	}
 
+	private void completeJob(ContentJob asyncJob, Activity activity, CompletableFuture<ChangeSummary> result, Runnable onJobDone) {
+		try {
+			ChangeSummary changeSummary = result.join();
+			asyncJob.setChangeSummary(changeSummary);
+			asyncJob.setStatus(JobStatus.COMPLETE);
+		} catch (CompletionException | CancellationException e) {
+			Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+			if (cause instanceof ServiceException serviceException) {
+				handleServiceException(asyncJob, activity, serviceException);
+			} else {
+				ServiceException serviceException = ElasticsearchExceptionSupport.wrapWithCause(cause);
+				activity.exception(serviceException);
+				supportRegister.handleSystemError(asyncJob, "Unexpected error.", serviceException);
+			}
+		} finally {
+			activityService.endAsynchronousActivity(activity);
+			onJobDone.run();
+		}
+	}
+
 	private void handleServiceException(ContentJob asyncJob, Activity activity, ServiceException e) {
 		if (e instanceof ServiceExceptionWithStatusCode errorWithCode && errorWithCode.getJobStatus() != null) {
 			asyncJob.setStatus(errorWithCode.getJobStatus());
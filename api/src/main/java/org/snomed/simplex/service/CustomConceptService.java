@@ -3,7 +3,6 @@ package org.snomed.simplex.service;
 import com.google.common.collect.Lists;
 import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.Row;
-import org.apache.poi.ss.usermodel.Workbook;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.snomed.simplex.client.SnowstormClient;
@@ -67,8 +66,8 @@ public class CustomConceptService {
 		String defaultModule = codeSystem.getDefaultModule();
 		List<Long> conceptIds = snowstormClient.findAllConceptsByModule(codeSystem, defaultModule).stream().map(ConceptMini::getConceptId).map(Long::parseLong).toList();
 		List<Concept> concepts = snowstormClient.loadBrowserFormatConcepts(conceptIds, codeSystem);
-		try (Workbook workbook = spreadsheetService.createConceptSpreadsheet(getInputSheetHeaders(langRefsets), concepts, langRefsets, codeSystem.getContentHeadTimestamp())) {
-			workbook.write(outputStream);
+		try {
+			spreadsheetService.writeConceptSpreadsheet(getInputSheetHeaders(langRefsets), concepts, langRefsets, codeSystem.getContentHeadTimestamp(), outputStream);
 		} catch (IOException e) {
 			throw new ServiceException("Failed to write concept spreadsheet to API response stream.", e);
 		}
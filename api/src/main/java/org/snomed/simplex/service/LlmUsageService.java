@@ -1,5 +1,6 @@
 package org.snomed.simplex.service;
 
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.snomed.simplex.ai.LlmUsageDaily;
@@ -9,21 +10,22 @@ import org.snomed.simplex.config.OpenAiPricingConfig;
 import org.snomed.simplex.rest.pojos.LlmUsageByModel;
 import org.snomed.simplex.rest.pojos.LlmUsageDailyBreakdown;
 import org.snomed.simplex.rest.pojos.LlmUsageSummary;
+import org.springframework.data.elasticsearch.BulkFailureException;
 import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
 import org.springframework.data.elasticsearch.core.document.Document;
 import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
 import org.springframework.data.elasticsearch.core.query.ScriptType;
 import org.springframework.data.elasticsearch.core.query.UpdateQuery;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
-import java.util.Comparator;
-import java.util.LinkedHashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class LlmUsageService {
@@ -32,17 +34,25 @@ public class LlmUsageService {
 	private static final String INCREMENT_SCRIPT = """
       ctx._source.inputTokens += params.inputTokens;
       ctx._source.outputTokens += params.outputTokens;
-      ctx._source.requestCount += 1;
+      ctx._source.requestCount += params.requestCount;
       if (ctx._source.conceptsTranslated == null) {
         ctx._source.conceptsTranslated = 0;
       }
       ctx._source.conceptsTranslated += params.conceptsTranslated;
+      if (ctx._source.cacheHits == null) {
+        ctx._source.cacheHits = 0;
+      }
+      ctx._source.cacheHits += params.cacheHits;
       """;
 
 	private final LlmUsageDailyRepository repository;
 	private final ElasticsearchOperations elasticsearchOperations;
 	private final IndexNameProvider indexNameProvider;
 	private final OpenAiPricingConfig openAiPricingConfig;
+
+	// Usage not yet written to the index. Deltas are merged with compute, which only locks the entry being changed,
+	// so concurrent LLM calls for different code systems or models do not contend.
+	private final ConcurrentHashMap<UsageKey, UsageDelta> pendingUsage = new ConcurrentHashMap<>();
 	private final Logger logger = LoggerFactory.getLogger(getClass());
 
 	public LlmUsageService(LlmUsageDailyRepository repository, ElasticsearchOperations elasticsearchOperations,
@@ -55,30 +65,103 @@ public class LlmUsageService {
 
 	/**
 	 * Records token usage for the current UTC calendar day.
+	 * Usage is held in memory and written by {@link #flushPendingUsage()}.
 	 */
 	public void recordUsage(LlmUsageRecord useRecord) {
 		if (useRecord == null || useRecord.codesystem() == null || useRecord.codesystem().isBlank()) {
 			return;
 		}
-		String date = currentUtcDate();
-		String id = documentId(useRecord.codesystem(), useRecord.model(), date);
-		Map<String, Object> upsert = Map.of(
-				"codesystem", useRecord.codesystem(),
-				"model", useRecord.model(),
-				"provider", useRecord.provider(),
-				"date", date,
-				"inputTokens", (long) useRecord.inputTokens(),
-				"outputTokens", (long) useRecord.outputTokens(),
-				"requestCount", 1L,
-				"conceptsTranslated", (long) useRecord.conceptsTranslated()
-		);
+		UsageKey key = new UsageKey(useRecord.codesystem(), useRecord.model(), useRecord.provider(), currentUtcDate());
+		addPending(key, new UsageDelta(useRecord.inputTokens(), useRecord.outputTokens(), 1, useRecord.conceptsTranslated(), 0));
+		logger.debug("Recorded LLM usage for {} model {} on {}", key.codesystem(), key.model(), key.date());
+	}
+
+	/**
+	 * Records concepts served from the suggestion cache for the current UTC calendar day.
+	 * These are counted apart from requests and concepts translated, as no tokens were used.
+	 */
+	public void recordCacheHits(String codesystem, String model, String provider, int cacheHits) {
+		if (codesystem == null || codesystem.isBlank() || cacheHits <= 0) {
+			return;
+		}
+		UsageKey key = new UsageKey(codesystem, model, provider, currentUtcDate());
+		addPending(key, new UsageDelta(0, 0, 0, 0, cacheHits));
+		logger.debug("Recorded {} LLM suggestion cache hits for {} model {} on {}", cacheHits, codesystem, model, key.date());
+	}
+
+	/**
+	 * Writes pending usage to the index as one bulk request, with one upsert per code system, model and day.
+	 * Deltas that fail to be written are kept and tried again on the next flush.
+	 */
+	@Scheduled(initialDelayString = "${llm-usage.flush-interval-seconds:10}", fixedDelayString = "${llm-usage.flush-interval-seconds:10}",
+			timeUnit = TimeUnit.SECONDS)
+	public synchronized void flushPendingUsage() {
+		if (pendingUsage.isEmpty()) {
+			return;
+		}
+		Map<String, UsageKey> keysById = new HashMap<>();
+		Map<UsageKey, UsageDelta> flushing = new HashMap<>();
+		List<UpdateQuery> updateQueries = new ArrayList<>();
+		for (UsageKey key : new ArrayList<>(pendingUsage.keySet())) {
+			UsageDelta delta = pendingUsage.remove(key);
+			if (delta != null) {
+				String id = documentId(key.codesystem(), key.model(), key.date());
+				keysById.put(id, key);
+				flushing.put(key, delta);
+				updateQueries.add(toUpdateQuery(id, key, delta));
+			}
+		}
+		if (updateQueries.isEmpty()) {
+			return;
+		}
+
+		IndexCoordinates index = IndexCoordinates.of(indexNameProvider.indexName("llm-usage-daily"));
+		try {
+			elasticsearchOperations.bulkUpdate(updateQueries, index);
+			logger.debug("Wrote LLM usage for {} code system, model and day combinations", updateQueries.size());
+		} catch (BulkFailureException e) {
+			Set<String> failedIds = e.getFailedDocuments().keySet();
+			logger.warn("Failed to write LLM usage for {} of {} documents, will retry. {}", failedIds.size(), updateQueries.size(), e.getMessage());
+			failedIds.stream().map(keysById::get).filter(Objects::nonNull).forEach(key -> addPending(key, flushing.get(key)));
+		} catch (RuntimeException e) {
+			logger.warn("Failed to write LLM usage, will retry. {}", e.getMessage());
+			flushing.forEach(this::addPending);
+		}
+	}
+
+	@PreDestroy
+	public void flushOnShutdown() {
+		flushPendingUsage();
+		if (!pendingUsage.isEmpty()) {
+			logger.error("LLM usage for {} code system, model and day combinations was not written before shutdown", pendingUsage.size());
+		}
+	}
+
+	private void addPending(UsageKey key, UsageDelta delta) {
+		pendingUsage.compute(key, (k, pending) -> pending == null ? delta : pending.plus(delta));
+	}
+
+	private static UpdateQuery toUpdateQuery(String id, UsageKey key, UsageDelta delta) {
+		Map<String, Object> upsert = new HashMap<>();
+		upsert.put("codesystem", key.codesystem());
+		upsert.put("model", key.model());
+		upsert.put("provider", key.provider());
+		upsert.put("date", key.date());
+		upsert.put("inputTokens", delta.inputTokens());
+		upsert.put("outputTokens", delta.outputTokens());
+		upsert.put("requestCount", delta.requestCount());
+		upsert.put("conceptsTranslated", delta.conceptsTranslated());
+		upsert.put("cacheHits", delta.cacheHits());
 		Map<String, Object> params = Map.of(
-				"inputTokens", useRecord.inputTokens(),
-				"outputTokens", useRecord.outputTokens(),
-				"conceptsTranslated", useRecord.conceptsTranslated()
+				"inputTokens", delta.inputTokens(),
+				"outputTokens", delta.outputTokens(),
+				"requestCount", delta.requestCount(),
+				"conceptsTranslated", delta.conceptsTranslated(),
+				"cacheHits", delta.cacheHits()
 		);
 
-		UpdateQuery updateQuery = UpdateQuery.builder(id)
+		// Only this node writes this delta, so conflicts can only come from other nodes
+		return UpdateQuery.builder(id)
 				.withScriptType(ScriptType.INLINE)
 				.withLang("painless")
 				.withScript(INCREMENT_SCRIPT)
@@ -86,10 +169,6 @@ public class LlmUsageService {
 				.withUpsert(Document.from(upsert))
 				.withRetryOnConflict(3)
 				.build();
-
-		IndexCoordinates index = IndexCoordinates.of(indexNameProvider.indexName("llm-usage-daily"));
-		elasticsearchOperations.update(updateQuery, index);
-		logger.debug("Recorded LLM usage for {} model {} on {}", useRecord.codesystem(), useRecord.model(), date);
 	}
 
 	public LlmUsageSummary getSummary(LlmUsagePeriod period, String codesystem, String model) {
@@ -112,6 +191,7 @@ public class LlmUsageService {
 		long outputTokens = 0;
 		long requestCount = 0;
 		long conceptsTranslated = 0;
+		long cacheHits = 0;
 		Map<String, ModelTotals> byModelMap = new LinkedHashMap<>();
 
 		for (LlmUsageDaily useRecord : records) {
@@ -119,6 +199,7 @@ public class LlmUsageService {
 			outputTokens += useRecord.getOutputTokens();
 			requestCount += useRecord.getRequestCount();
 			conceptsTranslated += useRecord.getConceptsTranslated();
+			cacheHits += useRecord.getCacheHits();
 
 			String modelKey = useRecord.getModel() + "|" + useRecord.getProvider();
 			ModelTotals totals = byModelMap.computeIfAbsent(modelKey,
@@ -131,6 +212,7 @@ public class LlmUsageService {
 		summary.setTotalTokens(inputTokens + outputTokens);
 		summary.setRequestCount(requestCount);
 		summary.setConceptsTranslated(conceptsTranslated);
+		summary.setCacheHits(cacheHits);
 
 		List<LlmUsageByModel> byModel = byModelMap.values().stream()
 				.map(ModelTotals::toSummary)
@@ -142,15 +224,19 @@ public class LlmUsageService {
 				.sorted(Comparator.comparing(LlmUsageDaily::getDate).reversed()
 						.thenComparing(LlmUsageDaily::getCodesystem)
 						.thenComparing(LlmUsageDaily::getModel))
-				.map(useRecord -> new LlmUsageDailyBreakdown(
-						useRecord.getDate(),
-						useRecord.getCodesystem(),
-						useRecord.getModel(),
-						useRecord.getProvider(),
-						useRecord.getInputTokens(),
-						useRecord.getOutputTokens(),
-						useRecord.getRequestCount(),
-						useRecord.getConceptsTranslated()))
+				.map(useRecord -> {
+					LlmUsageDailyBreakdown breakdown = new LlmUsageDailyBreakdown(
+							useRecord.getDate(),
+							useRecord.getCodesystem(),
+							useRecord.getModel(),
+							useRecord.getProvider(),
+							useRecord.getInputTokens(),
+							useRecord.getOutputTokens(),
+							useRecord.getRequestCount(),
+							useRecord.getConceptsTranslated());
+					breakdown.setCacheHits(useRecord.getCacheHits());
+					return breakdown;
+				})
 				.toList();
 		summary.setDailyBreakdown(dailyBreakdown);
 
@@ -214,6 +300,7 @@ public class LlmUsageService {
 		private long outputTokens;
 		private long requestCount;
 		private long conceptsTranslated;
+		private long cacheHits;
 
 		private ModelTotals(String model, String provider, OpenAiPricingConfig openAiPricingConfig) {
 			this.model = model;
@@ -226,11 +313,25 @@ public class LlmUsageService {
 			outputTokens += useRecord.getOutputTokens();
 			requestCount += useRecord.getRequestCount();
 			conceptsTranslated += useRecord.getConceptsTranslated();
+			cacheHits += useRecord.getCacheHits();
 		}
 
 		private LlmUsageByModel toSummary() {
 			Double costUsd = openAiPricingConfig.calculateCostUsd(model, inputTokens, outputTokens);
-			return new LlmUsageByModel(model, provider, inputTokens, outputTokens, requestCount, conceptsTranslated, costUsd);
+			LlmUsageByModel byModel = new LlmUsageByModel(model, provider, inputTokens, outputTokens, requestCount, conceptsTranslated, costUsd);
+			byModel.setCacheHits(cacheHits);
+			return byModel;
+		}
+	}
+
+	private record UsageKey(String codesystem, String model, String provider, String date) {
+	}
+
+	private record UsageDelta(long inputTokens, long outputTokens, long requestCount, long conceptsTranslated, long cacheHits) {
+
+		private UsageDelta plus(UsageDelta other) {
+			return new UsageDelta(inputTokens + other.inputTokens, outputTokens + other.outputTokens, requestCount + other.requestCount,
+					conceptsTranslated + other.conceptsTranslated, cacheHits + other.cacheHits);
 		}
 	}
 }
@@ -0,0 +1,48 @@
+package org.snomed.simplex.service;
+
+/**
+ * Reports the record progress of one step of a job as a slice of the parent job's percentage progress.
+ */
+public class PercentageRangeProgressMonitor implements ProgressMonitor {
+
+	private final ProgressMonitor parent;
+	private final int fromPercentage;
+	private final int toPercentage;
+	private int recordsTotal;
+	private int recordsProcessed;
+
+	public PercentageRangeProgressMonitor(ProgressMonitor parent, int fromPercentage, int toPercentage) {
+		this.parent = parent;
+		this.fromPercentage = fromPercentage;
+		this.toPercentage = toPercentage;
+	}
+
+	@Override
+	public void setRecordsTotal(int recordsTotal) {
+		this.recordsTotal = recordsTotal;
+		update();
+	}
+
+	@Override
+	public void setRecordsProcessed(int recordsProcessed) {
+		this.recordsProcessed = recordsProcessed;
+		update();
+	}
+
+	@Override
+	public void incrementRecordsProcessed() {
+		recordsProcessed++;
+		update();
+	}
+
+	@Override
+	public void setProgressPercentageInsteadOfNumber(int progressPercentage) {
+		parent.setProgressPercentageInsteadOfNumber(fromPercentage + (toPercentage - fromPercentage) * progressPercentage / 100);
+	}
+
+	private void update() {
+		if (recordsTotal > 0) {
+			setProgressPercentageInsteadOfNumber((int) (100L * Math.min(recordsProcessed, recordsTotal) / recordsTotal));
+		}
+	}
+}
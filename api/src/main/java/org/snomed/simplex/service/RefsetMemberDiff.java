@@ -0,0 +1,110 @@
+package org.snomed.simplex.service;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import org.snomed.simplex.client.domain.RefsetMember;
+import org.snomed.simplex.domain.RefsetMemberIntent;
+
+import java.util.*;
+
+/**
+ * Works out the member changes needed to bring a stored refset in line with a list of input members.
+ * <p>
+ * Stored members are indexed by referenced component id, so each input member is matched with a hash lookup,
+ * and stored members that were matched are tracked by identity. Stored members that no input member matched
+ * are removed: inactivated if released, otherwise deleted.
+ */
+class RefsetMemberDiff {
+
+	// Prefer unreleased, then inactive, members when several stored members match the same input
+	private static final Comparator<RefsetMember> MATCH_PREFERENCE = Comparator.comparing(RefsetMember::isReleased).thenComparing(RefsetMember::isActive);
+
+	private final List<RefsetMember> storedMembers = new ArrayList<>();
+	private final Long2ObjectOpenHashMap<List<RefsetMember>> storedMembersByComponent = new Long2ObjectOpenHashMap<>();
+
+	interface MemberRules {
+
+		RefsetMember convertToMember(RefsetMemberIntent inputMember);
+
+		boolean matchMember(RefsetMember wantedRefsetMember, RefsetMember storedMember);
+
+		boolean applyMember(RefsetMember wantedRefsetMember, RefsetMember storedMember);
+	}
+
+	record Result(List<RefsetMember> membersToCreate, List<RefsetMember> membersToUpdate, List<RefsetMember> membersToInactivate,
+			List<RefsetMember> membersToDelete, int removedCount) {
+	}
+
+	void addStoredMembers(Collection<RefsetMember> members) {
+		for (RefsetMember member : members) {
+			storedMembers.add(member);
+			long componentId = Long.parseLong(member.getReferencedComponentId());
+			List<RefsetMember> componentMembers = storedMembersByComponent.get(componentId);
+			if (componentMembers == null) {
+				// Most components have a single member
+				componentMembers = new ArrayList<>(1);
+				storedMembersByComponent.put(componentId, componentMembers);
+			}
+			componentMembers.add(member);
+		}
+	}
+
+	int getStoredMemberCount() {
+		return storedMembers.size();
+	}
+
+	/**
+	 * Matches input members against the stored members, applying wanted values to matched stored members.
+	 * Input members must reference existing components, so their ids are numeric.
+	 */
+	Result diff(List<? extends RefsetMemberIntent> inputMembers, MemberRules rules) {
+		for (List<RefsetMember> componentMembers : storedMembersByComponent.values()) {
+			if (componentMembers.size() > 1) {
+				componentMembers.sort(MATCH_PREFERENCE);
+			}
+		}
+
+		List<RefsetMember> membersToCreate = new ArrayList<>();
+		List<RefsetMember> membersToUpdate = new ArrayList<>();
+		Set<RefsetMember> updated = Collections.newSetFromMap(new IdentityHashMap<>());
+		Set<RefsetMember> kept = Collections.newSetFromMap(new IdentityHashMap<>());
+		for (RefsetMemberIntent inputMember : inputMembers) {
+			RefsetMember wantedRefsetMember = rules.convertToMember(inputMember);
+			List<RefsetMember> componentMembers = storedMembersByComponent.get(Long.parseLong(inputMember.getReferenceComponentId()));
+			RefsetMember match = null;
+			if (componentMembers != null) {
+				for (RefsetMember storedMember : componentMembers) {
+					if (rules.matchMember(wantedRefsetMember, storedMember)) {
+						match = storedMember;
+						break;
+					}
+				}
+			}
+			if (match == null) {
+				membersToCreate.add(wantedRefsetMember);
+			} else if (rules.applyMember(wantedRefsetMember, match)) {
+				// A repeated input may change a member that an earlier input left alone
+				kept.remove(match);
+				if (updated.add(match)) {
+					membersToUpdate.add(match);
+				}
+			} else if (!updated.contains(match)) {
+				kept.add(match);
+			}
+		}
+
+		List<RefsetMember> membersToInactivate = new ArrayList<>();
+		List<RefsetMember> membersToDelete = new ArrayList<>();
+		int removedCount = 0;
+		for (RefsetMember storedMember : storedMembers) {
+			if (!kept.contains(storedMember) && !updated.contains(storedMember)) {
+				removedCount++;
+				if (!storedMember.isReleased()) {
+					membersToDelete.add(storedMember);
+				} else if (storedMember.isActive()) {
+					membersToInactivate.add(storedMember);
+				}
+			}
+		}
+		return new Result(membersToCreate, membersToUpdate, membersToInactivate, membersToDelete, removedCount);
+	}
+}
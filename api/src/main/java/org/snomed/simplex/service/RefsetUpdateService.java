@@ -1,6 +1,5 @@
 package org.snomed.simplex.service;
 
-import org.apache.poi.ss.usermodel.Workbook;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.snomed.simplex.client.SnowstormClient;
@@ -18,6 +17,9 @@ import org.snomed.simplex.service.spreadsheet.SheetRowToComponentIntentExtractor
 import java.io.IOException;
 import java.io.OutputStream;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -27,6 +29,8 @@ import static java.util.function.Predicate.not;
 
 public abstract class RefsetUpdateService<T extends RefsetMemberIntent> {
 
+	private static final String PROCESSING_FAILED = "Processing refset %s \"%s\" failed.";
+
 	private final SpreadsheetService spreadsheetService;
 	private final SnowstormClientFactory snowstormClientFactory;
 
@@ -39,41 +43,51 @@ public abstract class RefsetUpdateService<T extends RefsetMemberIntent> {
 
 	public void downloadRefsetAsSpreadsheet(String refsetId, OutputStream outputStream, CodeSystem codeSystem) throws ServiceException, IOException {
 		SnowstormClient snowstormClient = getSnowstormClient();
-		List<RefsetMember> members = snowstormClient.loadAllRefsetMembers(refsetId, codeSystem, true);
+		Map<String, Function<RefsetMember, String>> refsetColumns = getRefsetToSpreadsheetConversionMap();
 
-		members.sort(Comparator.comparing(RefsetMember::getReferencedComponentId));
+		// Keep only the cell values of each page, not the members themselves
+		List<ExportRow> rows = new ArrayList<>();
+		snowstormClient.streamRefsetMembers(refsetId, codeSystem, true, page -> {
+			for (RefsetMember member : page) {
+				String[] cells = refsetColumns.values().stream().map(column -> column.apply(member)).toArray(String[]::new);
+				rows.add(new ExportRow(member.getReferencedComponentId(), cells));
+			}
+		});
+		rows.sort(Comparator.comparing(ExportRow::referencedComponentId));
 
-		Map<String, Function<RefsetMember, String>> refsetColumns = getRefsetToSpreadsheetConversionMap();
-		try (Workbook workbook = spreadsheetService.createRefsetSpreadsheet(members, refsetColumns)) {
-			workbook.write(outputStream);
-		}
+		spreadsheetService.writeRefsetSpreadsheet(refsetColumns.keySet(), rows.stream().map(ExportRow::cells).iterator(), outputStream);
 	}
 
-	public ChangeSummary updateRefsetViaSpreadsheet(ContentJob contentJob) throws ServiceException {
+	/**
+	 * @param jobExecutor runs the rest of the update once the Snowstorm bulk jobs have completed
+	 */
+	public CompletableFuture<ChangeSummary> updateRefsetViaSpreadsheet(ContentJob contentJob, Executor jobExecutor) throws ServiceException {
 		CodeSystem codeSystem = contentJob.getCodeSystemObject();
 		// Check refset exists
 		ConceptMini refset = getSnowstormClient().getRefsetOrThrow(contentJob.getRefsetId(), codeSystem);
 		List<T> sheetMembers = spreadsheetService.readComponentSpreadsheet(contentJob.getInputStream(), getInputSheetExpectedHeaders(),
 				getInputSheetMemberExtractor(), 0);
-		return update(refset, sheetMembers, codeSystem, contentJob);
+		return update(refset, sheetMembers, codeSystem, contentJob, jobExecutor);
 	}
 
-	public ChangeSummary updateRefsetViaCustomFile(ContentJob contentJob, SubsetUploadProvider uploadProvider) throws ServiceException {
-		return updateRefsetViaCustomFile(contentJob.getRefsetId(), uploadProvider, contentJob.getCodeSystemObject(), contentJob);
+	public CompletableFuture<ChangeSummary> updateRefsetViaCustomFile(ContentJob contentJob, SubsetUploadProvider uploadProvider, Executor jobExecutor) throws ServiceException {
+		return updateRefsetViaCustomFile(contentJob.getRefsetId(), uploadProvider, contentJob.getCodeSystemObject(), contentJob, jobExecutor);
 	}
 
-	public ChangeSummary updateRefsetViaCustomFile(String refsetId, SubsetUploadProvider uploadProvider, CodeSystem codeSystem, ProgressMonitor progressMonitor) throws ServiceException {
+	public CompletableFuture<ChangeSummary> updateRefsetViaCustomFile(String refsetId, SubsetUploadProvider uploadProvider, CodeSystem codeSystem,
+			ProgressMonitor progressMonitor, Executor jobExecutor) throws ServiceException {
 		ConceptMini refset = getSnowstormClient().getRefsetOrThrow(refsetId, codeSystem);
 		List<RefsetMemberIntent> refsetMembers = uploadProvider.readUpload();
-		return update(refset, refsetMembers, codeSystem, progressMonitor);
+		return update(refset, refsetMembers, codeSystem, progressMonitor, jobExecutor);
 	}
 
-	public ChangeSummary updateRefsetViaEcl(String refsetId, String ecl, String selectionCodesystem, CodeSystem codeSystem, ProgressMonitor progressMonitor) throws ServiceException {
+	public CompletableFuture<ChangeSummary> updateRefsetViaEcl(String refsetId, String ecl, String selectionCodesystem, CodeSystem codeSystem,
+			ProgressMonitor progressMonitor, Executor jobExecutor) throws ServiceException {
 		ServiceHelper.requiredParameter("ecl", ecl);
 		ServiceHelper.requiredParameter("selectionCodesystem", selectionCodesystem);
 		ConceptMini refset = getSnowstormClient().getRefsetOrThrow(refsetId, codeSystem);
 		List<RefsetMemberIntent> refsetMembers = readMembersFromEcl(ecl, selectionCodesystem, progressMonitor);
-		return update(refset, refsetMembers, codeSystem, progressMonitor);
+		return update(refset, refsetMembers, codeSystem, progressMonitor, jobExecutor);
 	}
 
 	private List<RefsetMemberIntent> readMembersFromEcl(String ecl, String selectionCodesystem, ProgressMonitor progressMonitor) throws ServiceException {
@@ -101,7 +115,12 @@ public abstract class RefsetUpdateService<T extends RefsetMemberIntent> {
 		return snowstormClient.getConceptIdStream(selectionCodeSystem.getBranchPath(), ecl);
 	}
 
-	private ChangeSummary update(ConceptMini refset, List<? extends RefsetMemberIntent> inputMembers, CodeSystem codeSystem, ProgressMonitor progressMonitor) throws ServiceException {
+	/**
+	 * Works out the member changes and starts the bulk create/update jobs. The job thread is not held while Snowstorm runs them;
+	 * deletes and the final count run on {@code jobExecutor} once they have completed.
+	 */
+	private CompletableFuture<ChangeSummary> update(ConceptMini refset, List<? extends RefsetMemberIntent> inputMembers, CodeSystem codeSystem,
+			ProgressMonitor progressMonitor, Executor jobExecutor) throws ServiceException {
 		String refsetId = refset.getConceptId();
 		String refsetTerm = refset.getPtOrFsnOrConceptId();
 		progressMonitor.setRecordsTotal(inputMembers.size());
@@ -109,70 +128,45 @@ public abstract class RefsetUpdateService<T extends RefsetMemberIntent> {
 			SnowstormClient snowstormClient = getSnowstormClient();
 			logger.info("Updating refset {} \"{}\", read {} members from spreadsheet.", refsetId, refsetTerm, inputMembers.size());
 
-			// Read members from Snowstorm
-			List<RefsetMember> allStoredMembers = snowstormClient.loadAllRefsetMembers(refsetId, codeSystem, false);
-			logger.info("Updating refset {} \"{}\", loaded {} members from Snowstorm for comparison.", refsetId, refsetTerm, allStoredMembers.size());
+			// Read members from Snowstorm, indexing each page by concept as it arrives
+			RefsetMemberDiff memberDiff = new RefsetMemberDiff();
+			snowstormClient.streamRefsetMembers(refsetId, codeSystem, false, memberDiff::addStoredMembers);
+			logger.info("Updating refset {} \"{}\", loaded {} members from Snowstorm for comparison.", refsetId, refsetTerm, memberDiff.getStoredMemberCount());
 			// Progress is ~25%
 			progressMonitor.setProgressPercentageInsteadOfNumber(25);
 
 			// Ignore sheet members where concept does not exist
 			Set<String> inputMemberConceptIds = inputMembers.stream().map(RefsetMemberIntent::getReferenceComponentId).collect(Collectors.toSet());
-			List<String> conceptsExist = snowstormClient.getConceptIds(inputMemberConceptIds, codeSystem).stream().map(Object::toString).toList();
-			List<String> conceptsDoNotExist = new ArrayList<>(inputMemberConceptIds);
-			conceptsDoNotExist.removeAll(conceptsExist);
+			Set<String> conceptsExist = snowstormClient.getConceptIds(inputMemberConceptIds, codeSystem).stream().map(Object::toString).collect(Collectors.toSet());
+			List<String> conceptsDoNotExist = inputMemberConceptIds.stream().filter(not(conceptsExist::contains)).toList();
 			if (!conceptsDoNotExist.isEmpty()) {
 				logger.error("{} concepts do not exist: {}", conceptsDoNotExist.size(), conceptsDoNotExist);
 				// TODO: Should we alert the user?
 				inputMembers = inputMembers.stream().filter(sheetMember -> conceptsExist.contains(sheetMember.getReferenceComponentId())).collect(Collectors.toList());
 			}
 
-			// Create map of existing members
-			Map<String, List<RefsetMember>> storedMemberMap = new HashMap<>();
-			for (RefsetMember storedMember : allStoredMembers) {
-				storedMemberMap.computeIfAbsent(storedMember.getReferencedComponentId(), key -> new ArrayList<>()).add(storedMember);
-			}
-
-			// Create collections of members to create, update and leave alone. Those not in the sets will be deleted.
-			List<RefsetMember> membersToCreate = new ArrayList<>();
-			List<RefsetMember> membersToUpdate = new ArrayList<>();
-			List<RefsetMember> membersToKeep = new ArrayList<>();
-
-			for (RefsetMemberIntent inputMember : inputMembers) {
-
-				RefsetMember wantedRefsetMember = convertToMember(inputMember, refsetId, codeSystem.getDefaultModuleOrThrow());
-
-				// Lookup existing member(s)
-				List<RefsetMember> storedMembers = storedMemberMap.getOrDefault(inputMember.getReferenceComponentId(), Collections.emptyList());
-				storedMembers.sort(Comparator.comparing(RefsetMember::isReleased).thenComparing(RefsetMember::isActive));
-				boolean found = false;
-				for (RefsetMember storedMember : storedMembers) {
-					if (matchMember(wantedRefsetMember, storedMember)) {
-						found = true;
-						if (applyMember(wantedRefsetMember, storedMember)) {
-							membersToUpdate.add(storedMember);
-						} else {
-							membersToKeep.add(storedMember);
-						}
-						break;
-					}
+			// Work out members to create, update and leave alone. Stored members not matched will be removed.
+			String moduleId = codeSystem.getDefaultModuleOrThrow();
+			RefsetMemberDiff.Result diff = memberDiff.diff(inputMembers, new RefsetMemberDiff.MemberRules() {
+				@Override
+				public RefsetMember convertToMember(RefsetMemberIntent inputMember) {
+					return RefsetUpdateService.this.convertToMember(inputMember, refsetId, moduleId);
 				}
-				if (!found) {
-					membersToCreate.add(wantedRefsetMember);
-				}
-			}
 
-			List<RefsetMember> membersToRemove = allStoredMembers.stream()
-					.filter(not(membersToKeep::contains))
-					.filter(not(membersToUpdate::contains))
-					.toList();
+				@Override
+				public boolean matchMember(RefsetMember wantedRefsetMember, RefsetMember storedMember) {
+					return RefsetUpdateService.this.matchMember(wantedRefsetMember, storedMember);
+				}
 
-			List<RefsetMember> membersToInactivate = membersToRemove.stream()
-					.filter(RefsetMember::isReleased)
-					.filter(RefsetMember::isActive)
-					.toList();
-			List<RefsetMember> membersToDelete = membersToRemove.stream()
-					.filter(not(RefsetMember::isReleased))
-					.toList();
+				@Override
+				public boolean applyMember(RefsetMember wantedRefsetMember, RefsetMember storedMember) {
+					return RefsetUpdateService.this.applyMember(wantedRefsetMember, storedMember);
+				}
+			});
+			List<RefsetMember> membersToCreate = diff.membersToCreate();
+			List<RefsetMember> membersToUpdate = diff.membersToUpdate();
+			List<RefsetMember> membersToInactivate = diff.membersToInactivate();
+			List<RefsetMember> membersToDelete = diff.membersToDelete();
 
 			logger.info("Member changes required: {} create, {} update, {} delete, {} inactivate.",
 					membersToCreate.size(), membersToUpdate.size(), membersToDelete.size(), membersToInactivate.size());
@@ -184,25 +178,43 @@ public abstract class RefsetUpdateService<T extends RefsetMemberIntent> {
 			membersToUpdateCreate.addAll(membersToUpdate);
 			membersToInactivate.forEach(memberToInactivate -> memberToInactivate.setActive(false));
 			membersToUpdateCreate.addAll(membersToInactivate);
+			CompletableFuture<Void> createUpdate = CompletableFuture.completedFuture(null);
 			if (!membersToUpdateCreate.isEmpty()) {
-				// Send all as batch
+				// Send in chunked bulk jobs
 				logger.info("Running bulk create/update...");
-				snowstormClient.createUpdateRefsetMembers(membersToUpdateCreate, codeSystem);
-			}
-			progressMonitor.setProgressPercentageInsteadOfNumber(75);
-			if (!membersToDelete.isEmpty()) {
-				logger.info("Running bulk delete...");
-				snowstormClient.deleteRefsetMembers(membersToDelete, codeSystem);
+				createUpdate = snowstormClient.createUpdateRefsetMembersAsync(membersToUpdateCreate, codeSystem,
+						new PercentageRangeProgressMonitor(progressMonitor, 50, 75));
 			}
+			return createUpdate.thenApplyAsync(done -> {
+				try {
+					progressMonitor.setProgressPercentageInsteadOfNumber(75);
+					if (!membersToDelete.isEmpty()) {
+						logger.info("Running bulk delete...");
+						snowstormClient.deleteRefsetMembers(membersToDelete, codeSystem, new PercentageRangeProgressMonitor(progressMonitor, 75, 100));
+					}
 
-			int newActiveCount = snowstormClient.countAllActiveRefsetMembers(refsetId, codeSystem);
-			progressMonitor.setProgressPercentageInsteadOfNumber(100);
+					int newActiveCount = snowstormClient.countAllActiveRefsetMembers(refsetId, codeSystem);
+					progressMonitor.setProgressPercentageInsteadOfNumber(100);
 
-			logger.info("Processing refset {} \"{}\" complete.", refsetId, refsetTerm);
-			return new ChangeSummary(membersToCreate.size(), membersToUpdate.size(), membersToRemove.size(), newActiveCount);
+					logger.info("Processing refset {} \"{}\" complete.", refsetId, refsetTerm);
+					return new ChangeSummary(membersToCreate.size(), membersToUpdate.size(), diff.removedCount(), newActiveCount);
+				} catch (ServiceException e) {
+					throw new CompletionException(e);
+				}
+			}, jobExecutor).exceptionally(throwable -> {
+				throw processingFailed(refsetId, refsetTerm, throwable);
+			});
 		} catch (ServiceException e) {
-			throw new ServiceException(format("Processing refset %s \"%s\" failed.", refsetId, refsetTerm), e);
+			throw new ServiceException(format(PROCESSING_FAILED, refsetId, refsetTerm), e);
+		}
+	}
+
+	private static CompletionException processingFailed(String refsetId, String refsetTerm, Throwable throwable) {
+		Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+		if (cause instanceof ServiceException serviceException) {
+			return new CompletionException(new ServiceException(format(PROCESSING_FAILED, refsetId, refsetTerm), serviceException));
 		}
+		return throwable instanceof CompletionException completionException ? completionException : new CompletionException(throwable);
 	}
 
 	public void deleteRefsetMembersAndConcept(String refsetId, CodeSystem codeSystem) throws ServiceException {
@@ -245,4 +257,7 @@ public abstract class RefsetUpdateService<T extends RefsetMemberIntent> {
 		return snowstormClientFactory.getClient();
 	}
 
+	private record ExportRow(String referencedComponentId, String[] cells) {
+	}
+
 }
\ No newline at end of file
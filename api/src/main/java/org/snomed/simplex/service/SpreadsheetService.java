@@ -2,10 +2,10 @@ package org.snomed.simplex.service;
 
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.apache.poi.xssf.usermodel.XSSFCell;
 import org.apache.poi.xssf.usermodel.XSSFFont;
 import org.apache.poi.xssf.usermodel.XSSFRichTextString;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.snomed.simplex.client.domain.*;
 import org.snomed.simplex.client.rvf.ValidationReport;
 import org.snomed.simplex.domain.ComponentIntent;
@@ -15,20 +15,23 @@ import org.snomed.simplex.exceptions.ServiceExceptionWithStatusCode;
 import org.snomed.simplex.service.spreadsheet.HeaderConfiguration;
 import org.snomed.simplex.service.spreadsheet.SheetHeader;
 import org.snomed.simplex.service.spreadsheet.SheetRowToComponentIntentExtractor;
+import org.snomed.simplex.service.spreadsheet.StreamingSheetReader;
 import org.snomed.simplex.util.CollectionUtils;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 
 import static org.snomed.simplex.client.domain.Concepts.IS_A;
 
@@ -39,64 +42,86 @@ public class SpreadsheetService {
 	public static final String NEW_LINE = "\n";
 	public static final String SIMPLEX_BRANCH_TIMESTAMP_PREFIX = "Simplex branch timestamp:";
 
+	// Rows held in memory while writing a streaming workbook, older rows are flushed to a temporary file
+	private static final int STREAMING_ROW_WINDOW = 500;
+
 	static {
 		BOLD_FONT.setBold(true);
 	}
 
-	public Workbook createRefsetSpreadsheet(List<RefsetMember> members, Map<String, Function<RefsetMember, String>> refsetColumns) {
-		Workbook workbook = new XSSFWorkbook();
-		Sheet sheet = workbook.createSheet();
-
-		// Format all value cells as text.
-		// To prevent them being automatically formatted as number because that can lead to formatting / rounding issues.
-		CellStyle cellStyle = getCellStyle(workbook);
-
-		int rowOffset = 0;
-		Row headerRow = sheet.createRow(rowOffset++);
-		int columnOffset = 0;
-		for (String columnName : refsetColumns.keySet()) {
-			Cell cell = headerRow.createCell(columnOffset++);
-			XSSFRichTextString textString = new XSSFRichTextString(columnName);
-			textString.applyFont(BOLD_FONT);
-			cell.setCellValue(textString);
-		}
-		List<Row> dataRows = new ArrayList<>();
-		for (RefsetMember member : members) {
-			columnOffset = 0;
-			Row row = sheet.createRow(rowOffset++);
-			for (Map.Entry<String, Function<RefsetMember, String>> column : refsetColumns.entrySet()) {
-				Cell cell = row.createCell(columnOffset++);
-				cell.setCellStyle(cellStyle);
-				cell.setCellValue(column.getValue().apply(member));
+	/**
+	 * Streams a refset spreadsheet to the output stream, keeping only a window of rows in memory.
+	 * Column widths are estimated from the header and the first rows.
+	 */
+	public void writeRefsetSpreadsheet(Collection<String> columnNames, Iterator<String[]> rows, OutputStream outputStream) throws IOException {
+		SXSSFWorkbook workbook = new SXSSFWorkbook(STREAMING_ROW_WINDOW);
+		try {
+			Sheet sheet = workbook.createSheet();
+			ColumnSizer columnSizer = new ColumnSizer(sheet);
+
+			// Format all value cells as text.
+			// To prevent them being automatically formatted as number because that can lead to formatting / rounding issues.
+			CellStyle cellStyle = getCellStyle(workbook);
+			// Inline strings do not keep rich text, so the header is made bold using a style
+			CellStyle headerStyle = workbook.createCellStyle();
+			Font boldFont = workbook.createFont();
+			boldFont.setBold(true);
+			headerStyle.setFont(boldFont);
+
+			int rowOffset = 0;
+			Row headerRow = sheet.createRow(rowOffset++);
+			int columnOffset = 0;
+			for (String columnName : columnNames) {
+				Cell cell = headerRow.createCell(columnOffset++);
+				cell.setCellStyle(headerStyle);
+				cell.setCellValue(columnName);
 			}
-			dataRows.add(row);
-		}
-
-		resizeColumns(sheet, dataRows);
+			columnSizer.sampleWidths(headerRow);
+			while (rows.hasNext()) {
+				String[] cells = rows.next();
+				columnOffset = 0;
+				Row row = sheet.createRow(rowOffset++);
+				for (String value : cells) {
+					Cell cell = row.createCell(columnOffset++);
+					cell.setCellStyle(cellStyle);
+					cell.setCellValue(value);
+				}
+				columnSizer.addDataRow(row);
+			}
+			columnSizer.applyWidths();
 
-		return workbook;
+			workbook.write(outputStream);
+		} finally {
+			disposeAndClose(workbook);
+		}
 	}
 
-	public Workbook createConceptSpreadsheet(List<SheetHeader> headers, List<Concept> concepts, List<ConceptMini> langRefsets, long contentHeadTimestamp) {
-		Workbook workbook = new XSSFWorkbook();
-		Sheet sheet = workbook.createSheet();
-		addHeader(headers, contentHeadTimestamp, sheet);
-
-		List<Row> dataRows = new ArrayList<>();
-		// Format all value cells as text.
-		// To prevent them being automatically formatted as number because that can lead to formatting / rounding issues.
-		CellStyle cellStyle = getCellStyle(workbook);
-		int rowOffset = 1;
-		for (Concept concept : concepts) {
-			rowOffset = addConceptRows(langRefsets, concept, sheet, rowOffset, cellStyle, dataRows);
-		}
+	public void writeConceptSpreadsheet(List<SheetHeader> headers, List<Concept> concepts, List<ConceptMini> langRefsets, long contentHeadTimestamp,
+			OutputStream outputStream) throws IOException {
 
-		resizeColumns(sheet, dataRows);
+		SXSSFWorkbook workbook = newStreamingWorkbookWithRichText();
+		try {
+			Sheet sheet = workbook.createSheet();
+			ColumnSizer columnSizer = new ColumnSizer(sheet);
+			Row headerRow = addHeader(headers, contentHeadTimestamp, sheet);
+			columnSizer.sampleWidths(headerRow, headers.size());
+
+			// Format all value cells as text.
+			// To prevent them being automatically formatted as number because that can lead to formatting / rounding issues.
+			CellStyle cellStyle = getCellStyle(workbook);
+			int rowOffset = 1;
+			for (Concept concept : concepts) {
+				rowOffset = addConceptRows(langRefsets, concept, sheet, rowOffset, cellStyle, columnSizer);
+			}
+			columnSizer.applyWidths();
 
-		return workbook;
+			workbook.write(outputStream);
+		} finally {
+			disposeAndClose(workbook);
+		}
 	}
 
-	private static void addHeader(List<SheetHeader> headers, long contentHeadTimestamp, Sheet sheet) {
+	private static Row addHeader(List<SheetHeader> headers, long contentHeadTimestamp, Sheet sheet) {
 		Row headerRow = sheet.createRow(0);
 		headerRow.setHeight((short) (headerRow.getHeight() * 4));
 		int columnOffset = 0;
@@ -121,9 +146,10 @@ public class SpreadsheetService {
 		XSSFRichTextString textString = new XSSFRichTextString();
 		textString.append((SIMPLEX_BRANCH_TIMESTAMP_PREFIX + "%s").formatted(contentHeadTimestamp));
 		timestampCell.setCellValue(textString);
+		return headerRow;
 	}
 
-	private static int addConceptRows(List<ConceptMini> langRefsets, Concept concept, Sheet sheet, int rowOffset, CellStyle cellStyle, List<Row> dataRows) {
+	private static int addConceptRows(List<ConceptMini> langRefsets, Concept concept, Sheet sheet, int rowOffset, CellStyle cellStyle, ColumnSizer columnSizer) {
 		Row row = sheet.createRow(rowOffset++);
 
 		// Parent Concept Identifier | Parent Concept Term | Concept Identifier | Active | Terms in English, US dialect | [0.*] Terms in X
@@ -150,7 +176,7 @@ public class SpreadsheetService {
 		int maxTerms = descriptionsPerLangRefset.values().stream().map(List::size).max(Integer::compare).orElse(1);
 		for (int i = 0; i < maxTerms; i++) {
 			if (i > 0) {
-				dataRows.add(row);
+				columnSizer.addDataRow(row);
 				row = sheet.createRow(rowOffset++);
 			}
 			int termColumnOffset = columnOffset;
@@ -165,7 +191,7 @@ public class SpreadsheetService {
 				cell.setCellValue(term);
 			}
 		}
-		dataRows.add(row);
+		columnSizer.addDataRow(row);
 		return rowOffset;
 	}
 
@@ -191,9 +217,19 @@ public class SpreadsheetService {
 		cell.setCellValue(parentFSN);
 	}
 
-	public Workbook createValidationReportSpreadsheet(ValidationReport validationReport) {
-		Workbook workbook = new XSSFWorkbook();
-		Sheet sheet = workbook.createSheet();
+	public void writeValidationReportSpreadsheet(ValidationReport validationReport, OutputStream outputStream) throws IOException {
+		SXSSFWorkbook workbook = newStreamingWorkbookWithRichText();
+		try {
+			Sheet sheet = workbook.createSheet();
+			addValidationReport(validationReport, sheet, workbook);
+			workbook.write(outputStream);
+		} finally {
+			disposeAndClose(workbook);
+		}
+	}
+
+	private static void addValidationReport(ValidationReport validationReport, Sheet sheet, Workbook workbook) {
+		ColumnSizer columnSizer = new ColumnSizer(sheet);
 
 		CellStyle cellStyle = getCellStyle(workbook);
 
@@ -209,6 +245,7 @@ public class SpreadsheetService {
 			sheet.setColumnWidth(columnOffset, headerColumn.getRight());
 			columnOffset++;
 		}
+		columnSizer.sampleWidths(headerRow);
 
 		ValidationReport.TestResult testResult = validationReport.rvfValidationResult().TestResult();
 		int errors = testResult.totalFailures();
@@ -220,12 +257,13 @@ public class SpreadsheetService {
 		XSSFRichTextString textString = new XSSFRichTextString(message);
 		messageCell.setCellValue(textString);
 		messageCell.setCellStyle(cellStyle);
+		columnSizer.addDataRow(messageRow);
 
 		rowOffset.getAndIncrement();
 		rowOffset.getAndIncrement();
 
-		addValidationFailures(testResult.assertionsFailed(), true, rowOffset, sheet, cellStyle);
-		addValidationFailures(testResult.assertionsWarning(), false, rowOffset, sheet, cellStyle);
+		addValidationFailures(testResult.assertionsFailed(), true, rowOffset, sheet, cellStyle, columnSizer);
+		addValidationFailures(testResult.assertionsWarning(), false, rowOffset, sheet, cellStyle, columnSizer);
 
 		// Example:
 		// Report Timestamp: Feb 7, 2024, 5:50:04 PM (UTC), Identifier: 1707327746182
@@ -234,13 +272,11 @@ public class SpreadsheetService {
 				validationReport.rvfValidationResult().startTime(),
 				validationReport.rvfValidationResult().validationConfig().runId()));
 
-		resizeColumns(sheet);
-
-		return workbook;
+		columnSizer.applyWidths();
 	}
 
 	private static void addValidationFailures(List<ValidationReport.Assertion> assertions, boolean error,
-											  AtomicInteger rowOffset, Sheet sheet, CellStyle cellStyle) {
+											  AtomicInteger rowOffset, Sheet sheet, CellStyle cellStyle, ColumnSizer columnSizer) {
 
 		for (ValidationReport.Assertion assertion : assertions) {
 			Row ruleRow = sheet.createRow(rowOffset.getAndIncrement());
@@ -260,6 +296,9 @@ public class SpreadsheetService {
 			ruleText.applyFont(BOLD_FONT);
 			cell.setCellValue(ruleText);
 			cell.setCellStyle(cellStyle);
+			if (CollectionUtils.orEmpty(assertion.firstNInstances()).isEmpty()) {
+				columnSizer.addDataRow(ruleRow);
+			}
 
 			Row failureRow = ruleRow;
 			for (ValidationReport.AssertionIssue failureInstance : CollectionUtils.orEmpty(assertion.firstNInstances())) {
@@ -282,6 +321,7 @@ public class SpreadsheetService {
 				if (!detailMessage.isEmpty()) {
 					failureRow.createCell(2).setCellValue(detailMessage.toString());
 				}
+				columnSizer.addDataRow(failureRow);
 
 				failureRow = sheet.createRow(rowOffset.getAndIncrement());// may be left blank if no failures left
 			}
@@ -333,60 +373,119 @@ public class SpreadsheetService {
 		return cellStyle;
 	}
 
-	private static void resizeColumns(Sheet sheet) {
-		List<Row> rows = IntStream.range(0, sheet.getLastRowNum()).mapToObj(sheet::getRow).toList();
-		resizeColumns(sheet, rows);
+	private static SXSSFWorkbook newStreamingWorkbookWithRichText() {
+		// The shared strings table keeps rich text formatting, such as bold header names
+		return new SXSSFWorkbook(null, STREAMING_ROW_WINDOW, true, true);
 	}
 
-	private static void resizeColumns(Sheet sheet, List<Row> rows) {
-		for (int col = 0; col < 50; col++) {
-			sheet.autoSizeColumn(col);
-			int columnWidth = sheet.getColumnWidth(col);
-			if (columnWidth > 15_000) {
-				sheet.setColumnWidth(col, 15_000);
-				// Adjust the height of cells with long strings.
-				// The API does not seem capable of doing this automatically on a way that works on all platforms.
-				for (Row dataRow : rows) {
-					if (dataRow == null) continue;
-					Cell cell = dataRow.getCell(col);
-					if (cell != null) {
-						RichTextString richStringCellValue = cell.getRichStringCellValue();
-						String string = richStringCellValue.getString();
-						int lines = (string.length() / 65) + 1;
-						int newLines = string.split("\n").length - 1;
-						dataRow.setHeight((short) (dataRow.getHeight() * (lines + newLines)));
-					}
+	private static void disposeAndClose(SXSSFWorkbook workbook) throws IOException {
+		// Deletes the temporary files that hold rows flushed out of the window
+		workbook.dispose();
+		workbook.close();
+	}
+
+	/**
+	 * Sizes columns without the full auto-size pass, which needs every row in memory.
+	 * Widths are estimated from the longest line in each column of the header and the first {@value #WIDTH_SAMPLE_ROWS} data rows,
+	 * capped at {@value #MAX_COLUMN_WIDTH}. Rows are made taller as they are added if a long value will wrap.
+	 */
+	static final class ColumnSizer {
+
+		private static final int WIDTH_SAMPLE_ROWS = 1_000;
+		private static final int MAX_COLUMN_WIDTH = 15_000;
+		private static final int MIN_COLUMN_WIDTH = 2_000;
+		private static final int WIDTH_UNITS_PER_CHAR = 256;
+		private static final int CHARS_PER_WRAPPED_LINE = 65;
+
+		private final Sheet sheet;
+		private final Map<Integer, Integer> maxLineLengths = new HashMap<>();
+		private int sampledRows;
+
+		ColumnSizer(Sheet sheet) {
+			this.sheet = sheet;
+		}
+
+		void addDataRow(Row row) {
+			if (sampledRows < WIDTH_SAMPLE_ROWS) {
+				sampledRows++;
+				sampleWidths(row);
+			}
+			fitHeight(row);
+		}
+
+		void sampleWidths(Row row) {
+			sampleWidths(row, Integer.MAX_VALUE);
+		}
+
+		void sampleWidths(Row row, int columnLimit) {
+			for (Cell cell : row) {
+				if (cell.getColumnIndex() < columnLimit) {
+					maxLineLengths.merge(cell.getColumnIndex(), longestLine(getString(cell)), Math::max);
 				}
 			}
 		}
+
+		void applyWidths() {
+			for (Map.Entry<Integer, Integer> column : maxLineLengths.entrySet()) {
+				int width = (column.getValue() + 2) * WIDTH_UNITS_PER_CHAR;
+				sheet.setColumnWidth(column.getKey(), Math.max(MIN_COLUMN_WIDTH, Math.min(width, MAX_COLUMN_WIDTH)));
+			}
+		}
+
+		private void fitHeight(Row row) {
+			int lines = 1;
+			for (Cell cell : row) {
+				String string = getString(cell);
+				int newLines = string.split("\n").length - 1;
+				int wrappedLines = string.length() * WIDTH_UNITS_PER_CHAR > MAX_COLUMN_WIDTH ? (string.length() / CHARS_PER_WRAPPED_LINE) + 1 : 1;
+				lines = Math.max(lines, wrappedLines + newLines);
+			}
+			if (lines > 1) {
+				row.setHeight((short) Math.min(Short.MAX_VALUE, sheet.getDefaultRowHeight() * lines));
+			}
+		}
+
+		private static String getString(Cell cell) {
+			return cell.getCellType() == CellType.STRING ? cell.getStringCellValue() : "";
+		}
+
+		private static int longestLine(String string) {
+			int longest = 0;
+			for (String line : string.split("\n")) {
+				longest = Math.max(longest, line.length());
+			}
+			return longest;
+		}
 	}
 
 	public <T extends ComponentIntent> List<T> readComponentSpreadsheet(InputStream spreadsheetStream, List<SheetHeader> expectedHeader,
 			SheetRowToComponentIntentExtractor<T> componentIntentExtractor, long expectedContentHeadTimestampOrZero) throws ServiceException {
 
-		int rowNumber = 0;
-		try {
-			List<T> components = new ArrayList<>();
-			try (Workbook workbook = new XSSFWorkbook(spreadsheetStream)) {
-				Sheet sheet = workbook.getSheetAt(0);
-				HeaderConfiguration headerConfiguration = null;
-				for (Row cells : sheet) {
-					rowNumber++;
-					if (headerConfiguration == null) {
-						verifySheetMatchesLatestCommit(cells, expectedContentHeadTimestampOrZero);
-						headerConfiguration = getHeaderConfiguration(cells, expectedHeader);
-					} else {
-						T componentIntent = componentIntentExtractor.extract(cells, rowNumber, headerConfiguration);
-						if (componentIntent != null) {
-							components.add(componentIntent);
-						}
-					}
+		List<T> components = new ArrayList<>();
+		readComponentSpreadsheet(spreadsheetStream, expectedHeader, componentIntentExtractor, expectedContentHeadTimestampOrZero, components::add);
+		return components;
+	}
+
+	/**
+	 * Streams the first sheet of an uploaded spreadsheet, passing each component intent to the consumer as its row is read.
+	 * Rows are read from SAX events one at a time, so memory use does not grow with the size of the sheet.
+	 */
+	public <T extends ComponentIntent> void readComponentSpreadsheet(InputStream spreadsheetStream, List<SheetHeader> expectedHeader,
+			SheetRowToComponentIntentExtractor<T> componentIntentExtractor, long expectedContentHeadTimestampOrZero,
+			Consumer<T> componentIntentConsumer) throws ServiceException {
+
+		AtomicReference<HeaderConfiguration> headerConfiguration = new AtomicReference<>();
+		StreamingSheetReader.read(spreadsheetStream, (cells, rowNumber) -> {
+			if (headerConfiguration.get() == null) {
+				verifySheetMatchesLatestCommit(cells, expectedContentHeadTimestampOrZero);
+				headerConfiguration.set(getHeaderConfiguration(cells, expectedHeader));
+			} else {
+				T componentIntent = componentIntentExtractor.extract(cells, rowNumber, headerConfiguration.get());
+				if (componentIntent != null) {
+					componentIntentConsumer.accept(componentIntent);
 				}
-				return components;
 			}
-		} catch (IOException e) {
-			throw new ServiceException(String.format("Failed to read row %s of input file, %s", rowNumber, e.getMessage()));
-		}
+		});
 	}
 
 	private void verifySheetMatchesLatestCommit(Row headerCells, long expectedContentHeadTimestamp) throws ServiceExceptionWithStatusCode {
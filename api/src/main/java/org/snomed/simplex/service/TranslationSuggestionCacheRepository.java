@@ -0,0 +1,7 @@
+package org.snomed.simplex.service;
+
+import org.snomed.simplex.translation.domain.TranslationSuggestionCacheEntry;
+import org.springframework.data.elasticsearch.repository.ElasticsearchRepository;
+
+public interface TranslationSuggestionCacheRepository extends ElasticsearchRepository<TranslationSuggestionCacheEntry, String> {
+}
@@ -0,0 +1,18 @@
+package org.snomed.simplex.service.job;
+
+import org.snomed.simplex.exceptions.ServiceException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Job function that can return before its work has finished, so that the job thread is not held while waiting for Snowstorm.
+ */
+public interface AsyncCompletionFunction<T extends AsyncJob> {
+
+	/**
+	 * @param jobExecutor runs follow-on work on a job thread, with the security context of the user that queued the job
+	 */
+	CompletableFuture<ChangeSummary> run(T asyncJob, Executor jobExecutor) throws ServiceException;
+
+}
@@ -0,0 +1,271 @@
+package org.snomed.simplex.service.spreadsheet;
+
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.*;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTCell;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.STCellType;
+import org.snomed.simplex.exceptions.ServiceException;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Reads the first sheet of an xlsx file row by row using SAX events, so the workbook DOM is never built.
+ * <p>
+ * Each row is rebuilt as the only row of a scratch {@link XSSFSheet}, keeping the cell types, raw values, cached formula results
+ * and date formats of the file, so row handlers can use the usual {@link Row} and cell methods.
+ * The upload is copied to a temp file first because opening a package from a stream holds every part in memory.
+ * Shared strings are kept in memory, as they are referenced from anywhere in the sheet.
+ */
+public class StreamingSheetReader {
+
+	private StreamingSheetReader() {
+	}
+
+	@FunctionalInterface
+	public interface RowHandler {
+
+		/**
+		 * @param row the current row, only valid until this method returns
+		 * @param rowNumber 1-based count of the rows read so far
+		 */
+		void handleRow(Row row, int rowNumber) throws ServiceException;
+	}
+
+	/**
+	 * @return the number of rows read
+	 */
+	public static int read(InputStream spreadsheetStream, RowHandler rowHandler) throws ServiceException {
+		File tempFile = null;
+		SheetHandler sheetHandler = null;
+		try {
+			tempFile = File.createTempFile("upload-" + UUID.randomUUID(), ".xlsx");
+			Files.copy(spreadsheetStream, tempFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			try (OPCPackage opcPackage = OPCPackage.open(tempFile, PackageAccess.READ);
+				 XSSFWorkbook scratchWorkbook = new XSSFWorkbook()) {
+
+				XSSFReader reader = new XSSFReader(opcPackage);
+				Iterator<InputStream> sheets = reader.getSheetsData();
+				if (!sheets.hasNext()) {
+					return 0;
+				}
+				sheetHandler = new SheetHandler(new ReadOnlySharedStringsTable(opcPackage, false), reader.getStylesTable(),
+						scratchWorkbook, rowHandler);
+				try (InputStream sheetStream = sheets.next()) {
+					XMLReader xmlReader = XMLHelper.newXMLReader();
+					xmlReader.setContentHandler(sheetHandler);
+					xmlReader.parse(new InputSource(sheetStream));
+				}
+				return sheetHandler.rowNumber;
+			}
+		} catch (SAXException e) {
+			if (sheetHandler != null && sheetHandler.handlerException != null) {
+				throw sheetHandler.handlerException;
+			}
+			throw new ServiceException(String.format("Failed to read row %s of input file, %s", sheetHandler != null ? sheetHandler.rowNumber : 0, e.getMessage()), e);
+		} catch (IOException | OpenXML4JException | ParserConfigurationException | RuntimeException e) {
+			throw new ServiceException(String.format("Failed to read row %s of input file, %s", sheetHandler != null ? sheetHandler.rowNumber : 0, e.getMessage()), e);
+		} finally {
+			if (tempFile != null) {
+				try {
+					Files.deleteIfExists(tempFile.toPath());
+				} catch (IOException e) {
+					tempFile.deleteOnExit();
+				}
+			}
+		}
+	}
+
+	private static final class SheetHandler extends DefaultHandler {
+
+		private final ReadOnlySharedStringsTable sharedStrings;
+		private final StylesTable styles;
+		private final XSSFWorkbook scratchWorkbook;
+		private final XSSFSheet scratchSheet;
+		private final Map<Integer, XSSFCellStyle> scratchStylesByFileStyle = new HashMap<>();
+		private final RowHandler rowHandler;
+
+		private XSSFRow row;
+		private int rowNumber;
+		private int nextRowIndex;
+		private int nextColumnIndex;
+
+		private int columnIndex;
+		private String cellType;
+		private String cellStyle;
+		private boolean hasFormula;
+		private final StringBuilder value = new StringBuilder();
+		private final StringBuilder formula = new StringBuilder();
+		private final StringBuilder inlineString = new StringBuilder();
+		private boolean inValue;
+		private boolean inFormula;
+		private boolean inInlineString;
+		private boolean inPhoneticRun;
+
+		private ServiceException handlerException;
+
+		private SheetHandler(ReadOnlySharedStringsTable sharedStrings, StylesTable styles, XSSFWorkbook scratchWorkbook, RowHandler rowHandler) {
+			this.sharedStrings = sharedStrings;
+			this.styles = styles;
+			this.scratchWorkbook = scratchWorkbook;
+			this.scratchSheet = scratchWorkbook.createSheet();
+			this.rowHandler = rowHandler;
+		}
+
+		@Override
+		public void startElement(String uri, String localName, String qName, Attributes attributes) {
+			switch (localName) {
+				case "row" -> {
+					String reference = attributes.getValue("r");
+					int rowIndex = reference != null ? Integer.parseInt(reference) - 1 : nextRowIndex;
+					row = scratchSheet.createRow(rowIndex);
+					nextRowIndex = rowIndex + 1;
+					nextColumnIndex = 0;
+				}
+				case "c" -> {
+					String reference = attributes.getValue("r");
+					columnIndex = reference != null ? new CellReference(reference).getCol() : nextColumnIndex;
+					nextColumnIndex = columnIndex + 1;
+					cellType = attributes.getValue("t");
+					cellStyle = attributes.getValue("s");
+					hasFormula = false;
+					value.setLength(0);
+					formula.setLength(0);
+					inlineString.setLength(0);
+				}
+				case "v" -> inValue = true;
+				case "f" -> {
+					inFormula = true;
+					hasFormula = true;
+				}
+				case "is" -> inInlineString = true;
+				case "rPh" -> inPhoneticRun = true;
+				default -> {
+					// Other elements carry nothing the extractors read
+				}
+			}
+		}
+
+		@Override
+		public void characters(char[] ch, int start, int length) {
+			if (inValue) {
+				value.append(ch, start, length);
+			} else if (inFormula) {
+				formula.append(ch, start, length);
+			} else if (inInlineString && !inPhoneticRun) {
+				inlineString.append(ch, start, length);
+			}
+		}
+
+		@Override
+		public void endElement(String uri, String localName, String qName) throws SAXException {
+			switch (localName) {
+				case "v" -> inValue = false;
+				case "f" -> inFormula = false;
+				case "is" -> inInlineString = false;
+				case "rPh" -> inPhoneticRun = false;
+				case "c" -> addCell();
+				case "row" -> {
+					rowNumber++;
+					try {
+						rowHandler.handleRow(row, rowNumber);
+					} catch (ServiceException e) {
+						handlerException = e;
+						throw new SAXException(e.getMessage(), e);
+					}
+					// Only one row is held at a time
+					scratchSheet.removeRow(row);
+					row = null;
+				}
+				default -> {
+					// Nothing to do
+				}
+			}
+		}
+
+		private void addCell() {
+			XSSFCell cell = row.createCell(columnIndex);
+			CTCell ctCell = cell.getCTCell();
+			if (hasFormula) {
+				ctCell.addNewF().setStringValue(formula.toString());
+			}
+			if (cellType == null || cellType.equals("n")) {
+				if (!value.isEmpty()) {
+					ctCell.setV(value.toString());
+					copyDateFormat(cell);
+				}
+			} else {
+				switch (cellType) {
+					case "s" -> setInlineString(ctCell, sharedStrings.getItemAt(Integer.parseInt(value.toString().trim())).getString());
+					case "inlineStr" -> setInlineString(ctCell, inlineString.toString());
+					case "str" -> {
+						if (hasFormula) {
+							ctCell.setT(STCellType.STR);
+							ctCell.setV(value.toString());
+						} else {
+							setInlineString(ctCell, value.toString());
+						}
+					}
+					case "b" -> {
+						ctCell.setT(STCellType.B);
+						ctCell.setV(value.toString());
+					}
+					case "e" -> {
+						ctCell.setT(STCellType.E);
+						ctCell.setV(value.toString());
+					}
+					default -> {
+						// Unknown types are left blank
+					}
+				}
+			}
+		}
+
+		private static void setInlineString(CTCell ctCell, String string) {
+			// Not added to the shared strings of the scratch workbook, which would otherwise grow with every row
+			ctCell.setT(STCellType.INLINE_STR);
+			ctCell.setV(string);
+		}
+
+		private void copyDateFormat(XSSFCell cell) {
+			if (cellStyle == null || styles == null) {
+				return;
+			}
+			int styleIndex = Integer.parseInt(cellStyle);
+			XSSFCellStyle scratchStyle = scratchStylesByFileStyle.computeIfAbsent(styleIndex, index -> {
+				XSSFCellStyle fileStyle = styles.getStyleAt(index);
+				if (fileStyle == null || !DateUtil.isADateFormat(fileStyle.getDataFormat(), fileStyle.getDataFormatString())) {
+					return null;
+				}
+				XSSFCellStyle style = scratchWorkbook.createCellStyle();
+				style.setDataFormat(scratchWorkbook.createDataFormat().getFormat(fileStyle.getDataFormatString()));
+				return style;
+			});
+			if (scratchStyle != null) {
+				cell.setCellStyle(scratchStyle);
+			}
+		}
+	}
+}
@@ -4,6 +4,8 @@ import org.springframework.data.annotation.Id;
 import org.springframework.data.elasticsearch.annotations.Document;
 import org.springframework.data.elasticsearch.annotations.Field;
 import org.springframework.data.elasticsearch.annotations.FieldType;
+import org.springframework.data.elasticsearch.annotations.InnerField;
+import org.springframework.data.elasticsearch.annotations.MultiField;
 
 import java.util.ArrayList;
 import java.util.LinkedHashSet;
@@ -21,6 +23,9 @@ public class TranslationUnit {
 		public static final String COMPOSITE_LANGUAGE_CODE = "compositeLanguageCode";
 		public static final String HAS_TERMS = "hasTerms";
 		public static final String STATUS = "status";
+		public static final String ENGLISH_TERM = "englishTerm";
+		/** Wildcard-type subfield of {@link #ENGLISH_TERM} for fast case-insensitive substring search. */
+		public static final String ENGLISH_TERM_SEARCH = "englishTerm.search";
 	}
 
 	@Id
@@ -41,6 +46,11 @@ public class TranslationUnit {
 	@Field(type = FieldType.Integer)
 	private int order;
 
+	/** Copy of {@link TranslationSource#getTerm()}, kept in step with the source so that rows can be served from this index alone. */
+	@MultiField(mainField = @Field(type = FieldType.Keyword),
+			otherFields = @InnerField(suffix = "search", type = FieldType.Wildcard))
+	private String englishTerm;
+
 	@Field(type = FieldType.Integer)
 	private int statusSort;
 
@@ -161,6 +171,14 @@ public class TranslationUnit {
 		this.order = order;
 	}
 
+	public String getEnglishTerm() {
+		return englishTerm;
+	}
+
+	public void setEnglishTerm(String englishTerm) {
+		this.englishTerm = englishTerm;
+	}
+
 	public int getStatusSort() {
 		return statusSort;
 	}
@@ -0,0 +1,156 @@
+package org.snomed.simplex.snolate.rf2;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntArrays;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2LongOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import org.ihtsdo.otf.snomedboot.factory.ImpotentComponentFactory;
+import org.snomed.simplex.client.domain.Concepts;
+
+import java.util.BitSet;
+
+import static java.lang.Long.parseLong;
+
+/**
+ * Loads only what is needed to order concepts by hierarchy: active inferred is-a relationships and
+ * the preferred synonym of each concept in one language refset.
+ * Relationships are kept as primitive id pairs and turned into an int-indexed adjacency list when the order is requested.
+ * Expects descriptions to be loaded before language refset members.
+ */
+public class HierarchyOrderComponentFactory extends ImpotentComponentFactory {
+
+	private static final String ENGLISH = "en";
+
+	private final String languageRefsetId;
+	private final LongArrayList isAParentIds = new LongArrayList();
+	private final LongArrayList isAChildIds = new LongArrayList();
+	private final Long2LongOpenHashMap synonymConceptIds = new Long2LongOpenHashMap();
+	private final Long2ObjectOpenHashMap<String> synonymTerms = new Long2ObjectOpenHashMap<>();
+	private final Long2ObjectOpenHashMap<String> preferredTerms = new Long2ObjectOpenHashMap<>();
+
+	public HierarchyOrderComponentFactory(String languageRefsetId) {
+		this.languageRefsetId = languageRefsetId;
+	}
+
+	@Override
+	public synchronized void newRelationshipState(String id, String effectiveTime, String active, String moduleId, String sourceId, String destinationId,
+			String relationshipGroup, String typeId, String characteristicTypeId, String modifierId) {
+
+		if ("1".equals(active) && Concepts.IS_A.equals(typeId) && Concepts.INFERRED_RELATIONSHIP.equals(characteristicTypeId)) {
+			isAParentIds.add(parseLong(destinationId));
+			isAChildIds.add(parseLong(sourceId));
+		}
+	}
+
+	@Override
+	public synchronized void newDescriptionState(String id, String effectiveTime, String active, String moduleId, String conceptId, String languageCode,
+			String typeId, String term, String caseSignificanceId) {
+
+		if ("1".equals(active) && Concepts.SYNONYM.equals(typeId) && ENGLISH.equals(languageCode)) {
+			long descriptionId = parseLong(id);
+			synonymConceptIds.put(descriptionId, parseLong(conceptId));
+			synonymTerms.put(descriptionId, term);
+		}
+	}
+
+	@Override
+	public synchronized void newReferenceSetMemberState(String filename, String[] fieldNames, String id, String effectiveTime, String active, String moduleId,
+			String refsetId, String referencedComponentId, String... otherValues) {
+
+		if ("1".equals(active) && languageRefsetId.equals(refsetId) && Concepts.PREFERRED.equals(otherValues[0])) {
+			long descriptionId = parseLong(referencedComponentId);
+			String term = synonymTerms.get(descriptionId);
+			if (term != null) {
+				preferredTerms.put(synonymConceptIds.get(descriptionId), term);
+			}
+		}
+	}
+
+	public String getPt(long conceptId) {
+		return preferredTerms.getOrDefault(conceptId, "");
+	}
+
+	/**
+	 * Walks the hierarchy depth-first from {@code rootConceptId}, visiting the children of each concept in
+	 * case-insensitive preferred term order. Concepts with several parents are listed once, under the first parent visited.
+	 *
+	 * @return concept ids in walk order, empty if the root concept has no relationships
+	 */
+	public LongArrayList getHierarchyOrder(long rootConceptId) {
+		// Release the synonym maps, only preferred terms are needed from here on
+		synonymConceptIds.clear();
+		synonymConceptIds.trim();
+		synonymTerms.clear();
+		synonymTerms.trim();
+
+		Long2IntOpenHashMap indexById = new Long2IntOpenHashMap();
+		indexById.defaultReturnValue(-1);
+		LongArrayList idsByIndex = new LongArrayList();
+		int edgeCount = isAParentIds.size();
+		int[] parentIndexes = new int[edgeCount];
+		int[] childIndexes = new int[edgeCount];
+		for (int i = 0; i < edgeCount; i++) {
+			parentIndexes[i] = indexOf(isAParentIds.getLong(i), indexById, idsByIndex);
+			childIndexes[i] = indexOf(isAChildIds.getLong(i), indexById, idsByIndex);
+		}
+
+		int rootIndex = indexById.get(rootConceptId);
+		if (rootIndex == -1) {
+			return new LongArrayList();
+		}
+
+		// Compressed adjacency: children of concept i are children[childOffsets[i]] to children[childOffsets[i + 1] - 1]
+		int conceptCount = idsByIndex.size();
+		int[] childOffsets = new int[conceptCount + 1];
+		for (int parentIndex : parentIndexes) {
+			childOffsets[parentIndex + 1]++;
+		}
+		for (int i = 0; i < conceptCount; i++) {
+			childOffsets[i + 1] += childOffsets[i];
+		}
+		int[] children = new int[edgeCount];
+		int[] nextChildSlot = new int[conceptCount];
+		System.arraycopy(childOffsets, 0, nextChildSlot, 0, conceptCount);
+		for (int i = 0; i < edgeCount; i++) {
+			children[nextChildSlot[parentIndexes[i]]++] = childIndexes[i];
+		}
+
+		String[] sortTerms = new String[conceptCount];
+		for (int i = 0; i < conceptCount; i++) {
+			sortTerms[i] = getPt(idsByIndex.getLong(i)).toLowerCase();
+		}
+
+		LongArrayList order = new LongArrayList(conceptCount);
+		BitSet visited = new BitSet(conceptCount);
+		IntArrayList stack = new IntArrayList();
+		stack.add(rootIndex);
+		while (!stack.isEmpty()) {
+			int conceptIndex = stack.popInt();
+			if (!visited.get(conceptIndex)) {
+				visited.set(conceptIndex);
+				order.add(idsByIndex.getLong(conceptIndex));
+
+				// Push in reverse term order so that the first child by term is visited next
+				int from = childOffsets[conceptIndex];
+				int to = childOffsets[conceptIndex + 1];
+				IntArrays.quickSort(children, from, to, (a, b) -> sortTerms[b].compareTo(sortTerms[a]));
+				for (int i = from; i < to; i++) {
+					stack.add(children[i]);
+				}
+			}
+		}
+		return order;
+	}
+
+	private static int indexOf(long conceptId, Long2IntOpenHashMap indexById, LongArrayList idsByIndex) {
+		int index = indexById.get(conceptId);
+		if (index == -1) {
+			index = idsByIndex.size();
+			indexById.put(conceptId, index);
+			idsByIndex.add(conceptId);
+		}
+		return index;
+	}
+}
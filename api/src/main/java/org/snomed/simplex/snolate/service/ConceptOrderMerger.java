@@ -0,0 +1,72 @@
+package org.snomed.simplex.snolate.service;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+
+import java.util.List;
+
+/**
+ * Merges concepts found during a depth-first hierarchy walk into an existing concept order, in linear time.
+ * <p>
+ * Each concept that is not already in the existing order is placed directly after the concept visited before it.
+ * Existing concepts keep their relative order. Because every concept is visited at most once, new concepts form
+ * runs that hang off a single existing anchor concept; the runs are spliced in when {@link #getMergedOrder()} is called.
+ */
+class ConceptOrderMerger {
+
+	private final List<Long> existingOrder;
+	private final LongOpenHashSet existingIds;
+	private final Long2ObjectOpenHashMap<LongArrayList> runsByAnchor = new Long2ObjectOpenHashMap<>();
+	private final LongArrayList leadingRun = new LongArrayList();
+
+	private LongArrayList currentRun = leadingRun;
+	private boolean previousWasExisting;
+	private long previousConceptId;
+	private int newConceptCount;
+
+	ConceptOrderMerger(List<Long> existingOrder) {
+		this.existingOrder = existingOrder;
+		this.existingIds = new LongOpenHashSet(existingOrder.size());
+		for (Long conceptId : existingOrder) {
+			existingIds.add(conceptId.longValue());
+		}
+	}
+
+	/**
+	 * Records the next concept of the walk. Each concept must be visited at most once.
+	 *
+	 * @return {@code true} when the concept was not in the existing order and has been added
+	 */
+	boolean visit(long conceptId) {
+		boolean isNew = !existingIds.contains(conceptId);
+		if (isNew) {
+			if (previousWasExisting) {
+				currentRun = new LongArrayList();
+				runsByAnchor.put(previousConceptId, currentRun);
+			}
+			currentRun.add(conceptId);
+			newConceptCount++;
+		}
+		previousWasExisting = !isNew;
+		previousConceptId = conceptId;
+		return isNew;
+	}
+
+	int getNewConceptCount() {
+		return newConceptCount;
+	}
+
+	LongArrayList getMergedOrder() {
+		LongArrayList merged = new LongArrayList(existingOrder.size() + newConceptCount);
+		merged.addAll(leadingRun);
+		for (Long conceptId : existingOrder) {
+			merged.add(conceptId.longValue());
+			LongArrayList run = runsByAnchor.get(conceptId.longValue());
+			if (run != null) {
+				merged.addAll(run);
+			}
+		}
+		return merged;
+	}
+}
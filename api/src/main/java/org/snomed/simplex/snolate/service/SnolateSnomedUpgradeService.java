@@ -2,14 +2,10 @@ package org.snomed.simplex.snolate.service;
 
 import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
 import it.unimi.dsi.fastutil.longs.LongArrayList;
-import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
 import org.apache.commons.lang3.tuple.Pair;
 import org.ihtsdo.otf.snomedboot.ReleaseImportException;
 import org.ihtsdo.otf.snomedboot.ReleaseImporter;
 import org.ihtsdo.otf.snomedboot.factory.LoadingProfile;
-import org.ihtsdo.otf.snomedboot.factory.implementation.HighLevelComponentFactoryAdapterImpl;
-import org.ihtsdo.otf.snomedboot.factory.implementation.standard.ComponentStore;
-import org.ihtsdo.otf.snomedboot.factory.implementation.standard.ConceptImpl;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.snomed.simplex.client.SnowstormClient;
@@ -28,10 +24,10 @@ import org.snomed.simplex.service.ContentProcessingJobService;
 import org.snomed.simplex.service.job.ChangeSummary;
 import org.snomed.simplex.service.job.ContentJob;
 import org.snomed.simplex.snolate.domain.TranslationSource;
-import org.snomed.simplex.snolate.rf2.RF2LoadingComponentFactoryWithPT;
+import org.snomed.simplex.snolate.rf2.HierarchyOrderComponentFactory;
+import org.snomed.simplex.snolate.sets.SnolateBulkIngestService;
 import org.snomed.simplex.snolate.sets.SnolateTranslationSearchService;
 import org.snomed.simplex.snolate.sets.SnolateTranslationSourceRepository;
-import org.snomed.simplex.snolate.sets.SnolateTranslationUnitStore;
 import org.snomed.simplex.snolate.sets.TranslationUnitOrderSync;
 import org.snomed.simplex.util.FileUtils;
 import org.springframework.beans.factory.annotation.Value;
@@ -58,25 +54,24 @@ public class SnolateSnomedUpgradeService {
 
 	private final SnolateTranslationSourceRepository translationSourceRepository;
 	private final SnolateTranslationSearchService translationSearchService;
-	private final SnolateTranslationUnitStore translationUnitStore;
 	private final SnowstormClientFactory snowstormClientFactory;
 	private final CodeSystemService codeSystemService;
 	private final ContentProcessingJobService jobService;
+	private final SnolateBulkIngestService bulkIngestService;
 
 	@Value("${snolate.snomed.upgrade.enabled:false}")
 	private boolean upgradeEnabled;
 
 	public SnolateSnomedUpgradeService(SnolateTranslationSourceRepository translationSourceRepository,
-			SnolateTranslationSearchService translationSearchService, SnolateTranslationUnitStore translationUnitStore,
-			SnowstormClientFactory snowstormClientFactory,
-			CodeSystemService codeSystemService, ContentProcessingJobService jobService) {
+			SnolateTranslationSearchService translationSearchService, SnowstormClientFactory snowstormClientFactory,
+			CodeSystemService codeSystemService, ContentProcessingJobService jobService, SnolateBulkIngestService bulkIngestService) {
 
 		this.translationSourceRepository = translationSourceRepository;
 		this.translationSearchService = translationSearchService;
-		this.translationUnitStore = translationUnitStore;
 		this.snowstormClientFactory = snowstormClientFactory;
 		this.codeSystemService = codeSystemService;
 		this.jobService = jobService;
+		this.bulkIngestService = bulkIngestService;
 	}
 
 	@Scheduled(cron = "${snolate.snomed.upgrade.check.cron}")
@@ -148,7 +143,16 @@ public class SnolateSnomedUpgradeService {
 		return new TranslationToolUpdatePlan(previousVersion, newVersionDate, newVersion, codeSystem);
 	}
 
-	int insertNewConceptStubsIntoSnolate(TranslationToolUpdatePlan updatePlan) throws ServiceExceptionWithStatusCode {
+	/**
+	 * Outcome of persisting the upgraded translation source list.
+	 *
+	 * @param orderByChangedCode new order of each translation source that was added or moved
+	 * @param termByChangedCode new term of each translation source that was added or had its term changed
+	 */
+	record SourceUpdate(int added, int skipped, Map<String, Integer> orderByChangedCode, Map<String, String> termByChangedCode) {
+	}
+
+	SourceUpdate insertNewConceptStubsIntoSnolate(TranslationToolUpdatePlan updatePlan) throws ServiceExceptionWithStatusCode {
 		File releaseFile = null;
 		try {
 			logger.info("Loading existing SNOMED CT concept list from persistence.");
@@ -159,11 +163,10 @@ public class SnolateSnomedUpgradeService {
 			Pair<String, File> releaseFileNameAndFile = codeSystemService.downloadVersionPackage(updatePlan.codeSystem(), updatePlan.newVersion());
 			releaseFile = releaseFileNameAndFile.getRight();
 			logger.info("Loading hierarchy-sorted list from release file.");
-			gatherNewRows(releaseFile, workingList, newRows);
+			workingList = gatherNewRows(releaseFile, workingList, newRows);
 
 			logger.info("Saving new list of SNOMED CT concepts to persistence.");
-			persistTranslationSources(workingList, newRows);
-			return newRows.size();
+			return persistTranslationSources(workingList, newRows);
 		} finally {
 			FileUtils.deleteOrLogWarning(releaseFile);
 		}
@@ -173,87 +176,91 @@ public class SnolateSnomedUpgradeService {
 		return new LongArrayList(translationSearchService.listAllSourceCodesByOrder());
 	}
 
-	private void persistTranslationSources(List<Long> workingList, Map<Long, String> newRows) throws ServiceExceptionWithStatusCode {
+	/**
+	 * Writes only the translation sources whose order or term differ from what is already persisted.
+	 */
+	SourceUpdate persistTranslationSources(List<Long> workingList, Map<Long, String> newRows) throws ServiceExceptionWithStatusCode {
 		Map<String, TranslationSource> existingByCode = translationSearchService.mapAllTranslationSourcesByCode();
 		List<TranslationSource> toSave = new ArrayList<>();
+		Map<String, Integer> orderByChangedCode = new HashMap<>();
+		Map<String, String> termByChangedCode = new HashMap<>();
+		int skipped = 0;
 		int order = 0;
 		for (Long code : workingList) {
 			String codeStr = code.toString();
+			TranslationSource row = existingByCode.get(codeStr);
+			String term;
 			if (newRows.containsKey(code)) {
-				toSave.add(new TranslationSource(codeStr, newRows.get(code), order));
+				term = newRows.get(code);
+			} else if (row != null) {
+				term = row.getTerm();
 			} else {
-				TranslationSource row = existingByCode.get(codeStr);
-				if (row == null) {
-					throw new ServiceExceptionWithStatusCode("Expected existing TranslationSource for code %s".formatted(codeStr), HttpStatus.INTERNAL_SERVER_ERROR);
+				throw new ServiceExceptionWithStatusCode("Expected existing TranslationSource for code %s".formatted(codeStr), HttpStatus.INTERNAL_SERVER_ERROR);
+			}
+			if (row == null) {
+				toSave.add(new TranslationSource(codeStr, term, order));
+				orderByChangedCode.put(codeStr, order);
+				termByChangedCode.put(codeStr, term);
+			} else if (row.getOrder() != order || !Objects.equals(row.getTerm(), term)) {
+				if (row.getOrder() != order) {
+					orderByChangedCode.put(codeStr, order);
+				}
+				if (!Objects.equals(row.getTerm(), term)) {
+					termByChangedCode.put(codeStr, term);
 				}
 				row.setOrder(order);
+				row.setTerm(term);
 				toSave.add(row);
+			} else {
+				skipped++;
 			}
 			order++;
 		}
 		int total = toSave.size();
 		NumberFormat nf = NumberFormat.getInstance();
-		for (int i = 0; i < total; i += TRANSLATION_SOURCE_SAVE_BATCH_SIZE) {
-			int end = Math.min(i + TRANSLATION_SOURCE_SAVE_BATCH_SIZE, total);
-			translationSourceRepository.saveAll(toSave.subList(i, end));
-			if (end % TRANSLATION_SOURCE_SAVE_PROGRESS_INTERVAL == 0 || end == total && (logger.isInfoEnabled())) {
-				logger.info("Persisted {} of {} translation sources.", nf.format(end), nf.format(total));
+		logger.info("{} translation sources changed, {} unchanged translation sources skipped.", nf.format(total), nf.format(skipped));
+		// Units are updated before the sources they are copied from. If either write fails, running the upgrade again
+		// finds the same changes and rewrites the same absolute values.
+		TranslationUnitOrderSync.syncChangedUnits(orderByChangedCode, termByChangedCode, translationSearchService);
+		if (total > 0) {
+			try (SnolateBulkIngestService.BulkIngest bulkIngest = bulkIngestService.start(TranslationSource.class, "SNOMED upgrade translation sources")) {
+				for (int i = 0; i < total; i += TRANSLATION_SOURCE_SAVE_BATCH_SIZE) {
+					int end = Math.min(i + TRANSLATION_SOURCE_SAVE_BATCH_SIZE, total);
+					bulkIngest.saveAll(toSave.subList(i, end));
+					if (end % TRANSLATION_SOURCE_SAVE_PROGRESS_INTERVAL == 0 || end == total && (logger.isInfoEnabled())) {
+						logger.info("Sent {} of {} translation sources.", nf.format(end), nf.format(total));
+					}
+				}
 			}
 		}
+		return new SourceUpdate(newRows.size(), skipped, orderByChangedCode, termByChangedCode);
 	}
 
-	private void gatherNewRows(File releaseFile, List<Long> workingList, Map<Long, String> newRows) throws ServiceExceptionWithStatusCode {
-		ComponentStore componentStore = new ComponentStore();
-		LoadingProfile loadingProfile = LoadingProfile.light;
-
-		RF2LoadingComponentFactoryWithPT componentFactory = new RF2LoadingComponentFactoryWithPT(componentStore, Concepts.US_LANG_REFSET);
-		HighLevelComponentFactoryAdapterImpl highLevelComponentFactoryAdapter = new HighLevelComponentFactoryAdapterImpl(loadingProfile, componentFactory, componentFactory);
+	private List<Long> gatherNewRows(File releaseFile, List<Long> workingList, Map<Long, String> newRows) throws ServiceExceptionWithStatusCode {
+		HierarchyOrderComponentFactory componentFactory = new HierarchyOrderComponentFactory(Concepts.US_LANG_REFSET);
+		LoadingProfile loadingProfile = LoadingProfile.light
+				.withRefset(Concepts.US_LANG_REFSET);
 
 		try {
 			try (FileInputStream releaseZip = new FileInputStream(releaseFile)) {
-				new ReleaseImporter().loadSnapshotReleaseFiles(releaseZip, loadingProfile, highLevelComponentFactoryAdapter, false);
+				new ReleaseImporter().loadSnapshotReleaseFiles(releaseZip, loadingProfile, componentFactory, false);
 			}
 		} catch (IOException | ReleaseImportException e) {
 			throw new ServiceExceptionWithStatusCode("Failed to load SNOMED from release file %s".formatted(releaseFile.getName()), HttpStatus.INTERNAL_SERVER_ERROR, e);
 		}
-		Map<Long, ConceptImpl> allConceptMap = componentStore.getConcepts();
-		ConceptImpl rootConcept = allConceptMap.get(Long.parseLong(Concepts.ROOT_SNOMEDCT));
-		Set<Long> coveredConcepts = new LongOpenHashSet();
-
-		LinkedList<ConceptImpl> nextConcepts = new LinkedList<>();
-		nextConcepts.add(rootConcept);
-		Long previousConceptId = rootConcept.getId();
-		while (!nextConcepts.isEmpty()) {
-			ConceptImpl currentConcept = nextConcepts.remove();
-			if (coveredConcepts.add(currentConcept.getId())) {
-				if (!workingList.contains(currentConcept.getId())) {
-					int i = workingList.indexOf(previousConceptId);
-					workingList.add(i + 1, currentConcept.getId());
-					newRows.put(currentConcept.getId(), componentFactory.getPt(currentConcept));
-				}
-
-				addSortedChildren(currentConcept, componentFactory, nextConcepts);
-				previousConceptId = currentConcept.getId();
-			}
-			if (coveredConcepts.size() % 10_000 == 0 && logger.isInfoEnabled()) {
-				logger.info("Processed {} concepts", NumberFormat.getInstance().format(coveredConcepts.size()));
-			}
+		LongArrayList hierarchyOrder = componentFactory.getHierarchyOrder(Long.parseLong(Concepts.ROOT_SNOMEDCT));
+		if (logger.isInfoEnabled()) {
+			logger.info("Loaded hierarchy order of {} concepts.", NumberFormat.getInstance().format(hierarchyOrder.size()));
 		}
-	}
 
-	private static void addSortedChildren(ConceptImpl currentConcept, RF2LoadingComponentFactoryWithPT componentFactory, LinkedList<ConceptImpl> nextConcepts) {
-		Set<org.ihtsdo.otf.snomedboot.domain.Concept> inferredChildren = currentConcept.getInferredChildren();
-		List<Pair<String, ConceptImpl>> sortedChildren = new ArrayList<>(inferredChildren.size());
-		for (org.ihtsdo.otf.snomedboot.domain.Concept inferredChild : inferredChildren) {
-			if (inferredChild instanceof ConceptImpl childImpl) {
-				sortedChildren.add(Pair.of(componentFactory.getPt(childImpl).toLowerCase(), childImpl));
+		ConceptOrderMerger orderMerger = new ConceptOrderMerger(workingList);
+		for (int i = 0; i < hierarchyOrder.size(); i++) {
+			long conceptId = hierarchyOrder.getLong(i);
+			if (orderMerger.visit(conceptId)) {
+				newRows.put(conceptId, componentFactory.getPt(conceptId));
 			}
 		}
-		Comparator<Pair<String, ConceptImpl>> comparing = Comparator.comparing(Pair::getLeft);
-		sortedChildren.sort(comparing.reversed());
-		for (Pair<String, ConceptImpl> sortedChild : sortedChildren) {
-			nextConcepts.addFirst(sortedChild.getRight());
-		}
+		return orderMerger.getMergedOrder();
 	}
 
 	public ChangeSummary runSnomedUpgrade(TranslationToolUpdatePlan updatePlan, ContentJob contentJob) throws ServiceExceptionWithStatusCode {
@@ -265,9 +272,9 @@ public class SnolateSnomedUpgradeService {
 		logger.info("Starting update of SNOMED CT concepts in Snolate. Current version:{}, New version:{}.",
 				updatePlan.currentVersion(), updatePlan.newVersionDate());
 
-		int added = insertNewConceptStubsIntoSnolate(updatePlan);
+		SourceUpdate sourceUpdate = insertNewConceptStubsIntoSnolate(updatePlan);
+		int added = sourceUpdate.added();
 		int newTotal = (int) translationSourceRepository.count();
-		TranslationUnitOrderSync.syncAllUnits(translationSearchService, translationSourceRepository, translationUnitStore);
 		contentJob.setRecordsProcessed(100);
 		logger.info("Snolate SNOMED CT source updated. {} new concepts persisted.", added);
 
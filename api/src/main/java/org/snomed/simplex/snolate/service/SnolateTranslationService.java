@@ -12,6 +12,7 @@ import org.snomed.simplex.rest.pojos.TranslationUnitPage;
 import org.snomed.simplex.rest.pojos.TranslationUnitRow;
 import org.snomed.simplex.service.SpreadsheetService;
 import org.snomed.simplex.service.job.ChangeSummary;
+import org.snomed.simplex.service.spreadsheet.StreamingSheetReader;
 import org.snomed.simplex.snolate.domain.TranslationSource;
 import org.snomed.simplex.snolate.domain.TranslationStatus;
 import org.snomed.simplex.snolate.domain.TranslationStatusLabels;
@@ -33,7 +34,7 @@ import org.springframework.stereotype.Service;
 import java.io.*;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
-import java.util.function.Function;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
 
@@ -48,6 +49,8 @@ public class SnolateTranslationService {
 
 	private static final int CSV_EXPORT_BATCH_SIZE = 5_000;
 
+	private static final int IMPORT_BATCH_SIZE = 1_000;
+
 	private static final String DEFAULT_TRANSLATION_LABEL = "Translation";
 
 	private static final Set<TranslationStatus> ALLOWED_IMPORT_STATUSES = Set.of(
@@ -112,8 +115,9 @@ public class SnolateTranslationService {
 			if (setCodes.isEmpty()) {
 				continue;
 			}
-			Map<String, Long> translated = aggregateCounts(translationSearchService.countTranslatedInSubsetBatch(lang, setCodes));
-			Map<String, Map<String, Long>> statusCountsBySet = translationSearchService.countStatusInSubsetBatch(lang, setCodes);
+			SnolateTranslationSearchService.SubsetCounts subsetCounts = translationSearchService.countInSubsetBatch(lang, setCodes);
+			Map<String, Long> translated = aggregateCounts(subsetCounts.translated());
+			Map<String, Map<String, Long>> statusCountsBySet = subsetCounts.statusCounts();
 			for (SnolateTranslationSet set : group) {
 				String code = set.getCompositeSetCode();
 				set.setTranslated(translated.getOrDefault(code, 0L).intValue());
@@ -143,7 +147,7 @@ public class SnolateTranslationService {
 	}
 
 	/**
-	 * Paginated translation-set rows: English term from {@link TranslationSource}, dialect terms and {@link TranslationUnit#getStatus()} from persistence.
+	 * Paginated translation-set rows: English term from {@link TranslationUnit#getEnglishTerm()}, dialect terms and {@link TranslationUnit#getStatus()} from persistence.
 	 * Ordering is by status (NEEDS_EDIT, FOR_REVIEW, APPROVED, then not started), then source display order, then concept id.
 	 */
 	public TranslationUnitPage<TranslationUnitRow> getRows(SnolateTranslationSet translationSet, int page, int pageSize)
@@ -162,6 +166,7 @@ public class SnolateTranslationService {
 		String lang = translationSet.getLanguageCodeWithRefsetId();
 		Sort sort = Sort.by("statusSort", "order", "code");
 		Collection<String> englishConceptCodes = null;
+		String englishTermSearch = null;
 		String trimmedEnglish = SnolateTranslationSearchService.normalizeOptionalSearchTerm(englishSearch);
 		if (trimmedEnglish != null) {
 			String conceptCode = SnolateTranslationSearchService.normalizeOptionalConceptCodeSearch(trimmedEnglish);
@@ -171,22 +176,16 @@ public class SnolateTranslationService {
 				}
 				englishConceptCodes = List.of(conceptCode);
 			} else {
-				englishConceptCodes = translationSearchService.findSourceCodesByTermSubstring(trimmedEnglish);
+				englishTermSearch = trimmedEnglish;
 			}
 		}
 		String trimmedTarget = SnolateTranslationSearchService.normalizeOptionalSearchTerm(targetSearch);
 		Page<TranslationUnit> pageResult = translationSearchService.pageUnitsInSet(setCode, lang,
-				PageRequest.of(page, pageSize, sort), statusFilter, englishConceptCodes, trimmedTarget);
-		List<String> codes = pageResult.getContent().stream().map(TranslationUnit::getCode).toList();
-		Map<String, TranslationSource> sourceByCode = Map.of();
-		if (!codes.isEmpty()) {
-			sourceByCode = StreamSupport.stream(translationSourceRepository.findAllById(codes).spliterator(), false)
-					.collect(Collectors.toMap(TranslationSource::getCode, Function.identity()));
-		}
+				PageRequest.of(page, pageSize, sort), statusFilter, englishConceptCodes, englishTermSearch, trimmedTarget);
+		Map<String, String> englishTermByCode = loadEnglishTerms(pageResult.getContent());
 		List<TranslationUnitRow> rows = new ArrayList<>();
 		for (TranslationUnit u : pageResult.getContent()) {
-			TranslationSource src = sourceByCode.get(u.getCode());
-			String english = src != null ? src.getTerm() : "";
+			String english = englishTermByCode.getOrDefault(u.getCode(), "");
 			List<String> target = copyTerms(Optional.of(u));
 			String statusName = u.getStatus() != null ? u.getStatus().name() : null;
 			TranslationUnitRow row = new TranslationUnitRow(List.of(english), target, u.getCode(), statusName);
@@ -242,6 +241,13 @@ public class SnolateTranslationService {
 		if (status == TranslationStatus.COMPLETE && unit.getStatus() != TranslationStatus.COMPLETE) {
 			throw new ServiceExceptionWithStatusCode("COMPLETE is set automatically when synced with Snowstorm.", HttpStatus.BAD_REQUEST);
 		}
+		validateTermsAndStatus(terms, status);
+		unit.setTerms(terms);
+		unit.setStatus(status);
+		unit.setAiSuggestions(new ArrayList<>());
+	}
+
+	private static void validateTermsAndStatus(List<String> terms, TranslationStatus status) throws ServiceExceptionWithStatusCode {
 		if (terms.isEmpty()) {
 			if (status != TranslationStatus.NOT_STARTED) {
 				throw new ServiceExceptionWithStatusCode("Empty translation terms require status NOT_STARTED.", HttpStatus.BAD_REQUEST);
@@ -251,9 +257,6 @@ public class SnolateTranslationService {
 				throw new ServiceExceptionWithStatusCode("Non-empty translation terms cannot use status NOT_STARTED.", HttpStatus.BAD_REQUEST);
 			}
 		}
-		unit.setTerms(terms);
-		unit.setStatus(status);
-		unit.setAiSuggestions(new ArrayList<>());
 	}
 
 	private static List<String> normalizeTranslationTerms(List<String> rawTerms) {
@@ -407,19 +410,29 @@ public class SnolateTranslationService {
 		String setCode = translationSet.getCompositeSetCode();
 		String lang = translationSet.getLanguageCodeWithRefsetId();
 		ChangeSummary changeSummary = new ChangeSummary();
+		ImportBatch importBatch = new ImportBatch(setCode, lang, status, outsideSetBehavior, changeSummary, true);
+		AtomicReference<SpreadsheetImportColumnIndices> columns = new AtomicReference<>();
 
-		try (XSSFWorkbook workbook = new XSSFWorkbook(inputStream)) {
-			Sheet sheet = workbook.getSheetAt(0);
-			SpreadsheetImportColumnIndices columns = readSpreadsheetImportColumnIndices(sheet, conceptColumn,
-					termColumns);
+		try {
 			logger.info("Starting translation set spreadsheet import for set {}", setCode);
-			importTranslationSetSpreadsheetRows(sheet, columns, setCode, lang, status, outsideSetBehavior,
-					changeSummary);
+			StreamingSheetReader.read(inputStream, (row, rowNumber) -> {
+				if (row.getRowNum() == 0) {
+					columns.set(readSpreadsheetImportColumnIndices(row, conceptColumn, termColumns));
+				} else if (columns.get() == null) {
+					throw new ServiceExceptionWithStatusCode(SPREADSHEET_HAS_NO_HEADER_ROW, HttpStatus.BAD_REQUEST);
+				} else {
+					addSpreadsheetRow(row, columns.get(), importBatch);
+				}
+			});
+			if (columns.get() == null) {
+				throw new ServiceExceptionWithStatusCode(SPREADSHEET_HAS_NO_HEADER_ROW, HttpStatus.BAD_REQUEST);
+			}
+			importBatch.finish();
 			logImportSkips("Translation set file import", changeSummary);
 			logger.info("Translation set spreadsheet import finished {}", changeSummary);
 		} catch (ServiceExceptionWithStatusCode e) {
 			throw e;
-		} catch (IOException | ServiceException e) {
+		} catch (ServiceException e) {
 			throw new ServiceException("Failed to read translation set spreadsheet.", e);
 		}
 		return changeSummary;
@@ -429,12 +442,8 @@ public class SnolateTranslationService {
 		return filename != null && filename.toLowerCase().endsWith(".xlsx");
 	}
 
-	private SpreadsheetImportColumnIndices readSpreadsheetImportColumnIndices(Sheet sheet, String conceptColumn,
+	private SpreadsheetImportColumnIndices readSpreadsheetImportColumnIndices(Row headerRow, String conceptColumn,
 			List<String> termColumns) throws ServiceExceptionWithStatusCode {
-		Row headerRow = sheet.getRow(0);
-		if (headerRow == null) {
-			throw new ServiceExceptionWithStatusCode(SPREADSHEET_HAS_NO_HEADER_ROW, HttpStatus.BAD_REQUEST);
-		}
 		List<String> headerFields = readSpreadsheetHeaderFields(headerRow);
 		if (headerFields.isEmpty()) {
 			throw new ServiceExceptionWithStatusCode(SPREADSHEET_HAS_NO_HEADER_ROW, HttpStatus.BAD_REQUEST);
@@ -457,59 +466,20 @@ public class SnolateTranslationService {
 		return headerFields;
 	}
 
-	private void importTranslationSetSpreadsheetRows(Sheet sheet, SpreadsheetImportColumnIndices columns,
-			String setCode, String lang, TranslationStatus status, OutsideSetBehavior outsideSetBehavior,
-			ChangeSummary changeSummary) throws ServiceException {
-
-		Map<String, List<String>> termsByCode = parseSpreadsheetTermsByConceptCode(sheet, columns);
-		logger.info("Translation set spreadsheet import parsed {} concept row(s)", termsByCode.size());
-		if (termsByCode.isEmpty()) {
+	private void addSpreadsheetRow(Row row, SpreadsheetImportColumnIndices columns, ImportBatch importBatch) throws ServiceException {
+		List<String> rowFields = readSpreadsheetRowFields(row, row.getRowNum() + 1, columns);
+		if (isBlankCsvRow(rowFields)) {
 			return;
 		}
-		Map<String, TranslationUnit> unitsByCode = translationUnitStore.loadByCodes(lang, termsByCode.keySet());
-		List<TranslationUnit> toSave = new ArrayList<>();
-		for (Map.Entry<String, List<String>> entry : termsByCode.entrySet()) {
-			TranslationUnit unit = unitsByCode.get(entry.getKey());
-			if (unit == null) {
-				changeSummary.incrementSkippedNotFound();
-				logger.debug(SKIPPING_CONCEPT_NOT_FOUND_FOR_LANGUAGE, entry.getKey(), lang);
-				continue;
-			}
-			if (!unit.getMemberOf().contains(setCode) && outsideSetBehavior == OutsideSetBehavior.SKIP) {
-				changeSummary.incrementSkippedOutsideSet();
-				logger.debug("Skipping concept {} not found in translation set {}", entry.getKey(), setCode);
-				continue;
-			}
-			applyTermsAndStatusInMemory(unit, entry.getValue(), status);
-			toSave.add(unit);
-			changeSummary.incrementUpdated();
+		String conceptCode = getField(rowFields, columns.conceptIndex()).trim();
+		if (conceptCode.isEmpty()) {
+			return;
 		}
-		translationUnitStore.saveAll(toSave);
-	}
-
-	private Map<String, List<String>> parseSpreadsheetTermsByConceptCode(Sheet sheet,
-			SpreadsheetImportColumnIndices columns) throws ServiceException {
-
-		Map<String, List<String>> termsByCode = new LinkedHashMap<>();
-		for (Row row : sheet) {
-			if (row.getRowNum() == 0) {
-				continue;
-			}
-			List<String> rowFields = readSpreadsheetRowFields(row, row.getRowNum() + 1, columns);
-			if (isBlankCsvRow(rowFields)) {
-				continue;
-			}
-			String conceptCode = getField(rowFields, columns.conceptIndex()).trim();
-			if (conceptCode.isEmpty()) {
-				continue;
-			}
-			List<String> terms = buildTermsFromRow(rowFields, columns.termColumnIndices());
-			if (terms.isEmpty()) {
-				continue;
-			}
-			termsByCode.put(conceptCode, terms);
+		List<String> terms = buildTermsFromRow(rowFields, columns.termColumnIndices());
+		if (terms.isEmpty()) {
+			return;
 		}
-		return termsByCode;
+		importBatch.add(conceptCode, terms);
 	}
 
 	private List<String> readSpreadsheetRowFields(Row row, int rowNumber, SpreadsheetImportColumnIndices columns)
@@ -586,32 +556,131 @@ public class SnolateTranslationService {
 	private void importTranslationSetRows(BufferedReader reader, String setCode, String lang,
 			ImportColumnIndices columns, TranslationStatus status, OutsideSetBehavior outsideSetBehavior,
 			ChangeSummary changeSummary) throws IOException, ServiceExceptionWithStatusCode {
+		ImportBatch importBatch = new ImportBatch(setCode, lang, status, outsideSetBehavior, changeSummary, false);
 		List<String> rowFields;
 		while (!(rowFields = CsvParser.readRow(reader, columns.delimiter())).isEmpty()) {
-			processImportRow(rowFields, columns, (conceptCode, terms) -> {
-				Optional<TranslationUnit> tuOpt = translationUnitStore.loadByCode(lang, conceptCode);
-				if (tuOpt.isEmpty()) {
+			processImportRow(rowFields, columns, importBatch::add);
+		}
+		importBatch.finish();
+	}
+
+	/**
+	 * Applies imported rows a batch at a time, loading the units of a batch with one multi-get and saving them with one bulk request.
+	 * Rows are applied in file order, so when a concept has more than one row the last one wins.
+	 * <p>
+	 * Spreadsheet imports are all or nothing, as they were when the whole sheet was parsed before any unit was loaded: every row
+	 * is validated as it is read, every unit is updated before any is saved in {@link #finish()}, and each concept is counted
+	 * once however many rows it has. CSV imports write each batch when it is full, so as with the earlier row by row import
+	 * the rows before a failing row stay saved.
+	 */
+	private final class ImportBatch {
+
+		private final String setCode;
+		private final String lang;
+		private final TranslationStatus status;
+		private final OutsideSetBehavior outsideSetBehavior;
+		private final ChangeSummary changeSummary;
+		private final boolean spreadsheet;
+		// Codes already counted in the change summary, or null if every row is counted
+		private final Set<String> countedCodes;
+		private final List<ImportRow> rows = new ArrayList<>(IMPORT_BATCH_SIZE);
+
+		private ImportBatch(String setCode, String lang, TranslationStatus status, OutsideSetBehavior outsideSetBehavior,
+				ChangeSummary changeSummary, boolean spreadsheet) {
+			this.setCode = setCode;
+			this.lang = lang;
+			this.status = status;
+			this.outsideSetBehavior = outsideSetBehavior;
+			this.changeSummary = changeSummary;
+			this.spreadsheet = spreadsheet;
+			this.countedCodes = spreadsheet ? new HashSet<>() : null;
+		}
+
+		private void add(String conceptCode, List<String> terms) throws ServiceExceptionWithStatusCode {
+			if (spreadsheet) {
+				validateTermsAndStatus(normalizeTranslationTerms(terms), status);
+			}
+			rows.add(new ImportRow(conceptCode, terms));
+			if (!spreadsheet && rows.size() >= IMPORT_BATCH_SIZE) {
+				write(rows);
+				rows.clear();
+			}
+		}
+
+		private void finish() throws ServiceExceptionWithStatusCode {
+			try {
+				if (spreadsheet) {
+					// Apply every batch before saving any, so a row that only fails once its unit is loaded still rejects the file
+					List<Map<String, TranslationUnit>> pending = new ArrayList<>();
+					for (int i = 0; i < rows.size(); i += IMPORT_BATCH_SIZE) {
+						Map<String, TranslationUnit> toSave = new LinkedHashMap<>();
+						apply(rows.subList(i, Math.min(i + IMPORT_BATCH_SIZE, rows.size())), toSave);
+						pending.add(toSave);
+					}
+					for (Map<String, TranslationUnit> toSave : pending) {
+						save(toSave);
+					}
+				} else {
+					write(rows);
+				}
+			} finally {
+				rows.clear();
+			}
+		}
+
+		private void write(List<ImportRow> batch) throws ServiceExceptionWithStatusCode {
+			Map<String, TranslationUnit> toSave = new LinkedHashMap<>();
+			try {
+				apply(batch, toSave);
+			} finally {
+				save(toSave);
+			}
+		}
+
+		private void apply(List<ImportRow> batch, Map<String, TranslationUnit> toSave) throws ServiceExceptionWithStatusCode {
+			if (batch.isEmpty()) {
+				return;
+			}
+			List<String> codes = batch.stream().map(ImportRow::conceptCode).distinct().toList();
+			Map<String, TranslationUnit> unitsByCode = translationUnitStore.loadByCodes(lang, codes);
+			for (ImportRow row : batch) {
+				applyRow(row, unitsByCode.get(row.conceptCode()), toSave);
+			}
+		}
+
+		private void save(Map<String, TranslationUnit> toSave) {
+			if (!toSave.isEmpty()) {
+				translationUnitStore.saveAll(new ArrayList<>(toSave.values()));
+			}
+		}
+
+		private void applyRow(ImportRow row, TranslationUnit unit, Map<String, TranslationUnit> toSave) throws ServiceExceptionWithStatusCode {
+			String conceptCode = row.conceptCode();
+			boolean count = countedCodes == null || countedCodes.add(conceptCode);
+			if (unit == null) {
+				if (count) {
 					changeSummary.incrementSkippedNotFound();
-					logger.debug(SKIPPING_CONCEPT_NOT_FOUND_FOR_LANGUAGE, conceptCode, lang);
-					return;
 				}
-				TranslationUnit unit = tuOpt.get();
-				if (!unit.getMemberOf().contains(setCode)) {
-					if (outsideSetBehavior == OutsideSetBehavior.SKIP) {
-						changeSummary.incrementSkippedOutsideSet();
-						logger.debug("Skipping concept {} not found in translation set {}", conceptCode, setCode);
-						return;
-					}
-					applyTermsAndStatusToUnit(unit, terms, status);
-					changeSummary.incrementUpdated();
-					return;
+				logger.debug(SKIPPING_CONCEPT_NOT_FOUND_FOR_LANGUAGE, conceptCode, lang);
+				return;
+			}
+			if (!unit.getMemberOf().contains(setCode) && outsideSetBehavior == OutsideSetBehavior.SKIP) {
+				if (count) {
+					changeSummary.incrementSkippedOutsideSet();
 				}
-				applyTermsAndStatusToUnit(unit, terms, status);
+				logger.debug("Skipping concept {} not found in translation set {}", conceptCode, setCode);
+				return;
+			}
+			applyTermsAndStatusInMemory(unit, row.terms(), status);
+			toSave.put(conceptCode, unit);
+			if (count) {
 				changeSummary.incrementUpdated();
-			});
+			}
 		}
 	}
 
+	private record ImportRow(String conceptCode, List<String> terms) {}
+
 	@FunctionalInterface
 	private interface ImportRowHandler {
 		void handle(String conceptCode, List<String> terms) throws ServiceExceptionWithStatusCode;
@@ -681,16 +750,31 @@ public class SnolateTranslationService {
 	}
 
 	private void flushExportBatch(List<TranslationUnit> batch, BufferedWriter writer) throws IOException {
-		List<String> codes = batch.stream().map(TranslationUnit::getCode).toList();
-		Map<String, TranslationSource> sourceByCode = loadSourcesByCodes(codes);
+		Map<String, String> englishTermByCode = loadEnglishTerms(batch);
 		for (TranslationUnit unit : batch) {
-			TranslationSource source = sourceByCode.get(unit.getCode());
-			String englishTerm = source != null ? source.getTerm() : "";
-			writeCsvDataRow(writer, unit, englishTerm);
+			writeCsvDataRow(writer, unit, englishTermByCode.getOrDefault(unit.getCode(), ""));
 		}
 		batch.clear();
 	}
 
+	/**
+	 * English term of each unit, from {@link TranslationUnit#getEnglishTerm()}. Only units written before that field existed
+	 * are looked up in the translation source index.
+	 */
+	private Map<String, String> loadEnglishTerms(Collection<TranslationUnit> units) {
+		Map<String, String> englishTermByCode = new HashMap<>();
+		List<String> codesWithoutTerm = new ArrayList<>();
+		for (TranslationUnit unit : units) {
+			if (unit.getEnglishTerm() != null) {
+				englishTermByCode.put(unit.getCode(), unit.getEnglishTerm());
+			} else {
+				codesWithoutTerm.add(unit.getCode());
+			}
+		}
+		loadSourcesByCodes(codesWithoutTerm).forEach((code, source) -> englishTermByCode.put(code, source.getTerm()));
+		return englishTermByCode;
+	}
+
 	private Map<String, TranslationSource> loadSourcesByCodes(Collection<String> codes) {
 		if (codes.isEmpty()) {
 			return Map.of();
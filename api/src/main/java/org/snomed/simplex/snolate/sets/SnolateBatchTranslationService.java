@@ -11,6 +11,7 @@ import org.snomed.simplex.translation.BatchTranslationPrompt;
 import org.snomed.simplex.translation.TranslationLLMService;
 
 import java.util.*;
+import java.util.concurrent.*;
 import java.util.stream.StreamSupport;
 
 import static org.snomed.simplex.snolate.sets.SnolateSetService.JOB_TYPE_BATCH_AI_TRANSLATE;
@@ -19,6 +20,7 @@ import static org.snomed.simplex.snolate.sets.SnolateSetService.PERCENTAGE_PROCE
 public class SnolateBatchTranslationService extends AbstractSnolateSetProcessingService {
 
 	public static final int MAX_PAGE_SIZE = 50;
+	public static final int DEFAULT_MAX_CONCURRENT_LLM_CALLS = 4;
 
 	/** Chunk size for Elasticsearch batch reads in {@link #loadSourcesByCodes}. */
 	private static final int ELASTIC_IO_CHUNK_SIZE = 1_000;
@@ -26,61 +28,175 @@ public class SnolateBatchTranslationService extends AbstractSnolateSetProcessing
 	private final SnolateTranslationUnitStore translationUnitStore;
 	private final SnolateTranslationSourceRepository translationSourceRepository;
 	private final SnolateTranslationSearchService translationSearchService;
+	private final TranslationUnitReservations reservations = new TranslationUnitReservations();
+	private final int maxConcurrentLlmCalls;
+	private final ExecutorService llmCallExecutor;
 	private final Logger logger = LoggerFactory.getLogger(getClass());
 
 	public SnolateBatchTranslationService(SnolateProcessingContext processingContext) {
+		this(processingContext, DEFAULT_MAX_CONCURRENT_LLM_CALLS);
+	}
+
+	public SnolateBatchTranslationService(SnolateProcessingContext processingContext, int maxConcurrentLlmCalls) {
 		super(processingContext);
 		this.translationLLMService = processingContext.translationLLMService();
 		this.translationUnitStore = processingContext.translationUnitStore();
 		this.translationSourceRepository = processingContext.translationSourceRepository();
 		this.translationSearchService = processingContext.translationSearchService();
+		this.maxConcurrentLlmCalls = Math.max(1, maxConcurrentLlmCalls);
+		this.llmCallExecutor = Executors.newFixedThreadPool(this.maxConcurrentLlmCalls, runnable -> {
+			Thread thread = new Thread(runnable, "snolate-batch-translate");
+			thread.setDaemon(true);
+			return thread;
+		});
 	}
 
 	public void runAiBatchTranslate(SnolateTranslationSet translationSet, BatchTranslateRequest request) throws ServiceException {
 		queueJob(translationSet, JOB_TYPE_BATCH_AI_TRANSLATE, request);
 	}
 
+	/**
+	 * Batches are prepared on the calling thread while up to {@code maxConcurrentLlmCalls} LLM calls run in the background,
+	 * so the prompt for the next batch is built while earlier batches are being translated.
+	 * The units of each batch are reserved from selection until their suggestions have been saved.
+	 */
 	public void doRunAiBatchTranslate(SnolateTranslationSet translationSet, BatchTranslateRequest request) throws ServiceException {
 		setProgress(translationSet, PERCENTAGE_PROCESSED_START);
 		int requestedTotal = request.size();
 		String lang = translationSet.getLanguageCodeWithRefsetId();
 		String setCode = translationSet.getCompositeSetCode();
-		int progressPercent = PERCENTAGE_PROCESSED_START;
-		int unitsProcessed = 0;
+		BatchProgress progress = new BatchProgress(translationSet);
+		Semaphore llmCallSlots = new Semaphore(maxConcurrentLlmCalls);
+		List<Future<Void>> batches = new ArrayList<>();
+		int unitsSelected = 0;
+
+		try {
+			while (unitsSelected < requestedTotal && !progress.hasFailed()) {
+				int batchCap = Math.min(MAX_PAGE_SIZE, requestedTotal - unitsSelected);
+
+				// Iteratively fetch units that do not yet have suggestions and are not in a batch already
+				List<TranslationUnit> batchUnits = reservations.reserve(lang,
+						translationSearchService.listEligibleUnitsForBatchTranslate(setCode, lang, batchCap, reservations.getReservedCodes(lang)));
+				if (batchUnits.isEmpty()) {
+					break;
+				}
+				boolean submitted = false;
+				try {
+					Map<String, List<TranslationUnit>> contextByCode = loadNeighbourContextByCode(setCode, lang, batchUnits);
+					Map<String, TranslationSource> sourcesByCode = loadSourcesByCodes(collectRequiredSourceCodes(batchUnits, contextByCode));
+					BatchTranslationPrompt prompt = buildBatchPrompt(batchUnits, sourcesByCode, contextByCode);
+					if (prompt.translateLineNumbers().isEmpty()) {
+						break;
+					}
+					acquire(llmCallSlots);
+					batches.add(llmCallExecutor.submit(() -> {
+						try {
+							Map<String, List<String>> suggestions = translationLLMService.suggestBatchTranslations(translationSet, prompt);
+							progress.batchTranslated();
+							persistSuggestions(translationSet, batchUnits, sourcesByCode, suggestions, lang, setCode);
+							return null;
+						} catch (Exception e) {
+							progress.setFailed();
+							throw e;
+						} finally {
+							reservations.release(lang, batchUnits);
+							llmCallSlots.release();
+						}
+					}));
+					submitted = true;
+				} finally {
+					if (!submitted) {
+						reservations.release(lang, batchUnits);
+					}
+				}
+				unitsSelected += batchUnits.size();
+			}
+			for (Future<Void> batch : batches) {
+				await(batch);
+			}
+		} finally {
+			batches.forEach(batch -> batch.cancel(true));
+		}
+		if (unitsSelected == 0) {
+			logger.info("No more empty Snolate units in set {}", setCode);
+		}
+		setProgressToComplete(translationSet);
+	}
 
-		while (unitsProcessed < requestedTotal) {
-			int batchCap = Math.min(MAX_PAGE_SIZE, requestedTotal - unitsProcessed);
+	private static void acquire(Semaphore semaphore) throws ServiceException {
+		try {
+			semaphore.acquire();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new ServiceException("Interrupted while waiting to run a batch translation.", e);
+		}
+	}
 
-			// Iteratively fetch units that do not yet have suggestions
-			List<TranslationUnit> batchUnits = translationSearchService.listEligibleUnitsForBatchTranslate(setCode, lang, batchCap);
-			if (batchUnits.isEmpty()) {
-				break;
+	private static void await(Future<Void> batch) throws ServiceException {
+		try {
+			batch.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new ServiceException("Interrupted while waiting for batch translation.", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof ServiceException serviceException) {
+				throw serviceException;
 			}
-			Map<String, List<TranslationUnit>> contextByCode = loadNeighbourContextByCode(setCode, lang, batchUnits);
-			Map<String, TranslationSource> sourcesByCode = loadSourcesByCodes(collectRequiredSourceCodes(batchUnits, contextByCode));
-			BatchTranslationPrompt prompt = buildBatchPrompt(batchUnits, sourcesByCode, contextByCode);
-			if (prompt.translateLineNumbers().isEmpty()) {
-				break;
+			if (e.getCause() instanceof RuntimeException runtimeException) {
+				throw runtimeException;
 			}
-			Map<String, List<String>> suggestions = translationLLMService.suggestBatchTranslations(translationSet, prompt);
+			throw new ServiceException("Batch translation failed.", e.getCause());
+		}
+	}
+
+	private final class BatchProgress {
+
+		private final SnolateTranslationSet translationSet;
+		private int progressPercent = PERCENTAGE_PROCESSED_START;
+		private volatile boolean failed;
+
+		private BatchProgress(SnolateTranslationSet translationSet) {
+			this.translationSet = translationSet;
+		}
+
+		synchronized void batchTranslated() {
 			progressPercent = Math.min(99, progressPercent + 10);
 			setProgress(translationSet, progressPercent);
+		}
 
-			persistSuggestions(translationSet, batchUnits, sourcesByCode, suggestions, lang, setCode);
-			unitsProcessed += batchUnits.size();
+		void setFailed() {
+			failed = true;
 		}
-		if (unitsProcessed == 0) {
-			logger.info("No more empty Snolate units in set {}", setCode);
+
+		boolean hasFailed() {
+			return failed;
 		}
-		setProgressToComplete(translationSet);
 	}
 
+	/**
+	 * Loads the accepted context of all units in the batch with one multi search.
+	 * Batch units are not accepted, so a unit whose order directly follows another batch unit has the same context as that unit,
+	 * and only the first unit of each run of consecutive orders is searched for.
+	 */
 	private Map<String, List<TranslationUnit>> loadNeighbourContextByCode(String setCode, String lang, List<TranslationUnit> batchUnits) {
-		Map<String, List<TranslationUnit>> contextByCode = new HashMap<>();
-		for (TranslationUnit unit : batchUnits) {
-			contextByCode.put(unit.getCode(),
-					translationSearchService.findAcceptedContextUnitsBeforeOrder(setCode, lang, unit.getOrder()));
+		List<TranslationUnit> unitsByOrder = new ArrayList<>(batchUnits);
+		unitsByOrder.sort(Comparator.comparingInt(TranslationUnit::getOrder));
+		Map<String, Integer> contextOrderByCode = new HashMap<>();
+		Set<Integer> contextOrders = new LinkedHashSet<>();
+		int previousOrder = 0;
+		int contextOrder = 0;
+		for (TranslationUnit unit : unitsByOrder) {
+			if (contextOrders.isEmpty() || unit.getOrder() > previousOrder + 1) {
+				contextOrder = unit.getOrder();
+				contextOrders.add(contextOrder);
+			}
+			previousOrder = unit.getOrder();
+			contextOrderByCode.put(unit.getCode(), contextOrder);
 		}
+
+		Map<Integer, List<TranslationUnit>> contextByOrder = translationSearchService.findAcceptedContextUnitsBeforeOrders(setCode, lang, contextOrders);
+		Map<String, List<TranslationUnit>> contextByCode = new HashMap<>();
+		contextOrderByCode.forEach((code, order) -> contextByCode.put(code, contextByOrder.getOrDefault(order, List.of())));
 		return contextByCode;
 	}
 
@@ -107,6 +223,7 @@ public class SnolateBatchTranslationService extends AbstractSnolateSetProcessing
 				u = new TranslationUnit(
 						new TranslationUnit.MembershipKey(src.getCode(), translationSet.getRefset(), translationSet.getLanguageCode(), lang, src.getOrder()),
 						new ArrayList<>(), TranslationStatus.NOT_STARTED, new LinkedHashSet<>(List.of(setCode)));
+				u.setEnglishTerm(src.getTerm());
 				u.setAiSuggestions(new ArrayList<>(List.of(suggestion)));
 				toSave.add(u);
 			}
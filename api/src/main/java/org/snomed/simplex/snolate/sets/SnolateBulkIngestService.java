@@ -0,0 +1,254 @@
+package org.snomed.simplex.snolate.sets;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.Time;
+import co.elastic.clients.elasticsearch.indices.GetIndicesSettingsResponse;
+import co.elastic.clients.elasticsearch.indices.IndexSettings;
+import co.elastic.clients.elasticsearch.indices.IndexState;
+import org.elasticsearch.client.Request;
+import org.elasticsearch.client.RestClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.snomed.simplex.util.TimerUtil;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.RefreshPolicy;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bulk-ingest mode for jobs that write a large number of translation units or sources.
+ * <p>
+ * While a bulk ingest is open the refresh interval of the index is raised and bulk requests are sent concurrently,
+ * with at most {@code maxConcurrentRequests} in flight per ingest, and without a refresh after each request.
+ * Closing waits for the requests, restores the refresh interval once no other ingest is using the index, and refreshes
+ * the index once so that the documents written are visible to searches straight away.
+ * Documents can still be read by id during the ingest, searches may not see them until it is closed.
+ * <p>
+ * If the process stops while an ingest is open the index is left with the bulk refresh interval. The next ingest on
+ * the index finds the bulk interval in place, takes it to be left over, and resets the setting to the cluster default
+ * when it closes.
+ */
+@Service
+public class SnolateBulkIngestService {
+
+	private final ElasticsearchOperations elasticsearchOperations;
+	private final ElasticsearchOperations noRefreshOperations;
+	private final ElasticsearchClient elasticsearchClient;
+	private final RestClient restClient;
+	private final String bulkRefreshInterval;
+	private final int maxConcurrentRequests;
+	private final ExecutorService requestExecutor;
+	// Number of open ingests and the refresh interval to restore, null for the default, by index name
+	private final Map<String, IndexIngestState> ingestStateByIndex = new HashMap<>();
+	private final Logger logger = LoggerFactory.getLogger(getClass());
+
+	public SnolateBulkIngestService(ElasticsearchOperations elasticsearchOperations, ElasticsearchClient elasticsearchClient,
+			RestClient restClient,
+			@Value("${snolate.bulk-ingest.refresh-interval:30s}") String bulkRefreshInterval,
+			@Value("${snolate.bulk-ingest.max-concurrent-requests:3}") int maxConcurrentRequests) {
+
+		this.elasticsearchOperations = elasticsearchOperations;
+		this.noRefreshOperations = elasticsearchOperations.withRefreshPolicy(RefreshPolicy.NONE);
+		this.elasticsearchClient = elasticsearchClient;
+		this.restClient = restClient;
+		this.bulkRefreshInterval = bulkRefreshInterval;
+		this.maxConcurrentRequests = Math.max(1, maxConcurrentRequests);
+		this.requestExecutor = Executors.newCachedThreadPool(runnable -> {
+			Thread thread = new Thread(runnable, "snolate-bulk-ingest");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * @param documentClass document class of the index to write to
+	 * @param label used when logging the time taken
+	 */
+	public BulkIngest start(Class<?> documentClass, String label) {
+		IndexCoordinates indexCoordinates = elasticsearchOperations.getIndexCoordinatesFor(documentClass);
+		enterBulkMode(indexCoordinates.getIndexName());
+		return new BulkIngest(documentClass, indexCoordinates, label);
+	}
+
+	private synchronized void enterBulkMode(String indexName) {
+		IndexIngestState state = ingestStateByIndex.get(indexName);
+		if (state != null) {
+			state.openIngests++;
+			return;
+		}
+		String previousRefreshInterval = readRefreshInterval(indexName);
+		if (bulkRefreshInterval.equals(previousRefreshInterval)) {
+			logger.info("Index {} still has the bulk refresh interval from an earlier ingest, it will be reset to the default.", indexName);
+			previousRefreshInterval = null;
+		}
+		writeRefreshInterval(indexName, bulkRefreshInterval);
+		ingestStateByIndex.put(indexName, new IndexIngestState(previousRefreshInterval));
+	}
+
+	private synchronized void exitBulkMode(String indexName) {
+		IndexIngestState state = ingestStateByIndex.get(indexName);
+		if (state == null || --state.openIngests > 0) {
+			return;
+		}
+		ingestStateByIndex.remove(indexName);
+		writeRefreshInterval(indexName, state.previousRefreshInterval);
+	}
+
+	String readRefreshInterval(String indexName) {
+		try {
+			GetIndicesSettingsResponse response = elasticsearchClient.indices().getSettings(request -> request.index(indexName));
+			IndexState indexState = response.get(indexName);
+			IndexSettings settings = indexState != null ? indexState.settings() : null;
+			if (settings == null) {
+				return null;
+			}
+			Time refreshInterval = settings.index() != null ? settings.index().refreshInterval() : settings.refreshInterval();
+			return refreshInterval != null && refreshInterval.isTime() ? refreshInterval.time() : null;
+		} catch (IOException | RuntimeException e) {
+			logger.warn("Failed to read the refresh interval of index {}. {}", indexName, e.getMessage());
+			return null;
+		}
+	}
+
+	/**
+	 * @param refreshInterval new interval, or null to remove the setting so that the index uses the cluster default
+	 */
+	void writeRefreshInterval(String indexName, String refreshInterval) {
+		// Bulk ingest still works if the setting can not be changed, it is just slower
+		try {
+			// Sent through the low level client because the typed settings request can not hold a null to reset the setting
+			Request request = new Request("PUT", "/" + indexName + "/_settings");
+			request.setJsonEntity(refreshInterval != null
+					? "{\"index\":{\"refresh_interval\":\"%s\"}}".formatted(refreshInterval)
+					: "{\"index\":{\"refresh_interval\":null}}");
+			restClient.performRequest(request);
+		} catch (IOException | RuntimeException e) {
+			logger.warn("Failed to set the refresh interval of index {} to {}. {}", indexName, refreshInterval, e.getMessage());
+		}
+	}
+
+	private static final class IndexIngestState {
+
+		private final String previousRefreshInterval;
+		private int openIngests = 1;
+
+		private IndexIngestState(String previousRefreshInterval) {
+			this.previousRefreshInterval = previousRefreshInterval;
+		}
+	}
+
+	public final class BulkIngest implements AutoCloseable {
+
+		private final Class<?> documentClass;
+		private final IndexCoordinates indexCoordinates;
+		private final String indexName;
+		private final TimerUtil timer;
+		private final long startMillis = System.currentTimeMillis();
+		private final Semaphore requestSlots = new Semaphore(maxConcurrentRequests);
+		private final List<Future<?>> requests = new ArrayList<>();
+		private final AtomicLong documentsWritten = new AtomicLong();
+		private boolean closed;
+
+		private BulkIngest(Class<?> documentClass, IndexCoordinates indexCoordinates, String label) {
+			this.documentClass = documentClass;
+			this.indexCoordinates = indexCoordinates;
+			this.indexName = indexCoordinates.getIndexName();
+			this.timer = new TimerUtil("Bulk ingest %s".formatted(label));
+		}
+
+		/**
+		 * Sends a bulk request in the background, waiting first if too many requests are already in flight.
+		 * The documents must not be changed until the ingest is closed.
+		 * @param documentCount number of documents written by the request
+		 */
+		public void submit(int documentCount, Runnable bulkRequest) {
+			if (closed) {
+				throw new IllegalStateException("Bulk ingest for index %s is closed.".formatted(indexName));
+			}
+			try {
+				requestSlots.acquire();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("Interrupted while waiting to write to index %s.".formatted(indexName), e);
+			}
+			requests.add(requestExecutor.submit(() -> {
+				try {
+					bulkRequest.run();
+					documentsWritten.addAndGet(documentCount);
+				} finally {
+					requestSlots.release();
+				}
+			}));
+		}
+
+		/**
+		 * Indexes the documents with one bulk request in the background, see {@link #submit}.
+		 * The index is not refreshed after the request, only when the ingest is closed.
+		 */
+		public void saveAll(List<?> documents) {
+			submit(documents.size(), () -> noRefreshOperations.save(documents, indexCoordinates));
+		}
+
+		/**
+		 * Waits for the requests sent so far.
+		 * @throws RuntimeException the first error from a request
+		 */
+		public void awaitRequests() {
+			RuntimeException firstError = null;
+			for (Future<?> request : requests) {
+				try {
+					request.get();
+				} catch (ExecutionException e) {
+					if (firstError == null) {
+						firstError = e.getCause() instanceof RuntimeException runtimeException
+								? runtimeException
+								: new IllegalStateException("Bulk request to index %s failed.".formatted(indexName), e.getCause());
+					}
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new IllegalStateException("Interrupted while waiting for bulk requests to index %s.".formatted(indexName), e);
+				}
+			}
+			requests.clear();
+			if (firstError != null) {
+				throw firstError;
+			}
+		}
+
+		public long getDocumentsWritten() {
+			return documentsWritten.get();
+		}
+
+		@Override
+		public void close() {
+			if (closed) {
+				return;
+			}
+			closed = true;
+			try {
+				awaitRequests();
+			} finally {
+				exitBulkMode(indexName);
+				elasticsearchOperations.indexOps(documentClass).refresh();
+				long documents = documentsWritten.get();
+				float seconds = TimerUtil.getDuration(startMillis, System.currentTimeMillis());
+				logger.info("Bulk ingest wrote {} documents to {} at {} documents per second",
+						documents, indexName, seconds > 0 ? Math.round(documents / seconds) : documents);
+				timer.finish();
+			}
+		}
+	}
+}
@@ -0,0 +1,95 @@
+package org.snomed.simplex.snolate.sets;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs Snolate set jobs on up to {@code maxConcurrentJobs} threads.
+ * Jobs with the same key run one at a time, in the order they were submitted.
+ * Code systems take turns when a thread becomes free, so a long queue of jobs for one code system does not hold up the others.
+ */
+class SnolateJobScheduler {
+
+	private final int maxConcurrentJobs;
+	private final ExecutorService executor;
+	// Waiting jobs by code system, in the order the code systems will next be served
+	private final Map<String, Deque<Job>> waitingByCodeSystem = new LinkedHashMap<>();
+	private final Set<String> runningKeys = new HashSet<>();
+	private final Logger logger = LoggerFactory.getLogger(getClass());
+
+	SnolateJobScheduler(int maxConcurrentJobs) {
+		this.maxConcurrentJobs = Math.max(1, maxConcurrentJobs);
+		this.executor = Executors.newFixedThreadPool(this.maxConcurrentJobs, runnable -> {
+			Thread thread = new Thread(runnable, "snolate-job");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	synchronized void submit(String codeSystem, String key, Runnable task) {
+		waitingByCodeSystem.computeIfAbsent(codeSystem, cs -> new ArrayDeque<>()).add(new Job(key, task));
+		startWaitingJobs();
+	}
+
+	synchronized int getWaitingCount() {
+		return waitingByCodeSystem.values().stream().mapToInt(Deque::size).sum();
+	}
+
+	private void startWaitingJobs() {
+		Job job;
+		while (runningKeys.size() < maxConcurrentJobs && (job = takeNextJob()) != null) {
+			runningKeys.add(job.key());
+			Job startedJob = job;
+			executor.execute(() -> run(startedJob));
+		}
+	}
+
+	private Job takeNextJob() {
+		Iterator<Map.Entry<String, Deque<Job>>> codeSystems = waitingByCodeSystem.entrySet().iterator();
+		while (codeSystems.hasNext()) {
+			Map.Entry<String, Deque<Job>> codeSystemJobs = codeSystems.next();
+			Job job = takeFirstJobNotRunning(codeSystemJobs.getValue());
+			if (job != null) {
+				// Move the code system to the back so that the others are served first next time
+				codeSystems.remove();
+				if (!codeSystemJobs.getValue().isEmpty()) {
+					waitingByCodeSystem.put(codeSystemJobs.getKey(), codeSystemJobs.getValue());
+				}
+				return job;
+			}
+		}
+		return null;
+	}
+
+	private Job takeFirstJobNotRunning(Deque<Job> jobs) {
+		Iterator<Job> iterator = jobs.iterator();
+		while (iterator.hasNext()) {
+			Job job = iterator.next();
+			if (!runningKeys.contains(job.key())) {
+				iterator.remove();
+				return job;
+			}
+		}
+		return null;
+	}
+
+	private void run(Job job) {
+		try {
+			job.task().run();
+		} catch (RuntimeException e) {
+			logger.error("Unexpected error in Snolate job {}", job.key(), e);
+		} finally {
+			synchronized (this) {
+				runningKeys.remove(job.key());
+				startWaitingJobs();
+			}
+		}
+	}
+
+	private record Job(String key, Runnable task) {
+	}
+}
@@ -19,5 +19,6 @@ public record SnolateProcessingContext(
 		Map<String, SecurityContext> userIdToContextMap,
 		JmsTemplate jmsTemplate,
 		String processingQueueName,
-		ObjectMapper objectMapper) {
+		ObjectMapper objectMapper,
+		SnolateBulkIngestService bulkIngestService) {
 }
@@ -35,6 +35,7 @@ public class SnolateSetCreationService extends AbstractSnolateSetProcessingServi
 	private final SnolateTranslationUnitStore translationUnitStore;
 	private final SnolateTranslationSearchService translationSearchService;
 	private final SnowstormClientFactory snowstormClientFactory;
+	private final SnolateBulkIngestService bulkIngestService;
 	private final int batchSize;
 	private final Logger logger = LoggerFactory.getLogger(getClass());
 
@@ -45,6 +46,7 @@ public class SnolateSetCreationService extends AbstractSnolateSetProcessingServi
 		this.translationUnitStore = processingContext.translationUnitStore();
 		this.translationSearchService = processingContext.translationSearchService();
 		this.snowstormClientFactory = processingContext.snowstormClientFactory();
+		this.bulkIngestService = processingContext.bulkIngestService();
 		this.batchSize = batchSize;
 	}
 
@@ -194,8 +196,12 @@ public class SnolateSetCreationService extends AbstractSnolateSetProcessingServi
 		List<String> toRemove = currentConceptIds.stream().filter(id -> !newConceptIds.contains(id)).toList();
 		logger.info("Refresh diff for {}: {} to add, {} to remove", compositeSetCode, toAdd.size(), toRemove.size());
 
-		applyRemoveBatches(translationSet, toRemove, timerUtil);
-		int added = applyAddBatches(translationSet, toAdd, timerUtil);
+		int added;
+		// The codes removed and added are distinct, so their writes can overlap
+		try (SnolateBulkIngestService.BulkIngest bulkIngest = bulkIngestService.start(TranslationUnit.class, "refresh " + compositeSetCode)) {
+			applyRemoveBatches(translationSet, toRemove, bulkIngest, timerUtil);
+			added = applyAddBatches(translationSet, toAdd, bulkIngest, timerUtil);
+		}
 		int skippedAdds = toAdd.size() - added;
 		if (skippedAdds > 0) {
 			logger.info("Snolate refresh: {} concepts were not in translation_source and were skipped when adding set membership.", skippedAdds);
@@ -220,18 +226,20 @@ public class SnolateSetCreationService extends AbstractSnolateSetProcessingServi
 		List<String> codes = new ArrayList<>();
 		int done = 0;
 		long skippedTotal = 0;
-		String code;
-		while ((code = idSource.next()) != null) {
-			codes.add(code);
-			if (codes.size() == batchSize) {
-				skippedTotal += bulkAddSetMembership(translationSet, codes, timerUtil);
-				done += batchSize;
-				updateProcessingTotal(translationSet, done, idSource.getTotal());
+		try (SnolateBulkIngestService.BulkIngest bulkIngest = bulkIngestService.start(TranslationUnit.class, "create " + compositeSetCode)) {
+			String code;
+			while ((code = idSource.next()) != null) {
+				codes.add(code);
+				if (codes.size() == batchSize) {
+					skippedTotal += bulkAddSetMembership(translationSet, codes, bulkIngest, timerUtil);
+					done += batchSize;
+					updateProcessingTotal(translationSet, done, idSource.getTotal());
+				}
+			}
+			if (!codes.isEmpty()) {
+				skippedTotal += bulkAddSetMembership(translationSet, codes, bulkIngest, timerUtil);
+				updateProcessingTotal(translationSet, idSource.getTotal(), idSource.getTotal());
 			}
-		}
-		if (!codes.isEmpty()) {
-			skippedTotal += bulkAddSetMembership(translationSet, codes, timerUtil);
-			updateProcessingTotal(translationSet, idSource.getTotal(), idSource.getTotal());
 		}
 		if (skippedTotal > 0) {
 			logger.warn("Snolate create set {}: skipped {} concept IDs not present in translation_source.",
@@ -258,33 +266,35 @@ public class SnolateSetCreationService extends AbstractSnolateSetProcessingServi
 		return ids;
 	}
 
-	private void applyRemoveBatches(SnolateTranslationSet translationSet, List<String> toRemove, TimerUtil timerUtil) {
+	private void applyRemoveBatches(SnolateTranslationSet translationSet, List<String> toRemove,
+			SnolateBulkIngestService.BulkIngest bulkIngest, TimerUtil timerUtil) {
 		List<String> batch = new ArrayList<>();
 		for (String id : toRemove) {
 			batch.add(id);
 			if (batch.size() == batchSize) {
-				bulkRemoveSetMembership(translationSet, batch, timerUtil);
+				bulkRemoveSetMembership(translationSet, batch, bulkIngest, timerUtil);
 			}
 		}
 		if (!batch.isEmpty()) {
-			bulkRemoveSetMembership(translationSet, batch, timerUtil);
+			bulkRemoveSetMembership(translationSet, batch, bulkIngest, timerUtil);
 		}
 	}
 
-	private int applyAddBatches(SnolateTranslationSet translationSet, List<String> toAdd, TimerUtil timerUtil) {
+	private int applyAddBatches(SnolateTranslationSet translationSet, List<String> toAdd,
+			SnolateBulkIngestService.BulkIngest bulkIngest, TimerUtil timerUtil) {
 		int added = 0;
 		List<String> batch = new ArrayList<>();
 		for (String id : toAdd) {
 			batch.add(id);
 			if (batch.size() == batchSize) {
 				int n = batch.size();
-				int skipped = bulkAddSetMembership(translationSet, batch, timerUtil);
+				int skipped = bulkAddSetMembership(translationSet, batch, bulkIngest, timerUtil);
 				added += n - skipped;
 			}
 		}
 		if (!batch.isEmpty()) {
 			int n = batch.size();
-			int skipped = bulkAddSetMembership(translationSet, batch, timerUtil);
+			int skipped = bulkAddSetMembership(translationSet, batch, bulkIngest, timerUtil);
 			added += n - skipped;
 		}
 		return added;
@@ -375,7 +385,8 @@ public class SnolateSetCreationService extends AbstractSnolateSetProcessingServi
 	/**
 	 * @return number of requested codes not found in {@link TranslationSource} (skipped)
 	 */
-	private int bulkAddSetMembership(SnolateTranslationSet translationSet, List<String> codes, TimerUtil timerUtil) {
+	private int bulkAddSetMembership(SnolateTranslationSet translationSet, List<String> codes,
+			SnolateBulkIngestService.BulkIngest bulkIngest, TimerUtil timerUtil) {
 		String compositeSetCode = translationSet.getCompositeSetCode();
 		String compositeLang = translationSet.getLanguageCodeWithRefsetId();
 
@@ -406,10 +417,11 @@ public class SnolateSetCreationService extends AbstractSnolateSetProcessingServi
 				} else {
 					u = TranslationUnit.shellMember(src.getCode(), translationSet.getRefset(), translationSet.getLanguageCode(),
 							compositeLang, src.getOrder(), compositeSetCode);
+					u.setEnglishTerm(src.getTerm());
 				}
 				toSave.add(u);
 			}
-			translationUnitStore.saveAll(toSave);
+			translationUnitStore.saveAll(toSave, bulkIngest);
 		}
 
 		codes.clear();
@@ -417,7 +429,8 @@ public class SnolateSetCreationService extends AbstractSnolateSetProcessingServi
 		return skipped;
 	}
 
-	private void bulkRemoveSetMembership(SnolateTranslationSet translationSet, List<String> codes, TimerUtil timerUtil) {
+	private void bulkRemoveSetMembership(SnolateTranslationSet translationSet, List<String> codes,
+			SnolateBulkIngestService.BulkIngest bulkIngest, TimerUtil timerUtil) {
 		String compositeSetCode = translationSet.getCompositeSetCode();
 		String compositeLang = translationSet.getLanguageCodeWithRefsetId();
 		logger.info("Removing Snolate set membership:{} from {} concept IDs", compositeSetCode, codes.size());
@@ -434,7 +447,7 @@ public class SnolateSetCreationService extends AbstractSnolateSetProcessingServi
 				toSave.add(u);
 			}
 		}
-		translationUnitStore.saveAll(toSave);
+		translationUnitStore.saveAll(toSave, bulkIngest);
 		logger.info("Removed Snolate set membership batch");
 		codes.clear();
 		timerUtil.checkpoint("Removed membership batch");
@@ -25,10 +25,10 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.StreamSupport;
 
 @Service
@@ -52,6 +52,7 @@ public class SnolateSetService {
 	private final SnolateBatchTranslationService batchTranslationService;
 	private final SnolateTranslationSearchService translationSearchService;
 	private final ObjectMapper objectMapper;
+	private final SnolateJobScheduler jobScheduler;
 
 	private final Map<String, SecurityContext> userIdToContextMap;
 
@@ -63,21 +64,25 @@ public class SnolateSetService {
 			SnolateTranslationUnitStore translationUnitStore,
 			SnolateTranslationSearchService translationSearchService, TranslationLLMService translationLLMService, SupportRegister supportRegister,
 			JmsTemplate jmsTemplate, @Value("${jms.queue.prefix}") String jmsQueuePrefix,
-			@Value("${snolate.label.batch-size}") int labelBatchSize, ObjectMapper objectMapper) {
+			@Value("${snolate.label.batch-size}") int labelBatchSize,
+			@Value("${snolate.batch-translate.max-concurrent-llm-calls:4}") int maxConcurrentLlmCalls,
+			@Value("${snolate.jobs.max-concurrent:4}") int maxConcurrentJobs, ObjectMapper objectMapper,
+			SnolateBulkIngestService bulkIngestService) {
 
 		this.snolateSetRepository = snolateSetRepository;
 		this.snolateSetRefsetCache = snolateSetRefsetCache;
 		this.snowstormClientFactory = snowstormClientFactory;
 		this.supportRegister = supportRegister;
 		this.objectMapper = objectMapper;
-		this.userIdToContextMap = new HashMap<>();
+		this.userIdToContextMap = new ConcurrentHashMap<>();
+		this.jobScheduler = new SnolateJobScheduler(maxConcurrentJobs);
 
 		String queueName = jmsQueuePrefix + ".snolate-translation-set.processing";
 		SnolateProcessingContext processingContext = new SnolateProcessingContext(snowstormClientFactory, snolateSetRepository,
 				translationSourceRepository, translationUnitRepository, translationUnitStore, translationSearchService, translationLLMService, userIdToContextMap, jmsTemplate,
-				queueName, objectMapper);
+				queueName, objectMapper, bulkIngestService);
 		creationService = new SnolateSetCreationService(processingContext, labelBatchSize);
-		batchTranslationService = new SnolateBatchTranslationService(processingContext);
+		batchTranslationService = new SnolateBatchTranslationService(processingContext, maxConcurrentLlmCalls);
 		this.translationSearchService = translationSearchService;
 	}
 
@@ -219,8 +224,25 @@ public class SnolateSetService {
 		return new RepairTranslationSetSizesResponse(repaired, unchanged, skipped, changes);
 	}
 
+	/**
+	 * Hands the job to the job scheduler. Sets of the same language refset share translation units,
+	 * so their jobs are run one at a time, while jobs for other sets run in parallel.
+	 */
 	@JmsListener(destination = "${jms.queue.prefix}.snolate-translation-set.processing", concurrency = "1")
 	public void processSnolateTranslationSet(Map<String, Object> jobMessage) {
+		String translationSetId = (String) jobMessage.get(JOB_MESSAGE_ID);
+		Optional<SnolateTranslationSet> optional = snolateSetRepository.findById(translationSetId);
+		if (optional.isEmpty()) {
+			logger.info("Snolate translation set was deleted before being processed {}", translationSetId);
+			return;
+		}
+		SnolateTranslationSet translationSet = optional.get();
+		jobScheduler.submit(translationSet.getCodesystem(), translationSet.getLanguageCodeWithRefsetId(), () -> runJob(jobMessage));
+		logger.debug("Queued {} Snolate translation set job for {}, {} job(s) waiting",
+				jobMessage.get(JOB_TYPE), translationSetId, jobScheduler.getWaitingCount());
+	}
+
+	private void runJob(Map<String, Object> jobMessage) {
 		String username = (String) jobMessage.get(JOB_MESSAGE_USERNAME);
 		String translationSetId = (String) jobMessage.get(JOB_MESSAGE_ID);
 		String jobType = (String) jobMessage.get(JOB_TYPE);
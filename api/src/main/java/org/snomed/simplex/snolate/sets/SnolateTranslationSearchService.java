@@ -1,6 +1,9 @@
 package org.snomed.simplex.snolate.sets;
 
 import co.elastic.clients.elasticsearch._types.FieldValue;
+import co.elastic.clients.elasticsearch._types.aggregations.Aggregate;
+import co.elastic.clients.elasticsearch._types.aggregations.Aggregation;
+import co.elastic.clients.elasticsearch._types.aggregations.StringTermsBucket;
 import co.elastic.clients.elasticsearch._types.query_dsl.Query;
 import org.snomed.simplex.domain.JobStatus;
 import org.snomed.simplex.exceptions.ServiceExceptionWithStatusCode;
@@ -8,13 +11,17 @@ import org.snomed.simplex.snolate.domain.TranslationSource;
 import org.snomed.simplex.snolate.domain.TranslationStatus;
 import org.snomed.simplex.snolate.domain.TranslationUnit;
 import org.springframework.data.domain.*;
+import org.springframework.data.elasticsearch.client.elc.ElasticsearchAggregations;
 import org.springframework.data.elasticsearch.client.elc.NativeQuery;
 import org.springframework.data.elasticsearch.client.elc.NativeQueryBuilder;
 import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
 import org.springframework.data.elasticsearch.core.SearchHit;
 import org.springframework.data.elasticsearch.core.SearchHits;
+import org.springframework.data.elasticsearch.core.query.ByQueryResponse;
 import org.springframework.data.elasticsearch.core.query.Criteria;
 import org.springframework.data.elasticsearch.core.query.CriteriaQuery;
+import org.springframework.data.elasticsearch.core.query.ScriptType;
+import org.springframework.data.elasticsearch.core.query.UpdateQuery;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 
@@ -49,20 +56,39 @@ public class SnolateTranslationSearchService {
 	/** Elasticsearch default {@code index.max_result_window}; offset pagination must stay within this. */
 	private static final int ELASTICSEARCH_MAX_RESULT_WINDOW = 10_000;
 
-	private static final int SOURCE_TERM_SEARCH_PAGE_SIZE = 5_000;
-
 	/**
 	 * Cap English source matches before building an Elasticsearch {@code terms} query on concept ids
 	 * (default index limit is 65,536).
 	 */
 	public static final int ENGLISH_SOURCE_SEARCH_MAX_RESULTS = 50_000;
 
-	private static final String TRANSLATION_SOURCE_TERM_FIELD = "term";
-
 	private static final String TRANSLATION_UNIT_TERMS_FIELD = "terms";
 
 	private static final String AI_SUGGESTIONS_FIELD = "aiSuggestions";
 
+	private static final String SET_AGGREGATION = "sets";
+
+	private static final String STATUS_AGGREGATION = "statuses";
+
+	private static final String TRANSLATED_AGGREGATION = "translated";
+
+	private static final String SET_ORDER_AND_TERM_BY_CODE_SCRIPT = """
+			boolean changed = false;
+			def newOrder = params.orders.get(ctx._source.code);
+			if (newOrder != null && ctx._source.order != newOrder) {
+			  ctx._source.order = newOrder;
+			  changed = true;
+			}
+			def newTerm = params.terms.get(ctx._source.code);
+			if (newTerm != null && ctx._source.englishTerm != newTerm) {
+			  ctx._source.englishTerm = newTerm;
+			  changed = true;
+			}
+			if (!changed) {
+			  ctx.op = 'noop';
+			}
+			""";
+
 	private static final Sort ACCEPTED_CONTEXT_SORT_DESC = Sort.by(Sort.Order.desc(TranslationUnit.Fields.ORDER));
 
 	private final ElasticsearchOperations elasticsearchOperations;
@@ -96,11 +122,24 @@ public class SnolateTranslationSearchService {
 	 */
 	public List<TranslationUnit> listEligibleUnitsForBatchTranslate(String compositeSetCode, String compositeLanguageCode,
 			int limit) {
+		return listEligibleUnitsForBatchTranslate(compositeSetCode, compositeLanguageCode, limit, Set.of());
+	}
+
+	/**
+	 * Returns the first {@code limit} eligible units in set order, leaving out units with the given codes.
+	 * Used to skip units already picked by batches that are still in progress.
+	 */
+	public List<TranslationUnit> listEligibleUnitsForBatchTranslate(String compositeSetCode, String compositeLanguageCode,
+			int limit, Collection<String> excludeCodes) {
 		if (limit <= 0) {
 			return List.of();
 		}
 		int pageSize = Math.min(limit, ELASTICSEARCH_MAX_RESULT_WINDOW);
-		CriteriaQuery query = new CriteriaQuery(eligibleForBatchTranslateCriteria(compositeSetCode, compositeLanguageCode));
+		Criteria criteria = eligibleForBatchTranslateCriteria(compositeSetCode, compositeLanguageCode);
+		if (!excludeCodes.isEmpty()) {
+			criteria = criteria.and(new Criteria(TranslationUnit.Fields.CODE).in(excludeCodes).not());
+		}
+		CriteriaQuery query = new CriteriaQuery(criteria);
 		query.setPageable(PageRequest.of(0, pageSize, UNITS_IN_SET_STREAM_SORT));
 		query.setTrackTotalHits(false);
 		SearchHits<TranslationUnit> searchHits = elasticsearchOperations.search(query, TranslationUnit.class);
@@ -108,20 +147,42 @@ public class SnolateTranslationSearchService {
 	}
 
 	/**
-	 * Returns up to two accepted translations immediately before {@code beforeOrder} in hierarchy order.
+	 * Returns up to two accepted translations immediately before each of {@code beforeOrders} in hierarchy order,
+	 * sent as one multi search request.
+	 * Context units shared by several orders are returned as the same instance.
+	 * @return context units keyed by order, orders with no context are left out
 	 */
-	public List<TranslationUnit> findAcceptedContextUnitsBeforeOrder(String compositeSetCode, String compositeLanguageCode,
-			int beforeOrder) {
-		if (beforeOrder <= 0) {
-			return List.of();
+	public Map<Integer, List<TranslationUnit>> findAcceptedContextUnitsBeforeOrders(String compositeSetCode, String compositeLanguageCode,
+			Collection<Integer> beforeOrders) {
+		List<Integer> orders = beforeOrders.stream().filter(order -> order > 0).distinct().toList();
+		if (orders.isEmpty()) {
+			return Map.of();
 		}
+		List<CriteriaQuery> queries = orders.stream()
+				.map(order -> acceptedContextQuery(compositeSetCode, compositeLanguageCode, order))
+				.toList();
+		List<SearchHits<TranslationUnit>> results = elasticsearchOperations.multiSearch(queries, TranslationUnit.class);
+		Map<String, TranslationUnit> unitsByCode = new HashMap<>();
+		Map<Integer, List<TranslationUnit>> contextByOrder = new HashMap<>();
+		for (int i = 0; i < orders.size(); i++) {
+			List<TranslationUnit> contextUnits = new ArrayList<>();
+			for (SearchHit<TranslationUnit> hit : results.get(i).getSearchHits()) {
+				TranslationUnit unit = hit.getContent();
+				contextUnits.add(unitsByCode.computeIfAbsent(unit.getCode(), code -> unit));
+			}
+			if (!contextUnits.isEmpty()) {
+				Collections.reverse(contextUnits);
+				contextByOrder.put(orders.get(i), contextUnits);
+			}
+		}
+		return contextByOrder;
+	}
+
+	private CriteriaQuery acceptedContextQuery(String compositeSetCode, String compositeLanguageCode, int beforeOrder) {
 		CriteriaQuery query = new CriteriaQuery(acceptedContextBeforeOrderCriteria(compositeSetCode, compositeLanguageCode, beforeOrder));
 		query.setPageable(PageRequest.of(0, 2, ACCEPTED_CONTEXT_SORT_DESC));
 		query.setTrackTotalHits(false);
-		SearchHits<TranslationUnit> searchHits = elasticsearchOperations.search(query, TranslationUnit.class);
-		List<TranslationUnit> contextUnits = new ArrayList<>(searchHits.getSearchHits().stream().map(SearchHit::getContent).toList());
-		Collections.reverse(contextUnits);
-		return contextUnits;
+		return query;
 	}
 
 	public Page<TranslationUnit> pageUnitsInSet(String compositeSetCode, String compositeLanguageCode, Pageable pageable)
@@ -151,17 +212,29 @@ public class SnolateTranslationSearchService {
 	public Page<TranslationUnit> pageUnitsInSet(String compositeSetCode, String compositeLanguageCode, Pageable pageable,
 			TranslationStatus statusFilter, Collection<String> englishConceptCodes, String targetTerm)
 			throws ServiceExceptionWithStatusCode {
+		return pageUnitsInSet(compositeSetCode, compositeLanguageCode, pageable, statusFilter, englishConceptCodes, null, targetTerm);
+	}
+
+	/**
+	 * @param englishTerm case-insensitive substring of {@link TranslationUnit#getEnglishTerm()}, matched against the
+	 * wildcard-type {@value TranslationUnit.Fields#ENGLISH_TERM_SEARCH} subfield so that the page is a single query
+	 */
+	public Page<TranslationUnit> pageUnitsInSet(String compositeSetCode, String compositeLanguageCode, Pageable pageable,
+			TranslationStatus statusFilter, Collection<String> englishConceptCodes, String englishTerm, String targetTerm)
+			throws ServiceExceptionWithStatusCode {
 		if (englishConceptCodes != null && englishConceptCodes.isEmpty()) {
 			return Page.empty(pageable);
 		}
 		if (englishConceptCodes != null && englishConceptCodes.size() > ENGLISH_SOURCE_SEARCH_MAX_RESULTS) {
 			throw englishSearchTooBroadException();
 		}
+		String trimmedEnglish = normalizeOptionalSearchTerm(englishTerm);
 		String trimmedTarget = normalizeOptionalSearchTerm(targetTerm);
-		if (englishConceptCodes == null && trimmedTarget == null) {
+		if (englishConceptCodes == null && trimmedEnglish == null && trimmedTarget == null) {
 			return pageUnitsInSetWithCriteria(compositeSetCode, compositeLanguageCode, pageable, statusFilter);
 		}
-		Query query = buildUnitsInSetQuery(compositeSetCode, compositeLanguageCode, statusFilter, englishConceptCodes, trimmedTarget);
+		Query query = buildUnitsInSetQuery(compositeSetCode, compositeLanguageCode, statusFilter, englishConceptCodes,
+				trimmedEnglish, trimmedTarget);
 		return paginateSearch(pageable, (p, searchAfter, trackTotal) -> {
 			NativeQueryBuilder builder = NativeQuery.builder()
 					.withQuery(query)
@@ -174,79 +247,6 @@ public class SnolateTranslationSearchService {
 		});
 	}
 
-	/**
-	 * Concept ids whose English {@link TranslationSource#getTerm()} contains {@code term} (case-insensitive substring).
-	 * Returns an empty list when nothing matches.
-	 *
-	 * @throws ServiceExceptionWithStatusCode when matches exceed {@link #ENGLISH_SOURCE_SEARCH_MAX_RESULTS}
-	 */
-	public List<String> findSourceCodesByTermSubstring(String term) throws ServiceExceptionWithStatusCode {
-		String trimmed = normalizeOptionalSearchTerm(term);
-		if (trimmed == null) {
-			return List.of();
-		}
-		Query query = caseInsensitiveSubstringWildcardQuery(TRANSLATION_SOURCE_TERM_FIELD, trimmed);
-		List<String> codes = new ArrayList<>();
-		List<Object> searchAfter = null;
-		boolean hasMore = true;
-		while (hasMore) {
-			SearchHits<TranslationSource> searchHits = searchTranslationSources(query, searchAfter);
-			List<SearchHit<TranslationSource>> hits = searchHits.getSearchHits();
-			if (hits.isEmpty()) {
-				hasMore = false;
-			} else {
-				SourceCodeScanAction action = appendMatchingSourceCodes(hits, codes);
-				if (action == SourceCodeScanAction.TOO_BROAD) {
-					throw englishSearchTooBroadException();
-				}
-				if (action == SourceCodeScanAction.STOP || hits.size() < SOURCE_TERM_SEARCH_PAGE_SIZE) {
-					hasMore = false;
-				} else {
-					searchAfter = extractSearchAfter(hits);
-				}
-			}
-		}
-		return codes;
-	}
-
-	private SearchHits<TranslationSource> searchTranslationSources(Query query, List<Object> searchAfter) {
-		NativeQueryBuilder builder = NativeQuery.builder()
-				.withQuery(query)
-				.withPageable(PageRequest.of(0, SOURCE_TERM_SEARCH_PAGE_SIZE, Sort.by(Sort.Order.asc("order"))))
-				.withTrackTotalHits(false);
-		if (searchAfter != null) {
-			builder.withSearchAfter(searchAfter);
-		}
-		return elasticsearchOperations.search(builder.build(), TranslationSource.class);
-	}
-
-	private enum SourceCodeScanAction {
-		CONTINUE, STOP, TOO_BROAD
-	}
-
-	private static SourceCodeScanAction appendMatchingSourceCodes(List<SearchHit<TranslationSource>> hits, List<String> codes) {
-		for (int i = 0; i < hits.size(); i++) {
-			TranslationSource source = hits.get(i).getContent();
-			if (source.getCode() != null) {
-				codes.add(source.getCode());
-			}
-			if (codes.size() >= ENGLISH_SOURCE_SEARCH_MAX_RESULTS) {
-				boolean moreResultsExist = i < hits.size() - 1 || hits.size() >= SOURCE_TERM_SEARCH_PAGE_SIZE;
-				return moreResultsExist ? SourceCodeScanAction.TOO_BROAD : SourceCodeScanAction.STOP;
-			}
-		}
-		return SourceCodeScanAction.CONTINUE;
-	}
-
-	private static List<Object> extractSearchAfter(List<SearchHit<TranslationSource>> hits) {
-		List<Object> searchAfter = hits.get(hits.size() - 1).getSortValues();
-		if (searchAfter.isEmpty()) {
-			throw new IllegalStateException(
-					"Elasticsearch returned no sort values for search_after; cannot continue English term search.");
-		}
-		return searchAfter;
-	}
-
 	private static ServiceExceptionWithStatusCode englishSearchTooBroadException() {
 		return new ServiceExceptionWithStatusCode(
 				"English search matched too many concepts (maximum %,d). Please narrow your search."
@@ -322,7 +322,7 @@ public class SnolateTranslationSearchService {
 	}
 
 	private static Query buildUnitsInSetQuery(String compositeSetCode, String compositeLanguageCode,
-			TranslationStatus statusFilter, Collection<String> englishConceptCodes, String targetTerm) {
+			TranslationStatus statusFilter, Collection<String> englishConceptCodes, String englishTerm, String targetTerm) {
 		return Query.of(q -> q.bool(b -> {
 			b.filter(f -> f.term(t -> t.field(TranslationUnit.Fields.MEMBER_OF).value(compositeSetCode)));
 			b.filter(f -> f.term(t -> t.field(TranslationUnit.Fields.COMPOSITE_LANGUAGE_CODE).value(compositeLanguageCode)));
@@ -333,6 +333,9 @@ public class SnolateTranslationSearchService {
 				List<FieldValue> values = englishConceptCodes.stream().map(FieldValue::of).toList();
 				b.filter(f -> f.terms(t -> t.field(TranslationUnit.Fields.CODE).terms(tv -> tv.value(values))));
 			}
+			if (englishTerm != null) {
+				b.filter(caseInsensitiveSubstringWildcardQuery(TranslationUnit.Fields.ENGLISH_TERM_SEARCH, englishTerm));
+			}
 			if (targetTerm != null) {
 				b.filter(caseInsensitiveSubstringWildcardQuery(TRANSLATION_UNIT_TERMS_FIELD, targetTerm));
 			}
@@ -402,16 +405,29 @@ public class SnolateTranslationSearchService {
 				TranslationUnit.class);
 	}
 
-	public Map<String, Long> countTranslatedInSubsetBatch(String compositeLanguageCode, Collection<String> compositeSetCodes) {
-		Map<String, Long> map = new HashMap<>();
-		for (String setCode : compositeSetCodes) {
-			Criteria c = new Criteria(TranslationUnit.Fields.COMPOSITE_LANGUAGE_CODE).is(compositeLanguageCode)
-					.and(new Criteria(TranslationUnit.Fields.MEMBER_OF).is(setCode))
-					.and(new Criteria(TranslationUnit.Fields.HAS_TERMS).is(true));
-			long total = elasticsearchOperations.count(new CriteriaQuery(c), TranslationUnit.class);
-			map.put(setCode, total);
+	/**
+	 * Sets {@code order} and {@code englishTerm} on the translation units of every language whose code is a key of
+	 * {@code orderByCode} or {@code termByCode}, using a scripted update-by-query so that units are not loaded into the application.
+	 * Keep the codes within the {@code terms} query limit. Units modified concurrently are skipped; calling again with the same
+	 * changes is safe.
+	 */
+	public UnitUpdate updateUnitsFromSources(Map<String, Integer> orderByCode, Map<String, String> termByCode) {
+		Set<String> codes = new HashSet<>(orderByCode.keySet());
+		codes.addAll(termByCode.keySet());
+		if (codes.isEmpty()) {
+			return new UnitUpdate(0, 0);
 		}
-		return map;
+		CriteriaQuery query = new CriteriaQuery(new Criteria(TranslationUnit.Fields.CODE).in(codes));
+		UpdateQuery updateQuery = UpdateQuery.builder(query)
+				.withScriptType(ScriptType.INLINE)
+				.withLang("painless")
+				.withScript(SET_ORDER_AND_TERM_BY_CODE_SCRIPT)
+				.withParams(Map.of("orders", orderByCode, "terms", termByCode))
+				.withAbortOnVersionConflict(false)
+				.build();
+		ByQueryResponse response = elasticsearchOperations.updateByQuery(updateQuery,
+				elasticsearchOperations.getIndexCoordinatesFor(TranslationUnit.class));
+		return new UnitUpdate(response.getUpdated(), response.getVersionConflicts());
 	}
 
 	/**
@@ -435,11 +451,11 @@ public class SnolateTranslationSearchService {
 	}
 
 	/**
-	 * Visits every translation unit in the index using {@code search_after} paging.
+	 * Visits every translation unit that has no {@value TranslationUnit.Fields#ENGLISH_TERM} using {@code search_after} paging.
 	 */
-	public void forEachTranslationUnit(Consumer<TranslationUnit> consumer) {
-		forEachMatching(new Criteria(), UNITS_IN_SET_STREAM_SORT,
-				"cannot continue streaming all translation units", consumer);
+	public void forEachUnitWithoutEnglishTerm(Consumer<TranslationUnit> consumer) {
+		forEachMatching(new Criteria(TranslationUnit.Fields.ENGLISH_TERM).exists().not(), UNITS_IN_SET_STREAM_SORT,
+				"cannot continue streaming translation units without an English term", consumer);
 	}
 
 	/**
@@ -555,19 +571,75 @@ public class SnolateTranslationSearchService {
 		}
 	}
 
-	public Map<String, Map<String, Long>> countStatusInSubsetBatch(String compositeLanguageCode, Collection<String> compositeSetCodes) {
-		Map<String, Map<String, Long>> map = new HashMap<>();
-		for (String setCode : compositeSetCodes) {
-			Map<String, Long> statusCounts = new LinkedHashMap<>();
+	/**
+	 * @param translated number of units with at least one target term, by set
+	 * @param statusCounts number of units in each {@link TranslationStatus}, by set
+	 */
+	public record SubsetCounts(Map<String, Long> translated, Map<String, Map<String, Long>> statusCounts) {
+	}
+
+	/**
+	 * @param updated number of units that changed
+	 * @param versionConflicts number of units skipped because they were modified concurrently
+	 */
+	public record UnitUpdate(long updated, long versionConflicts) {
+	}
+
+	/**
+	 * Translated and status counts per set, from a single {@code terms} aggregation on {@code memberOf},
+	 * restricted to the requested sets, with {@code status} and {@code hasTerms} sub-aggregations.
+	 * Every requested set is present, and every status is present in each set's map, in declaration order.
+	 */
+	public SubsetCounts countInSubsetBatch(String compositeLanguageCode, Collection<String> compositeSetCodes) {
+		List<String> setCodes = new ArrayList<>(new LinkedHashSet<>(compositeSetCodes));
+		Map<String, Long> translated = new HashMap<>();
+		Map<String, Map<String, Long>> statusCounts = new HashMap<>();
+		for (String setCode : setCodes) {
+			translated.put(setCode, 0L);
+			Map<String, Long> counts = new LinkedHashMap<>();
 			for (TranslationStatus status : TranslationStatus.values()) {
-				Criteria c = new Criteria(TranslationUnit.Fields.COMPOSITE_LANGUAGE_CODE).is(compositeLanguageCode)
-						.and(new Criteria(TranslationUnit.Fields.MEMBER_OF).is(setCode))
-						.and(new Criteria(TranslationUnit.Fields.STATUS).is(status.name()));
-				long total = elasticsearchOperations.count(new CriteriaQuery(c), TranslationUnit.class);
-				statusCounts.put(status.name(), total);
+				counts.put(status.name(), 0L);
 			}
-			map.put(setCode, statusCounts);
+			statusCounts.put(setCode, counts);
 		}
-		return map;
+		if (setCodes.isEmpty()) {
+			return new SubsetCounts(translated, statusCounts);
+		}
+
+		List<FieldValue> setValues = setCodes.stream().map(FieldValue::of).toList();
+		Query query = Query.of(q -> q.bool(b -> b
+				.filter(f -> f.term(t -> t.field(TranslationUnit.Fields.COMPOSITE_LANGUAGE_CODE).value(compositeLanguageCode)))
+				.filter(f -> f.terms(t -> t.field(TranslationUnit.Fields.MEMBER_OF).terms(tv -> tv.value(setValues))))));
+		Aggregation statusAggregation = Aggregation.of(a -> a
+				.terms(t -> t.field(TranslationUnit.Fields.STATUS).size(TranslationStatus.values().length)));
+		Aggregation translatedAggregation = Aggregation.of(a -> a
+				.filter(f -> f.term(t -> t.field(TranslationUnit.Fields.HAS_TERMS).value(true))));
+		Aggregation setAggregation = Aggregation.of(a -> a
+				.terms(t -> t.field(TranslationUnit.Fields.MEMBER_OF).include(i -> i.terms(setCodes)).size(setCodes.size()))
+				.aggregations(STATUS_AGGREGATION, statusAggregation)
+				.aggregations(TRANSLATED_AGGREGATION, translatedAggregation));
+		NativeQuery nativeQuery = NativeQuery.builder()
+				.withQuery(query)
+				.withAggregation(SET_AGGREGATION, setAggregation)
+				.withMaxResults(0)
+				.withTrackTotalHits(false)
+				.build();
+
+		SearchHits<TranslationUnit> searchHits = elasticsearchOperations.search(nativeQuery, TranslationUnit.class);
+		if (searchHits.getAggregations() instanceof ElasticsearchAggregations aggregations
+				&& aggregations.get(SET_AGGREGATION) != null) {
+			Aggregate setAggregate = aggregations.get(SET_AGGREGATION).aggregation().getAggregate();
+			for (StringTermsBucket setBucket : setAggregate.sterms().buckets().array()) {
+				String setCode = setBucket.key().stringValue();
+				Map<String, Long> counts = statusCounts.get(setCode);
+				if (counts != null) {
+					translated.put(setCode, setBucket.aggregations().get(TRANSLATED_AGGREGATION).filter().docCount());
+					for (StringTermsBucket statusBucket : setBucket.aggregations().get(STATUS_AGGREGATION).sterms().buckets().array()) {
+						counts.put(statusBucket.key().stringValue(), statusBucket.docCount());
+					}
+				}
+			}
+		}
+		return new SubsetCounts(translated, statusCounts);
 	}
 }
@@ -0,0 +1,68 @@
+package org.snomed.simplex.snolate.sets;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.snomed.simplex.config.IndexNameProvider;
+import org.snomed.simplex.snolate.domain.TranslationUnit;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.IndexOperations;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.data.elasticsearch.core.query.Criteria;
+import org.springframework.data.elasticsearch.core.query.CriteriaQuery;
+import org.springframework.stereotype.Service;
+
+/**
+ * Adds the {@value TranslationUnit.Fields#ENGLISH_TERM} field to an existing translation unit index
+ * and copies the term from the translation source onto units that were written before it existed.
+ */
+@Service
+@Profile("!test")
+public class SnolateTranslationUnitEnglishTermMigrationService implements ApplicationRunner {
+
+	private final ElasticsearchOperations elasticsearchOperations;
+	private final IndexNameProvider indexNameProvider;
+	private final SnolateTranslationSearchService translationSearchService;
+	private final SnolateTranslationSourceRepository translationSourceRepository;
+	private final SnolateTranslationUnitStore translationUnitStore;
+	private final Logger logger = LoggerFactory.getLogger(getClass());
+
+	public SnolateTranslationUnitEnglishTermMigrationService(ElasticsearchOperations elasticsearchOperations,
+			IndexNameProvider indexNameProvider, SnolateTranslationSearchService translationSearchService,
+			SnolateTranslationSourceRepository translationSourceRepository, SnolateTranslationUnitStore translationUnitStore) {
+		this.elasticsearchOperations = elasticsearchOperations;
+		this.indexNameProvider = indexNameProvider;
+		this.translationSearchService = translationSearchService;
+		this.translationSourceRepository = translationSourceRepository;
+		this.translationUnitStore = translationUnitStore;
+	}
+
+	@Override
+	public void run(ApplicationArguments args) {
+		addEnglishTermField();
+	}
+
+	public void addEnglishTermField() {
+		IndexCoordinates index = IndexCoordinates.of(indexNameProvider.indexName("snolate-translation-unit"));
+		IndexOperations indexOperations = elasticsearchOperations.indexOps(index);
+		if (!indexOperations.exists()) {
+			return;
+		}
+		indexOperations.putMapping(indexOperations.createMapping(TranslationUnit.class));
+
+		long missing = elasticsearchOperations.count(
+				new CriteriaQuery(new Criteria(TranslationUnit.Fields.ENGLISH_TERM).exists().not()), index);
+		if (missing == 0) {
+			return;
+		}
+		logger.info("Translation unit migration: copying {} onto {} document(s) in index {}",
+				TranslationUnit.Fields.ENGLISH_TERM, missing, index.getIndexName());
+		int updated = TranslationUnitOrderSync.syncUnitsWithoutEnglishTerm(translationSearchService,
+				translationSourceRepository, translationUnitStore);
+		indexOperations.refresh();
+		logger.info("Translation unit migration: copied {} onto {} document(s) in index {}",
+				TranslationUnit.Fields.ENGLISH_TERM, updated, index.getIndexName());
+	}
+}
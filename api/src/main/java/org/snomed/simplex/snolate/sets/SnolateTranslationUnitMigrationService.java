@@ -25,16 +25,19 @@ public class SnolateTranslationUnitMigrationService {
 	private final SnolateTranslationSearchService translationSearchService;
 	private final SnolateTranslationUnitRepository translationUnitRepository;
 	private final SnolateTranslationSourceRepository translationSourceRepository;
+	private final SnolateBulkIngestService bulkIngestService;
 	private final Logger logger = LoggerFactory.getLogger(getClass());
 
 	public SnolateTranslationUnitMigrationService(SnolateSetRepository snolateSetRepository,
 			SnolateTranslationSearchService translationSearchService,
 			SnolateTranslationUnitRepository translationUnitRepository,
-			SnolateTranslationSourceRepository translationSourceRepository) {
+			SnolateTranslationSourceRepository translationSourceRepository,
+			SnolateBulkIngestService bulkIngestService) {
 		this.snolateSetRepository = snolateSetRepository;
 		this.translationSearchService = translationSearchService;
 		this.translationUnitRepository = translationUnitRepository;
 		this.translationSourceRepository = translationSourceRepository;
+		this.bulkIngestService = bulkIngestService;
 	}
 
 	public RepairTranslationUnitIdsResponse repairTranslationUnitIds(@Nullable String codeSystem) {
@@ -111,9 +114,12 @@ public class SnolateTranslationUnitMigrationService {
 		}
 		TranslationUnitOrderSync.syncBatch(units, translationSourceRepository);
 		units.forEach(TranslationUnit::prepareForPersistence);
-		for (int i = 0; i < units.size(); i += ELASTIC_IO_CHUNK_SIZE) {
-			int end = Math.min(i + ELASTIC_IO_CHUNK_SIZE, units.size());
-			translationUnitRepository.saveAll(units.subList(i, end));
+		// Closed before the orphans are deleted, so that a failed save leaves the old documents in place
+		try (SnolateBulkIngestService.BulkIngest bulkIngest = bulkIngestService.start(TranslationUnit.class, "repair translation unit ids")) {
+			for (int i = 0; i < units.size(); i += ELASTIC_IO_CHUNK_SIZE) {
+				int end = Math.min(i + ELASTIC_IO_CHUNK_SIZE, units.size());
+				bulkIngest.saveAll(units.subList(i, end));
+			}
 		}
 	}
 
@@ -66,4 +66,20 @@ public class SnolateTranslationUnitStore {
 			translationUnitRepository.saveAll(batch.subList(i, end));
 		}
 	}
+
+	/**
+	 * Saves the units through a bulk ingest, sending the chunks as concurrent bulk requests.
+	 * The units must not be changed until the bulk ingest is closed.
+	 */
+	public void saveAll(Collection<TranslationUnit> units, SnolateBulkIngestService.BulkIngest bulkIngest) {
+		if (units == null || units.isEmpty()) {
+			return;
+		}
+		List<TranslationUnit> batch = new ArrayList<>(units);
+		batch.forEach(TranslationUnit::prepareForPersistence);
+		for (int i = 0; i < batch.size(); i += ELASTIC_IO_CHUNK_SIZE) {
+			int end = Math.min(i + ELASTIC_IO_CHUNK_SIZE, batch.size());
+			bulkIngest.saveAll(batch.subList(i, end));
+		}
+	}
 }
@@ -14,7 +14,7 @@ import java.util.function.Consumer;
 import java.util.stream.StreamSupport;
 
 /**
- * Copies {@link TranslationSource#getOrder()} onto {@link TranslationUnit#setOrder(int)}.
+ * Copies {@link TranslationSource#getOrder()} and {@link TranslationSource#getTerm()} onto the translation units of the same code.
  */
 public final class TranslationUnitOrderSync {
 
@@ -22,6 +22,8 @@ public final class TranslationUnitOrderSync {
 
 	private static final int ELASTIC_IO_CHUNK_SIZE = 1_000;
 
+	private static final int MAX_UPDATE_ATTEMPTS = 3;
+
 	private TranslationUnitOrderSync() {
 	}
 
@@ -29,10 +31,12 @@ public final class TranslationUnitOrderSync {
 		if (unit == null || source == null) {
 			return false;
 		}
-		if (unit.getOrder() == source.getOrder()) {
+		String englishTerm = source.getTerm() != null ? source.getTerm() : "";
+		if (unit.getOrder() == source.getOrder() && englishTerm.equals(unit.getEnglishTerm())) {
 			return false;
 		}
 		unit.setOrder(source.getOrder());
+		unit.setEnglishTerm(englishTerm);
 		return true;
 	}
 
@@ -52,7 +56,16 @@ public final class TranslationUnitOrderSync {
 		return changed;
 	}
 
-	public static int syncAllUnits(SnolateTranslationSearchService translationSearchService,
+	/**
+	 * Fills in {@link TranslationUnit#getEnglishTerm()} on units written before the field existed.
+	 */
+	public static int syncUnitsWithoutEnglishTerm(SnolateTranslationSearchService translationSearchService,
+			SnolateTranslationSourceRepository translationSourceRepository,
+			SnolateTranslationUnitStore translationUnitStore) {
+		return syncUnits(translationSearchService::forEachUnitWithoutEnglishTerm, translationSourceRepository, translationUnitStore);
+	}
+
+	private static int syncUnits(Consumer<Consumer<TranslationUnit>> unitVisitor,
 			SnolateTranslationSourceRepository translationSourceRepository,
 			SnolateTranslationUnitStore translationUnitStore) {
 		List<TranslationUnit> batch = new ArrayList<>(ELASTIC_IO_CHUNK_SIZE);
@@ -63,12 +76,67 @@ public final class TranslationUnitOrderSync {
 				updatedTotal[0] += flushBatch(batch, translationSourceRepository, translationUnitStore);
 			}
 		};
-		translationSearchService.forEachTranslationUnit(consumer);
+		unitVisitor.accept(consumer);
 		updatedTotal[0] += flushBatch(batch, translationSourceRepository, translationUnitStore);
-		logger.info("Synced TranslationUnit order from TranslationSource for {} unit(s).", updatedTotal[0]);
+		logger.info("Synced TranslationUnit order and English term from TranslationSource for {} unit(s).", updatedTotal[0]);
 		return updatedTotal[0];
 	}
 
+	/**
+	 * Applies an upgrade's order and term changes to the translation units of the changed sources only, leaving other units untouched.
+	 * Absolute values are written, in chunks of codes, so calling again with the same changes is safe.
+	 *
+	 * @param orderByCode new {@link TranslationSource#getOrder()} of each source that was added or moved
+	 * @param termByCode new {@link TranslationSource#getTerm()} of each source whose term changed
+	 */
+	public static long syncChangedUnits(Map<String, Integer> orderByCode, Map<String, String> termByCode,
+			SnolateTranslationSearchService translationSearchService) {
+		long updatedTotal = updateUnitsFromSources(orderByCode, termByCode, translationSearchService);
+		logger.info("Synced TranslationUnit order and English term for {} unit(s) across {} changed source code(s).",
+				updatedTotal, orderByCode.size() + termByCode.size());
+		return updatedTotal;
+	}
+
+	private static long updateUnitsFromSources(Map<String, Integer> orderByCode, Map<String, String> termByCode,
+			SnolateTranslationSearchService translationSearchService) {
+		List<String> changedCodes = new ArrayList<>(orderByCode.keySet());
+		termByCode.keySet().stream().filter(code -> !orderByCode.containsKey(code)).forEach(changedCodes::add);
+		long updatedTotal = 0;
+		for (int i = 0; i < changedCodes.size(); i += ELASTIC_IO_CHUNK_SIZE) {
+			int end = Math.min(i + ELASTIC_IO_CHUNK_SIZE, changedCodes.size());
+			Map<String, Integer> orderChunk = new HashMap<>();
+			Map<String, String> termChunk = new HashMap<>();
+			for (String code : changedCodes.subList(i, end)) {
+				if (orderByCode.containsKey(code)) {
+					orderChunk.put(code, orderByCode.get(code));
+				}
+				if (termByCode.containsKey(code)) {
+					termChunk.put(code, termByCode.get(code) != null ? termByCode.get(code) : "");
+				}
+			}
+			updatedTotal += updateChunkWithRetry(orderChunk, termChunk, translationSearchService);
+		}
+		return updatedTotal;
+	}
+
+	private static long updateChunkWithRetry(Map<String, Integer> orderChunk, Map<String, String> termChunk,
+			SnolateTranslationSearchService translationSearchService) {
+		long updated = 0;
+		for (int attempt = 1; attempt <= MAX_UPDATE_ATTEMPTS; attempt++) {
+			// Setting absolute values, so units that were already updated are no-ops on the next attempt
+			SnolateTranslationSearchService.UnitUpdate update = translationSearchService.updateUnitsFromSources(orderChunk, termChunk);
+			updated += update.updated();
+			if (update.versionConflicts() == 0) {
+				return updated;
+			}
+			if (attempt == MAX_UPDATE_ATTEMPTS) {
+				logger.warn("{} translation unit(s) were still modified concurrently after {} attempts and did not have their order or English term updated.",
+						update.versionConflicts(), MAX_UPDATE_ATTEMPTS);
+			}
+		}
+		return updated;
+	}
+
 	private static int flushBatch(List<TranslationUnit> batch,
 			SnolateTranslationSourceRepository translationSourceRepository,
 			SnolateTranslationUnitStore translationUnitStore) {
@@ -0,0 +1,41 @@
+package org.snomed.simplex.snolate.sets;
+
+import org.snomed.simplex.snolate.domain.TranslationUnit;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Units picked for AI batch translation whose suggestions have not been saved yet.
+ * Batches in progress, in the same or another job, leave these units out so that no unit is sent to the LLM twice.
+ */
+class TranslationUnitReservations {
+
+	private final Map<String, Set<String>> reservedCodesByLanguage = new ConcurrentHashMap<>();
+
+	Set<String> getReservedCodes(String compositeLanguageCode) {
+		Set<String> reservedCodes = reservedCodesByLanguage.get(compositeLanguageCode);
+		return reservedCodes != null ? new HashSet<>(reservedCodes) : Set.of();
+	}
+
+	/**
+	 * @return the units that were reserved, leaving out any already reserved by another batch
+	 */
+	List<TranslationUnit> reserve(String compositeLanguageCode, List<TranslationUnit> units) {
+		Set<String> reservedCodes = reservedCodesByLanguage.computeIfAbsent(compositeLanguageCode, lang -> ConcurrentHashMap.newKeySet());
+		List<TranslationUnit> reserved = new ArrayList<>(units.size());
+		for (TranslationUnit unit : units) {
+			if (reservedCodes.add(unit.getCode())) {
+				reserved.add(unit);
+			}
+		}
+		return reserved;
+	}
+
+	void release(String compositeLanguageCode, Collection<TranslationUnit> units) {
+		Set<String> reservedCodes = reservedCodesByLanguage.get(compositeLanguageCode);
+		if (reservedCodes != null) {
+			units.forEach(unit -> reservedCodes.remove(unit.getCode()));
+		}
+	}
+}
@@ -15,6 +15,25 @@ public record BatchTranslationPrompt(List<String> promptLines, Map<Integer, Stri
 		translateLineNumbers = Map.copyOf(translateLineNumbers);
 	}
 
+	/**
+	 * @return a copy of this prompt where the given terms are context lines showing their translation, rather than lines to translate
+	 */
+	public BatchTranslationPrompt withTranslatedLines(Map<String, String> translationsByTerm) {
+		Builder builder = builder();
+		for (int i = 0; i < promptLines.size(); i++) {
+			String english = translateLineNumbers.get(i + 1);
+			if (english == null) {
+				String line = promptLines.get(i);
+				builder.addLine(line.substring(line.indexOf('|') + 1));
+			} else if (translationsByTerm.containsKey(english)) {
+				builder.addContextLine(english, translationsByTerm.get(english));
+			} else {
+				builder.addTranslateLine(english);
+			}
+		}
+		return builder.build();
+	}
+
 	public static Builder builder() {
 		return new Builder();
 	}
@@ -25,7 +44,11 @@ public record BatchTranslationPrompt(List<String> promptLines, Map<Integer, Stri
 		private int lineNum = 1;
 
 		public Builder addContextLine(String english, String target) {
-			lines.add(lineNum + "|" + english + " → " + target);
+			return addLine(english + " → " + target);
+		}
+
+		private Builder addLine(String text) {
+			lines.add(lineNum + "|" + text);
 			lineNum++;
 			return this;
 		}
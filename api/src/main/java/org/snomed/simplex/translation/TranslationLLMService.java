@@ -15,6 +15,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -37,13 +38,15 @@ public class TranslationLLMService {
 	private final LLMService llmService;
 	private final LanguageTranslationPolicyService languageTranslationPolicyService;
 	private final LanguagePolicyPromptFormatter languagePolicyPromptFormatter;
+	private final TranslationSuggestionCache suggestionCache;
 	private final Logger logger = LoggerFactory.getLogger(TranslationLLMService.class);
 
 	public TranslationLLMService(LLMService llmService, LanguageTranslationPolicyService languageTranslationPolicyService,
-			LanguagePolicyPromptFormatter languagePolicyPromptFormatter) {
+			LanguagePolicyPromptFormatter languagePolicyPromptFormatter, TranslationSuggestionCache suggestionCache) {
 		this.llmService = llmService;
 		this.languageTranslationPolicyService = languageTranslationPolicyService;
 		this.languagePolicyPromptFormatter = languagePolicyPromptFormatter;
+		this.suggestionCache = suggestionCache;
 	}
 
 	public Map<String, List<String>> suggestTranslations(SnolateTranslationSet translationSet, List<String> englishTerm, boolean multipleSuggestions, boolean fast) throws ServiceException {
@@ -66,8 +69,26 @@ public class TranslationLLMService {
 				prompt, new LlmCallContext(translationSet.getCodesystem(), prompt.translateLineNumbers().size()));
 	}
 
+	/**
+	 * Terms with cached suggestions are not sent to the model. Their cached translation is shown as a context line instead.
+	 */
 	public Map<String, List<String>> suggestBatchTranslations(String targetLanguageLabel, String languagePolicyText, Map<String, String> aiGoldenSet,
 			BatchTranslationPrompt prompt, LlmCallContext context) {
+		String goldenExamples = formatGoldenExamples(aiGoldenSet);
+		TranslationSuggestionCache.Scope cacheScope = TranslationSuggestionCache.scope(targetLanguageLabel, languagePolicyText, goldenExamples,
+				llmService.getModelName(false), false);
+		Map<String, List<String>> cached = suggestionCache.getAll(cacheScope, prompt.translateLineNumbers().values());
+		if (!cached.isEmpty()) {
+			Map<String, String> cachedTranslations = new HashMap<>();
+			cached.forEach((english, suggestions) -> cachedTranslations.put(english, suggestions.get(0)));
+			prompt = prompt.withTranslatedLines(cachedTranslations);
+			llmService.recordCacheHits(false, withConceptsTranslated(context, cached.size()));
+		}
+		Map<String, List<String>> allSuggestions = new LinkedHashMap<>(cached);
+		if (prompt.translateLineNumbers().isEmpty()) {
+			return allSuggestions;
+		}
+
 		String systemAdvice = "Translate the following clinical terminology terms from English to %s.".formatted(targetLanguageLabel);
 		String languageAdviceFormatted = "";
 		if (Strings.isNotEmpty(languagePolicyText)) {
@@ -94,16 +115,34 @@ public class TranslationLLMService {
 					English terms:
 					%s
 					"""
-			).formatted(systemAdvice, responseFormat, BATCH_GUIDELINES, languageAdviceFormatted, formatGoldenExamples(aiGoldenSet), englishTerms),
+			).formatted(systemAdvice, responseFormat, BATCH_GUIDELINES, languageAdviceFormatted, goldenExamples, englishTerms),
 				false,
-				context
+				withConceptsTranslated(context, prompt.translateLineNumbers().size())
 		);
 
-		return processBatchResponse(prompt.translateLineNumbers(), response);
+		Map<String, List<String>> modelSuggestions = processBatchResponse(prompt.translateLineNumbers(), response);
+		suggestionCache.putAll(cacheScope, modelSuggestions);
+		allSuggestions.putAll(modelSuggestions);
+		return allSuggestions;
 	}
 
+	/**
+	 * Terms with cached suggestions are not sent to the model.
+	 */
 	public Map<String, List<String>> suggestTranslations(String targetLanguageLabel, String languagePolicyText, Map<String, String> aiGoldenSet,
 			List<String> englishTerm, boolean multipleSuggestions, boolean fast, LlmCallContext context) {
+		String goldenExamples = formatGoldenExamples(aiGoldenSet);
+		TranslationSuggestionCache.Scope cacheScope = TranslationSuggestionCache.scope(targetLanguageLabel, languagePolicyText, goldenExamples,
+				llmService.getModelName(fast), multipleSuggestions);
+		Map<String, List<String>> cached = suggestionCache.getAll(cacheScope, englishTerm);
+		if (!cached.isEmpty()) {
+			llmService.recordCacheHits(fast, withConceptsTranslated(context, cached.size()));
+		}
+		List<String> uncachedTerms = englishTerm.stream().filter(term -> !cached.containsKey(term)).toList();
+		if (uncachedTerms.isEmpty()) {
+			return inTermOrder(englishTerm, cached, Map.of());
+		}
+
 		String systemAdvice = "Translate the following clinical terminology terms from English to %s.".formatted(targetLanguageLabel);
 		String languageAdviceFormatted = "";
 		if (Strings.isNotEmpty(languagePolicyText)) {
@@ -121,7 +160,7 @@ public class TranslationLLMService {
 
 		StringBuilder englishTerms = new StringBuilder();
 		int lineNum = 1;
-		for (String term : englishTerm) {
+		for (String term : uncachedTerms) {
 			englishTerms.append(lineNum++).append("|").append(term).append("\n");
 		}
 		String response = llmService.chat((
@@ -135,12 +174,30 @@ public class TranslationLLMService {
 					English terms:
 					%s
 					"""
-			).formatted(systemAdvice, responseFormat, guidelines, languageAdviceFormatted, formatGoldenExamples(aiGoldenSet), englishTerms),
+			).formatted(systemAdvice, responseFormat, guidelines, languageAdviceFormatted, goldenExamples, englishTerms),
 				fast,
-				context
+				withConceptsTranslated(context, uncachedTerms.size())
 		);
 
-		return processResponse(englishTerm, response);
+		Map<String, List<String>> modelSuggestions = processResponse(uncachedTerms, response);
+		suggestionCache.putAll(cacheScope, modelSuggestions);
+		return inTermOrder(englishTerm, cached, modelSuggestions);
+	}
+
+	private static Map<String, List<String>> inTermOrder(List<String> englishTerms, Map<String, List<String>> cached,
+			Map<String, List<String>> modelSuggestions) {
+		Map<String, List<String>> allSuggestions = new LinkedHashMap<>();
+		for (String term : englishTerms) {
+			List<String> suggestions = cached.containsKey(term) ? cached.get(term) : modelSuggestions.get(term);
+			if (suggestions != null) {
+				allSuggestions.put(term, suggestions);
+			}
+		}
+		return allSuggestions;
+	}
+
+	private static LlmCallContext withConceptsTranslated(LlmCallContext context, int conceptsTranslated) {
+		return context != null ? new LlmCallContext(context.codesystem(), conceptsTranslated) : null;
 	}
 
 	private String resolveTargetLanguageLabel(LanguageTranslationPolicy policy) throws ServiceException {
@@ -0,0 +1,126 @@
+package org.snomed.simplex.translation;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hashing;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.snomed.simplex.service.TranslationSuggestionCacheRepository;
+import org.snomed.simplex.translation.domain.TranslationSuggestionCacheEntry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.text.Normalizer;
+import java.util.*;
+
+/**
+ * LLM suggestions by English term, target language, language policy, golden set and model.
+ * <p>
+ * Entries are stored in Elasticsearch so they are shared across sets, code systems and restarts,
+ * with an in-process LRU in front for terms that recur within a job. The policy text and golden examples are part of the key
+ * as hashes, so changing either one stops old suggestions being used, as does configuring a different model. Failing to read or write the index is logged
+ * and treated as a miss, so translation still works when the cache is unavailable.
+ */
+@Service
+public class TranslationSuggestionCache {
+
+	private final TranslationSuggestionCacheRepository repository;
+	private final boolean enabled;
+	private final Cache<String, List<String>> recentSuggestions;
+	private final Logger logger = LoggerFactory.getLogger(getClass());
+
+	public TranslationSuggestionCache(TranslationSuggestionCacheRepository repository,
+			@Value("${translation.suggestion-cache.enabled:true}") boolean enabled,
+			@Value("${translation.suggestion-cache.max-local-entries:10000}") int maxLocalEntries) {
+		this.repository = repository;
+		this.enabled = enabled;
+		this.recentSuggestions = CacheBuilder.newBuilder().maximumSize(maxLocalEntries).build();
+	}
+
+	/**
+	 * Everything apart from the term that changes the model output.
+	 * @param mode model name and number of suggestions requested
+	 */
+	public record Scope(String targetLanguage, String policyHash, String goldenSetHash, String mode) {
+	}
+
+	public static Scope scope(String targetLanguage, String languagePolicyText, String goldenExamples, String modelName, boolean multipleSuggestions) {
+		return new Scope(targetLanguage, hash(languagePolicyText), hash(goldenExamples),
+				modelName + (multipleSuggestions ? "-2" : "-1"));
+	}
+
+	/**
+	 * @return cached suggestions keyed by the given terms, terms with no entry are left out
+	 */
+	public Map<String, List<String>> getAll(Scope scope, Collection<String> englishTerms) {
+		Map<String, List<String>> found = new HashMap<>();
+		if (!enabled || englishTerms.isEmpty()) {
+			return found;
+		}
+		Map<String, List<String>> termsToLoadById = new HashMap<>();
+		for (String term : englishTerms) {
+			String id = entryId(scope, normaliseTerm(term));
+			List<String> suggestions = recentSuggestions.getIfPresent(id);
+			if (suggestions != null) {
+				found.put(term, suggestions);
+			} else {
+				termsToLoadById.computeIfAbsent(id, key -> new ArrayList<>()).add(term);
+			}
+		}
+		if (!termsToLoadById.isEmpty()) {
+			try {
+				for (TranslationSuggestionCacheEntry entry : repository.findAllById(termsToLoadById.keySet())) {
+					if (entry.getSuggestions() == null || entry.getSuggestions().isEmpty()) {
+						continue;
+					}
+					List<String> suggestions = List.copyOf(entry.getSuggestions());
+					recentSuggestions.put(entry.getId(), suggestions);
+					termsToLoadById.get(entry.getId()).forEach(term -> found.put(term, suggestions));
+				}
+			} catch (RuntimeException e) {
+				logger.warn("Failed to read the translation suggestion cache, continuing without it. {}", e.getMessage());
+			}
+		}
+		return found;
+	}
+
+	/**
+	 * Stores suggestions from the model. Terms the model did not translate are not stored, so they are tried again next time.
+	 */
+	public void putAll(Scope scope, Map<String, List<String>> suggestionsByTerm) {
+		if (!enabled) {
+			return;
+		}
+		Map<String, TranslationSuggestionCacheEntry> entries = new HashMap<>();
+		suggestionsByTerm.forEach((term, suggestions) -> {
+			if (suggestions != null && !suggestions.isEmpty()) {
+				String normalisedTerm = normaliseTerm(term);
+				String id = entryId(scope, normalisedTerm);
+				entries.put(id, new TranslationSuggestionCacheEntry(id, normalisedTerm, scope.targetLanguage(), scope.policyHash(),
+						scope.goldenSetHash(), scope.mode(), List.copyOf(suggestions)));
+			}
+		});
+		if (entries.isEmpty()) {
+			return;
+		}
+		entries.values().forEach(entry -> recentSuggestions.put(entry.getId(), entry.getSuggestions()));
+		try {
+			repository.saveAll(entries.values());
+		} catch (RuntimeException e) {
+			logger.warn("Failed to write {} entries to the translation suggestion cache. {}", entries.size(), e.getMessage());
+		}
+	}
+
+	static String normaliseTerm(String term) {
+		return Normalizer.normalize(term.trim().replaceAll("\\s+", " "), Normalizer.Form.NFC);
+	}
+
+	private static String entryId(Scope scope, String normalisedTerm) {
+		return hash(String.join("\n", scope.targetLanguage(), scope.policyHash(), scope.goldenSetHash(), scope.mode(), normalisedTerm));
+	}
+
+	private static String hash(String text) {
+		return Hashing.sha256().hashString(text != null ? text : "", StandardCharsets.UTF_8).toString();
+	}
+}
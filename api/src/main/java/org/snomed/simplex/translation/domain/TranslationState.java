@@ -16,7 +16,11 @@ public class TranslationState {
 	private final Map<Long, List<String>> conceptTerms;
 
 	public TranslationState() {
-		conceptTerms = new Long2ObjectOpenHashMap<>();
+		this(new Long2ObjectOpenHashMap<>());
+	}
+
+	public TranslationState(Map<Long, List<String>> conceptTerms) {
+		this.conceptTerms = conceptTerms;
 	}
 
 	public Map<Long, List<String>> getConceptTerms() {
@@ -0,0 +1,89 @@
+package org.snomed.simplex.translation.domain;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.elasticsearch.annotations.Document;
+import org.springframework.data.elasticsearch.annotations.Field;
+import org.springframework.data.elasticsearch.annotations.FieldType;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * LLM suggestions for one English term, stored so that the same term is not sent to the model again
+ * for the same target language, language policy and golden set.
+ */
+@Document(indexName = "#{@indexNameProvider.indexName('translation-suggestion-cache')}")
+public class TranslationSuggestionCacheEntry {
+
+	@Id
+	private String id;
+
+	@Field(type = FieldType.Keyword)
+	private String term;
+
+	@Field(type = FieldType.Keyword)
+	private String targetLanguage;
+
+	@Field(type = FieldType.Keyword)
+	private String policyHash;
+
+	@Field(type = FieldType.Keyword)
+	private String goldenSetHash;
+
+	@Field(type = FieldType.Keyword)
+	private String mode;
+
+	@Field(type = FieldType.Keyword, index = false)
+	private List<String> suggestions;
+
+	@Field(type = FieldType.Long)
+	private Date created;
+
+	public TranslationSuggestionCacheEntry() {
+		// Empty constructor for Jackson deserialization
+	}
+
+	public TranslationSuggestionCacheEntry(String id, String term, String targetLanguage, String policyHash, String goldenSetHash,
+			String mode, List<String> suggestions) {
+		this.id = id;
+		this.term = term;
+		this.targetLanguage = targetLanguage;
+		this.policyHash = policyHash;
+		this.goldenSetHash = goldenSetHash;
+		this.mode = mode;
+		this.suggestions = suggestions;
+		this.created = new Date();
+	}
+
+	public String getId() {
+		return id;
+	}
+
+	public String getTerm() {
+		return term;
+	}
+
+	public String getTargetLanguage() {
+		return targetLanguage;
+	}
+
+	public String getPolicyHash() {
+		return policyHash;
+	}
+
+	public String getGoldenSetHash() {
+		return goldenSetHash;
+	}
+
+	public String getMode() {
+		return mode;
+	}
+
+	public List<String> getSuggestions() {
+		return suggestions;
+	}
+
+	public Date getCreated() {
+		return created;
+	}
+}
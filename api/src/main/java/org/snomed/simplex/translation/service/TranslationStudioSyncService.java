@@ -175,6 +175,7 @@ public class TranslationStudioSyncService {
 						new ArrayList<>(snowstormTerms),
 						TranslationStatus.COMPLETE,
 						new LinkedHashSet<>());
+				unit.setEnglishTerm(source.getTerm());
 				saveBuffer.add(unit);
 				createdTotal++;
 				flushStatusSaveBufferIfNeeded(saveBuffer);
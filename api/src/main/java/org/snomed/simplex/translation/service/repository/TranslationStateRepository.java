@@ -18,13 +18,14 @@ import java.nio.charset.StandardCharsets;
 import java.util.*;
 
 /**
- * Persists Snowstorm translation snapshots for delta-based sync ({langRefsetId}_TERMINOLOGY_SERVER.tsv).
+ * Persists Snowstorm translation snapshots for delta-based sync ({langRefsetId}_TERMINOLOGY_SERVER.bin).
+ * Snapshots use the compressed binary {@link TranslationStateSnapshotFormat}. Snapshots saved as TSV by earlier versions
+ * ({langRefsetId}_TERMINOLOGY_SERVER.tsv) are still read, and replaced by a binary snapshot on the next save.
  */
 @Service
 public class TranslationStateRepository {
 
 	public static final String TAB = "\t";
-	public static final String LINE_BREAK = "\n";
 	private final ResourceManager resourceManager;
 	public static final Logger LOGGER = LoggerFactory.getLogger(TranslationStateRepository.class);
 
@@ -52,8 +53,10 @@ public class TranslationStateRepository {
 	public void saveState(String langRefsetId, TranslationSourceType source, TranslationState translationState) throws ServiceExceptionWithStatusCode {
 		File tempFile = null;
 		try {
-			tempFile = File.createTempFile(UUID.randomUUID().toString(), ".txt");
-			writeToTsv(translationState, tempFile);
+			tempFile = File.createTempFile(UUID.randomUUID().toString(), ".bin");
+			try (OutputStream outputStream = new BufferedOutputStream(new FileOutputStream(tempFile))) {
+				TranslationStateSnapshotFormat.write(translationState, outputStream);
+			}
 			writeResource(tempFile, getPath(langRefsetId, source));
 		} catch (IOException e) {
 			throw new ServiceExceptionWithStatusCode("Failed to save translation state", HttpStatus.INTERNAL_SERVER_ERROR, e);
@@ -73,34 +76,31 @@ public class TranslationStateRepository {
 			String path = getPath(langRefsetId, source);
 			if (resourceManager.doesObjectExist(path)) {
 				try (InputStream inputStream = resourceManager.readResourceStream(path)) {
-					return readFromStream(inputStream);
+					return TranslationStateSnapshotFormat.read(inputStream);
+				}
+			}
+			String legacyPath = getLegacyTsvPath(langRefsetId, source);
+			if (resourceManager.doesObjectExist(legacyPath)) {
+				LOGGER.info("Reading legacy TSV translation state {}, it will be replaced by a binary snapshot on the next save.", legacyPath);
+				try (InputStream inputStream = resourceManager.readResourceStream(legacyPath)) {
+					return readFromTsvStream(inputStream);
 				}
-			} else {
-				return new TranslationState();
 			}
+			return new TranslationState();
 		} catch (IOException e) {
 			throw new ServiceExceptionWithStatusCode("Failed to read translation state", HttpStatus.INTERNAL_SERVER_ERROR, e);
 		}
 	}
 
 	private static String getPath(String langRefsetId, TranslationSourceType source) {
-		return "%s_%s.tsv".formatted(langRefsetId, source.toString());
+		return "%s_%s.bin".formatted(langRefsetId, source.toString());
 	}
 
-	private void writeToTsv(TranslationState translationState, File file) throws IOException {
-		try (Writer writer = new BufferedWriter(new FileWriter(file, StandardCharsets.UTF_8))) {
-			for (Map.Entry<Long, List<String>> entry : translationState.getConceptTerms().entrySet()) {
-				writer.write(entry.getKey().toString());
-				for (String term : entry.getValue()) {
-					writer.write(TAB);
-					writer.write(term.replace(LINE_BREAK, "").replace(TAB, ""));
-				}
-				writer.write(LINE_BREAK);
-			}
-		}
+	private static String getLegacyTsvPath(String langRefsetId, TranslationSourceType source) {
+		return "%s_%s.tsv".formatted(langRefsetId, source.toString());
 	}
 
-	private TranslationState readFromStream(InputStream inputStream) throws IOException {
+	static TranslationState readFromTsvStream(InputStream inputStream) throws IOException {
 		TranslationState translationState = new TranslationState();
 		Map<Long, List<String>> map = translationState.getConceptTerms();
 		try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
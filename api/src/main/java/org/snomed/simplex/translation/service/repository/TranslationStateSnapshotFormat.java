@@ -0,0 +1,109 @@
+package org.snomed.simplex.translation.service.repository;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrays;
+import org.snomed.simplex.translation.domain.TranslationState;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Binary encoding of a {@link TranslationState}.
+ * <p>
+ * Layout: magic bytes and a version byte, followed by a deflate stream holding the concept count,
+ * the concept ids in ascending order, the term count of each concept and then a pool of
+ * length-prefixed UTF-8 terms in concept order.
+ */
+final class TranslationStateSnapshotFormat {
+
+	static final byte[] MAGIC = {'S', 'X', 'T', 'S'};
+	static final int VERSION = 1;
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private TranslationStateSnapshotFormat() {
+	}
+
+	static void write(TranslationState translationState, OutputStream outputStream) throws IOException {
+		Map<Long, List<String>> conceptTerms = translationState.getConceptTerms();
+		long[] conceptIds = new long[conceptTerms.size()];
+		int i = 0;
+		for (Long conceptId : conceptTerms.keySet()) {
+			conceptIds[i++] = conceptId;
+		}
+		LongArrays.radixSort(conceptIds);
+
+		outputStream.write(MAGIC);
+		outputStream.write(VERSION);
+		Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+		try {
+			DeflaterOutputStream deflaterStream = new DeflaterOutputStream(outputStream, deflater, BUFFER_SIZE);
+			DataOutputStream data = new DataOutputStream(new BufferedOutputStream(deflaterStream, BUFFER_SIZE));
+			data.writeInt(conceptIds.length);
+			for (long conceptId : conceptIds) {
+				data.writeLong(conceptId);
+			}
+			for (long conceptId : conceptIds) {
+				data.writeInt(conceptTerms.get(conceptId).size());
+			}
+			for (long conceptId : conceptIds) {
+				for (String term : conceptTerms.get(conceptId)) {
+					byte[] bytes = term.getBytes(StandardCharsets.UTF_8);
+					data.writeInt(bytes.length);
+					data.write(bytes);
+				}
+			}
+			data.flush();
+			// Complete the compressed stream without closing the caller's stream
+			deflaterStream.finish();
+		} finally {
+			deflater.end();
+		}
+	}
+
+	static TranslationState read(InputStream inputStream) throws IOException {
+		byte[] header = inputStream.readNBytes(MAGIC.length);
+		if (!Arrays.equals(header, MAGIC)) {
+			throw new IOException("Not a translation state snapshot.");
+		}
+		int version = inputStream.read();
+		if (version != VERSION) {
+			throw new IOException("Unsupported translation state snapshot version %s.".formatted(version));
+		}
+
+		DataInputStream data = new DataInputStream(new BufferedInputStream(new InflaterInputStream(inputStream), BUFFER_SIZE));
+		int conceptCount = data.readInt();
+		long[] conceptIds = new long[conceptCount];
+		for (int i = 0; i < conceptCount; i++) {
+			conceptIds[i] = data.readLong();
+		}
+		int[] termCounts = new int[conceptCount];
+		for (int i = 0; i < conceptCount; i++) {
+			termCounts[i] = data.readInt();
+		}
+
+		TranslationState translationState = new TranslationState(new Long2ObjectOpenHashMap<>(conceptCount));
+		Map<Long, List<String>> conceptTerms = translationState.getConceptTerms();
+		byte[] buffer = new byte[256];
+		for (int i = 0; i < conceptCount; i++) {
+			List<String> terms = new ArrayList<>(termCounts[i]);
+			for (int t = 0; t < termCounts[i]; t++) {
+				int length = data.readInt();
+				if (buffer.length < length) {
+					buffer = new byte[Math.max(length, buffer.length * 2)];
+				}
+				data.readFully(buffer, 0, length);
+				terms.add(new String(buffer, 0, length, StandardCharsets.UTF_8));
+			}
+			conceptTerms.put(conceptIds[i], terms);
+		}
+		return translationState;
+	}
+}
@@ -2,6 +2,7 @@ package org.snomed.simplex;
 
 import org.snomed.simplex.config.ApplicationConfig;
 import org.snomed.simplex.service.LlmUsageDailyRepository;
+import org.snomed.simplex.service.TranslationSuggestionCacheRepository;
 import org.snomed.simplex.service.test.TestActivityRepository;
 import org.snomed.simplex.service.test.TestSnolateSetRepository;
 import org.snomed.simplex.snolate.sets.LanguageTranslationPolicyRepository;
@@ -67,4 +68,9 @@ public class TestConfig extends ApplicationConfig {
 		return mock(LlmUsageDailyRepository.class);
 	}
 
+	@Bean
+	public TranslationSuggestionCacheRepository translationSuggestionCacheRepository() {
+		return mock(TranslationSuggestionCacheRepository.class);
+	}
+
 }
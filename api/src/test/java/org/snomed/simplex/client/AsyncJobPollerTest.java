@@ -0,0 +1,97 @@
+package org.snomed.simplex.client;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.snomed.simplex.exceptions.ServiceException;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AsyncJobPollerTest {
+
+	private ScheduledExecutorService scheduler;
+	private ExecutorService statusExecutor;
+	private AsyncJobPoller poller;
+
+	@BeforeEach
+	void setUp() {
+		scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> new Thread(runnable, "test-scheduler"));
+		statusExecutor = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "test-status"));
+		poller = new AsyncJobPoller(scheduler, statusExecutor, Duration.ofMillis(1), Duration.ofMillis(4));
+	}
+
+	@AfterEach
+	void tearDown() {
+		scheduler.shutdownNow();
+		statusExecutor.shutdownNow();
+	}
+
+	@Test
+	void poll_completesWhenJobCompletes() throws Exception {
+		AtomicInteger checks = new AtomicInteger();
+		CompletableFuture<Void> future = poller.poll("test job", () -> checks.incrementAndGet() == 5, Duration.ofSeconds(10));
+
+		future.get(5, TimeUnit.SECONDS);
+
+		assertThat(checks).hasValue(5);
+	}
+
+	@Test
+	void poll_runsStatusChecksOffTheScheduler() throws Exception {
+		Set<String> checkThreads = ConcurrentHashMap.newKeySet();
+		AtomicInteger checks = new AtomicInteger();
+		CompletableFuture<Void> future = poller.poll("test job", () -> {
+			checkThreads.add(Thread.currentThread().getName());
+			return checks.incrementAndGet() == 3;
+		}, Duration.ofSeconds(10));
+
+		future.get(5, TimeUnit.SECONDS);
+
+		assertThat(checkThreads).containsExactly("test-status");
+	}
+
+	@Test
+	void poll_completesExceptionallyWhenJobFails() {
+		CompletableFuture<Void> future = poller.poll("test job", () -> {
+			throw new ServiceException("Async job failed: boom");
+		}, Duration.ofSeconds(10));
+
+		assertThatThrownBy(() -> future.get(5, TimeUnit.SECONDS))
+				.isInstanceOf(ExecutionException.class)
+				.hasCauseInstanceOf(ServiceException.class)
+				.hasRootCauseMessage("Async job failed: boom");
+	}
+
+	@Test
+	void poll_timesOut() {
+		CompletableFuture<Void> future = poller.poll("test job", () -> false, Duration.ofMillis(20));
+
+		assertThatThrownBy(() -> future.get(5, TimeUnit.SECONDS))
+				.hasCauseInstanceOf(ServiceException.class)
+				.hasRootCauseMessage("Timed out while waiting for test job.");
+	}
+
+	@Test
+	void poll_stopsWhenCancelled() throws Exception {
+		AtomicInteger checks = new AtomicInteger();
+		CompletableFuture<Void> future = poller.poll("test job", () -> {
+			checks.incrementAndGet();
+			return false;
+		}, Duration.ofSeconds(10));
+		while (checks.get() == 0) {
+			Thread.onSpinWait();
+		}
+
+		future.cancel(true);
+		int checksAtCancel = checks.get();
+		Thread.sleep(50);
+
+		assertThat(checks.get()).isLessThanOrEqualTo(checksAtCancel + 1);
+	}
+}
@@ -0,0 +1,107 @@
+package org.snomed.simplex.client;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.snomed.simplex.client.domain.*;
+
+import java.util.*;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ConceptSortedHierarchyStreamTest {
+
+	private static final String BRANCH = "MAIN/SNOMEDCT-TEST";
+
+	@Mock
+	private SnowstormClient snowstormClient;
+
+	@Test
+	void batchedMatchesPerConceptWalk() {
+		// 100 has children "beta" 200 and "Alpha" 300, 400 is a child of both
+		ConceptMini root = mini("100", "Root");
+		ConceptMini beta = mini("200", "beta");
+		ConceptMini alpha = mini("300", "Alpha");
+		ConceptMini delta = mini("400", "delta");
+
+		stubStream("100", root);
+		stubStream("<!100", beta, alpha);
+		stubStream("<!200", delta);
+		stubStream("<!300", delta);
+		stubStream("<!400");
+		List<String> sequential = drain(new ConceptSortedHierarchyStream(BRANCH, "100", snowstormClient, false));
+
+		stubStream("<< (100)", root, beta, alpha, delta);
+		when(snowstormClient.loadBrowserFormatConcepts(anyCollection(), eq(BRANCH))).thenReturn(List.of(
+				concept("100", "138875005"),
+				concept("200", "100"),
+				concept("300", "100"),
+				concept("400", "200", "300")));
+		List<String> batched = drain(new ConceptSortedHierarchyStream(BRANCH, "100", snowstormClient, true));
+
+		assertThat(sequential).containsExactly("100", "300", "400", "200");
+		assertThat(batched).isEqualTo(sequential);
+		verify(snowstormClient, times(1)).loadBrowserFormatConcepts(anyCollection(), eq(BRANCH));
+		// Children are not fetched per concept in batched mode, so each children search was made once, by the sequential walk
+		verify(snowstormClient).getConceptStream(eq(BRANCH), eq("<!100"), any());
+	}
+
+	@Test
+	void batchedIgnoresStatedAndInactiveRelationships() {
+		ConceptMini root = mini("100", "Root");
+		ConceptMini child = mini("200", "Child");
+		Concept childConcept = concept("200", "100");
+		childConcept.addRelationship(Relationship.stated(Concepts.IS_A, "300", 0));
+		Relationship inactive = Relationship.inferred(Concepts.IS_A, "300", 0);
+		inactive.setActive(false);
+		childConcept.addRelationship(inactive);
+
+		stubStream("100", root);
+		stubStream("<< (100)", root, child, mini("300", "Other"));
+		when(snowstormClient.loadBrowserFormatConcepts(anyCollection(), eq(BRANCH))).thenReturn(List.of(concept("100"), childConcept, concept("300")));
+
+		assertThat(drain(new ConceptSortedHierarchyStream(BRANCH, "100", snowstormClient, true))).containsExactly("100", "200");
+	}
+
+	private void stubStream(String ecl, ConceptMini... concepts) {
+		when(snowstormClient.getConceptStream(eq(BRANCH), eq(ecl), any())).thenAnswer(invocation -> {
+			invocation.<Runnable>getArgument(2).run();
+			return supplierOf(concepts);
+		});
+	}
+
+	private static List<String> drain(Supplier<ConceptMini> stream) {
+		List<String> ids = new ArrayList<>();
+		ConceptMini concept;
+		while ((concept = stream.get()) != null) {
+			ids.add(concept.getConceptId());
+		}
+		return ids;
+	}
+
+	private static ConceptMini mini(String conceptId, String pt) {
+		ConceptMini mini = new ConceptMini(conceptId, new DescriptionMini(pt, "en"));
+		mini.addExtraField("isLeafInferred", false);
+		return mini;
+	}
+
+	private static Concept concept(String conceptId, String... parentIds) {
+		Concept concept = new Concept("").setConceptId(conceptId);
+		for (String parentId : parentIds) {
+			concept.addRelationship(Relationship.inferred(Concepts.IS_A, parentId, 0));
+		}
+		return concept;
+	}
+
+	private static Supplier<ConceptMini> supplierOf(ConceptMini... concepts) {
+		Iterator<ConceptMini> iterator = Arrays.asList(concepts).iterator();
+		return () -> iterator.hasNext() ? iterator.next() : null;
+	}
+}
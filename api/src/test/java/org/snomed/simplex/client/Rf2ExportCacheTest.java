@@ -0,0 +1,246 @@
+package org.snomed.simplex.client;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.snomed.simplex.client.domain.CodeSystem;
+import org.snomed.simplex.exceptions.ServiceException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.snomed.simplex.client.SnowstormClient.ExportType.DELTA;
+import static org.snomed.simplex.client.SnowstormClient.ExportType.SNAPSHOT;
+
+class Rf2ExportCacheTest {
+
+	@TempDir
+	File directory;
+
+	@Test
+	void copyTo_reusesArchiveUntilBranchHeadMoves() throws Exception {
+		Rf2ExportCache cache = new Rf2ExportCache(directory, 1_000);
+		SnowstormExportConfiguration configuration = new SnowstormExportConfiguration(DELTA, codeSystem()).setTransientEffectiveTime("20250101");
+		AtomicInteger exports = new AtomicInteger();
+
+		assertThat(copy(cache, new Rf2ExportCache.Key("MAIN/SNOMEDCT-TEST", 100, DELTA, List.of(), false, "20250101"),
+				countingExporter(exports, "first"))).isEqualTo("first");
+		assertThat(copy(cache, Rf2ExportCache.Key.of(100, configuration), countingExporter(exports, "second"))).isEqualTo("first");
+		assertThat(copy(cache, Rf2ExportCache.Key.of(101, configuration), countingExporter(exports, "third"))).isEqualTo("third");
+
+		assertThat(exports.get()).isEqualTo(2);
+		assertThat(archives()).hasSize(2);
+	}
+
+	@Test
+	void copyTo_sharesOneExportBetweenConcurrentRequests() throws Exception {
+		Rf2ExportCache cache = new Rf2ExportCache(directory, 1_000);
+		Rf2ExportCache.Key key = Rf2ExportCache.Key.of(100, new SnowstormExportConfiguration(SNAPSHOT, codeSystem()).setLanguageOnly(true));
+		AtomicInteger exports = new AtomicInteger();
+		CountDownLatch exportStarted = new CountDownLatch(1);
+		CountDownLatch releaseExport = new CountDownLatch(1);
+		AtomicReference<Thread> secondThread = new AtomicReference<>();
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			Future<String> first = executor.submit(() -> copy(cache, key, outputStream -> {
+				exports.incrementAndGet();
+				exportStarted.countDown();
+				await(releaseExport);
+				write(outputStream, "shared");
+			}));
+			assertThat(exportStarted.await(5, TimeUnit.SECONDS)).isTrue();
+			Future<String> second = executor.submit(() -> {
+				secondThread.set(Thread.currentThread());
+				return copy(cache, key, countingExporter(exports, "duplicate"));
+			});
+			awaitWaiting(secondThread);
+			releaseExport.countDown();
+
+			assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("shared");
+			assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo("shared");
+			assertThat(exports.get()).isEqualTo(1);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	void copyTo_evictsLeastRecentlyUsedArchiveOverMaxSize() throws Exception {
+		Rf2ExportCache cache = new Rf2ExportCache(directory, 10);
+		AtomicInteger exports = new AtomicInteger();
+		Rf2ExportCache.Key a = key(1);
+		Rf2ExportCache.Key b = key(2);
+		Rf2ExportCache.Key c = key(3);
+
+		copy(cache, a, countingExporter(exports, "aaaa"));
+		copy(cache, b, countingExporter(exports, "bbbb"));
+		copy(cache, a, countingExporter(exports, "unused"));
+		copy(cache, c, countingExporter(exports, "cccc"));
+
+		assertThat(archives()).hasSize(2);
+		assertThat(copy(cache, a, countingExporter(exports, "unused"))).isEqualTo("aaaa");
+		assertThat(copy(cache, b, countingExporter(exports, "bbb2"))).isEqualTo("bbb2");
+		assertThat(exports.get()).isEqualTo(4);
+		assertThat(archives()).hasSize(2);
+	}
+
+	@Test
+	void copyTo_doesNotCacheFailedExport() throws Exception {
+		Rf2ExportCache cache = new Rf2ExportCache(directory, 1_000);
+		Rf2ExportCache.Key key = key(1);
+
+		assertThatThrownBy(() -> copy(cache, key, outputStream -> {
+			write(outputStream, "partial");
+			throw new ServiceException("Snowstorm export failed.");
+		})).hasMessage("Snowstorm export failed.");
+
+		assertThat(archives()).isEmpty();
+		assertThat(copy(cache, key, countingExporter(new AtomicInteger(), "retry"))).isEqualTo("retry");
+	}
+
+	@Test
+	void copyTo_releasesReadOfInterruptedWaiter() throws Exception {
+		Rf2ExportCache cache = new Rf2ExportCache(directory, 4);
+		AtomicInteger exports = new AtomicInteger();
+		CountDownLatch exportStarted = new CountDownLatch(1);
+		CountDownLatch releaseExport = new CountDownLatch(1);
+		AtomicReference<ServiceException> waiterFailure = new AtomicReference<>();
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			Future<String> first = executor.submit(() -> copy(cache, key(1), outputStream -> {
+				exports.incrementAndGet();
+				exportStarted.countDown();
+				await(releaseExport);
+				write(outputStream, "aaaa");
+			}));
+			assertThat(exportStarted.await(5, TimeUnit.SECONDS)).isTrue();
+			Thread waiter = new Thread(() -> {
+				try {
+					copy(cache, key(1), countingExporter(exports, "unused"));
+				} catch (ServiceException e) {
+					waiterFailure.set(e);
+				}
+			});
+			waiter.start();
+			awaitWaiting(new AtomicReference<>(waiter));
+			waiter.interrupt();
+			waiter.join(5_000);
+			releaseExport.countDown();
+			assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("aaaa");
+		} finally {
+			executor.shutdownNow();
+		}
+
+		assertThat(waiterFailure.get()).hasMessageStartingWith("Interrupted while waiting");
+		// With no reads left the first archive can be evicted to make room for the second
+		copy(cache, key(2), countingExporter(exports, "bbbb"));
+		assertThat(archives()).hasSize(1);
+	}
+
+	@Test
+	void constructor_keepsArchivesOfOtherCachesInTheSameDirectory() throws Exception {
+		Rf2ExportCache first = new Rf2ExportCache(directory, 1_000);
+		copy(first, key(1), countingExporter(new AtomicInteger(), "first"));
+
+		new Rf2ExportCache(directory, 1_000);
+
+		assertThat(archives()).hasSize(1);
+		assertThat(copy(first, key(1), countingExporter(new AtomicInteger(), "unused"))).isEqualTo("first");
+	}
+
+	@Test
+	void constructor_deletesDirectoriesLeftByStoppedCaches() throws Exception {
+		Path stopped = Files.createDirectory(directory.toPath().resolve("rf2-export-cache-stopped"));
+		Files.createFile(stopped.resolve(".lock"));
+		Files.writeString(stopped.resolve("rf2-export-1.zip"), "stopped");
+		Path unlocked = Files.createDirectory(directory.toPath().resolve("rf2-export-cache-unlocked"));
+		Files.writeString(unlocked.resolve("rf2-export-2.zip"), "unlocked");
+		Files.setLastModifiedTime(unlocked, FileTime.from(Instant.now().minus(Duration.ofDays(1))));
+		Path creating = Files.createDirectory(directory.toPath().resolve("rf2-export-cache-creating"));
+
+		new Rf2ExportCache(directory, 1_000);
+
+		assertThat(stopped).doesNotExist();
+		assertThat(unlocked).doesNotExist();
+		assertThat(creating).exists();
+	}
+
+	@Test
+	void close_deletesArchivesAndCacheDirectory() throws Exception {
+		Rf2ExportCache cache = new Rf2ExportCache(directory, 1_000);
+		copy(cache, key(1), countingExporter(new AtomicInteger(), "archive"));
+
+		cache.close();
+
+		assertThat(directory.listFiles()).isEmpty();
+	}
+
+	private List<File> archives() throws IOException {
+		try (Stream<Path> files = Files.walk(directory.toPath())) {
+			return files.filter(file -> file.getFileName().toString().endsWith(".zip")).map(Path::toFile).toList();
+		}
+	}
+
+	private static Rf2ExportCache.Key key(long headTimestamp) {
+		return Rf2ExportCache.Key.of(headTimestamp, new SnowstormExportConfiguration(DELTA, codeSystem()));
+	}
+
+	private static CodeSystem codeSystem() {
+		return new CodeSystem("Test", "SNOMEDCT-TEST", "MAIN/SNOMEDCT-TEST");
+	}
+
+	private static String copy(Rf2ExportCache cache, Rf2ExportCache.Key key, Rf2ExportCache.Exporter exporter) throws ServiceException {
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		cache.copyTo(key, outputStream, exporter);
+		return outputStream.toString(StandardCharsets.UTF_8);
+	}
+
+	private static Rf2ExportCache.Exporter countingExporter(AtomicInteger exports, String content) {
+		return outputStream -> {
+			exports.incrementAndGet();
+			write(outputStream, content);
+		};
+	}
+
+	private static void write(OutputStream outputStream, String content) throws ServiceException {
+		try {
+			outputStream.write(content.getBytes(StandardCharsets.UTF_8));
+		} catch (IOException e) {
+			throw new ServiceException("Failed to write test archive.", e);
+		}
+	}
+
+	private static void awaitWaiting(AtomicReference<Thread> thread) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (thread.get() == null || thread.get().getState() != Thread.State.WAITING) {
+			assertThat(System.nanoTime()).isLessThan(deadline);
+			Thread.sleep(1);
+		}
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,115 @@
+package org.snomed.simplex.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.snomed.simplex.client.domain.CodeSystem;
+import org.snomed.simplex.client.domain.RefsetMember;
+import org.snomed.simplex.exceptions.ServiceException;
+import org.snomed.simplex.service.PercentageRangeProgressMonitor;
+import org.snomed.simplex.service.ProgressMonitor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.*;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class SnowstormClientBulkWriteTest {
+
+	private static final String SNOWSTORM = "http://localhost:8080";
+	private static final String BULK_URL = SNOWSTORM + "/MAIN/SNOMEDCT-TEST/members/bulk";
+
+	private SnowstormClient snowstormClient;
+	private MockRestServiceServer server;
+	private CodeSystem codeSystem;
+	private final List<Integer> percentages = new ArrayList<>();
+
+	@BeforeEach
+	void setUp() {
+		snowstormClient = new SnowstormClient(SNOWSTORM, null, null, new ObjectMapper(), 10, 2, 1);
+		server = MockRestServiceServer.bindTo((RestTemplate) ReflectionTestUtils.getField(snowstormClient, "restTemplate")).build();
+		codeSystem = new CodeSystem("Test", "SNOMEDCT-TEST", "MAIN/SNOMEDCT-TEST");
+	}
+
+	@Test
+	void createUpdateRefsetMembers_sendsChunksAndReportsProgress() throws ServiceException {
+		for (int job = 1; job <= 3; job++) {
+			expectBulkJob(job, "COMPLETED");
+		}
+
+		snowstormClient.createUpdateRefsetMembers(members(5), codeSystem, new PercentageRangeProgressMonitor(percentageRecorder(), 50, 75));
+
+		server.verify();
+		assertThat(percentages).containsExactly(50, 50, 60, 70, 75);
+	}
+
+	@Test
+	void createUpdateRefsetMembers_stopsAtFailedChunk() {
+		expectBulkJob(1, "FAILED");
+
+		assertThatThrownBy(() -> snowstormClient.createUpdateRefsetMembers(members(5), codeSystem, null))
+				.isInstanceOf(ServiceException.class)
+				.hasMessageStartingWith("Bulk create/update refset member job failed");
+		server.verify();
+	}
+
+	@Test
+	void deleteRefsetMembers_sendsBatchesOfOneThousand() throws ServiceException {
+		server.expect(requestTo(SNOWSTORM + "/MAIN/SNOMEDCT-TEST/members")).andExpect(method(HttpMethod.DELETE))
+				.andExpect(jsonPath("$.memberIds.length()").value(1_000)).andRespond(withSuccess());
+		server.expect(requestTo(SNOWSTORM + "/MAIN/SNOMEDCT-TEST/members")).andExpect(method(HttpMethod.DELETE))
+				.andExpect(jsonPath("$.memberIds.length()").value(500)).andRespond(withSuccess());
+
+		snowstormClient.deleteRefsetMembers(members(1_500), codeSystem);
+
+		server.verify();
+	}
+
+	private void expectBulkJob(int job, String status) {
+		URI jobLocation = URI.create(SNOWSTORM + "/MAIN/SNOMEDCT-TEST/members/bulk/" + job);
+		HttpHeaders headers = new HttpHeaders();
+		headers.setLocation(jobLocation);
+		server.expect(requestTo(BULK_URL)).andExpect(method(HttpMethod.POST))
+				.andRespond(withStatus(HttpStatus.CREATED).headers(headers));
+		server.expect(requestTo(jobLocation)).andExpect(method(HttpMethod.GET))
+				.andRespond(withSuccess("{\"status\":\"%s\",\"message\":\"\"}".formatted(status), MediaType.APPLICATION_JSON));
+	}
+
+	private ProgressMonitor percentageRecorder() {
+		return new ProgressMonitor() {
+			@Override
+			public void setRecordsTotal(int recordsTotal) {
+			}
+
+			@Override
+			public void setRecordsProcessed(int recordsProcessed) {
+			}
+
+			@Override
+			public void incrementRecordsProcessed() {
+			}
+
+			@Override
+			public void setProgressPercentageInsteadOfNumber(int progressPercentage) {
+				percentages.add(progressPercentage);
+			}
+		};
+	}
+
+	private static List<RefsetMember> members(int count) {
+		return IntStream.range(0, count).mapToObj(i -> new RefsetMember("723264001", "11000003104", Integer.toString(100_000 + i))).toList();
+	}
+}
@@ -0,0 +1,119 @@
+package org.snomed.simplex.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.snomed.simplex.client.domain.CodeSystem;
+import org.snomed.simplex.exceptions.ServiceException;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.client.ExpectedCount;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class SnowstormClientCodeSystemDetailTest {
+
+	private static final String SNOWSTORM = "http://localhost:8080";
+
+	private SnowstormClient snowstormClient;
+	private RestTemplate restTemplate;
+
+	@BeforeEach
+	void setUp() {
+		snowstormClient = new SnowstormClient(SNOWSTORM, null, null, new ObjectMapper(), 10);
+		restTemplate = (RestTemplate) ReflectionTestUtils.getField(snowstormClient, "restTemplate");
+	}
+
+	@Test
+	void getCodeSystems_reusesModuleDisplayUntilBranchHeadMoves() throws ServiceException {
+		MockRestServiceServer server = MockRestServiceServer.bindTo(restTemplate).ignoreExpectOrder(true).build();
+		expectCodeSystemList(server);
+		expectBranch(server, "MAIN/SNOMEDCT-AA", 1, "1001");
+		expectBranch(server, "MAIN/SNOMEDCT-BB", 1, "2001");
+		expectModule(server, "MAIN/SNOMEDCT-AA", "1001", "Module A");
+		expectModule(server, "MAIN/SNOMEDCT-BB", "2001", "Module B");
+
+		List<CodeSystem> codeSystems = snowstormClient.getCodeSystems(true);
+
+		server.verify();
+		assertThat(codeSystems).extracting(CodeSystem::getDefaultModuleDisplay).containsExactly("Module A", "Module B");
+
+		// Only the branch with a new commit has its module PT fetched again
+		server = MockRestServiceServer.bindTo(restTemplate).ignoreExpectOrder(true).build();
+		expectCodeSystemList(server);
+		expectBranch(server, "MAIN/SNOMEDCT-AA", 2, "1001");
+		expectBranch(server, "MAIN/SNOMEDCT-BB", 1, "2001");
+		expectModule(server, "MAIN/SNOMEDCT-AA", "1001", "Module A renamed");
+
+		codeSystems = snowstormClient.getCodeSystems(true);
+
+		server.verify();
+		assertThat(codeSystems).extracting(CodeSystem::getDefaultModuleDisplay).containsExactly("Module A renamed", "Module B");
+		assertThat(codeSystems).extracting(CodeSystem::getContentHeadTimestamp).containsExactly(2L, 1L);
+	}
+
+	@Test
+	void getCodeSystemOrThrow_sharesBranchMetadataBetweenUsers() throws ServiceException {
+		CodeSystemMetadataCache sharedCache = new CodeSystemMetadataCache();
+		SnowstormClient userA = new SnowstormClient(SNOWSTORM, "a", null, new ObjectMapper(), 10, 2, 1, sharedCache);
+		SnowstormClient userB = new SnowstormClient(SNOWSTORM, "b", null, new ObjectMapper(), 10, 2, 1, sharedCache);
+		MockRestServiceServer serverA = MockRestServiceServer.bindTo((RestTemplate) ReflectionTestUtils.getField(userA, "restTemplate")).build();
+		MockRestServiceServer serverB = MockRestServiceServer.bindTo((RestTemplate) ReflectionTestUtils.getField(userB, "restTemplate")).build();
+		expectCodeSystem(serverA);
+		expectBranch(serverA, "MAIN/SNOMEDCT-AA", 1, "1001");
+		expectModule(serverA, "MAIN/SNOMEDCT-AA", "1001", "Module A");
+		// User B still loads the code system, for their own roles, but not the branch or module
+		expectCodeSystem(serverB);
+
+		assertThat(userA.getCodeSystemOrThrow("SNOMEDCT-AA").getDefaultModuleDisplay()).isEqualTo("Module A");
+		assertThat(userB.getCodeSystemOrThrow("SNOMEDCT-AA").getDefaultModuleDisplay()).isEqualTo("Module A");
+		serverA.verify();
+		serverB.verify();
+		assertThat(sharedCache.getStats()).isEqualTo(new CodeSystemMetadataCache.Stats(1, 1, 1, 1, 1));
+
+		// Evicting for one user evicts for all
+		userA.invalidateCodeSystemCache("SNOMEDCT-AA");
+		serverB.reset();
+		expectCodeSystem(serverB);
+		expectBranch(serverB, "MAIN/SNOMEDCT-AA", 1, "1001");
+
+		userB.getCodeSystemOrThrow("SNOMEDCT-AA");
+		serverB.verify();
+	}
+
+	private static void expectCodeSystem(MockRestServiceServer server) {
+		server.expect(requestTo(SNOWSTORM + "/codesystems/SNOMEDCT-AA")).andExpect(method(HttpMethod.GET))
+				.andRespond(withSuccess("""
+						{"name": "Edition A", "shortName": "SNOMEDCT-AA", "branchPath": "MAIN/SNOMEDCT-AA"}""", MediaType.APPLICATION_JSON));
+	}
+
+	private static void expectCodeSystemList(MockRestServiceServer server) {
+		server.expect(requestTo(SNOWSTORM + "/codesystems")).andExpect(method(HttpMethod.GET))
+				.andRespond(withSuccess("""
+						{"items": [
+							{"name": "Edition B", "shortName": "SNOMEDCT-BB", "branchPath": "MAIN/SNOMEDCT-BB"},
+							{"name": "Edition A", "shortName": "SNOMEDCT-AA", "branchPath": "MAIN/SNOMEDCT-AA"}
+						], "total": 2}""", MediaType.APPLICATION_JSON));
+	}
+
+	private static void expectBranch(MockRestServiceServer server, String path, long headTimestamp, String defaultModule) {
+		server.expect(ExpectedCount.once(), requestTo(SNOWSTORM + "/branches/" + path)).andExpect(method(HttpMethod.GET))
+				.andRespond(withSuccess("""
+						{"path": "%s", "headTimestamp": %s, "metadata": {"defaultModuleId": "%s"}}""".formatted(path, headTimestamp, defaultModule),
+						MediaType.APPLICATION_JSON));
+	}
+
+	private static void expectModule(MockRestServiceServer server, String path, String moduleId, String term) {
+		server.expect(ExpectedCount.once(), requestTo(SNOWSTORM + "/" + path + "/concepts/" + moduleId)).andExpect(method(HttpMethod.GET))
+				.andRespond(withSuccess("""
+						{"conceptId": "%s", "pt": {"term": "%s"}}""".formatted(moduleId, term), MediaType.APPLICATION_JSON));
+	}
+}
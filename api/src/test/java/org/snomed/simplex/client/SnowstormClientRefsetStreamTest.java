@@ -0,0 +1,69 @@
+package org.snomed.simplex.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.snomed.simplex.client.domain.CodeSystem;
+import org.snomed.simplex.client.domain.RefsetMember;
+import org.snomed.simplex.domain.Page;
+import org.snomed.simplex.exceptions.ServiceException;
+import org.snomed.simplex.exceptions.ServiceExceptionWithStatusCode;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class SnowstormClientRefsetStreamTest {
+
+	private static final String REFSET_ID = "723264001";
+
+	private SnowstormClient snowstormClient;
+	private CodeSystem codeSystem;
+
+	@BeforeEach
+	void setUp() {
+		snowstormClient = spy(new SnowstormClient("http://localhost:8080", null, null, new ObjectMapper(), 10));
+		codeSystem = new CodeSystem();
+	}
+
+	@Test
+	void streamRefsetMembers_handsOverEachPageAndFollowsSearchAfter() throws ServiceException {
+		Page<RefsetMember> firstPage = page(SnowstormClient.MAX_PAGE_SIZE, "cursorA");
+		Page<RefsetMember> lastPage = page(3, null);
+		doReturn(firstPage).when(snowstormClient).getRefsetMembers(eq(REFSET_ID), any(), eq(false), anyInt(), isNull());
+		doReturn(lastPage).when(snowstormClient).getRefsetMembers(eq(REFSET_ID), any(), eq(false), anyInt(), eq("cursorA"));
+
+		List<Integer> pageSizes = new ArrayList<>();
+		snowstormClient.streamRefsetMembers(REFSET_ID, codeSystem, false, page -> pageSizes.add(page.size()));
+
+		assertThat(pageSizes).containsExactly(SnowstormClient.MAX_PAGE_SIZE, 3);
+		assertThat(snowstormClient.loadAllRefsetMembers(REFSET_ID, codeSystem, false)).hasSize(SnowstormClient.MAX_PAGE_SIZE + 3);
+	}
+
+	@Test
+	void streamRefsetMembers_rethrowsPageLoadFailure() throws ServiceException {
+		doReturn(page(SnowstormClient.MAX_PAGE_SIZE, "cursorA")).when(snowstormClient).getRefsetMembers(eq(REFSET_ID), any(), eq(true), anyInt(), isNull());
+		doThrow(new ServiceExceptionWithStatusCode("Failed to load refset.", HttpStatus.BAD_GATEWAY))
+				.when(snowstormClient).getRefsetMembers(eq(REFSET_ID), any(), eq(true), anyInt(), eq("cursorA"));
+
+		assertThatThrownBy(() -> snowstormClient.streamRefsetMembers(REFSET_ID, codeSystem, true, page -> {}))
+				.isInstanceOf(ServiceExceptionWithStatusCode.class)
+				.hasMessage("Failed to load refset.");
+	}
+
+	private static Page<RefsetMember> page(int size, String searchAfter) {
+		List<RefsetMember> members = IntStream.range(0, size)
+				.mapToObj(i -> new RefsetMember(REFSET_ID, "900000000000207008", Integer.toString(i)))
+				.toList();
+		Page<RefsetMember> page = new Page<>(members, (long) size);
+		ReflectionTestUtils.setField(page, "searchAfter", searchAfter);
+		return page;
+	}
+}
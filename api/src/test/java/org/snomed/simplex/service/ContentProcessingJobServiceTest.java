@@ -6,17 +6,22 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.snomed.simplex.client.domain.CodeSystem;
-import org.snomed.simplex.service.job.AsyncJob;
-import org.snomed.simplex.service.job.ContentJob;
-import org.snomed.simplex.service.job.JobType;
-import org.snomed.simplex.service.job.TranslationStudioContentJob;
+import org.snomed.simplex.domain.JobStatus;
+import org.snomed.simplex.domain.activity.Activity;
+import org.snomed.simplex.domain.activity.ActivityType;
+import org.snomed.simplex.domain.activity.ComponentType;
+import org.snomed.simplex.service.job.*;
 
 import java.lang.reflect.Field;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
 
 @ExtendWith(MockitoExtension.class)
 class ContentProcessingJobServiceTest {
@@ -70,6 +75,55 @@ class ContentProcessingJobServiceTest {
 		assertThat(jobs.get(0).getDisplay()).isEqualTo("Matching import");
 	}
 
+	@Test
+	void queueNonBlockingContentJob_releasesJobThreadToOtherCodeSystems() throws Exception {
+		CompletableFuture<ChangeSummary> bulkJobs = new CompletableFuture<>();
+		AsyncJob waiting = service.queueNonBlockingContentJob(new ContentJob(codeSystem(), "Refset upload", REFSET), REFSET, activity(),
+				(job, jobExecutor) -> bulkJobs.thenApplyAsync(summary -> summary, jobExecutor));
+		// Runs on the only job thread while the first job waits
+		AsyncJob otherCodeSystem = service.queueContentJob(new ContentJob(new CodeSystem("Other", "OTHER", "other-branch"), "Refset upload", REFSET),
+				REFSET, activity(), job -> new ChangeSummary(1, 0, 0, 1));
+
+		awaitStatus(otherCodeSystem, JobStatus.COMPLETE);
+		assertThat(waiting.getStatus()).isEqualTo(JobStatus.IN_PROGRESS);
+
+		bulkJobs.complete(new ChangeSummary(5, 2, 1, 10));
+
+		awaitStatus(waiting, JobStatus.COMPLETE);
+		assertThat(waiting.getChangeSummary().getAdded()).isEqualTo(5);
+		verify(activityService, timeout(5_000).times(2)).endAsynchronousActivity(any());
+	}
+
+	@Test
+	void queueNonBlockingContentJob_holdsNextJobOnSameCodeSystemUntilFutureCompletes() throws Exception {
+		CompletableFuture<ChangeSummary> bulkJobs = new CompletableFuture<>();
+		AsyncJob waiting = service.queueNonBlockingContentJob(new ContentJob(codeSystem(), "Refset upload", REFSET), REFSET, activity(),
+				(job, jobExecutor) -> bulkJobs);
+		AsyncJob next = service.queueContentJob(new ContentJob(codeSystem(), "ECL update", REFSET), REFSET, activity(),
+				job -> new ChangeSummary(1, 0, 0, 1));
+
+		awaitStatus(waiting, JobStatus.IN_PROGRESS);
+		Thread.sleep(50);
+		assertThat(next.getStatus()).isEqualTo(JobStatus.QUEUED);
+
+		bulkJobs.complete(new ChangeSummary(5, 2, 1, 10));
+
+		awaitStatus(waiting, JobStatus.COMPLETE);
+		awaitStatus(next, JobStatus.COMPLETE);
+	}
+
+	private static void awaitStatus(AsyncJob job, JobStatus status) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 5_000;
+		while (job.getStatus() != status && System.currentTimeMillis() < deadline) {
+			Thread.sleep(5);
+		}
+		assertThat(job.getStatus()).isEqualTo(status);
+	}
+
+	private static Activity activity() {
+		return new Activity("user", EDITION, ComponentType.SUBSET, ActivityType.UPDATE);
+	}
+
 	private static CodeSystem codeSystem() {
 		return new CodeSystem("Test", EDITION, "branch");
 	}
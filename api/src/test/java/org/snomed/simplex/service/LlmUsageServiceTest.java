@@ -1,20 +1,26 @@
 package org.snomed.simplex.service;
 
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.snomed.simplex.ai.LlmUsageDaily;
+import org.snomed.simplex.ai.LlmUsageRecord;
+import org.snomed.simplex.config.IndexNameProvider;
 import org.snomed.simplex.config.OpenAiPricingConfig;
 import org.snomed.simplex.rest.pojos.LlmUsageByModel;
 import org.snomed.simplex.rest.pojos.LlmUsageDailyBreakdown;
 import org.snomed.simplex.rest.pojos.LlmUsageSummary;
 import org.snomed.simplex.exceptions.ServiceExceptionWithStatusCode;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.data.elasticsearch.core.query.UpdateQuery;
 
 import java.time.LocalDate;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
-import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.*;
 
 class LlmUsageServiceTest {
 
@@ -153,4 +159,79 @@ class LlmUsageServiceTest {
 				.orElseThrow();
 		assertEquals(0.0003675, datedMiniModel.getCostUsd(), 1e-9);
 	}
+
+	@Test
+	void getSummaryCountsCacheHitsApartFromRequests() throws ServiceExceptionWithStatusCode {
+		LocalDate today = LlmUsageService.currentUtcLocalDate();
+		String todayString = LlmUsageService.formatDate(today);
+		LlmUsageDaily withCacheHits = new LlmUsageDaily("1", "SNOMEDCT-ES", "gpt-5.4", "openai", todayString, 200, 80, 1, 10);
+		withCacheHits.setCacheHits(15);
+		LlmUsageDaily onlyCacheHits = new LlmUsageDaily("2", "SNOMEDCT-DE", "gpt-5.4", "openai", todayString, 0, 0, 0, 0);
+		onlyCacheHits.setCacheHits(4);
+
+		when(repository.findByDateGreaterThanEqualAndDateLessThanEqualOrderByDateDesc(anyString(), anyString()))
+				.thenReturn(List.of(withCacheHits, onlyCacheHits));
+
+		LlmUsageSummary summary = service.getSummary(LlmUsagePeriod.WEEK, null, null);
+
+		assertEquals(19, summary.getCacheHits());
+		assertEquals(1, summary.getRequestCount());
+		assertEquals(10, summary.getConceptsTranslated());
+		assertEquals(19, summary.getByModel().get(0).getCacheHits());
+		assertEquals(0.0017, summary.getByModel().get(0).getCostUsd(), 1e-9);
+		assertEquals(List.of(4L, 15L), summary.getDailyBreakdown().stream().map(LlmUsageDailyBreakdown::getCacheHits).toList());
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void flushPendingUsageWritesOneUpsertPerCodesystemModelAndDay() {
+		ElasticsearchOperations elasticsearchOperations = mock(ElasticsearchOperations.class);
+		LlmUsageService bufferedService = new LlmUsageService(repository, elasticsearchOperations, new IndexNameProvider("test_"), pricingConfig);
+
+		bufferedService.recordUsage(new LlmUsageRecord("SNOMEDCT-ES", "gpt-5.4", "openai", 100, 20, 5));
+		bufferedService.recordUsage(new LlmUsageRecord("SNOMEDCT-ES", "gpt-5.4", "openai", 50, 10, 3));
+		bufferedService.recordCacheHits("SNOMEDCT-ES", "gpt-5.4", "openai", 7);
+		bufferedService.recordUsage(new LlmUsageRecord("SNOMEDCT-DE", "gpt-5.4", "openai", 30, 5, 1));
+		verifyNoInteractions(elasticsearchOperations);
+
+		bufferedService.flushPendingUsage();
+
+		ArgumentCaptor<List<UpdateQuery>> captor = ArgumentCaptor.forClass(List.class);
+		ArgumentCaptor<IndexCoordinates> indexCaptor = ArgumentCaptor.forClass(IndexCoordinates.class);
+		verify(elasticsearchOperations).bulkUpdate(captor.capture(), indexCaptor.capture());
+		assertEquals("test_llm-usage-daily", indexCaptor.getValue().getIndexName());
+		assertEquals(2, captor.getValue().size());
+		String esId = LlmUsageService.documentId("SNOMEDCT-ES", "gpt-5.4", LlmUsageService.formatDate(LlmUsageService.currentUtcLocalDate()));
+		UpdateQuery esQuery = captor.getValue().stream().filter(query -> query.getId().equals(esId)).findFirst().orElseThrow();
+		assertEquals(150L, esQuery.getParams().get("inputTokens"));
+		assertEquals(30L, esQuery.getParams().get("outputTokens"));
+		assertEquals(2L, esQuery.getParams().get("requestCount"));
+		assertEquals(8L, esQuery.getParams().get("conceptsTranslated"));
+		assertEquals(7L, esQuery.getParams().get("cacheHits"));
+
+		// Nothing left to write
+		bufferedService.flushPendingUsage();
+		verify(elasticsearchOperations, times(1)).bulkUpdate(any(), any(IndexCoordinates.class));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void flushPendingUsageKeepsUsageWhenWriteFails() {
+		ElasticsearchOperations elasticsearchOperations = mock(ElasticsearchOperations.class);
+		LlmUsageService bufferedService = new LlmUsageService(repository, elasticsearchOperations, new IndexNameProvider(""), pricingConfig);
+		doThrow(new IllegalStateException("Elasticsearch unavailable"))
+				.doNothing()
+				.when(elasticsearchOperations).bulkUpdate(any(), any(IndexCoordinates.class));
+
+		bufferedService.recordUsage(new LlmUsageRecord("SNOMEDCT-ES", "gpt-5.4", "openai", 100, 20, 5));
+		bufferedService.flushPendingUsage();
+		bufferedService.recordUsage(new LlmUsageRecord("SNOMEDCT-ES", "gpt-5.4", "openai", 50, 10, 3));
+		bufferedService.flushOnShutdown();
+
+		ArgumentCaptor<List<UpdateQuery>> captor = ArgumentCaptor.forClass(List.class);
+		verify(elasticsearchOperations, times(2)).bulkUpdate(captor.capture(), any(IndexCoordinates.class));
+		UpdateQuery retried = captor.getAllValues().get(1).get(0);
+		assertEquals(150L, retried.getParams().get("inputTokens"));
+		assertEquals(2L, retried.getParams().get("requestCount"));
+	}
 }
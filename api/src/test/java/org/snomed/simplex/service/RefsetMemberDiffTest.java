@@ -0,0 +1,126 @@
+package org.snomed.simplex.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.snomed.simplex.client.domain.RefsetMember;
+import org.snomed.simplex.domain.RefsetMemberIntent;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RefsetMemberDiffTest {
+
+	private static final String REFSET_ID = "723264001";
+	private static final String MODULE_ID = "11000003104";
+
+	// Same rules as a simple refset: any stored member for the concept matches, and matching reactivates it
+	private static final RefsetMemberDiff.MemberRules SIMPLE_REFSET_RULES = new RefsetMemberDiff.MemberRules() {
+		@Override
+		public RefsetMember convertToMember(RefsetMemberIntent inputMember) {
+			return new RefsetMember(REFSET_ID, MODULE_ID, inputMember.getReferenceComponentId());
+		}
+
+		@Override
+		public boolean matchMember(RefsetMember wantedRefsetMember, RefsetMember storedMember) {
+			return true;
+		}
+
+		@Override
+		public boolean applyMember(RefsetMember wantedRefsetMember, RefsetMember storedMember) {
+			if (!storedMember.isActive()) {
+				storedMember.setActive(true);
+				return true;
+			}
+			return false;
+		}
+	};
+
+	@Test
+	void diff_classifiesEachStoredMember() {
+		RefsetMember keep = member("100", true, true);
+		RefsetMember reactivate = member("200", false, true);
+		RefsetMember inactivate = member("300", true, true);
+		RefsetMember delete = member("400", true, false);
+		RefsetMember alreadyInactive = member("500", false, true);
+		RefsetMemberDiff memberDiff = new RefsetMemberDiff();
+		memberDiff.addStoredMembers(List.of(keep, reactivate, inactivate, delete, alreadyInactive));
+
+		RefsetMemberDiff.Result result = memberDiff.diff(intents("100", "200", "600"), SIMPLE_REFSET_RULES);
+
+		assertThat(result.membersToCreate()).extracting(RefsetMember::getReferencedComponentId).containsExactly("600");
+		assertThat(result.membersToUpdate()).containsExactly(reactivate);
+		assertThat(reactivate.isActive()).isTrue();
+		assertThat(result.membersToInactivate()).containsExactly(inactivate);
+		assertThat(result.membersToDelete()).containsExactly(delete);
+		assertThat(result.removedCount()).isEqualTo(3);
+	}
+
+	@Test
+	void diff_prefersUnreleasedThenInactiveStoredMember() {
+		RefsetMember releasedActive = member("100", true, true);
+		RefsetMember unreleasedInactive = member("100", false, false);
+		RefsetMemberDiff memberDiff = new RefsetMemberDiff();
+		memberDiff.addStoredMembers(List.of(releasedActive, unreleasedInactive));
+
+		RefsetMemberDiff.Result result = memberDiff.diff(intents("100"), SIMPLE_REFSET_RULES);
+
+		assertThat(result.membersToUpdate()).containsExactly(unreleasedInactive);
+		assertThat(result.membersToInactivate()).containsExactly(releasedActive);
+		assertThat(result.membersToCreate()).isEmpty();
+	}
+
+	@Test
+	void diff_repeatedInputDoesNotDuplicateUpdates() {
+		RefsetMember inactive = member("100", false, true);
+		RefsetMemberDiff memberDiff = new RefsetMemberDiff();
+		memberDiff.addStoredMembers(List.of(inactive));
+
+		RefsetMemberDiff.Result result = memberDiff.diff(intents("100", "100"), SIMPLE_REFSET_RULES);
+
+		assertThat(result.membersToUpdate()).containsExactly(inactive);
+		assertThat(result.removedCount()).isZero();
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = {10_000, 100_000, 500_000})
+	@Timeout(value = 30, unit = TimeUnit.SECONDS)
+	void diff_scalesLinearly(int size) {
+		// Every 10th stored member is dropped from the input and every 10th input member is new
+		List<RefsetMember> stored = new ArrayList<>(size);
+		List<RefsetMemberIntent> input = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			String conceptId = Long.toString(100_000_000L + i);
+			stored.add(member(conceptId, i % 7 != 0, i % 3 == 0));
+			if (i % 10 != 0) {
+				input.add(new RefsetMemberIntent(conceptId));
+			}
+			if (i % 10 == 5) {
+				input.add(new RefsetMemberIntent(Long.toString(900_000_000L + i)));
+			}
+		}
+		RefsetMemberDiff memberDiff = new RefsetMemberDiff();
+		memberDiff.addStoredMembers(stored);
+
+		RefsetMemberDiff.Result result = memberDiff.diff(input, SIMPLE_REFSET_RULES);
+
+		assertThat(result.membersToCreate()).hasSize(size / 10);
+		assertThat(result.removedCount()).isEqualTo(size / 10);
+	}
+
+	private static List<RefsetMemberIntent> intents(String... conceptIds) {
+		return List.of(conceptIds).stream().map(RefsetMemberIntent::new).toList();
+	}
+
+	private static RefsetMember member(String conceptId, boolean active, boolean released) {
+		RefsetMember member = new RefsetMember(REFSET_ID, MODULE_ID, conceptId);
+		member.setActive(active);
+		ReflectionTestUtils.setField(member, "released", released);
+		return member;
+	}
+}
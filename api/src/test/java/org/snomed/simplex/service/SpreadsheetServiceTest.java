@@ -15,15 +15,22 @@ import org.junit.jupiter.api.Test;
 import org.snomed.simplex.exceptions.ServiceExceptionWithStatusCode;
 import org.snomed.simplex.service.spreadsheet.SheetHeader;
 import org.snomed.simplex.service.spreadsheet.SheetRowToComponentIntentExtractor;
+import org.snomed.simplex.service.spreadsheet.StreamingSheetReader;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.ContextConfiguration;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -185,4 +192,73 @@ class SpreadsheetServiceTest {
 		assertEquals("My translation b", langRefsetTerms.get(langRefsetB).get(0));
 		assertEquals("My translation bb", langRefsetTerms.get(langRefsetB).get(1));
 	}
+
+	@Test
+	void writeRefsetSpreadsheet_streamsRowsAndEstimatesWidths() throws IOException {
+		String longTerm = "Long term ".repeat(20);
+		Iterator<String[]> rows = IntStream.range(0, 2_000)
+				.mapToObj(i -> new String[]{Integer.toString(100_000 + i), i == 1_500 ? longTerm : "Short"})
+				.iterator();
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+		spreadsheetService.writeRefsetSpreadsheet(List.of("conceptId", "term"), rows, outputStream);
+
+		try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(outputStream.toByteArray()))) {
+			XSSFSheet sheet = workbook.getSheetAt(0);
+			assertEquals(2_000, sheet.getLastRowNum());
+			assertEquals("term", sheet.getRow(0).getCell(1).getStringCellValue());
+			assertEquals("101500", sheet.getRow(1_501).getCell(0).getStringCellValue());
+			assertEquals(longTerm, sheet.getRow(1_501).getCell(1).getStringCellValue());
+			// Width comes from the sample, the long term is beyond it but still gets a taller row
+			assertTrue(sheet.getColumnWidth(1) < 15_000);
+			assertTrue(sheet.getRow(1_501).getHeight() > sheet.getRow(1_500).getHeight());
+		}
+	}
+
+	@Test
+	void writeConceptSpreadsheet_canBeReadBack() throws IOException, ServiceException {
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+		spreadsheetService.writeConceptSpreadsheet(basicSheetHeaders, Collections.emptyList(), Collections.emptyList(), correctTimestamp, outputStream);
+
+		List<ConceptIntent> concepts = spreadsheetService.readComponentSpreadsheet(new ByteArrayInputStream(outputStream.toByteArray()),
+				basicSheetHeaders, basicComponentExtractor, correctTimestamp);
+		assertTrue(concepts.isEmpty());
+	}
+
+	@Test
+	void streamingSheetReader_keepsCellTypes() throws IOException, ServiceException {
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+			XSSFSheet sheet = workbook.createSheet();
+			Row header = sheet.createRow(0);
+			header.createCell(0).setCellValue("conceptId");
+			header.createCell(1).setCellValue("term");
+			Row row = sheet.createRow(1);
+			row.createCell(0).setCellValue(73211009);
+			row.createCell(1).setCellValue("Diabetes mellitus");
+			row.createCell(2).setCellValue(false);
+			row.createCell(4).setCellFormula("CONCATENATE(\"a\",\"b\")");
+			// Row 3 left out
+			sheet.createRow(3).createCell(1).setCellValue("Diabetes mellitus");
+			workbook.getCreationHelper().createFormulaEvaluator().evaluateAll();
+			workbook.write(outputStream);
+		}
+
+		List<String> values = new ArrayList<>();
+		int rowCount = StreamingSheetReader.read(new ByteArrayInputStream(outputStream.toByteArray()), (row, rowNumber) -> {
+			if (row.getRowNum() == 1) {
+				values.add(SpreadsheetService.readSnomedConcept(row, 0, rowNumber));
+				values.add(SpreadsheetService.readCellAsString(row, 1));
+				values.add(Boolean.toString(SpreadsheetService.readActiveFlag(row, 2, rowNumber)));
+				values.add(SpreadsheetService.readCellAsString(row, 3));
+				values.add(SpreadsheetService.readCellAsString(row, 4));
+			} else if (row.getRowNum() == 3) {
+				values.add(rowNumber + ":" + SpreadsheetService.readCellAsString(row, 1));
+			}
+		});
+
+		assertEquals(3, rowCount);
+		assertEquals(List.of("73211009", "Diabetes mellitus", "false", "", "ab", "3:Diabetes mellitus"), values);
+	}
 }
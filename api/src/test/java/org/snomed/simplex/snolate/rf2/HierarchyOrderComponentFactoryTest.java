@@ -0,0 +1,63 @@
+package org.snomed.simplex.snolate.rf2;
+
+import org.junit.jupiter.api.Test;
+import org.snomed.simplex.client.domain.Concepts;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HierarchyOrderComponentFactoryTest {
+
+	private static final String STATED_RELATIONSHIP = "900000000000010007";
+
+	@Test
+	void getHierarchyOrder_walksDepthFirstWithChildrenSortedByPreferredTerm() {
+		HierarchyOrderComponentFactory factory = new HierarchyOrderComponentFactory(Concepts.US_LANG_REFSET);
+		isA(factory, "2", "1");
+		isA(factory, "3", "1");
+		isA(factory, "4", "3");
+		isA(factory, "4", "2");
+		isA(factory, "5", "2");
+		pt(factory, "1", "Root");
+		pt(factory, "2", "zebra");
+		pt(factory, "3", "Apple");
+		pt(factory, "4", "Multi parent");
+		pt(factory, "5", "banana");
+
+		assertThat(factory.getHierarchyOrder(1)).containsExactly(1L, 3L, 4L, 2L, 5L);
+		assertThat(factory.getPt(5)).isEqualTo("banana");
+	}
+
+	@Test
+	void getHierarchyOrder_ignoresInactiveAndStatedRelationships() {
+		HierarchyOrderComponentFactory factory = new HierarchyOrderComponentFactory(Concepts.US_LANG_REFSET);
+		isA(factory, "2", "1");
+		factory.newRelationshipState("11", "", "0", "", "3", "1", "0", Concepts.IS_A, Concepts.INFERRED_RELATIONSHIP, "");
+		factory.newRelationshipState("12", "", "1", "", "4", "1", "0", Concepts.IS_A, STATED_RELATIONSHIP, "");
+
+		assertThat(factory.getHierarchyOrder(1)).containsExactly(1L, 2L);
+	}
+
+	@Test
+	void getPt_usesOnlyPreferredSynonymInLanguageRefset() {
+		HierarchyOrderComponentFactory factory = new HierarchyOrderComponentFactory(Concepts.US_LANG_REFSET);
+		factory.newDescriptionState("101", "", "1", "", "1", "en", Concepts.SYNONYM, "Acceptable term", "");
+		factory.newReferenceSetMemberState("", new String[]{}, "m1", "", "1", "", Concepts.US_LANG_REFSET, "101", Concepts.ACCEPTABLE);
+		factory.newDescriptionState("102", "", "1", "", "1", "en", Concepts.SYNONYM, "GB term", "");
+		factory.newReferenceSetMemberState("", new String[]{}, "m2", "", "1", "", Concepts.GB_LANG_REFSET, "102", Concepts.PREFERRED);
+
+		assertThat(factory.getPt(1)).isEmpty();
+
+		pt(factory, "1", "US term");
+		assertThat(factory.getPt(1)).isEqualTo("US term");
+	}
+
+	private static void isA(HierarchyOrderComponentFactory factory, String childId, String parentId) {
+		factory.newRelationshipState(childId + parentId, "", "1", "", childId, parentId, "0", Concepts.IS_A, Concepts.INFERRED_RELATIONSHIP, "");
+	}
+
+	private static void pt(HierarchyOrderComponentFactory factory, String conceptId, String term) {
+		String descriptionId = conceptId + "0" + term.length();
+		factory.newDescriptionState(descriptionId, "", "1", "", conceptId, "en", Concepts.SYNONYM, term, "");
+		factory.newReferenceSetMemberState("", new String[]{}, "m" + descriptionId, "", "1", "", Concepts.US_LANG_REFSET, descriptionId, Concepts.PREFERRED);
+	}
+}
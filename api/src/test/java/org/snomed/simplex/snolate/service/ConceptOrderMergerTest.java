@@ -0,0 +1,106 @@
+package org.snomed.simplex.snolate.service;
+
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConceptOrderMergerTest {
+
+	@Test
+	void visit_insertsNewConceptsAfterPreviouslyVisitedConcept() {
+		ConceptOrderMerger merger = new ConceptOrderMerger(new LongArrayList(new long[]{1, 2, 3}));
+
+		assertThat(merger.visit(1)).isFalse();
+		assertThat(merger.visit(10)).isTrue();
+		assertThat(merger.visit(11)).isTrue();
+		assertThat(merger.visit(3)).isFalse();
+		assertThat(merger.visit(12)).isTrue();
+		assertThat(merger.visit(2)).isFalse();
+
+		assertThat(merger.getMergedOrder()).containsExactly(1L, 10L, 11L, 2L, 3L, 12L);
+		assertThat(merger.getNewConceptCount()).isEqualTo(3);
+	}
+
+	@Test
+	void visit_newRootGoesFirst() {
+		ConceptOrderMerger merger = new ConceptOrderMerger(new LongArrayList());
+
+		merger.visit(100);
+		merger.visit(200);
+		merger.visit(150);
+
+		assertThat(merger.getMergedOrder()).containsExactly(100L, 200L, 150L);
+	}
+
+	@Test
+	void getMergedOrder_keepsExistingConceptsThatWereNotVisited() {
+		ConceptOrderMerger merger = new ConceptOrderMerger(new LongArrayList(new long[]{1, 2, 3}));
+
+		merger.visit(1);
+		merger.visit(3);
+		merger.visit(4);
+
+		assertThat(merger.getMergedOrder()).containsExactly(1L, 2L, 3L, 4L);
+	}
+
+	@Test
+	void getMergedOrder_matchesListInsertionAlgorithm() {
+		Random random = new Random(42);
+		List<Long> existing = new ArrayList<>();
+		List<Long> visitOrder = new ArrayList<>();
+		for (long id = 0; id < 2_000; id++) {
+			visitOrder.add(id);
+			if (random.nextInt(4) != 0) {
+				existing.add(id);
+			}
+		}
+		// Shuffle the walk so that new concepts land in varied positions relative to the existing order
+		Collections.shuffle(visitOrder, random);
+
+		List<Long> expected = new ArrayList<>(existing);
+		Long previous = visitOrder.get(0);
+		for (Long id : visitOrder) {
+			if (!expected.contains(id)) {
+				expected.add(expected.indexOf(previous) + 1, id);
+			}
+			previous = id;
+		}
+
+		ConceptOrderMerger merger = new ConceptOrderMerger(new LongArrayList(existing));
+		visitOrder.forEach(merger::visit);
+
+		assertThat(merger.getMergedOrder()).containsExactlyElementsOf(expected);
+	}
+
+	@Test
+	@Timeout(value = 10, unit = TimeUnit.SECONDS)
+	void getMergedOrder_scalesToFullInternationalEdition() {
+		// Synthetic 400k concept walk where every 40th concept is new in the release.
+		int size = 400_000;
+		LongArrayList existing = new LongArrayList(size);
+		long[] expected = new long[size];
+		for (int id = 0; id < size; id++) {
+			expected[id] = id;
+			if (id % 40 != 0) {
+				existing.add(id);
+			}
+		}
+
+		ConceptOrderMerger merger = new ConceptOrderMerger(existing);
+		for (long id = 0; id < size; id++) {
+			merger.visit(id);
+		}
+		LongArrayList merged = merger.getMergedOrder();
+
+		assertThat(merger.getNewConceptCount()).isEqualTo(size / 40);
+		assertThat(merged.toLongArray()).isEqualTo(expected);
+	}
+}
@@ -1,10 +1,14 @@
 package org.snomed.simplex.snolate.service;
 
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import org.elasticsearch.client.RestClient;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Answers;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.Mock;
-import org.mockito.MockedStatic;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.snomed.simplex.client.SnowstormClient;
 import org.snomed.simplex.client.SnowstormClientFactory;
@@ -15,18 +19,28 @@ import org.snomed.simplex.service.CodeSystemService;
 import org.snomed.simplex.service.ContentProcessingJobService;
 import org.snomed.simplex.service.job.ChangeSummary;
 import org.snomed.simplex.service.job.ContentJob;
+import org.snomed.simplex.snolate.domain.TranslationSource;
+import org.snomed.simplex.snolate.sets.SnolateBulkIngestService;
 import org.snomed.simplex.snolate.sets.SnolateTranslationSearchService;
 import org.snomed.simplex.snolate.sets.SnolateTranslationSourceRepository;
-import org.snomed.simplex.snolate.sets.SnolateTranslationUnitStore;
-import org.snomed.simplex.snolate.sets.TranslationUnitOrderSync;
+
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.RefreshPolicy;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
-import static org.mockito.ArgumentMatchers.same;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -39,24 +53,27 @@ class SnolateSnomedUpgradeServiceTest {
 	@Mock
 	private SnolateTranslationSearchService translationSearchService;
 	@Mock
-	private SnolateTranslationUnitStore translationUnitStore;
-	@Mock
 	private SnowstormClientFactory snowstormClientFactory;
 	@Mock
 	private CodeSystemService codeSystemService;
 	@Mock
 	private ContentProcessingJobService jobService;
 
+	private ElasticsearchOperations bulkOperations;
 	private SnolateSnomedUpgradeService service;
 
 	@BeforeEach
 	void setUp() {
+		ElasticsearchOperations elasticsearchOperations = mock(ElasticsearchOperations.class, Answers.RETURNS_DEEP_STUBS);
+		bulkOperations = mock(ElasticsearchOperations.class);
+		when(elasticsearchOperations.withRefreshPolicy(RefreshPolicy.NONE)).thenReturn(bulkOperations);
 		service = spy(new SnolateSnomedUpgradeService(translationSourceRepository, translationSearchService,
-				translationUnitStore, snowstormClientFactory, codeSystemService, jobService));
+				snowstormClientFactory, codeSystemService, jobService, new SnolateBulkIngestService(
+						elasticsearchOperations, mock(ElasticsearchClient.class, Answers.RETURNS_DEEP_STUBS), mock(RestClient.class), "30s", 2)));
 	}
 
 	@Test
-	void runSnomedUpgrade_syncsTranslationUnitOrderAfterSourceRenumber() throws Exception {
+	void runSnomedUpgrade_recordsNewVersionAfterPersistingSources() throws Exception {
 		SnowstormClient snowstormClient = mock(SnowstormClient.class);
 		CodeSystem codeSystem = new CodeSystem("SNOMED CT", SnowstormClient.ROOT_CODESYSTEM, "MAIN");
 		CodeSystemVersion version = new CodeSystemVersion(20250731, "20250731", null, null, null);
@@ -64,20 +81,72 @@ class SnolateSnomedUpgradeServiceTest {
 		ContentJob contentJob = new ContentJob(codeSystem, "upgrade", null);
 
 		when(snowstormClientFactory.getClient()).thenReturn(snowstormClient);
-		doReturn(2).when(service).insertNewConceptStubsIntoSnolate(updatePlan);
+		doReturn(new SnolateSnomedUpgradeService.SourceUpdate(2, 10, Map.of("100", 3, "200", 4), Map.of("100", "Asthma")))
+				.when(service).insertNewConceptStubsIntoSnolate(updatePlan);
 		when(translationSourceRepository.count()).thenReturn(100L);
 
-		try (MockedStatic<TranslationUnitOrderSync> orderSync = mockStatic(TranslationUnitOrderSync.class)) {
-			orderSync.when(() -> TranslationUnitOrderSync.syncAllUnits(
-					same(translationSearchService), same(translationSourceRepository), same(translationUnitStore)))
-					.thenReturn(4);
+		ChangeSummary summary = service.runSnomedUpgrade(updatePlan, contentJob);
+
+		verify(snowstormClient).upsertBranchMetadata(eq(SnolateSnomedUpgradeService.MAIN_BRANCH), any());
+		assertThat(summary.getAdded()).isEqualTo(2);
+		assertThat(summary.getNewTotal()).isEqualTo(100);
+	}
 
-			ChangeSummary summary = service.runSnomedUpgrade(updatePlan, contentJob);
+	@Test
+	void persistTranslationSources_savesOnlyNewAndChangedRows() throws Exception {
+		TranslationSource unchanged = new TranslationSource("100", "Root", 0);
+		TranslationSource moved = new TranslationSource("200", "Moved", 1);
+		Map<String, TranslationSource> existingByCode = new HashMap<>();
+		existingByCode.put("100", unchanged);
+		existingByCode.put("200", moved);
+		when(translationSearchService.mapAllTranslationSourcesByCode()).thenReturn(existingByCode);
+		when(translationSearchService.updateUnitsFromSources(any(), any())).thenReturn(new SnolateTranslationSearchService.UnitUpdate(2, 0));
+
+		SnolateSnomedUpgradeService.SourceUpdate update = service.persistTranslationSources(List.of(100L, 300L, 200L), Map.of(300L, "New"));
+
+		assertThat(update.added()).isEqualTo(1);
+		assertThat(update.skipped()).isEqualTo(1);
+		assertThat(update.orderByChangedCode()).containsOnly(entry("300", 1), entry("200", 2));
+		assertThat(update.termByChangedCode()).containsOnly(entry("300", "New"));
+		// Units first, so that a failed write leaves the sources as they were and the upgrade can be run again
+		InOrder inOrder = inOrder(translationSearchService, bulkOperations);
+		inOrder.verify(translationSearchService).updateUnitsFromSources(Map.of("300", 1, "200", 2), Map.of("300", "New"));
+		ArgumentCaptor<List<TranslationSource>> saved = ArgumentCaptor.forClass(List.class);
+		inOrder.verify(bulkOperations).save(saved.capture(), any(IndexCoordinates.class));
+		assertThat(saved.getValue()).extracting(TranslationSource::getCode, TranslationSource::getTerm, TranslationSource::getOrder)
+				.containsExactly(tuple("300", "New", 1), tuple("200", "Moved", 2));
+	}
 
-			orderSync.verify(() -> TranslationUnitOrderSync.syncAllUnits(
-					same(translationSearchService), same(translationSourceRepository), same(translationUnitStore)));
-			verify(snowstormClient).upsertBranchMetadata(eq(SnolateSnomedUpgradeService.MAIN_BRANCH), any());
-			assertThat(summary.getAdded()).isEqualTo(2);
+	@Test
+	void persistTranslationSources_skipsWriteWhenNothingChanged() throws Exception {
+		when(translationSearchService.mapAllTranslationSourcesByCode()).thenReturn(new HashMap<>(Map.of(
+				"100", new TranslationSource("100", "Root", 0),
+				"200", new TranslationSource("200", "Child", 1))));
+
+		SnolateSnomedUpgradeService.SourceUpdate update = service.persistTranslationSources(List.of(100L, 200L), Map.of());
+
+		assertThat(update.skipped()).isEqualTo(2);
+		assertThat(update.orderByChangedCode()).isEmpty();
+		assertThat(update.termByChangedCode()).isEmpty();
+		verify(translationSearchService, never()).updateUnitsFromSources(any(), any());
+		verify(bulkOperations, never()).save(any(Iterable.class), any(IndexCoordinates.class));
+	}
+
+	@Test
+	void persistTranslationSources_recordsAbsoluteOrderOfMovedRows() throws Exception {
+		Map<String, TranslationSource> existingByCode = new HashMap<>();
+		for (int order = 0; order < 5; order++) {
+			String code = Integer.toString(100 + order);
+			existingByCode.put(code, new TranslationSource(code, "Term " + order, order));
 		}
+		when(translationSearchService.mapAllTranslationSourcesByCode()).thenReturn(existingByCode);
+		when(translationSearchService.updateUnitsFromSources(any(), any())).thenReturn(new SnolateTranslationSearchService.UnitUpdate(7, 0));
+
+		// One new concept after 100 and two after 102
+		SnolateSnomedUpgradeService.SourceUpdate update = service.persistTranslationSources(
+				List.of(100L, 900L, 101L, 102L, 901L, 902L, 103L, 104L), Map.of(900L, "New", 901L, "New", 902L, "New"));
+
+		assertThat(update.orderByChangedCode()).containsOnly(entry("900", 1), entry("101", 2), entry("102", 3),
+				entry("901", 4), entry("902", 5), entry("103", 6), entry("104", 7));
 	}
 }
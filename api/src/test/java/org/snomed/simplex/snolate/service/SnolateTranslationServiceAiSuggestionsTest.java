@@ -63,7 +63,7 @@ class SnolateTranslationServiceAiSuggestionsTest {
 				new TranslationUnit.MembershipKey("100", REFSET, LANG, COMPOSITE, 0),
 				List.of(), TranslationStatus.NOT_STARTED, new LinkedHashSet<>(Set.of(setCode)));
 		unit.setAiSuggestions(List.of("Asma sugerida"));
-		when(translationSearchService.pageUnitsInSet(eq(setCode), eq(COMPOSITE), any(Pageable.class), isNull(), isNull(), isNull()))
+		when(translationSearchService.pageUnitsInSet(eq(setCode), eq(COMPOSITE), any(Pageable.class), isNull(), isNull(), isNull(), isNull()))
 				.thenReturn(new PageImpl<>(List.of(unit), PageRequest.of(0, 25), 1));
 		when(translationSourceRepository.findAllById(List.of("100")))
 				.thenReturn(List.of(new TranslationSource("100", "Asthma", 0)));
@@ -22,7 +22,6 @@ import java.nio.charset.StandardCharsets;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -77,8 +76,8 @@ class SnolateTranslationServiceCsvImportTest {
 	@Test
 	void importTranslationSetCsv_importsTranslationStudioExportFormat() throws Exception {
 		TranslationUnit unit = unit("100", List.of("old"), TranslationStatus.NOT_STARTED);
-		when(translationUnitStore.loadByCode(COMPOSITE, "100"))
-				.thenReturn(Optional.of(unit));
+		when(translationUnitStore.loadByCodes(COMPOSITE, List.of("100")))
+				.thenReturn(Map.of("100", unit));
 
 		String csv = """
 				Concept Code,English Term,Spanish Preferred Term,Other Spanish Terms,Status,URL
@@ -94,14 +93,14 @@ class SnolateTranslationServiceCsvImportTest {
 		assertThat(summary.getUpdated()).isEqualTo(1);
 		assertThat(unit.getTerms()).containsExactly("asma", "asma crónica");
 		assertThat(unit.getStatus()).isEqualTo(TranslationStatus.FOR_REVIEW);
-		verify(translationUnitStore).save(unit);
+		verify(translationUnitStore).saveAll(List.of(unit));
 	}
 
 	@Test
 	void importTranslationSetCsv_normalizesBadCharactersInTerms() throws Exception {
 		TranslationUnit unit = unit("200", List.of(), TranslationStatus.NOT_STARTED);
-		when(translationUnitStore.loadByCode(COMPOSITE, "200"))
-				.thenReturn(Optional.of(unit));
+		when(translationUnitStore.loadByCodes(COMPOSITE, List.of("200")))
+				.thenReturn(Map.of("200", unit));
 
 		String csv = """
 				context,target
@@ -121,8 +120,8 @@ class SnolateTranslationServiceCsvImportTest {
 	@Test
 	void importTranslationSetCsv_importsLegacyContextTargetFormat() throws Exception {
 		TranslationUnit unit = unit("200", List.of(), TranslationStatus.NOT_STARTED);
-		when(translationUnitStore.loadByCode(COMPOSITE, "200"))
-				.thenReturn(Optional.of(unit));
+		when(translationUnitStore.loadByCodes(COMPOSITE, List.of("200")))
+				.thenReturn(Map.of("200", unit));
 
 		String csv = """
 				context,target
@@ -143,8 +142,8 @@ class SnolateTranslationServiceCsvImportTest {
 	@Test
 	void importTranslationSetCsv_importsTabSeparatedLegacyFormat() throws Exception {
 		TranslationUnit unit = unit("200", List.of(), TranslationStatus.NOT_STARTED);
-		when(translationUnitStore.loadByCode(COMPOSITE, "200"))
-				.thenReturn(Optional.of(unit));
+		when(translationUnitStore.loadByCodes(COMPOSITE, List.of("200")))
+				.thenReturn(Map.of("200", unit));
 
 		String csv = "context\ttarget\n200\tasma\n";
 		ChangeSummary summary = service.importTranslationSetCsv(
@@ -161,8 +160,8 @@ class SnolateTranslationServiceCsvImportTest {
 	@Test
 	void importTranslationSetCsv_importsSemicolonSeparatedTranslationStudioFormat() throws Exception {
 		TranslationUnit unit = unit("100", List.of("old"), TranslationStatus.NOT_STARTED);
-		when(translationUnitStore.loadByCode(COMPOSITE, "100"))
-				.thenReturn(Optional.of(unit));
+		when(translationUnitStore.loadByCodes(COMPOSITE, List.of("100")))
+				.thenReturn(Map.of("100", unit));
 
 		String csv = """
 				Concept Code;English Term;Spanish Preferred Term;Other Spanish Terms;Status;URL
@@ -181,8 +180,8 @@ class SnolateTranslationServiceCsvImportTest {
 
 	@Test
 	void importTranslationSetCsv_skipsUnknownConceptCodes() throws Exception {
-		when(translationUnitStore.loadByCode(COMPOSITE, "999"))
-				.thenReturn(Optional.empty());
+		when(translationUnitStore.loadByCodes(COMPOSITE, List.of("999")))
+				.thenReturn(Map.of());
 
 		String csv = """
 				context,target
@@ -202,8 +201,8 @@ class SnolateTranslationServiceCsvImportTest {
 	@Test
 	void importTranslationSetCsv_skipsConceptOutsideSetWhenSkipBehavior() throws Exception {
 		TranslationUnit unit = unitOutsideSet("300", List.of("old"), TranslationStatus.NOT_STARTED);
-		when(translationUnitStore.loadByCode(COMPOSITE, "300"))
-				.thenReturn(Optional.of(unit));
+		when(translationUnitStore.loadByCodes(COMPOSITE, List.of("300")))
+				.thenReturn(Map.of("300", unit));
 
 		String csv = """
 				context,target
@@ -224,8 +223,8 @@ class SnolateTranslationServiceCsvImportTest {
 	@Test
 	void importTranslationSetCsv_updatesConceptOutsideSetWhenUpdateBehavior() throws Exception {
 		TranslationUnit unit = unitOutsideSet("300", List.of("old"), TranslationStatus.NOT_STARTED);
-		when(translationUnitStore.loadByCode(COMPOSITE, "300"))
-				.thenReturn(Optional.of(unit));
+		when(translationUnitStore.loadByCodes(COMPOSITE, List.of("300")))
+				.thenReturn(Map.of("300", unit));
 
 		String csv = """
 				context,target
@@ -242,7 +241,60 @@ class SnolateTranslationServiceCsvImportTest {
 		assertThat(summary.getUpdated()).isEqualTo(1);
 		assertThat(unit.getTerms()).containsExactly("asma");
 		assertThat(unit.getMemberOf()).doesNotContain(translationSet.getCompositeSetCode());
-		verify(translationUnitStore).save(unit);
+		verify(translationUnitStore).saveAll(List.of(unit));
+	}
+
+	@Test
+	void importTranslationSetCsv_loadsAndSavesRowsInBatches() throws Exception {
+		TranslationUnit asthma = unit("100", List.of(), TranslationStatus.NOT_STARTED);
+		TranslationUnit fever = unit("200", List.of(), TranslationStatus.NOT_STARTED);
+		when(translationUnitStore.loadByCodes(COMPOSITE, List.of("100", "200", "999")))
+				.thenReturn(Map.of("100", asthma, "200", fever));
+
+		String csv = """
+				context,target
+				100,asma
+				200,fiebre
+				999,unknown term
+				100,asma bronquial
+				""";
+		ChangeSummary summary = service.importTranslationSetCsv(
+				translationSet,
+				new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)),
+				"context",
+				List.of("target"),
+				TranslationStatus.FOR_REVIEW);
+
+		// Counted per row, as before batching
+		assertThat(summary.getUpdated()).isEqualTo(3);
+		assertThat(summary.getSkippedNotFound()).isEqualTo(1);
+		// Later rows win
+		assertThat(asthma.getTerms()).containsExactly("asma bronquial");
+		assertThat(fever.getTerms()).containsExactly("fiebre");
+		verify(translationUnitStore).saveAll(List.of(asthma, fever));
+	}
+
+	@Test
+	void importTranslationSetCsv_savesRowsBeforeFailingRow() throws Exception {
+		TranslationUnit asthma = unit("100", List.of(), TranslationStatus.NOT_STARTED);
+		TranslationUnit fever = unit("200", List.of(), TranslationStatus.NOT_STARTED);
+		TranslationUnit cough = unit("300", List.of(), TranslationStatus.NOT_STARTED);
+		when(translationUnitStore.loadByCodes(COMPOSITE, List.of("100", "200", "300")))
+				.thenReturn(Map.of("100", asthma, "200", fever, "300", cough));
+
+		// The term on row 3 is only a zero width space, so it is empty once normalised
+		String csv = "context,target\n100,asma\n200,\u200B\n300,tos\n";
+		assertThatThrownBy(() -> service.importTranslationSetCsv(
+				translationSet,
+				new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)),
+				"context",
+				List.of("target"),
+				TranslationStatus.FOR_REVIEW))
+				.isInstanceOf(ServiceExceptionWithStatusCode.class)
+				.hasMessage("Empty translation terms require status NOT_STARTED.");
+
+		verify(translationUnitStore).saveAll(List.of(asthma));
+		assertThat(cough.getTerms()).isEmpty();
 	}
 
 	@Test
@@ -58,7 +58,7 @@ class SnolateTranslationServiceSearchTest {
 	void getRows_withoutSearchUsesExistingPagingPath() throws ServiceExceptionWithStatusCode {
 		TranslationUnit unit = unit("100", List.of("asma"));
 		when(translationSearchService.pageUnitsInSet(eq(translationSet.getCompositeSetCode()),
-				eq(translationSet.getLanguageCodeWithRefsetId()), any(Pageable.class), isNull(), isNull(), isNull()))
+				eq(translationSet.getLanguageCodeWithRefsetId()), any(Pageable.class), isNull(), isNull(), isNull(), isNull()))
 				.thenReturn(pageOf(unit));
 		when(translationSourceRepository.findAllById(List.of("100")))
 				.thenReturn(List.of(new TranslationSource("100", "Asthma", 0)));
@@ -68,30 +68,28 @@ class SnolateTranslationServiceSearchTest {
 		assertThat(result.count()).isEqualTo(1);
 		assertThat(result.results()).hasSize(1);
 		assertThat(result.results().get(0).getSource()).containsExactly("Asthma");
-		verify(translationSearchService, never()).findSourceCodesByTermSubstring(any());
 	}
 
 	@Test
-	void getRows_withEnglishSearchResolvesSourceCodes() throws ServiceExceptionWithStatusCode {
-		when(translationSearchService.findSourceCodesByTermSubstring("asthma")).thenReturn(List.of("100"));
+	void getRows_withEnglishSearchFiltersUnitsByEnglishTerm() throws ServiceExceptionWithStatusCode {
+		TranslationUnit unit = unit("100", List.of("asma"));
+		unit.setEnglishTerm("Asthma");
 		when(translationSearchService.pageUnitsInSet(eq(translationSet.getCompositeSetCode()),
-				eq(translationSet.getLanguageCodeWithRefsetId()), any(Pageable.class), isNull(), eq(List.of("100")),
+				eq(translationSet.getLanguageCodeWithRefsetId()), any(Pageable.class), isNull(), isNull(), eq("asthma"),
 				isNull()))
-				.thenReturn(pageOf(unit("100", List.of("asma"))));
-		when(translationSourceRepository.findAllById(List.of("100")))
-				.thenReturn(List.of(new TranslationSource("100", "Asthma", 0)));
+				.thenReturn(pageOf(unit));
 
 		TranslationUnitPage<TranslationUnitRow> result = service.getRows(translationSet, 0, 25, null, "asthma", null);
 
 		assertThat(result.results()).hasSize(1);
-		verify(translationSearchService).findSourceCodesByTermSubstring("asthma");
+		assertThat(result.results().get(0).getSource()).containsExactly("Asthma");
+		verify(translationSourceRepository, never()).findAllById(any());
 	}
 
 	@Test
 	void getRows_withEmptyEnglishMatchReturnsNoRows() throws ServiceExceptionWithStatusCode {
-		when(translationSearchService.findSourceCodesByTermSubstring("nomatch")).thenReturn(List.of());
 		when(translationSearchService.pageUnitsInSet(eq(translationSet.getCompositeSetCode()),
-				eq(translationSet.getLanguageCodeWithRefsetId()), any(Pageable.class), isNull(), eq(List.of()),
+				eq(translationSet.getLanguageCodeWithRefsetId()), any(Pageable.class), isNull(), isNull(), eq("nomatch"),
 				isNull()))
 				.thenReturn(new PageImpl<>(List.of(), PageRequest.of(0, 25), 0));
 
@@ -101,11 +99,28 @@ class SnolateTranslationServiceSearchTest {
 		assertThat(result.results()).isEmpty();
 	}
 
+	@Test
+	void getRows_looksUpSourceOnlyForUnitsWithoutEnglishTerm() throws ServiceExceptionWithStatusCode {
+		TranslationUnit current = unit("100", List.of("asma"));
+		current.setEnglishTerm("Asthma");
+		TranslationUnit legacy = unit("200", List.of());
+		when(translationSearchService.pageUnitsInSet(eq(translationSet.getCompositeSetCode()),
+				eq(translationSet.getLanguageCodeWithRefsetId()), any(Pageable.class), isNull(), isNull(), isNull(), isNull()))
+				.thenReturn(new PageImpl<>(List.of(current, legacy), PageRequest.of(0, 25), 2));
+		when(translationSourceRepository.findAllById(List.of("200")))
+				.thenReturn(List.of(new TranslationSource("200", "Fever", 1)));
+
+		TranslationUnitPage<TranslationUnitRow> result = service.getRows(translationSet, 0, 25, null, null, null);
+
+		assertThat(result.results()).extracting(TranslationUnitRow::getSource)
+				.containsExactly(List.of("Asthma"), List.of("Fever"));
+	}
+
 	@Test
 	void getRows_withConceptCodeSearch_usesExactCodeNotTermScan() throws ServiceExceptionWithStatusCode {
 		when(translationSearchService.pageUnitsInSet(eq(translationSet.getCompositeSetCode()),
 				eq(translationSet.getLanguageCodeWithRefsetId()), any(Pageable.class), isNull(), eq(List.of("66379009")),
-				isNull()))
+				isNull(), isNull()))
 				.thenReturn(pageOf(unit("66379009", List.of("asma"))));
 		when(translationSourceRepository.findAllById(List.of("66379009")))
 				.thenReturn(List.of(new TranslationSource("66379009", "Asthma", 0)));
@@ -114,7 +129,6 @@ class SnolateTranslationServiceSearchTest {
 
 		assertThat(result.results()).hasSize(1);
 		assertThat(result.results().get(0).getContext()).isEqualTo("66379009");
-		verify(translationSearchService, never()).findSourceCodesByTermSubstring(any());
 	}
 
 	@Test
@@ -124,22 +138,20 @@ class SnolateTranslationServiceSearchTest {
 
 		assertThat(result.count()).isZero();
 		assertThat(result.results()).isEmpty();
-		verify(translationSearchService, never()).findSourceCodesByTermSubstring(any());
-		verify(translationSearchService, never()).pageUnitsInSet(any(), any(), any(), any(), any(), any());
+		verify(translationSearchService, never()).pageUnitsInSet(any(), any(), any(), any(), any(), any(), any());
 	}
 
 	@Test
 	void getRows_withConceptCodeNoMatch_returnsEmpty() throws ServiceExceptionWithStatusCode {
 		when(translationSearchService.pageUnitsInSet(eq(translationSet.getCompositeSetCode()),
 				eq(translationSet.getLanguageCodeWithRefsetId()), any(Pageable.class), isNull(), eq(List.of("99999999")),
-				isNull()))
+				isNull(), isNull()))
 				.thenReturn(new PageImpl<>(List.of(), PageRequest.of(0, 25), 0));
 
 		TranslationUnitPage<TranslationUnitRow> result = service.getRows(translationSet, 0, 25, null, "99999999", null);
 
 		assertThat(result.count()).isZero();
 		assertThat(result.results()).isEmpty();
-		verify(translationSearchService, never()).findSourceCodesByTermSubstring(any());
 	}
 
 	@Test
@@ -147,7 +159,7 @@ class SnolateTranslationServiceSearchTest {
 		ArgumentCaptor<Collection<String>> englishCodesCaptor = ArgumentCaptor.forClass(Collection.class);
 		when(translationSearchService.pageUnitsInSet(eq(translationSet.getCompositeSetCode()),
 				eq(translationSet.getLanguageCodeWithRefsetId()), any(Pageable.class), eq(TranslationStatus.APPROVED),
-				englishCodesCaptor.capture(), eq("asma")))
+				englishCodesCaptor.capture(), isNull(), eq("asma")))
 				.thenReturn(pageOf(unit("100", List.of("asma"))));
 		when(translationSourceRepository.findAllById(List.of("100")))
 				.thenReturn(List.of(new TranslationSource("100", "Asthma", 0)));
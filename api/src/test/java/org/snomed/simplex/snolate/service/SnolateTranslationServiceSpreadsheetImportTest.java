@@ -7,6 +7,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.snomed.simplex.exceptions.ServiceExceptionWithStatusCode;
 import org.snomed.simplex.service.job.ChangeSummary;
 import org.snomed.simplex.snolate.domain.TranslationStatus;
 import org.snomed.simplex.snolate.domain.TranslationUnit;
@@ -18,14 +19,18 @@ import org.snomed.simplex.translation.tool.TranslationSubsetType;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -103,15 +108,75 @@ class SnolateTranslationServiceSpreadsheetImportTest {
 		verify(translationUnitStore).saveAll(any());
 	}
 
+	@Test
+	void importTranslationSetFile_rejectsWholeSpreadsheetWhenALaterRowFailsValidation() throws Exception {
+		List<List<String>> rows = new ArrayList<>();
+		for (int i = 0; i < 1_500; i++) {
+			rows.add(List.of(Integer.toString(100 + i), "asma"));
+		}
+		// Only a zero width space, so it is empty once normalised
+		rows.add(List.of("9999", "\u200B"));
+		byte[] spreadsheet = createSpreadsheetRows(List.of("Concept Code", "PT"), rows);
+
+		assertThatThrownBy(() -> service.importTranslationSetFile(
+				translationSet,
+				new ByteArrayInputStream(spreadsheet),
+				"translations.xlsx",
+				"Concept Code",
+				List.of("PT"),
+				TranslationStatus.FOR_REVIEW))
+				.isInstanceOf(ServiceExceptionWithStatusCode.class)
+				.hasMessage("Empty translation terms require status NOT_STARTED.");
+
+		verify(translationUnitStore, never()).loadByCodes(any(), any());
+		verify(translationUnitStore, never()).saveAll(any());
+	}
+
+	@Test
+	void importTranslationSetFile_savesNothingWhenAUnitInALaterBatchCannotBeUpdated() throws Exception {
+		List<List<String>> rows = new ArrayList<>();
+		for (int i = 0; i < 1_500; i++) {
+			rows.add(List.of(Integer.toString(100 + i), "asma"));
+		}
+		rows.add(List.of("9999", "asma"));
+		when(translationUnitStore.loadByCodes(eq(COMPOSITE), any())).thenAnswer(invocation -> {
+			Map<String, TranslationUnit> units = new HashMap<>();
+			for (String code : invocation.<List<String>>getArgument(1)) {
+				units.put(code, unit(code, List.of("asma"),
+						code.equals("9999") ? TranslationStatus.FOR_REVIEW : TranslationStatus.COMPLETE));
+			}
+			return units;
+		});
+		byte[] spreadsheet = createSpreadsheetRows(List.of("Concept Code", "PT"), rows);
+
+		assertThatThrownBy(() -> service.importTranslationSetFile(
+				translationSet,
+				new ByteArrayInputStream(spreadsheet),
+				"translations.xlsx",
+				"Concept Code",
+				List.of("PT"),
+				TranslationStatus.COMPLETE))
+				.isInstanceOf(ServiceExceptionWithStatusCode.class)
+				.hasMessage("COMPLETE is set automatically when synced with Snowstorm.");
+
+		verify(translationUnitStore, never()).saveAll(any());
+	}
+
 	private static byte[] createSpreadsheet(List<String> headers, List<String> values) throws Exception {
+		return createSpreadsheetRows(headers, List.of(values));
+	}
+
+	private static byte[] createSpreadsheetRows(List<String> headers, List<List<String>> rows) throws Exception {
 		try (XSSFWorkbook workbook = new XSSFWorkbook(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
 			Row headerRow = workbook.createSheet().createRow(0);
 			for (int i = 0; i < headers.size(); i++) {
 				headerRow.createCell(i).setCellValue(headers.get(i));
 			}
-			Row dataRow = workbook.getSheetAt(0).createRow(1);
-			for (int i = 0; i < values.size(); i++) {
-				dataRow.createCell(i).setCellValue(values.get(i));
+			for (int r = 0; r < rows.size(); r++) {
+				Row dataRow = workbook.getSheetAt(0).createRow(r + 1);
+				for (int i = 0; i < rows.get(r).size(); i++) {
+					dataRow.createCell(i).setCellValue(rows.get(r).get(i));
+				}
 			}
 			workbook.write(out);
 			return out.toByteArray();
@@ -18,18 +18,25 @@ import org.snomed.simplex.translation.tool.TranslationSubsetType;
 import org.springframework.jms.core.JmsTemplate;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -69,7 +76,8 @@ class SnolateBatchTranslationServiceTest {
 				new HashMap<>(),
 				org.mockito.Mockito.mock(JmsTemplate.class),
 				"test-queue",
-				new ObjectMapper());
+				new ObjectMapper(),
+				org.mockito.Mockito.mock(SnolateBulkIngestService.class));
 		service = new SnolateBatchTranslationService(ctx);
 		translationSet = new SnolateTranslationSet("SNOMEDCT-TEST", REFSET, "Test set", "test-set", "<< 138875005",
 				TranslationSubsetType.SUB_TYPE, "SNOMEDCT-TEST");
@@ -81,8 +89,8 @@ class SnolateBatchTranslationServiceTest {
 		String setCode = translationSet.getCompositeSetCode();
 		TranslationUnit emptyUnit = shellUnit("100", 0, setCode);
 		mockEligibleUnits(setCode, List.of(emptyUnit), 1);
-		when(translationSearchService.findAcceptedContextUnitsBeforeOrder(setCode, COMPOSITE, 0))
-				.thenReturn(List.of());
+		when(translationSearchService.findAcceptedContextUnitsBeforeOrders(setCode, COMPOSITE, Set.of(0)))
+				.thenReturn(Map.of());
 		when(translationSourceRepository.findAllById(List.of("100")))
 				.thenReturn(List.of(new TranslationSource("100", "Asthma", 0)));
 		when(translationLLMService.suggestBatchTranslations(eq(translationSet), any(BatchTranslationPrompt.class)))
@@ -103,7 +111,7 @@ class SnolateBatchTranslationServiceTest {
 	@Test
 	void doRunAiBatchTranslate_skipsUnitsWithExistingSuggestions() throws Exception {
 		String setCode = translationSet.getCompositeSetCode();
-		when(translationSearchService.listEligibleUnitsForBatchTranslate(setCode, COMPOSITE, 1))
+		when(translationSearchService.listEligibleUnitsForBatchTranslate(eq(setCode), eq(COMPOSITE), eq(1), any()))
 				.thenReturn(List.of());
 
 		service.doRunAiBatchTranslate(translationSet, new BatchTranslateRequest(1));
@@ -124,8 +132,8 @@ class SnolateBatchTranslationServiceTest {
 				"300", new TranslationSource("300", "Heart failure", 2));
 
 		mockEligibleUnits(setCode, List.of(emptyUnit), 1);
-		when(translationSearchService.findAcceptedContextUnitsBeforeOrder(setCode, COMPOSITE, 2))
-				.thenReturn(List.of(contextA, contextB));
+		when(translationSearchService.findAcceptedContextUnitsBeforeOrders(setCode, COMPOSITE, Set.of(2)))
+				.thenReturn(Map.of(2, List.of(contextA, contextB)));
 		when(translationSourceRepository.findAllById(any())).thenAnswer(inv -> {
 			@SuppressWarnings("unchecked")
 			List<String> codes = (List<String>) inv.getArgument(0);
@@ -157,8 +165,8 @@ class SnolateBatchTranslationServiceTest {
 				"300", new TranslationSource("300", "Heart failure", 2));
 
 		mockEligibleUnits(setCode, List.of(emptyUnit), 1);
-		when(translationSearchService.findAcceptedContextUnitsBeforeOrder(setCode, COMPOSITE, 2))
-				.thenReturn(List.of(contextA));
+		when(translationSearchService.findAcceptedContextUnitsBeforeOrders(setCode, COMPOSITE, Set.of(2)))
+				.thenReturn(Map.of(2, List.of(contextA)));
 		when(translationSourceRepository.findAllById(any())).thenAnswer(inv -> {
 			@SuppressWarnings("unchecked")
 			List<String> codes = (List<String>) inv.getArgument(0);
@@ -178,6 +186,45 @@ class SnolateBatchTranslationServiceTest {
 				"2|Heart failure");
 	}
 
+	@Test
+	void doRunAiBatchTranslate_searchesContextOncePerRunOfConsecutiveUnits() throws Exception {
+		String setCode = translationSet.getCompositeSetCode();
+		TranslationUnit contextA = unit("100", 1, setCode, TranslationStatus.APPROVED, List.of("Asma"));
+		TranslationUnit contextB = unit("200", 4, setCode, TranslationStatus.APPROVED, List.of("Diabetes"));
+		List<TranslationUnit> batchUnits = List.of(shellUnit("300", 2, setCode), shellUnit("310", 3, setCode), shellUnit("320", 5, setCode));
+		Map<String, TranslationSource> sources = Map.of(
+				"100", new TranslationSource("100", "Asthma", 1),
+				"200", new TranslationSource("200", "Diabetes mellitus", 4),
+				"300", new TranslationSource("300", "Heart failure", 2),
+				"310", new TranslationSource("310", "Heart disease", 3),
+				"320", new TranslationSource("320", "Kidney failure", 5));
+
+		mockEligibleUnits(setCode, batchUnits, 3);
+		// Order 3 follows a batch unit, so shares the context of order 2
+		when(translationSearchService.findAcceptedContextUnitsBeforeOrders(setCode, COMPOSITE, Set.of(2, 5)))
+				.thenReturn(Map.of(2, List.of(contextA), 5, List.of(contextA, contextB)));
+		when(translationSourceRepository.findAllById(any())).thenAnswer(inv -> {
+			@SuppressWarnings("unchecked")
+			List<String> codes = (List<String>) inv.getArgument(0);
+			return codes.stream().map(sources::get).toList();
+		});
+		when(translationLLMService.suggestBatchTranslations(eq(translationSet), any(BatchTranslationPrompt.class)))
+				.thenReturn(Map.of());
+		when(translationUnitStore.loadByCodes(COMPOSITE, List.of("300", "310", "320")))
+				.thenReturn(Map.of());
+
+		service.doRunAiBatchTranslate(translationSet, new BatchTranslateRequest(3));
+
+		ArgumentCaptor<BatchTranslationPrompt> promptCaptor = ArgumentCaptor.forClass(BatchTranslationPrompt.class);
+		verify(translationLLMService).suggestBatchTranslations(eq(translationSet), promptCaptor.capture());
+		assertThat(promptCaptor.getValue().promptLines()).containsExactly(
+				"1|Asthma → Asma",
+				"2|Heart failure",
+				"3|Heart disease",
+				"4|Diabetes mellitus → Diabetes",
+				"5|Kidney failure");
+	}
+
 	@Test
 	void doRunAiBatchTranslate_excludesForReviewFromContext() throws Exception {
 		String setCode = translationSet.getCompositeSetCode();
@@ -186,8 +233,8 @@ class SnolateBatchTranslationServiceTest {
 				"200", new TranslationSource("200", "Heart failure", 1));
 
 		mockEligibleUnits(setCode, List.of(emptyUnit), 1);
-		when(translationSearchService.findAcceptedContextUnitsBeforeOrder(setCode, COMPOSITE, 1))
-				.thenReturn(List.of());
+		when(translationSearchService.findAcceptedContextUnitsBeforeOrders(setCode, COMPOSITE, Set.of(1)))
+				.thenReturn(Map.of());
 		when(translationSourceRepository.findAllById(any())).thenAnswer(inv -> {
 			@SuppressWarnings("unchecked")
 			List<String> codes = (List<String>) inv.getArgument(0);
@@ -209,10 +256,10 @@ class SnolateBatchTranslationServiceTest {
 	void doRunAiBatchTranslate_loadsOnlyBatchSources() throws Exception {
 		String setCode = translationSet.getCompositeSetCode();
 		TranslationUnit eligibleUnit = shellUnit("0", 0, setCode);
-		when(translationSearchService.listEligibleUnitsForBatchTranslate(setCode, COMPOSITE, 1))
+		when(translationSearchService.listEligibleUnitsForBatchTranslate(eq(setCode), eq(COMPOSITE), eq(1), any()))
 				.thenReturn(List.of(eligibleUnit));
-		when(translationSearchService.findAcceptedContextUnitsBeforeOrder(setCode, COMPOSITE, 0))
-				.thenReturn(List.of());
+		when(translationSearchService.findAcceptedContextUnitsBeforeOrders(setCode, COMPOSITE, Set.of(0)))
+				.thenReturn(Map.of());
 		when(translationSourceRepository.findAllById(any())).thenAnswer(inv -> {
 			@SuppressWarnings("unchecked")
 			Iterable<String> idIterable = (Iterable<String>) inv.getArgument(0);
@@ -229,7 +276,7 @@ class SnolateBatchTranslationServiceTest {
 
 		service.doRunAiBatchTranslate(translationSet, new BatchTranslateRequest(1));
 
-		verify(translationSearchService).listEligibleUnitsForBatchTranslate(setCode, COMPOSITE, 1);
+		verify(translationSearchService).listEligibleUnitsForBatchTranslate(eq(setCode), eq(COMPOSITE), eq(1), any());
 		ArgumentCaptor<Iterable<String>> captor = ArgumentCaptor.forClass(Iterable.class);
 		verify(translationSourceRepository, times(1)).findAllById(captor.capture());
 		int loadedCodes = 0;
@@ -247,7 +294,7 @@ class SnolateBatchTranslationServiceTest {
 		TranslationUnit unitB = shellUnit("1", 1, setCode);
 		AtomicInteger queryCount = new AtomicInteger();
 
-		when(translationSearchService.listEligibleUnitsForBatchTranslate(eq(setCode), eq(COMPOSITE), anyInt()))
+		when(translationSearchService.listEligibleUnitsForBatchTranslate(eq(setCode), eq(COMPOSITE), anyInt(), any()))
 				.thenAnswer(invocation -> {
 					int call = queryCount.incrementAndGet();
 					if (call == 1) {
@@ -260,8 +307,8 @@ class SnolateBatchTranslationServiceTest {
 					}
 					return List.of();
 				});
-		when(translationSearchService.findAcceptedContextUnitsBeforeOrder(any(), any(), anyInt()))
-				.thenReturn(List.of());
+		when(translationSearchService.findAcceptedContextUnitsBeforeOrders(any(), any(), any()))
+				.thenReturn(Map.of());
 		when(translationSourceRepository.findAllById(any())).thenAnswer(inv -> {
 			@SuppressWarnings("unchecked")
 			Iterable<String> idIterable = (Iterable<String>) inv.getArgument(0);
@@ -281,10 +328,65 @@ class SnolateBatchTranslationServiceTest {
 
 		service.doRunAiBatchTranslate(translationSet, new BatchTranslateRequest(2));
 
-		verify(translationSearchService, times(2)).listEligibleUnitsForBatchTranslate(eq(setCode), eq(COMPOSITE), anyInt());
+		verify(translationSearchService, times(2)).listEligibleUnitsForBatchTranslate(eq(setCode), eq(COMPOSITE), anyInt(), any());
 		verify(translationUnitStore, times(2)).saveAll(any());
 	}
 
+	@Test
+	void doRunAiBatchTranslate_overlapsLlmCallsWithoutSharingUnits() throws Exception {
+		String setCode = translationSet.getCompositeSetCode();
+		List<TranslationUnit> allUnits = IntStream.range(0, 150).mapToObj(i -> shellUnit(Integer.toString(i), i, setCode)).toList();
+		Set<String> savedCodes = ConcurrentHashMap.newKeySet();
+
+		when(translationSearchService.listEligibleUnitsForBatchTranslate(eq(setCode), eq(COMPOSITE), anyInt(), any()))
+				.thenAnswer(invocation -> {
+					Collection<String> excludeCodes = invocation.getArgument(3);
+					return allUnits.stream()
+							.filter(unit -> !savedCodes.contains(unit.getCode()) && !excludeCodes.contains(unit.getCode()))
+							.limit(invocation.getArgument(2, Integer.class))
+							.toList();
+				});
+		when(translationSearchService.findAcceptedContextUnitsBeforeOrders(any(), any(), any()))
+				.thenReturn(Map.of());
+		when(translationSourceRepository.findAllById(any())).thenAnswer(inv -> {
+			@SuppressWarnings("unchecked")
+			Iterable<String> idIterable = (Iterable<String>) inv.getArgument(0);
+			List<TranslationSource> sources = new ArrayList<>();
+			for (String code : idIterable) {
+				sources.add(new TranslationSource(code, "Term " + code, Integer.parseInt(code)));
+			}
+			return sources;
+		});
+		// The first call only returns once a second call is in flight
+		CountDownLatch callsInFlight = new CountDownLatch(2);
+		List<String> translatedLines = Collections.synchronizedList(new ArrayList<>());
+		when(translationLLMService.suggestBatchTranslations(eq(translationSet), any(BatchTranslationPrompt.class)))
+				.thenAnswer(invocation -> {
+					callsInFlight.countDown();
+					assertThat(callsInFlight.await(10, TimeUnit.SECONDS)).isTrue();
+					BatchTranslationPrompt prompt = invocation.getArgument(1);
+					translatedLines.addAll(prompt.promptLines());
+					Map<String, List<String>> suggestions = new HashMap<>();
+					prompt.promptLines().forEach(line -> {
+						String term = line.substring(line.indexOf('|') + 1);
+						suggestions.put(term, List.of(term + " (es)"));
+					});
+					return suggestions;
+				});
+		when(translationUnitStore.loadByCodes(eq(COMPOSITE), any())).thenReturn(Map.of());
+		doAnswer(invocation -> {
+			Collection<TranslationUnit> units = invocation.getArgument(0);
+			units.forEach(unit -> savedCodes.add(unit.getCode()));
+			return null;
+		}).when(translationUnitStore).saveAll(any());
+
+		service.doRunAiBatchTranslate(translationSet, new BatchTranslateRequest(150));
+
+		verify(translationLLMService, times(3)).suggestBatchTranslations(eq(translationSet), any(BatchTranslationPrompt.class));
+		assertThat(translatedLines).hasSize(150).doesNotHaveDuplicates();
+		assertThat(savedCodes).hasSize(150);
+	}
+
 	@Test
 	void buildBatchPrompt_deduplicatesSharedContextAcrossBatch() {
 		String setCode = "test-set";
@@ -309,7 +411,7 @@ class SnolateBatchTranslationServiceTest {
 	}
 
 	private void mockEligibleUnits(String setCode, List<TranslationUnit> eligibleUnits, int limit) {
-		when(translationSearchService.listEligibleUnitsForBatchTranslate(setCode, COMPOSITE, limit))
+		when(translationSearchService.listEligibleUnitsForBatchTranslate(eq(setCode), eq(COMPOSITE), eq(limit), any()))
 				.thenReturn(eligibleUnits);
 	}
 
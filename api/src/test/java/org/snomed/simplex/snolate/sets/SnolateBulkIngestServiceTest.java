@@ -0,0 +1,143 @@
+package org.snomed.simplex.snolate.sets;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import org.apache.http.util.EntityUtils;
+import org.elasticsearch.client.Request;
+import org.elasticsearch.client.RestClient;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.snomed.simplex.snolate.domain.TranslationUnit;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.IndexOperations;
+import org.springframework.data.elasticsearch.core.RefreshPolicy;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SnolateBulkIngestServiceTest {
+
+	private static final String INDEX = "snolate-translation-unit";
+
+	@Mock
+	private ElasticsearchOperations elasticsearchOperations;
+	@Mock
+	private ElasticsearchOperations noRefreshOperations;
+	@Mock
+	private ElasticsearchClient elasticsearchClient;
+	@Mock
+	private RestClient restClient;
+	@Mock
+	private IndexOperations indexOperations;
+
+	private final List<String> refreshIntervalChanges = new CopyOnWriteArrayList<>();
+	private String previousRefreshInterval = "5s";
+	private SnolateBulkIngestService service;
+
+	@BeforeEach
+	void setUp() {
+		when(elasticsearchOperations.withRefreshPolicy(RefreshPolicy.NONE)).thenReturn(noRefreshOperations);
+		when(elasticsearchOperations.getIndexCoordinatesFor(TranslationUnit.class)).thenReturn(IndexCoordinates.of(INDEX));
+		when(elasticsearchOperations.indexOps(TranslationUnit.class)).thenReturn(indexOperations);
+		service = new SnolateBulkIngestService(elasticsearchOperations, elasticsearchClient, restClient, "30s", 2) {
+			@Override
+			String readRefreshInterval(String indexName) {
+				return previousRefreshInterval;
+			}
+
+			@Override
+			void writeRefreshInterval(String indexName, String refreshInterval) {
+				refreshIntervalChanges.add(indexName + "=" + refreshInterval);
+			}
+		};
+	}
+
+	@Test
+	void close_waitsForRequestsAndRestoresRefreshIntervalAfterLastIngest() {
+		AtomicInteger saved = new AtomicInteger();
+		SnolateBulkIngestService.BulkIngest first = service.start(TranslationUnit.class, "first");
+		SnolateBulkIngestService.BulkIngest second = service.start(TranslationUnit.class, "second");
+		for (int i = 0; i < 5; i++) {
+			first.submit(1_000, () -> saved.addAndGet(1_000));
+		}
+
+		first.close();
+		assertThat(saved.get()).isEqualTo(5_000);
+		assertThat(first.getDocumentsWritten()).isEqualTo(5_000);
+		// Still in use by the second ingest
+		assertThat(refreshIntervalChanges).containsExactly(INDEX + "=30s");
+
+		second.close();
+		assertThat(refreshIntervalChanges).containsExactly(INDEX + "=30s", INDEX + "=5s");
+		verify(indexOperations, times(2)).refresh();
+	}
+
+	@Test
+	void close_rethrowsRequestFailureAfterRestoringRefreshInterval() {
+		SnolateBulkIngestService.BulkIngest bulkIngest = service.start(TranslationUnit.class, "failing");
+		bulkIngest.submit(1_000, () -> {
+			throw new IllegalStateException("Bulk request rejected");
+		});
+
+		assertThatThrownBy(bulkIngest::close).hasMessage("Bulk request rejected");
+		assertThat(refreshIntervalChanges).containsExactly(INDEX + "=30s", INDEX + "=5s");
+		verify(indexOperations).refresh();
+	}
+
+	@Test
+	void saveAll_indexesWithoutRefreshAndRefreshesOnceOnClose() {
+		List<TranslationUnit> units = List.of(new TranslationUnit(), new TranslationUnit());
+
+		try (SnolateBulkIngestService.BulkIngest bulkIngest = service.start(TranslationUnit.class, "units")) {
+			bulkIngest.saveAll(units);
+			bulkIngest.saveAll(units);
+		}
+
+		verify(noRefreshOperations, times(2)).save(units, IndexCoordinates.of(INDEX));
+		verify(indexOperations).refresh();
+	}
+
+	@Test
+	void close_resetsRefreshIntervalThatWasNotSet() {
+		previousRefreshInterval = null;
+
+		service.start(TranslationUnit.class, "default interval").close();
+
+		assertThat(refreshIntervalChanges).containsExactly(INDEX + "=30s", INDEX + "=null");
+	}
+
+	@Test
+	void close_resetsBulkRefreshIntervalLeftByEarlierIngest() {
+		previousRefreshInterval = "30s";
+
+		service.start(TranslationUnit.class, "after crash").close();
+
+		assertThat(refreshIntervalChanges).containsExactly(INDEX + "=30s", INDEX + "=null");
+	}
+
+	@Test
+	void close_sendsNullToResetRefreshIntervalSetting() throws Exception {
+		// Reads the refresh interval from the mock client, which fails and is treated as not set
+		SnolateBulkIngestService writingService = new SnolateBulkIngestService(elasticsearchOperations, elasticsearchClient, restClient, "30s", 2);
+
+		writingService.start(TranslationUnit.class, "settings").close();
+
+		ArgumentCaptor<Request> requests = ArgumentCaptor.forClass(Request.class);
+		verify(restClient, times(2)).performRequest(requests.capture());
+		assertThat(requests.getAllValues()).extracting(Request::getEndpoint).containsOnly("/" + INDEX + "/_settings");
+		assertThat(EntityUtils.toString(requests.getAllValues().get(0).getEntity())).isEqualTo("{\"index\":{\"refresh_interval\":\"30s\"}}");
+		assertThat(EntityUtils.toString(requests.getAllValues().get(1).getEntity())).isEqualTo("{\"index\":{\"refresh_interval\":null}}");
+	}
+}
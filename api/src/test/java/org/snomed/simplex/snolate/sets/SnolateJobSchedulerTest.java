@@ -0,0 +1,97 @@
+package org.snomed.simplex.snolate.sets;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SnolateJobSchedulerTest {
+
+	@Test
+	void submit_runsJobsWithSameKeyOneAtATimeAndOtherKeysInParallel() throws InterruptedException {
+		SnolateJobScheduler scheduler = new SnolateJobScheduler(2);
+		List<String> started = new CopyOnWriteArrayList<>();
+		CountDownLatch releaseFirst = new CountDownLatch(1);
+		CountDownLatch firstStarted = new CountDownLatch(1);
+		CountDownLatch otherKeyStarted = new CountDownLatch(1);
+		CountDownLatch allDone = new CountDownLatch(3);
+
+		scheduler.submit("SNOMEDCT-ES", "es-100", () -> {
+			started.add("es-1");
+			firstStarted.countDown();
+			await(releaseFirst);
+			allDone.countDown();
+		});
+		scheduler.submit("SNOMEDCT-ES", "es-100", () -> {
+			started.add("es-2");
+			allDone.countDown();
+		});
+		scheduler.submit("SNOMEDCT-ES", "es-200", () -> {
+			started.add("other");
+			otherKeyStarted.countDown();
+			allDone.countDown();
+		});
+
+		assertThat(firstStarted.await(5, TimeUnit.SECONDS)).isTrue();
+		assertThat(otherKeyStarted.await(5, TimeUnit.SECONDS)).isTrue();
+		assertThat(started).containsExactlyInAnyOrder("es-1", "other");
+
+		releaseFirst.countDown();
+		assertThat(allDone.await(5, TimeUnit.SECONDS)).isTrue();
+		assertThat(started).containsSubsequence("es-1", "es-2");
+	}
+
+	@Test
+	void submit_takesTurnsBetweenCodeSystems() throws InterruptedException {
+		SnolateJobScheduler scheduler = new SnolateJobScheduler(1);
+		List<String> started = new CopyOnWriteArrayList<>();
+		CountDownLatch releaseFirst = new CountDownLatch(1);
+		CountDownLatch allDone = new CountDownLatch(5);
+
+		scheduler.submit("SNOMEDCT-ES", "es-0", () -> {
+			started.add("es-0");
+			await(releaseFirst);
+			allDone.countDown();
+		});
+		for (String key : List.of("es-1", "es-2", "es-3")) {
+			scheduler.submit("SNOMEDCT-ES", key, () -> {
+				started.add(key);
+				allDone.countDown();
+			});
+		}
+		scheduler.submit("SNOMEDCT-DE", "de-1", () -> {
+			started.add("de-1");
+			allDone.countDown();
+		});
+		assertThat(scheduler.getWaitingCount()).isEqualTo(4);
+
+		releaseFirst.countDown();
+		assertThat(allDone.await(5, TimeUnit.SECONDS)).isTrue();
+		assertThat(started).containsExactly("es-0", "es-1", "de-1", "es-2", "es-3");
+	}
+
+	@Test
+	void submit_continuesAfterJobFailure() throws InterruptedException {
+		SnolateJobScheduler scheduler = new SnolateJobScheduler(1);
+		CountDownLatch nextRan = new CountDownLatch(1);
+
+		scheduler.submit("SNOMEDCT-ES", "es-100", () -> {
+			throw new IllegalStateException("Job failed");
+		});
+		scheduler.submit("SNOMEDCT-ES", "es-100", nextRan::countDown);
+
+		assertThat(nextRan.await(5, TimeUnit.SECONDS)).isTrue();
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -49,7 +49,7 @@ class SnolateSetCreationServiceTest {
 
 		SnolateProcessingContext ctx = new SnolateProcessingContext(snowstormClientFactory, snolateSetRepository,
 				translationSourceRepository, translationUnitRepository, translationUnitStore, translationSearchService, mock(TranslationLLMService.class),
-				new HashMap<>(), mock(JmsTemplate.class), "test-queue", new ObjectMapper());
+				new HashMap<>(), mock(JmsTemplate.class), "test-queue", new ObjectMapper(), mock());
 
 		SnolateSetCreationService service = new SnolateSetCreationService(ctx, 2) {
 			@Override
@@ -102,7 +102,7 @@ class SnolateSetCreationServiceTest {
 		service.doCreateSet(set, snowstormClientFactory);
 
 		String composite = "XS_100_my-label";
-		verify(translationUnitStore, atLeastOnce()).saveAll(any());
+		verify(translationUnitStore, atLeastOnce()).saveAll(any(), any());
 		verify(snolateSetRepository, atLeastOnce()).save(any(SnolateTranslationSet.class));
 	}
 
@@ -117,7 +117,7 @@ class SnolateSetCreationServiceTest {
 
 		SnolateProcessingContext ctx = new SnolateProcessingContext(snowstormClientFactory, snolateSetRepository,
 				translationSourceRepository, translationUnitRepository, translationUnitStore, translationSearchService, mock(TranslationLLMService.class),
-				new HashMap<>(), mock(JmsTemplate.class), "test-queue", new ObjectMapper());
+				new HashMap<>(), mock(JmsTemplate.class), "test-queue", new ObjectMapper(), mock());
 
 		SnolateSetCreationService service = new SnolateSetCreationService(ctx, 10) {
 			@Override
@@ -177,7 +177,7 @@ class SnolateSetCreationServiceTest {
 
 		SnolateProcessingContext ctx = new SnolateProcessingContext(snowstormClientFactory, snolateSetRepository,
 				translationSourceRepository, translationUnitRepository, translationUnitStore, translationSearchService, mock(TranslationLLMService.class),
-				new HashMap<>(), mock(JmsTemplate.class), "test-queue", new ObjectMapper());
+				new HashMap<>(), mock(JmsTemplate.class), "test-queue", new ObjectMapper(), mock());
 
 		String composite = "ZS_200_z";
 		String lang = "en-200";
@@ -248,7 +248,7 @@ class SnolateSetCreationServiceTest {
 
 		SnolateProcessingContext ctx = new SnolateProcessingContext(snowstormClientFactory, snolateSetRepository,
 				translationSourceRepository, translationUnitRepository, translationUnitStore, translationSearchService, mock(TranslationLLMService.class),
-				new HashMap<>(), mock(JmsTemplate.class), "test-queue", new ObjectMapper());
+				new HashMap<>(), mock(JmsTemplate.class), "test-queue", new ObjectMapper(), mock());
 
 		String composite = "ZS_200_z";
 		String lang = "en-200";
@@ -322,7 +322,7 @@ class SnolateSetCreationServiceTest {
 		assertThat(hadOnly.getMemberOf()).doesNotContain(composite);
 		assertThat(stays.getMemberOf()).contains(composite);
 		assertThat(willGain).isNotNull();
-		verify(translationUnitStore, atLeastOnce()).saveAll(any());
+		verify(translationUnitStore, atLeastOnce()).saveAll(any(), any());
 	}
 
 	@Test
@@ -336,7 +336,7 @@ class SnolateSetCreationServiceTest {
 
 		SnolateProcessingContext ctx = new SnolateProcessingContext(snowstormClientFactory, snolateSetRepository,
 				translationSourceRepository, translationUnitRepository, translationUnitStore, translationSearchService, mock(TranslationLLMService.class),
-				new HashMap<>(), mock(JmsTemplate.class), "test-queue", new ObjectMapper());
+				new HashMap<>(), mock(JmsTemplate.class), "test-queue", new ObjectMapper(), mock());
 
 		String composite = "ZS_200_z";
 		String lang = "en-200";
@@ -401,7 +401,7 @@ class SnolateSetCreationServiceTest {
 
 		SnolateProcessingContext ctx = new SnolateProcessingContext(snowstormClientFactory, snolateSetRepository,
 				mock(), mock(), mock(), mock(), mock(TranslationLLMService.class),
-				new HashMap<>(), jmsTemplate, "test-queue", new ObjectMapper());
+				new HashMap<>(), jmsTemplate, "test-queue", new ObjectMapper(), mock());
 		SnolateSetCreationService service = new SnolateSetCreationService(ctx, 10);
 
 		SnolateTranslationSet set = new SnolateTranslationSet("SNOMEDCT-TEST", "100", "Subset", "my-label", "<<404684003",
@@ -425,7 +425,7 @@ class SnolateSetCreationServiceTest {
 		SnolateSetRepository snolateSetRepository = mock();
 		SnolateProcessingContext ctx = new SnolateProcessingContext(mock(), snolateSetRepository,
 				mock(), mock(), mock(), mock(), mock(TranslationLLMService.class),
-				new HashMap<>(), mock(JmsTemplate.class), "test-queue", new ObjectMapper());
+				new HashMap<>(), mock(JmsTemplate.class), "test-queue", new ObjectMapper(), mock());
 		SnolateSetCreationService service = new SnolateSetCreationService(ctx, 10);
 
 		SnolateTranslationSet set = new SnolateTranslationSet("SNOMEDCT-TEST", "100", "Subset", "my-label", "<<404684003",
@@ -447,7 +447,7 @@ class SnolateSetCreationServiceTest {
 
 		SnolateProcessingContext ctx = new SnolateProcessingContext(snowstormClientFactory, snolateSetRepository,
 				translationSourceRepository, translationUnitRepository, translationUnitStore, translationSearchService, mock(TranslationLLMService.class),
-				new HashMap<>(), mock(JmsTemplate.class), "test-queue", new ObjectMapper());
+				new HashMap<>(), mock(JmsTemplate.class), "test-queue", new ObjectMapper(), mock());
 
 		String composite = "ZS_200_z";
 		String lang = "en-200";
@@ -495,7 +495,7 @@ class SnolateSetCreationServiceTest {
 
 		SnolateProcessingContext ctx = new SnolateProcessingContext(snowstormClientFactory, snolateSetRepository,
 				translationSourceRepository, translationUnitRepository, translationUnitStore, translationSearchService, mock(TranslationLLMService.class),
-				new HashMap<>(), mock(JmsTemplate.class), "test-queue", new ObjectMapper());
+				new HashMap<>(), mock(JmsTemplate.class), "test-queue", new ObjectMapper(), mock());
 
 		SnolateSetCreationService service = new SnolateSetCreationService(ctx, 10);
 
@@ -513,7 +513,7 @@ class SnolateSetCreationServiceTest {
 		service.doCreateSet(set, snowstormClientFactory);
 
 		assertThat(set.getStatus()).isEqualTo(TranslationSetStatus.READY);
-		verify(translationUnitStore, atLeastOnce()).saveAll(any());
+		verify(translationUnitStore, atLeastOnce()).saveAll(any(), any());
 	}
 
 	@Test
@@ -527,7 +527,7 @@ class SnolateSetCreationServiceTest {
 
 		SnolateProcessingContext ctx = new SnolateProcessingContext(snowstormClientFactory, snolateSetRepository,
 				translationSourceRepository, translationUnitRepository, translationUnitStore, translationSearchService, mock(TranslationLLMService.class),
-				new HashMap<>(), mock(JmsTemplate.class), "test-queue", new ObjectMapper());
+				new HashMap<>(), mock(JmsTemplate.class), "test-queue", new ObjectMapper(), mock());
 
 		SnolateSetCreationService service = new SnolateSetCreationService(ctx, 10);
 
@@ -556,6 +556,6 @@ class SnolateSetCreationServiceTest {
 		service.doRefreshSet(set, snowstormClientFactory);
 
 		assertThat(set.getStatus()).isEqualTo(TranslationSetStatus.READY);
-		verify(translationUnitStore, atLeastOnce()).saveAll(any());
+		verify(translationUnitStore, atLeastOnce()).saveAll(any(), any());
 	}
 }
@@ -47,7 +47,7 @@ class SnolateSetServiceTest {
 
 		snolateSetService = new SnolateSetService(snolateSetRepository, snolateSetRefsetCache, snowstormClientFactory,
 				mock(), mock(), mock(), translationSearchService, mock(TranslationLLMService.class), mock(SupportRegister.class),
-				mock(JmsTemplate.class), "test", 10, new ObjectMapper());
+				mock(JmsTemplate.class), "test", 10, 4, 2, new ObjectMapper(), mock());
 	}
 
 	@Test
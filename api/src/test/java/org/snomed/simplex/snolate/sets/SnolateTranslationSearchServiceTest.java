@@ -1,5 +1,8 @@
 package org.snomed.simplex.snolate.sets;
 
+import co.elastic.clients.elasticsearch._types.FieldValue;
+import co.elastic.clients.elasticsearch._types.aggregations.Aggregate;
+import co.elastic.clients.elasticsearch._types.aggregations.StringTermsBucket;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -19,16 +22,20 @@ import org.springframework.data.elasticsearch.core.SearchHit;
 import org.springframework.data.elasticsearch.core.SearchHits;
 import org.springframework.data.elasticsearch.core.query.CriteriaQuery;
 import org.springframework.data.elasticsearch.core.query.Query;
+import org.springframework.data.elasticsearch.client.elc.ElasticsearchAggregations;
 import org.springframework.data.elasticsearch.client.elc.NativeQuery;
 
 import java.util.AbstractList;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.never;
@@ -86,25 +93,20 @@ class SnolateTranslationSearchServiceTest {
 	}
 
 	@Test
-	void findSourceCodesByTermSubstring_returnsEmptyListForBlankTerm() throws ServiceExceptionWithStatusCode {
-		assertThat(service.findSourceCodesByTermSubstring("  ")).isEmpty();
-		assertThat(service.findSourceCodesByTermSubstring("a")).isEmpty();
-		verify(elasticsearchOperations, never()).search(any(Query.class), eq(TranslationSource.class));
-	}
-
-	@Test
-	@SuppressWarnings("unchecked")
-	void findSourceCodesByTermSubstring_returnsMatchingConceptCodes() throws ServiceExceptionWithStatusCode {
-		TranslationSource source = new TranslationSource("100", "Diabetes mellitus", 0);
-		SearchHit<TranslationSource> hit = org.mockito.Mockito.mock(SearchHit.class);
-		when(hit.getContent()).thenReturn(source);
-		SearchHits<TranslationSource> searchHits = org.mockito.Mockito.mock(SearchHits.class);
-		when(searchHits.getSearchHits()).thenReturn(List.of(hit));
-		when(elasticsearchOperations.search(any(Query.class), eq(TranslationSource.class))).thenReturn(searchHits);
+	void pageUnitsInSet_queriesEnglishTermWildcardSubfield() throws ServiceExceptionWithStatusCode {
+		SearchHits<TranslationUnit> searchHits = mockPageSearchHits(List.of(), 0);
+		when(elasticsearchOperations.search(any(Query.class), eq(TranslationUnit.class))).thenReturn(searchHits);
 
-		List<String> codes = service.findSourceCodesByTermSubstring("diabetes");
+		service.pageUnitsInSet("set", "en-123", PageRequest.of(0, 25, ROWS_SORT), null, null, "Diab*", null);
 
-		assertThat(codes).containsExactly("100");
+		ArgumentCaptor<NativeQuery> captor = ArgumentCaptor.forClass(NativeQuery.class);
+		verify(elasticsearchOperations).search(captor.capture(), eq(TranslationUnit.class));
+		var wildcard = captor.getValue().getQuery().bool().filter().stream()
+				.filter(co.elastic.clients.elasticsearch._types.query_dsl.Query::isWildcard)
+				.findFirst().orElseThrow().wildcard();
+		assertThat(wildcard.field()).isEqualTo(TranslationUnit.Fields.ENGLISH_TERM_SEARCH);
+		assertThat(wildcard.value()).isEqualTo("*Diab\\**");
+		assertThat(wildcard.caseInsensitive()).isTrue();
 	}
 
 	@Test
@@ -135,7 +137,7 @@ class SnolateTranslationSearchServiceTest {
 
 	@Test
 	@SuppressWarnings("unchecked")
-	void findAcceptedContextUnitsBeforeOrder_returnsTwoMostRecentAccepted() {
+	void findAcceptedContextUnitsBeforeOrders_returnsTwoMostRecentAccepted() {
 		TranslationUnit contextA = unitWithTerms("100", 0);
 		contextA.setStatus(TranslationStatus.APPROVED);
 		TranslationUnit contextB = unitWithTerms("200", 1);
@@ -144,18 +146,47 @@ class SnolateTranslationSearchServiceTest {
 				mockUnitHit(contextB, List.of(1, 0, "200")),
 				mockUnitHit(contextA, List.of(0, 0, "100"))));
 
-		when(elasticsearchOperations.search(any(CriteriaQuery.class), eq(TranslationUnit.class))).thenReturn(searchHits);
+		when(elasticsearchOperations.multiSearch(any(), eq(TranslationUnit.class))).thenReturn(List.of(searchHits));
 
-		List<TranslationUnit> context = service.findAcceptedContextUnitsBeforeOrder("set", "en-123", 5);
+		Map<Integer, List<TranslationUnit>> context = service.findAcceptedContextUnitsBeforeOrders("set", "en-123", List.of(5));
 
-		assertThat(context).extracting(TranslationUnit::getCode).containsExactly("100", "200");
-		ArgumentCaptor<CriteriaQuery> captor = ArgumentCaptor.forClass(CriteriaQuery.class);
-		verify(elasticsearchOperations).search(captor.capture(), eq(TranslationUnit.class));
-		assertThat(captor.getValue().getPageable().getPageSize()).isEqualTo(2);
-		assertThat(captor.getValue().getPageable().getSort().getOrderFor(TranslationUnit.Fields.ORDER).getDirection())
+		assertThat(context.get(5)).extracting(TranslationUnit::getCode).containsExactly("100", "200");
+		ArgumentCaptor<List<CriteriaQuery>> captor = ArgumentCaptor.forClass(List.class);
+		verify(elasticsearchOperations).multiSearch(captor.capture(), eq(TranslationUnit.class));
+		CriteriaQuery query = captor.getValue().get(0);
+		assertThat(query.getPageable().getPageSize()).isEqualTo(2);
+		assertThat(query.getPageable().getSort().getOrderFor(TranslationUnit.Fields.ORDER).getDirection())
 				.isEqualTo(Sort.Direction.DESC);
 	}
 
+	@Test
+	@SuppressWarnings("unchecked")
+	void findAcceptedContextUnitsBeforeOrders_sendsOneMultiSearch() {
+		TranslationUnit contextA = unitWithTerms("100", 0);
+		TranslationUnit contextB = unitWithTerms("200", 1);
+		TranslationUnit contextBCopy = unitWithTerms("200", 1);
+		TranslationUnit contextC = unitWithTerms("300", 6);
+		SearchHits<TranslationUnit> beforeTwo = mockSkipSearchHits(List.of(
+				mockUnitHit(contextB, List.of(1, 0, "200")),
+				mockUnitHit(contextA, List.of(0, 0, "100"))));
+		SearchHits<TranslationUnit> beforeSeven = mockSkipSearchHits(List.of(
+				mockUnitHit(contextC, List.of(6, 0, "300")),
+				mockUnitHit(contextBCopy, List.of(1, 0, "200"))));
+		when(elasticsearchOperations.multiSearch(any(), eq(TranslationUnit.class))).thenReturn(List.of(beforeTwo, beforeSeven));
+
+		Map<Integer, List<TranslationUnit>> context = service.findAcceptedContextUnitsBeforeOrders("set", "en-123", List.of(0, 2, 7, 2));
+
+		assertThat(context).containsOnlyKeys(2, 7);
+		assertThat(context.get(2)).extracting(TranslationUnit::getCode).containsExactly("100", "200");
+		assertThat(context.get(7)).extracting(TranslationUnit::getCode).containsExactly("200", "300");
+		// Units in several context windows are only held once
+		assertThat(context.get(7).get(0)).isSameAs(context.get(2).get(1));
+		ArgumentCaptor<List<CriteriaQuery>> captor = ArgumentCaptor.forClass(List.class);
+		verify(elasticsearchOperations).multiSearch(captor.capture(), eq(TranslationUnit.class));
+		assertThat(captor.getValue()).hasSize(2);
+		verify(elasticsearchOperations, never()).search(any(Query.class), eq(TranslationUnit.class));
+	}
+
 	@Test
 	void pageUnitsInSet_throwsWhenEnglishCodesExceedSoftLimit() {
 		Pageable pageable = PageRequest.of(0, 25, Sort.by("statusSort", "order", "code"));
@@ -227,6 +258,67 @@ class SnolateTranslationSearchServiceTest {
 		assertThat(captor.getValue()).isNotNull();
 	}
 
+	@Test
+	@SuppressWarnings("unchecked")
+	void countInSubsetBatch_readsStatusCountsOfAllSetsFromOneAggregation() {
+		Aggregate setAggregate = Aggregate.of(a -> a.sterms(st -> st
+				.sumOtherDocCount(0L)
+				.buckets(b -> b.array(List.of(setBucket("set-a", 5, Map.of("APPROVED", 3L, "NOT_STARTED", 2L)))))));
+		SearchHits<TranslationUnit> searchHits = mock(SearchHits.class);
+		doReturn(new ElasticsearchAggregations(Map.of("sets", setAggregate))).when(searchHits).getAggregations();
+		when(elasticsearchOperations.search(any(NativeQuery.class), eq(TranslationUnit.class))).thenReturn(searchHits);
+
+		Map<String, Map<String, Long>> counts = service.countInSubsetBatch("en-100", List.of("set-a", "set-b")).statusCounts();
+
+		verify(elasticsearchOperations, times(1)).search(any(NativeQuery.class), eq(TranslationUnit.class));
+		assertThat(counts.get("set-a")).containsEntry("APPROVED", 3L).containsEntry("NOT_STARTED", 2L)
+				.hasSize(TranslationStatus.values().length);
+		assertThat(counts.get("set-b").values()).containsOnly(0L);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void countInSubsetBatch_readsTranslatedFilterCount() {
+		Aggregate setAggregate = Aggregate.of(a -> a.sterms(st -> st
+				.sumOtherDocCount(0L)
+				.buckets(b -> b.array(List.of(setBucket("set-a", 4, Map.of("APPROVED", 4L)))))));
+		SearchHits<TranslationUnit> searchHits = mock(SearchHits.class);
+		doReturn(new ElasticsearchAggregations(Map.of("sets", setAggregate))).when(searchHits).getAggregations();
+		when(elasticsearchOperations.search(any(NativeQuery.class), eq(TranslationUnit.class))).thenReturn(searchHits);
+
+		Map<String, Long> translated = service.countInSubsetBatch("en-100", List.of("set-a", "set-b")).translated();
+
+		assertThat(translated).containsOnly(entry("set-a", 4L), entry("set-b", 0L));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void countInSubsetBatch_readsBothCountsFromOneAggregation() {
+		Aggregate setAggregate = Aggregate.of(a -> a.sterms(st -> st
+				.sumOtherDocCount(0L)
+				.buckets(b -> b.array(List.of(setBucket("set-a", 2, Map.of("FOR_REVIEW", 2L, "NOT_STARTED", 1L)))))));
+		SearchHits<TranslationUnit> searchHits = mock(SearchHits.class);
+		doReturn(new ElasticsearchAggregations(Map.of("sets", setAggregate))).when(searchHits).getAggregations();
+		when(elasticsearchOperations.search(any(NativeQuery.class), eq(TranslationUnit.class))).thenReturn(searchHits);
+
+		SnolateTranslationSearchService.SubsetCounts counts = service.countInSubsetBatch("en-100", List.of("set-a"));
+
+		verify(elasticsearchOperations, times(1)).search(any(NativeQuery.class), eq(TranslationUnit.class));
+		assertThat(counts.translated()).containsOnly(entry("set-a", 2L));
+		assertThat(counts.statusCounts().get("set-a")).containsEntry("FOR_REVIEW", 2L).containsEntry("NOT_STARTED", 1L);
+	}
+
+	private static StringTermsBucket setBucket(String setCode, long translated, Map<String, Long> statusCounts) {
+		List<StringTermsBucket> statusBuckets = statusCounts.entrySet().stream()
+				.map(e -> StringTermsBucket.of(sb -> sb.key(FieldValue.of(e.getKey())).docCount(e.getValue())))
+				.toList();
+		Aggregate statuses = Aggregate.of(a -> a.sterms(st -> st.sumOtherDocCount(0L).buckets(b -> b.array(statusBuckets))));
+		Aggregate translatedFilter = Aggregate.of(a -> a.filter(f -> f.docCount(translated)));
+		long total = statusCounts.values().stream().mapToLong(Long::longValue).sum();
+		return StringTermsBucket.of(sb -> sb.key(FieldValue.of(setCode)).docCount(total)
+				.aggregations(Map.of("statuses", statuses, "translated", translatedFilter)));
+	}
+
 	@Test
 	@SuppressWarnings("unchecked")
 	void pageUnitsInSet_usesOffsetPaginationWithinResultWindow() throws ServiceExceptionWithStatusCode {
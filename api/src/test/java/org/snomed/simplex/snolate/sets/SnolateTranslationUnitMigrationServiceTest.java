@@ -1,13 +1,19 @@
 package org.snomed.simplex.snolate.sets;
 
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import org.elasticsearch.client.RestClient;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Answers;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.RefreshPolicy;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
 import org.snomed.simplex.rest.pojos.RepairTranslationUnitIdsResponse;
 import org.snomed.simplex.snolate.domain.TranslationSource;
 import org.snomed.simplex.snolate.domain.TranslationStatus;
@@ -23,6 +29,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -40,12 +47,17 @@ class SnolateTranslationUnitMigrationServiceTest {
 	@Mock
 	private SnolateTranslationSourceRepository translationSourceRepository;
 
+	private ElasticsearchOperations bulkOperations;
 	private SnolateTranslationUnitMigrationService service;
 
 	@BeforeEach
 	void setUp() {
+		ElasticsearchOperations elasticsearchOperations = mock(ElasticsearchOperations.class, Answers.RETURNS_DEEP_STUBS);
+		bulkOperations = mock(ElasticsearchOperations.class);
+		when(elasticsearchOperations.withRefreshPolicy(RefreshPolicy.NONE)).thenReturn(bulkOperations);
 		service = new SnolateTranslationUnitMigrationService(snolateSetRepository, translationSearchService,
-				translationUnitRepository, translationSourceRepository);
+				translationUnitRepository, translationSourceRepository, new SnolateBulkIngestService(
+						elasticsearchOperations, mock(ElasticsearchClient.class, Answers.RETURNS_DEEP_STUBS), mock(RestClient.class), "30s", 2));
 	}
 
 	@Test
@@ -92,7 +104,7 @@ class SnolateTranslationUnitMigrationServiceTest {
 		assertThat(response.orphansDeleted()).isEqualTo(2);
 
 		ArgumentCaptor<Iterable<TranslationUnit>> saveCaptor = ArgumentCaptor.forClass(Iterable.class);
-		verify(translationUnitRepository).saveAll(saveCaptor.capture());
+		verify(bulkOperations).save(saveCaptor.capture(), any(IndexCoordinates.class));
 		TranslationUnit saved = saveCaptor.getValue().iterator().next();
 		assertThat(saved.getId()).isEqualTo("nl-31000172101_63161005");
 		assertThat(saved.getMemberOf()).contains(set.getCompositeSetCode());
@@ -2,19 +2,21 @@ package org.snomed.simplex.snolate.sets;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.snomed.simplex.snolate.domain.TranslationSource;
 import org.snomed.simplex.snolate.domain.TranslationStatus;
 import org.snomed.simplex.snolate.domain.TranslationUnit;
 
+import java.util.HashMap;
 import java.util.List;
-import java.util.function.Consumer;
+import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -27,12 +29,10 @@ class TranslationUnitOrderSyncTest {
 	@Mock
 	private SnolateTranslationSourceRepository translationSourceRepository;
 
-	@Mock
-	private SnolateTranslationUnitStore translationUnitStore;
-
 	@Test
 	void applyIfChanged_noOpWhenEqual() {
 		TranslationUnit unit = unit("100", 5);
+		unit.setEnglishTerm("Asthma");
 		TranslationSource source = new TranslationSource("100", "Asthma", 5);
 
 		assertThat(TranslationUnitOrderSync.applyIfChanged(unit, source)).isFalse();
@@ -46,11 +46,23 @@ class TranslationUnitOrderSyncTest {
 
 		assertThat(TranslationUnitOrderSync.applyIfChanged(unit, source)).isTrue();
 		assertThat(unit.getOrder()).isEqualTo(42);
+		assertThat(unit.getEnglishTerm()).isEqualTo("Asthma");
+	}
+
+	@Test
+	void applyIfChanged_updatesWhenEnglishTermDifferent() {
+		TranslationUnit unit = unit("100", 5);
+		unit.setEnglishTerm("Asthma");
+		TranslationSource source = new TranslationSource("100", "Asthma (disorder)", 5);
+
+		assertThat(TranslationUnitOrderSync.applyIfChanged(unit, source)).isTrue();
+		assertThat(unit.getEnglishTerm()).isEqualTo("Asthma (disorder)");
 	}
 
 	@Test
 	void syncBatch_returnsOnlyChangedUnits() {
 		TranslationUnit unchanged = unit("100", 1);
+		unchanged.setEnglishTerm("One");
 		TranslationUnit changed = unit("200", 0);
 		when(translationSourceRepository.findAllById(any())).thenReturn(List.of(
 				new TranslationSource("100", "One", 1),
@@ -64,40 +76,49 @@ class TranslationUnitOrderSyncTest {
 	}
 
 	@Test
-	void syncAllUnits_savesChangedUnitsInBatches() {
-		TranslationUnit stale = unit("100", 0);
-		doAnswer(invocation -> {
-			Consumer<TranslationUnit> consumer = invocation.getArgument(0);
-			consumer.accept(stale);
-			return null;
-		}).when(translationSearchService).forEachTranslationUnit(any());
-		when(translationSourceRepository.findAllById(List.of("100")))
-				.thenReturn(List.of(new TranslationSource("100", "Asthma", 99)));
-
-		int updated = TranslationUnitOrderSync.syncAllUnits(translationSearchService, translationSourceRepository,
-				translationUnitStore);
-
-		assertThat(updated).isEqualTo(1);
-		assertThat(stale.getOrder()).isEqualTo(99);
-		verify(translationUnitStore).saveAll(List.of(stale));
+	void syncChangedUnits_updatesOnlyChangedCodesInChunks() {
+		Map<String, Integer> orderByCode = new HashMap<>();
+		for (int i = 0; i < 1_500; i++) {
+			orderByCode.put(Integer.toString(i), i);
+		}
+		when(translationSearchService.updateUnitsFromSources(any(), any())).thenReturn(update(10), update(5));
+
+		long updated = TranslationUnitOrderSync.syncChangedUnits(orderByCode, Map.of(), translationSearchService);
+
+		assertThat(updated).isEqualTo(15);
+		ArgumentCaptor<Map<String, Integer>> chunks = ArgumentCaptor.forClass(Map.class);
+		verify(translationSearchService, times(2)).updateUnitsFromSources(chunks.capture(), any());
+		assertThat(chunks.getAllValues()).extracting(Map::size).containsExactly(1_000, 500);
+	}
+
+	@Test
+	void syncChangedUnits_includesCodesWhoseTermChanged() {
+		when(translationSearchService.updateUnitsFromSources(any(), any())).thenReturn(update(2));
+
+		long updated = TranslationUnitOrderSync.syncChangedUnits(Map.of("100", 3), Map.of("100", "Asthma", "200", "Fever"),
+				translationSearchService);
+
+		assertThat(updated).isEqualTo(2);
+		verify(translationSearchService).updateUnitsFromSources(Map.of("100", 3), Map.of("100", "Asthma", "200", "Fever"));
 	}
 
 	@Test
-	void syncAllUnits_skipsSaveWhenNothingChanged() {
-		TranslationUnit current = unit("100", 7);
-		doAnswer(invocation -> {
-			Consumer<TranslationUnit> consumer = invocation.getArgument(0);
-			consumer.accept(current);
-			return null;
-		}).when(translationSearchService).forEachTranslationUnit(any());
-		when(translationSourceRepository.findAllById(List.of("100")))
-				.thenReturn(List.of(new TranslationSource("100", "Asthma", 7)));
-
-		int updated = TranslationUnitOrderSync.syncAllUnits(translationSearchService, translationSourceRepository,
-				translationUnitStore);
+	void syncChangedUnits_noOpWhenNoOrderChanged() {
+		long updated = TranslationUnitOrderSync.syncChangedUnits(Map.of(), Map.of(), translationSearchService);
 
 		assertThat(updated).isZero();
-		verify(translationUnitStore, never()).saveAll(any());
+		verify(translationSearchService, never()).updateUnitsFromSources(any(), any());
+	}
+
+	@Test
+	void syncChangedUnits_retriesChunkWithVersionConflicts() {
+		when(translationSearchService.updateUnitsFromSources(Map.of("100", 7, "101", 8), Map.of()))
+				.thenReturn(new SnolateTranslationSearchService.UnitUpdate(1, 1), update(1));
+
+		long updated = TranslationUnitOrderSync.syncChangedUnits(Map.of("100", 7, "101", 8), Map.of(), translationSearchService);
+
+		assertThat(updated).isEqualTo(2);
+		verify(translationSearchService, times(2)).updateUnitsFromSources(Map.of("100", 7, "101", 8), Map.of());
 	}
 
 	private static TranslationUnit unit(String code, int order) {
@@ -105,4 +126,8 @@ class TranslationUnitOrderSyncTest {
 		unit.setOrder(order);
 		return unit;
 	}
+
+	private static SnolateTranslationSearchService.UnitUpdate update(long updated) {
+		return new SnolateTranslationSearchService.UnitUpdate(updated, 0);
+	}
 }
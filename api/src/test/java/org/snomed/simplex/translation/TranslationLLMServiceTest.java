@@ -33,12 +33,15 @@ class TranslationLLMServiceTest {
 	@Mock
 	private LanguagePolicyPromptFormatter mockPolicyFormatter;
 
+	@Mock
+	private TranslationSuggestionCache mockSuggestionCache;
+
 	private TranslationLLMService translationLLMService;
 	private SnolateTranslationSet mockTranslationSet;
 
 	@BeforeEach
 	void setUp() {
-		translationLLMService = new TranslationLLMService(mockLLMService, mockPolicyService, mockPolicyFormatter);
+		translationLLMService = new TranslationLLMService(mockLLMService, mockPolicyService, mockPolicyFormatter, mockSuggestionCache);
 		mockTranslationSet = mock(SnolateTranslationSet.class);
 	}
 
@@ -190,6 +193,78 @@ class TranslationLLMServiceTest {
 				request.contains("do not return translations for those lines")), eq(false), eq(new LlmCallContext("SNOMEDCT-ES", 2)));
 	}
 
+	@Test
+	void testSuggestTranslations_servesCachedTermsWithoutModel() throws Exception {
+		when(mockTranslationSet.getCodesystem()).thenReturn("SNOMEDCT-ES");
+		when(mockTranslationSet.getRefset()).thenReturn("450828004");
+		when(mockTranslationSet.getAiGoldenSet()).thenReturn(Map.of());
+
+		LanguageTranslationPolicy policy = policyWithLanguageDialectName("Spanish");
+		when(mockPolicyService.findByCodeSystemAndRefset("SNOMEDCT-ES", "450828004")).thenReturn(Optional.of(policy));
+		when(mockPolicyFormatter.format(policy)).thenReturn("");
+		when(mockLLMService.getModelName(false)).thenReturn("gpt-test");
+		TranslationSuggestionCache.Scope scope = TranslationSuggestionCache.scope("Spanish", "", "", "gpt-test", false);
+		when(mockSuggestionCache.getAll(scope, List.of("Heart attack", "Fever"))).thenReturn(Map.of("Fever", List.of("Fiebre")));
+		when(mockLLMService.chat(anyString(), eq(false), any(LlmCallContext.class))).thenReturn("1|Ataque al corazón");
+
+		Map<String, List<String>> result = translationLLMService.suggestTranslations(
+				mockTranslationSet, List.of("Heart attack", "Fever"), false, false);
+
+		assertEquals(List.of("Heart attack", "Fever"), List.copyOf(result.keySet()));
+		assertEquals(List.of("Fiebre"), result.get("Fever"));
+		verify(mockLLMService).chat(argThat(r -> r.contains("1|Heart attack") && !r.contains("Fever")),
+				eq(false), eq(new LlmCallContext("SNOMEDCT-ES", 1)));
+		verify(mockLLMService).recordCacheHits(false, new LlmCallContext("SNOMEDCT-ES", 1));
+		verify(mockSuggestionCache).putAll(scope, Map.of("Heart attack", List.of("Ataque al corazón")));
+	}
+
+	@Test
+	void testSuggestTranslations_allCachedSkipsModel() throws Exception {
+		when(mockTranslationSet.getCodesystem()).thenReturn("SNOMEDCT-ES");
+		when(mockTranslationSet.getRefset()).thenReturn("450828004");
+		when(mockTranslationSet.getAiGoldenSet()).thenReturn(Map.of());
+
+		LanguageTranslationPolicy policy = policyWithLanguageDialectName("Spanish");
+		when(mockPolicyService.findByCodeSystemAndRefset("SNOMEDCT-ES", "450828004")).thenReturn(Optional.of(policy));
+		when(mockPolicyFormatter.format(policy)).thenReturn("");
+		when(mockSuggestionCache.getAll(any(), eq(List.of("Fever")))).thenReturn(Map.of("Fever", List.of("Fiebre", "Calentura")));
+
+		Map<String, List<String>> result = translationLLMService.suggestTranslations(mockTranslationSet, List.of("Fever"), true, true);
+
+		assertEquals(Map.of("Fever", List.of("Fiebre", "Calentura")), result);
+		verify(mockLLMService, never()).chat(anyString(), anyBoolean(), any());
+		verify(mockLLMService).recordCacheHits(true, new LlmCallContext("SNOMEDCT-ES", 1));
+	}
+
+	@Test
+	void testSuggestBatchTranslations_showsCachedTermsAsContext() throws Exception {
+		when(mockTranslationSet.getCodesystem()).thenReturn("SNOMEDCT-ES");
+		when(mockTranslationSet.getRefset()).thenReturn("450828004");
+		when(mockTranslationSet.getAiGoldenSet()).thenReturn(Map.of());
+
+		LanguageTranslationPolicy policy = policyWithLanguageDialectName("Spanish");
+		when(mockPolicyService.findByCodeSystemAndRefset("SNOMEDCT-ES", "450828004")).thenReturn(Optional.of(policy));
+		when(mockPolicyFormatter.format(policy)).thenReturn("");
+
+		BatchTranslationPrompt prompt = BatchTranslationPrompt.builder()
+				.addContextLine("Asthma", "Asma")
+				.addTranslateLine("Heart failure")
+				.addTranslateLine("Pneumonia")
+				.build();
+		when(mockSuggestionCache.getAll(any(), any())).thenReturn(Map.of("Heart failure", List.of("Insuficiencia cardíaca")));
+		when(mockLLMService.chat(anyString(), eq(false), any(LlmCallContext.class))).thenReturn("3|Neumonía");
+
+		Map<String, List<String>> result = translationLLMService.suggestBatchTranslations(mockTranslationSet, prompt);
+
+		assertEquals(List.of("Insuficiencia cardíaca"), result.get("Heart failure"));
+		assertEquals(List.of("Neumonía"), result.get("Pneumonia"));
+		verify(mockLLMService).chat(argThat(request ->
+				request.contains("1|Asthma → Asma") &&
+				request.contains("2|Heart failure → Insuficiencia cardíaca") &&
+				request.contains("3|Pneumonia")), eq(false), eq(new LlmCallContext("SNOMEDCT-ES", 1)));
+		verify(mockLLMService).recordCacheHits(false, new LlmCallContext("SNOMEDCT-ES", 1));
+	}
+
 	private static LanguageTranslationPolicy policyWithLanguageDialectName(String languageDialectName) {
 		LanguageTranslationPolicy policy = new LanguageTranslationPolicy();
 		policy.setLanguageDialectName(languageDialectName);
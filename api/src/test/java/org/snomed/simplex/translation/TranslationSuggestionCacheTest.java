@@ -0,0 +1,95 @@
+package org.snomed.simplex.translation;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.snomed.simplex.service.TranslationSuggestionCacheRepository;
+import org.snomed.simplex.translation.domain.TranslationSuggestionCacheEntry;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TranslationSuggestionCacheTest {
+
+	private static final TranslationSuggestionCache.Scope SPANISH = TranslationSuggestionCache.scope("Spanish", "policy", "1|Asthma → asma", "gpt-good", false);
+
+	@Mock
+	private TranslationSuggestionCacheRepository repository;
+
+	private TranslationSuggestionCache cache;
+
+	@BeforeEach
+	void setUp() {
+		cache = new TranslationSuggestionCache(repository, true, 100);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void putAll_storesTranslatedTermsOnly() {
+		cache.putAll(SPANISH, Map.of("Fever", List.of("Fiebre"), "Unknown", List.of()));
+
+		ArgumentCaptor<Collection<TranslationSuggestionCacheEntry>> captor = ArgumentCaptor.forClass(Collection.class);
+		verify(repository).saveAll(captor.capture());
+		assertThat(captor.getValue()).singleElement().satisfies(entry -> {
+			assertThat(entry.getTerm()).isEqualTo("Fever");
+			assertThat(entry.getSuggestions()).containsExactly("Fiebre");
+			assertThat(entry.getTargetLanguage()).isEqualTo("Spanish");
+		});
+	}
+
+	@Test
+	void getAll_servesRecentEntriesFromMemory() {
+		cache.putAll(SPANISH, Map.of("Heart  failure", List.of("Insuficiencia cardíaca")));
+
+		// Whitespace is normalised in the key
+		assertThat(cache.getAll(SPANISH, List.of(" Heart failure"))).containsEntry(" Heart failure", List.of("Insuficiencia cardíaca"));
+		verify(repository, never()).findAllById(any());
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void getAll_loadsMissesFromIndexInOneRequest() {
+		cache.putAll(SPANISH, Map.of("Fever", List.of("Fiebre")));
+		ArgumentCaptor<Collection<TranslationSuggestionCacheEntry>> captor = ArgumentCaptor.forClass(Collection.class);
+		verify(repository).saveAll(captor.capture());
+		TranslationSuggestionCacheEntry storedEntry = captor.getValue().iterator().next();
+		when(repository.findAllById(any())).thenReturn(List.of(storedEntry));
+
+		// Another instance, as on a different node or after a restart
+		TranslationSuggestionCache other = new TranslationSuggestionCache(repository, true, 100);
+		Map<String, List<String>> found = other.getAll(SPANISH, List.of("Fever", "Cough"));
+
+		assertThat(found).containsOnly(Map.entry("Fever", List.of("Fiebre")));
+		ArgumentCaptor<Iterable<String>> idCaptor = ArgumentCaptor.forClass(Iterable.class);
+		verify(repository).findAllById(idCaptor.capture());
+		assertThat(idCaptor.getValue()).hasSize(2);
+		// Now held in memory
+		assertThat(other.getAll(SPANISH, List.of("Fever"))).containsKey("Fever");
+		verify(repository, times(1)).findAllById(any());
+	}
+
+	@Test
+	void scope_changesWithPolicyGoldenSetAndModel() {
+		assertThat(TranslationSuggestionCache.scope("Spanish", "other policy", "1|Asthma → asma", "gpt-good", false)).isNotEqualTo(SPANISH);
+		assertThat(TranslationSuggestionCache.scope("Spanish", "policy", "", "gpt-good", false)).isNotEqualTo(SPANISH);
+		assertThat(TranslationSuggestionCache.scope("Spanish", "policy", "1|Asthma → asma", "gpt-fast", false)).isNotEqualTo(SPANISH);
+		assertThat(TranslationSuggestionCache.scope("Spanish", "policy", "1|Asthma → asma", "gpt-good", true)).isNotEqualTo(SPANISH);
+		assertThat(TranslationSuggestionCache.scope("Spanish", "policy", "1|Asthma → asma", "gpt-good", false)).isEqualTo(SPANISH);
+	}
+
+	@Test
+	void getAll_treatsIndexFailureAsMiss() {
+		when(repository.findAllById(any())).thenThrow(new IllegalStateException("index unavailable"));
+
+		assertThat(cache.getAll(SPANISH, List.of("Fever"))).isEmpty();
+	}
+}
@@ -0,0 +1,82 @@
+package org.snomed.simplex.translation.service.repository;
+
+import org.junit.jupiter.api.Test;
+import org.snomed.simplex.translation.domain.TranslationState;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TranslationStateSnapshotFormatTest {
+
+	@Test
+	void writeAndRead_roundTripsTermsInOrder() throws IOException {
+		TranslationState state = new TranslationState();
+		state.getConceptTerms().put(404684003L, new ArrayList<>(List.of("Klinischer Befund", "Befund")));
+		state.getConceptTerms().put(138875005L, new ArrayList<>(List.of("SNOMED CT-Konzept")));
+		state.getConceptTerms().put(22298006L, new ArrayList<>(List.of("Myokardinfarkt", "Herzinfarkt", "Herzmuskelinfarkt")));
+		state.getConceptTerms().put(900000000000441003L, new ArrayList<>());
+
+		TranslationState read = roundTrip(state);
+
+		assertThat(read.getConceptTerms()).isEqualTo(state.getConceptTerms());
+		assertThat(read.getConceptTerms().get(22298006L)).containsExactly("Myokardinfarkt", "Herzinfarkt", "Herzmuskelinfarkt");
+	}
+
+	@Test
+	void writeAndRead_keepsNonAsciiAndLongTerms() throws IOException {
+		String longTerm = "Ä".repeat(1_000);
+		TranslationState state = new TranslationState();
+		state.getConceptTerms().put(1L, new ArrayList<>(List.of("infarto agudo de miocardio", "心筋梗塞", longTerm)));
+
+		assertThat(roundTrip(state).getConceptTerms().get(1L)).containsExactly("infarto agudo de miocardio", "心筋梗塞", longTerm);
+	}
+
+	@Test
+	void write_isSmallerThanTsv() throws IOException {
+		TranslationState state = new TranslationState();
+		StringBuilder tsv = new StringBuilder();
+		for (long conceptId = 100_000_000L; conceptId < 100_020_000L; conceptId++) {
+			List<String> terms = List.of("Term for concept " + conceptId, "Synonym for concept " + conceptId);
+			state.getConceptTerms().put(conceptId, new ArrayList<>(terms));
+			tsv.append(conceptId).append('\t').append(String.join("\t", terms)).append('\n');
+		}
+
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		TranslationStateSnapshotFormat.write(state, outputStream);
+
+		assertThat(outputStream.size()).isLessThan(tsv.toString().getBytes(StandardCharsets.UTF_8).length / 2);
+	}
+
+	@Test
+	void read_rejectsLegacyTsv() {
+		byte[] tsv = "404684003\tClinical finding\n".getBytes(StandardCharsets.UTF_8);
+
+		assertThatThrownBy(() -> TranslationStateSnapshotFormat.read(new ByteArrayInputStream(tsv)))
+				.isInstanceOf(IOException.class)
+				.hasMessage("Not a translation state snapshot.");
+	}
+
+	@Test
+	void readFromTsvStream_readsLegacySnapshot() throws IOException {
+		byte[] tsv = "404684003\tClinical finding\tFinding\n138875005\tSNOMED CT Concept\n".getBytes(StandardCharsets.UTF_8);
+
+		Map<Long, List<String>> conceptTerms = TranslationStateRepository.readFromTsvStream(new ByteArrayInputStream(tsv)).getConceptTerms();
+
+		assertThat(conceptTerms).containsOnlyKeys(404684003L, 138875005L);
+		assertThat(conceptTerms.get(404684003L)).containsExactly("Clinical finding", "Finding");
+	}
+
+	private static TranslationState roundTrip(TranslationState state) throws IOException {
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		TranslationStateSnapshotFormat.write(state, outputStream);
+		return TranslationStateSnapshotFormat.read(new ByteArrayInputStream(outputStream.toByteArray()));
+	}
+}